@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 Leon Linhart
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+plugins {
+    id("com.osmerion.java-base-conventions")
+    java
+    alias(buildDeps.plugins.jmh)
+}
+
+/*
+ * Generates a large number of records that are used to measure the startup cost of the generated builders. The same
+ * records are generated once per code generation strategy into a separate source set, so that each set can be compiled
+ * with a different processor configuration.
+ */
+abstract class GenerateStartupFixtures : DefaultTask() {
+
+    @get:Input
+    abstract val packageName: Property<String>
+
+    @get:Input
+    abstract val recordCount: Property<Int>
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val packageName = packageName.get()
+        val recordCount = recordCount.get()
+
+        val packageDir = outputDirectory.get().asFile.resolve(packageName.replace('.', '/'))
+        packageDir.deleteRecursively()
+        packageDir.mkdirs()
+
+        for (i in 0 until recordCount) {
+            packageDir.resolve("Record$i.java").writeText(
+                """
+                package $packageName;
+
+                import com.osmerion.atbuilder.Builder;
+                import com.osmerion.omittable.Omittable;
+
+                @Builder
+                public record Record$i(String name, int count, long id, Object payload, Omittable<String> note) {}
+                """.trimIndent()
+            )
+        }
+
+        // Split the calls into chunks to stay well below the method size limit.
+        val chunkSize = 250
+        val chunks = (0 until recordCount).chunked(chunkSize)
+
+        packageDir.resolve("Fixtures.java").writeText(buildString {
+            appendLine("package $packageName;")
+            appendLine()
+            appendLine("public final class Fixtures {")
+            appendLine()
+            appendLine("    public static final int RECORD_COUNT = $recordCount;")
+            appendLine()
+            appendLine("    public static int buildAll() {")
+            appendLine("        int hash = 0;")
+            chunks.indices.forEach { appendLine("        hash += buildChunk$it();") }
+            appendLine("        return hash;")
+            appendLine("    }")
+
+            chunks.forEachIndexed { chunkIndex, chunk ->
+                appendLine()
+                appendLine("    private static int buildChunk$chunkIndex() {")
+                appendLine("        int hash = 0;")
+                chunk.forEach { appendLine("        hash += new Record${it}Builder().name(\"name\").count($it).id(${it}L).payload(\"payload\").build().hashCode();") }
+                appendLine("        return hash;")
+                appendLine("    }")
+            }
+
+            appendLine()
+            appendLine("    private Fixtures() {}")
+            appendLine()
+            appendLine("}")
+        })
+    }
+
+}
+
+/*
+ * Generates records with many components that are used to compare the throughput of the builders generated by the
+ * "default" and "wide" strategies. Each record is paired with a fixture class that fills in all components, so that
+ * the benchmark can select a fixture without paying for reflection.
+ */
+abstract class GenerateWideRecordFixtures : DefaultTask() {
+
+    @get:Input
+    abstract val packageName: Property<String>
+
+    @get:Input
+    abstract val widths: ListProperty<Int>
+
+    @get:Input
+    abstract val strategies: ListProperty<String>
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val packageName = packageName.get()
+
+        val packageDir = outputDirectory.get().asFile.resolve(packageName.replace('.', '/'))
+        packageDir.deleteRecursively()
+        packageDir.mkdirs()
+
+        fun type(index: Int) = when (index % 3) {
+            0 -> "int"
+            1 -> "String"
+            else -> "long"
+        }
+
+        fun value(index: Int) = when (index % 3) {
+            0 -> "$index"
+            1 -> "\"$index\""
+            else -> "${index}L"
+        }
+
+        packageDir.resolve("WideFixture.java").writeText(
+            """
+            package $packageName;
+
+            public interface WideFixture {
+
+                Record build();
+
+                Record copy(Record base);
+
+            }
+            """.trimIndent()
+        )
+
+        val fixtureNames = mutableListOf<Pair<String, String>>()
+
+        for (width in widths.get()) {
+            for (strategy in strategies.get()) {
+                val recordName = "Wide$width${strategy.replaceFirstChar(Char::uppercaseChar)}"
+                fixtureNames += "$strategy:$width" to recordName
+
+                packageDir.resolve("$recordName.java").writeText(buildString {
+                    appendLine("package $packageName;")
+                    appendLine()
+                    appendLine("import com.osmerion.atbuilder.Builder;")
+                    appendLine()
+                    appendLine("@Builder(strategy = \"$strategy\")")
+                    appendLine("public record $recordName(")
+                    appendLine((0 until width).joinToString(",\n") { "    ${type(it)} c$it" })
+                    appendLine(") {}")
+                })
+
+                packageDir.resolve("${recordName}Fixture.java").writeText(buildString {
+                    appendLine("package $packageName;")
+                    appendLine()
+                    appendLine("final class ${recordName}Fixture implements WideFixture {")
+                    appendLine()
+                    appendLine("    @Override")
+                    appendLine("    public Record build() {")
+                    appendLine("        return new ${recordName}Builder()")
+                    (0 until width).forEach { appendLine("            .c$it(${value(it)})") }
+                    appendLine("            .build();")
+                    appendLine("    }")
+                    appendLine()
+                    appendLine("    @Override")
+                    appendLine("    public Record copy(Record base) {")
+                    appendLine("        return new ${recordName}Builder(($recordName) base).c0(${value(0)}).build();")
+                    appendLine("    }")
+                    appendLine()
+                    appendLine("}")
+                })
+            }
+        }
+
+        packageDir.resolve("WideFixtures.java").writeText(buildString {
+            appendLine("package $packageName;")
+            appendLine()
+            appendLine("public final class WideFixtures {")
+            appendLine()
+            appendLine("    public static WideFixture get(String strategy, int width) {")
+            appendLine("        return switch (strategy + \":\" + width) {")
+            fixtureNames.forEach { (key, recordName) -> appendLine("            case \"$key\" -> new ${recordName}Fixture();") }
+            appendLine("            default -> throw new IllegalArgumentException(\"No fixture for \" + strategy + \" with \" + width + \" components\");")
+            appendLine("        };")
+            appendLine("    }")
+            appendLine()
+            appendLine("    private WideFixtures() {}")
+            appendLine()
+            appendLine("}")
+        })
+    }
+
+}
+
+val startupFixtureCount = 2000
+
+val startupFixtureStrategies = listOf("default", "startup", "shared")
+
+startupFixtureStrategies.forEach { strategy ->
+    val generateFixtures = tasks.register<GenerateStartupFixtures>("generate${strategy.replaceFirstChar(Char::uppercaseChar)}StartupFixtures") {
+        packageName = "com.osmerion.atbuilder.benchmarks.fixtures.${strategy}strategy"
+        recordCount = startupFixtureCount
+        outputDirectory = layout.buildDirectory.dir("generated/sources/startupFixtures/$strategy")
+    }
+
+    val sourceSet = sourceSets.create("${strategy}StartupFixtures") {
+        java.srcDir(generateFixtures)
+    }
+
+    dependencies {
+        sourceSet.implementationConfigurationName(projects.runtime)
+        sourceSet.annotationProcessorConfigurationName(projects.processor)
+
+        jmhImplementation(sourceSet.output)
+    }
+
+    tasks.named<JavaCompile>(sourceSet.compileJavaTaskName) {
+        options.compilerArgs.add("-Aatbuilder.strategy=$strategy")
+    }
+}
+
+val generateWideRecordFixtures = tasks.register<GenerateWideRecordFixtures>("generateWideRecordFixtures") {
+    packageName = "com.osmerion.atbuilder.benchmarks.fixtures.wide"
+    widths = listOf(64, 128, 250)
+    strategies = listOf("default", "wide", "shared")
+    outputDirectory = layout.buildDirectory.dir("generated/sources/wideRecordFixtures")
+}
+
+sourceSets.named("jmh") {
+    java.srcDir(generateWideRecordFixtures)
+}
+
+dependencies {
+    jmhImplementation(projects.runtime)
+    jmhAnnotationProcessor(projects.processor)
+}
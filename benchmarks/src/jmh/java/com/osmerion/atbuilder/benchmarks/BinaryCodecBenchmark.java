@@ -0,0 +1,108 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link com.osmerion.atbuilder.Builder.Feature#BINARY_CODEC generated binary codec} with Java
+ * serialization using {@link ObjectOutputStream} and {@link ObjectInputStream}.
+ *
+ * <pre>{@code
+ * ./gradlew :benchmarks:jmhJar
+ * java -jar benchmarks/build/libs/benchmarks-<version>-jmh.jar BinaryCodecBenchmark
+ * }</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BinaryCodecBenchmark {
+
+    private final Order order = new Order(123_456L, "Alice", 3, 19.99, Order.Status.SHIPPED, null);
+
+    private ByteBuffer buffer;
+    private byte[] codecBytes;
+    private byte[] serializedBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        this.buffer = ByteBuffer.allocate(256);
+
+        ByteArrayOutputStream codecBytes = new ByteArrayOutputStream();
+        OrderCodec.write(this.order, new DataOutputStream(codecBytes));
+        this.codecBytes = codecBytes.toByteArray();
+
+        ByteArrayOutputStream serializedBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serializedBytes)) {
+            out.writeObject(this.order);
+        }
+        this.serializedBytes = serializedBytes.toByteArray();
+    }
+
+    /**
+     * Writes the record to a reused heap buffer using the generated codec.
+     */
+    @Benchmark
+    public int codecWriteBuffer() {
+        this.buffer.clear();
+        OrderCodec.write(this.order, this.buffer);
+
+        return this.buffer.position();
+    }
+
+    /**
+     * Reads the record from a heap buffer using the generated codec.
+     */
+    @Benchmark
+    public Order codecReadBuffer() {
+        return OrderCodec.read(ByteBuffer.wrap(this.codecBytes));
+    }
+
+    /**
+     * Writes the record to a new byte array using the generated codec and a {@link DataOutputStream}.
+     */
+    @Benchmark
+    public byte[] codecWriteStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        OrderCodec.write(this.order, new DataOutputStream(bytes));
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the record from a byte array using the generated codec and a {@link DataInputStream}.
+     */
+    @Benchmark
+    public Order codecReadStream() throws IOException {
+        return OrderCodec.read(new DataInputStream(new ByteArrayInputStream(this.codecBytes)));
+    }
+
+    /**
+     * Writes the record to a new byte array using Java serialization.
+     */
+    @Benchmark
+    public byte[] serializationWrite() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(this.order);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the record from a byte array using Java serialization.
+     */
+    @Benchmark
+    public Order serializationRead() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.serializedBytes))) {
+            return (Order) in.readObject();
+        }
+    }
+
+}
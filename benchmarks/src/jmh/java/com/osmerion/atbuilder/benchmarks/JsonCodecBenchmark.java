@@ -0,0 +1,67 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link com.osmerion.atbuilder.Builder.Feature#JSON generated JSON codec} with a reflection-based binder.
+ *
+ * <pre>{@code
+ * ./gradlew :benchmarks:jmhJar
+ * java -jar benchmarks/build/libs/benchmarks-<version>-jmh.jar JsonCodecBenchmark
+ * }</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class JsonCodecBenchmark {
+
+    private final Order order = new Order(123_456L, "Alice", 3, 19.99, Order.Status.SHIPPED, null);
+
+    private ReflectiveJsonBinder<Order> binder;
+    private String json;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.binder = new ReflectiveJsonBinder<>(Order.class);
+        this.json = OrderJson.toJson(this.order);
+    }
+
+    /**
+     * Writes the record using the generated codec.
+     */
+    @Benchmark
+    public String generatedWrite() {
+        return OrderJson.toJson(this.order);
+    }
+
+    /**
+     * Parses the record using the generated codec.
+     */
+    @Benchmark
+    public Order generatedRead() {
+        return OrderJson.fromJson(this.json);
+    }
+
+    /**
+     * Writes the record using the reflection-based binder.
+     */
+    @Benchmark
+    public String reflectiveWrite() throws IOException, ReflectiveOperationException {
+        return this.binder.toJson(this.order);
+    }
+
+    /**
+     * Parses the record using the reflection-based binder.
+     */
+    @Benchmark
+    public Order reflectiveRead() throws ReflectiveOperationException {
+        return this.binder.fromJson(this.json);
+    }
+
+}
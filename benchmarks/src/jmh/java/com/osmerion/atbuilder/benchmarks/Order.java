@@ -0,0 +1,16 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import com.osmerion.atbuilder.Builder;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * A record that is used to compare generated codecs with Java serialization and reflection-based JSON binding.
+ */
+@Builder(features = { Builder.Feature.BINARY_CODEC, Builder.Feature.JSON })
+public record Order(long id, String customer, int quantity, double price, Status status, @Nullable String note) implements Serializable {
+
+    public enum Status { OPEN, SHIPPED, CANCELLED }
+
+}
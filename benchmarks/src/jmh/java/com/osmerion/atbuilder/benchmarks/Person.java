@@ -0,0 +1,11 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import com.osmerion.atbuilder.Builder;
+import com.osmerion.omittable.Omittable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A record that is used to compare generated builders with runtime builders.
+ */
+@Builder
+public record Person(String name, int age, @Nullable String email, Omittable<String> nickname) {}
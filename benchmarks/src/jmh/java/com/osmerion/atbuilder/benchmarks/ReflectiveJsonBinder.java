@@ -0,0 +1,116 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import com.osmerion.atbuilder.internal.JsonReader;
+import com.osmerion.atbuilder.internal.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A JSON binder for records that discovers components using core reflection, similar to general-purpose binding
+ * libraries. It uses the same reader and writer as generated codecs, so that only the cost of the binding itself is
+ * compared.
+ *
+ * <p>Only the component types that are used by the benchmarks are supported.</p>
+ */
+final class ReflectiveJsonBinder<R extends Record> {
+
+    private final Class<?>[] types;
+    private final Method[] accessors;
+    private final String[] names;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final Constructor<R> constructor;
+
+    ReflectiveJsonBinder(Class<R> type) throws NoSuchMethodException {
+        RecordComponent[] components = type.getRecordComponents();
+
+        this.types = new Class<?>[components.length];
+        this.accessors = new Method[components.length];
+        this.names = new String[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            this.types[i] = components[i].getType();
+            this.accessors[i] = components[i].getAccessor();
+            this.names[i] = components[i].getName();
+            this.indices.put(this.names[i], i);
+        }
+
+        this.constructor = type.getDeclaredConstructor(this.types);
+    }
+
+    String toJson(R value) throws IOException, ReflectiveOperationException {
+        StringBuilder sb = new StringBuilder();
+        JsonWriter writer = new JsonWriter(sb);
+        writer.beginObject();
+
+        for (int i = 0; i < this.accessors.length; i++) {
+            Object component = this.accessors[i].invoke(value);
+            writer.name(this.names[i]);
+
+            if (component == null) {
+                writer.nullValue();
+            } else if (component instanceof String s) {
+                writer.value(s);
+            } else if (component instanceof Integer || component instanceof Long) {
+                writer.value(((Number) component).longValue());
+            } else if (component instanceof Double d) {
+                writer.value(d.doubleValue());
+            } else if (component instanceof Boolean b) {
+                writer.value(b.booleanValue());
+            } else if (component instanceof Enum<?> e) {
+                writer.value(e.name());
+            } else {
+                throw new IllegalArgumentException("Unsupported type: " + component.getClass());
+            }
+        }
+
+        writer.endObject();
+        return sb.toString();
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    R fromJson(CharSequence json) throws ReflectiveOperationException {
+        Object[] arguments = new Object[this.types.length];
+        JsonReader reader = new JsonReader(json);
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            Integer index = this.indices.get(reader.nextName());
+
+            if (index == null) {
+                reader.skipValue();
+                continue;
+            }
+
+            Class<?> type = this.types[index];
+
+            if (reader.nextNull()) {
+                arguments[index] = null;
+            } else if (type == String.class) {
+                arguments[index] = reader.nextString();
+            } else if (type == int.class) {
+                arguments[index] = reader.nextInt();
+            } else if (type == long.class) {
+                arguments[index] = reader.nextLong();
+            } else if (type == double.class) {
+                arguments[index] = reader.nextDouble();
+            } else if (type == boolean.class) {
+                arguments[index] = reader.nextBoolean();
+            } else if (type.isEnum()) {
+                arguments[index] = Enum.valueOf((Class) type, reader.nextString());
+            } else {
+                throw new IllegalArgumentException("Unsupported type: " + type);
+            }
+        }
+
+        reader.endObject();
+        reader.endDocument();
+
+        return this.constructor.newInstance(arguments);
+    }
+
+}
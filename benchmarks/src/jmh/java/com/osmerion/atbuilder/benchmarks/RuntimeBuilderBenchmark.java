@@ -0,0 +1,77 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import com.osmerion.atbuilder.RuntimeBuilders;
+import com.osmerion.omittable.Omittable;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RuntimeBuilders runtime builders} with generated builders and with plain core reflection.
+ *
+ * <pre>{@code
+ * ./gradlew :benchmarks:jmhJar
+ * java -jar benchmarks/build/libs/benchmarks-<version>-jmh.jar RuntimeBuilderBenchmark
+ * }</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class RuntimeBuilderBenchmark {
+
+    private Constructor<Person> constructor;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.constructor = Person.class.getDeclaredConstructor(String.class, int.class, String.class, Omittable.class);
+    }
+
+    /**
+     * Builds the record using the generated builder.
+     */
+    @Benchmark
+    public Person generated() {
+        return new PersonBuilder()
+            .name("Alice")
+            .age(30)
+            .email(null)
+            .build();
+    }
+
+    /**
+     * Builds the record using a runtime builder that looks up components by name.
+     */
+    @Benchmark
+    public Person runtimeByName() {
+        return RuntimeBuilders.of(Person.class)
+            .set("name", "Alice")
+            .set("age", 30)
+            .set("email", null)
+            .build();
+    }
+
+    /**
+     * Builds the record using a runtime builder that looks up components by index.
+     */
+    @Benchmark
+    public Person runtimeByIndex() {
+        return RuntimeBuilders.of(Person.class)
+            .set(0, "Alice")
+            .set(1, 30)
+            .set(2, null)
+            .build();
+    }
+
+    /**
+     * Invokes the canonical constructor using core reflection without any checks.
+     */
+    @Benchmark
+    public Person reflection() throws ReflectiveOperationException {
+        return this.constructor.newInstance("Alice", 30, null, Omittable.absent());
+    }
+
+}
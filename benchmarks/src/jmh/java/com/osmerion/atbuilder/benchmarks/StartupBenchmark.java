@@ -0,0 +1,104 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of loading and first using a large number of generated builders in a fresh JVM.
+ *
+ * <p>Every invocation runs in a new fork without warmup, so that the measured time includes class loading, linkage
+ * (including the bootstrapping of {@code invokedynamic} call sites), and interpretation. The fixtures are generated by
+ * the build and compiled once for every code generation strategy.</p>
+ *
+ * <p>In addition to the time, the benchmarks report the growth of the metaspace and the number of classes that were
+ * loaded (including hidden classes that are spun for lambdas) as auxiliary counters.</p>
+ *
+ * <pre>{@code
+ * ./gradlew :benchmarks:jmhJar
+ * java -jar benchmarks/build/libs/benchmarks-<version>-jmh.jar StartupBenchmark
+ * }</pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"default", "startup", "shared"})
+    public String strategy;
+
+    /**
+     * Reports the growth of the metaspace and the number of loaded classes during an invocation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        private static long metaspaceUsed() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getName().equals("Metaspace"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+        }
+
+        private static long loadedClassCount() {
+            return ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        }
+
+        public long metaspaceKiB;
+        public long loadedClasses;
+
+        private long metaspaceBefore;
+        private long loadedClassesBefore;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            this.metaspaceBefore = metaspaceUsed();
+            this.loadedClassesBefore = loadedClassCount();
+        }
+
+        void record() {
+            this.metaspaceKiB = (metaspaceUsed() - this.metaspaceBefore) / 1024;
+            this.loadedClasses = loadedClassCount() - this.loadedClassesBefore;
+        }
+
+    }
+
+    /**
+     * Loads and initializes the builder classes without using them.
+     */
+    @Benchmark
+    public int classLoad(Footprint footprint) throws ClassNotFoundException {
+        String packageName = "com.osmerion.atbuilder.benchmarks.fixtures." + this.strategy + "strategy";
+        ClassLoader classLoader = StartupBenchmark.class.getClassLoader();
+        int hash = 0;
+
+        for (int i = 0; i < com.osmerion.atbuilder.benchmarks.fixtures.startupstrategy.Fixtures.RECORD_COUNT; i++) {
+            hash += Class.forName(packageName + ".Record" + i + "Builder", true, classLoader).hashCode();
+        }
+
+        footprint.record();
+        return hash;
+    }
+
+    /**
+     * Loads the builder classes and creates one instance per record.
+     */
+    @Benchmark
+    public int firstBuild(Footprint footprint) {
+        int hash = switch (this.strategy) {
+            case "default" -> com.osmerion.atbuilder.benchmarks.fixtures.defaultstrategy.Fixtures.buildAll();
+            case "startup" -> com.osmerion.atbuilder.benchmarks.fixtures.startupstrategy.Fixtures.buildAll();
+            case "shared" -> com.osmerion.atbuilder.benchmarks.fixtures.sharedstrategy.Fixtures.buildAll();
+            default -> throw new IllegalStateException("Unknown strategy: " + this.strategy);
+        };
+
+        footprint.record();
+        return hash;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.osmerion.atbuilder.benchmarks;
+
+import com.osmerion.atbuilder.benchmarks.fixtures.wide.WideFixture;
+import com.osmerion.atbuilder.benchmarks.fixtures.wide.WideFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the steady-state throughput of builders for records with many components.
+ *
+ * <p>The fixtures are generated by the build and compare the {@code default} strategy with the {@code wide} strategy
+ * that is selected automatically for such records, and with the {@code shared} strategy that trades throughput for a
+ * smaller footprint. Running the benchmark with {@code -jvmArgsAppend -XX:+PrintCompilation} shows whether the
+ * {@code build} methods and copy constructors are compiled.</p>
+ *
+ * <pre>{@code
+ * ./gradlew :benchmarks:jmhJar
+ * java -jar benchmarks/build/libs/benchmarks-<version>-jmh.jar WideRecordBenchmark
+ * }</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class WideRecordBenchmark {
+
+    @Param({"64", "128", "250"})
+    public int width;
+
+    @Param({"default", "wide", "shared"})
+    public String strategy;
+
+    private WideFixture fixture;
+    private Record base;
+
+    @Setup
+    public void setup() {
+        this.fixture = WideFixtures.get(this.strategy, this.width);
+        this.base = this.fixture.build();
+    }
+
+    /**
+     * Sets every component and builds the record.
+     */
+    @Benchmark
+    public Record build() {
+        return this.fixture.build();
+    }
+
+    /**
+     * Copies an existing record into a builder, changes a single component and builds the result.
+     */
+    @Benchmark
+    public Record copy() {
+        return this.fixture.copy(this.base);
+    }
+
+}
@@ -1,7 +1,7 @@
 plugins {
     id("com.osmerion.java-base-conventions")
     id("com.osmerion.maven-publish-conventions")
-    java
+    `java-library`
     `jvm-test-suite`
 }
 
@@ -15,6 +15,32 @@ val compileTestingClasspath = configurations.create("compileTestingClasspath") {
     isCanBeResolved = true
 }
 
+val allocationTestClassName = "com.osmerion.atbuilder.apt.AllocationTest"
+
+fun Test.configureFunctionalTest() {
+    useJUnitJupiter()
+
+    jvmArgs(
+        "--add-opens=jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.file=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.jvm=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.main=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.parser=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.processing=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.tree=ALL-UNNAMED",
+        "--add-opens=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED",
+    )
+
+    // Ensure that the compile-testing classpath is available to the test task
+    val compileTestingClasspath: FileCollection = compileTestingClasspath
+
+    doFirst {
+        systemProperty("COMPILE_TESTING_CLASSPATH", compileTestingClasspath.asPath)
+    }
+}
+
 @Suppress("UnstableApiUsage")
 testing {
     suites {
@@ -41,26 +67,11 @@ testing {
         register<JvmTestSuite>("functionalTest") {
             targets.configureEach {
                 testTask.configure {
-                    useJUnitJupiter()
-
-                    jvmArgs(
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.file=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.jvm=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.main=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.parser=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.processing=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.tree=ALL-UNNAMED",
-                        "--add-opens=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED",
-                    )
-
-                    // Ensure that the compile-testing classpath is available to the test task
-                    val compileTestingClasspath: FileCollection = compileTestingClasspath
-
-                    doFirst {
-                        systemProperty("COMPILE_TESTING_CLASSPATH", compileTestingClasspath.asPath)
+                    configureFunctionalTest()
+
+                    // AllocationTest runs in a separate JVM (see allocationTest).
+                    filter {
+                        excludeTestsMatching(allocationTestClassName)
                     }
                 }
             }
@@ -75,9 +86,35 @@ testing {
 }
 
 tasks {
+    val allocationTest by registering(Test::class) {
+        description = "Runs the allocation regression tests of the generated builders."
+        group = LifecycleBasePlugin.VERIFICATION_GROUP
+
+        val functionalTestSourceSet = sourceSets["functionalTest"]
+        testClassesDirs = functionalTestSourceSet.output.classesDirs
+        classpath = functionalTestSourceSet.runtimeClasspath
+
+        configureFunctionalTest()
+
+        // Escape analysis is disabled to make the allocation budgets in AllocationTest deterministic.
+        jvmArgs("-XX:-DoEscapeAnalysis")
+
+        filter {
+            includeTestsMatching(allocationTestClassName)
+        }
+    }
+
     @Suppress("UnstableApiUsage")
     check {
         dependsOn(testing.suites.named("functionalTest"))
+        dependsOn(allocationTest)
+    }
+
+    jar {
+        manifest {
+            // The version is part of the keys of the generation cache.
+            attributes("Implementation-Version" to project.version)
+        }
     }
 }
 
@@ -98,7 +135,9 @@ publishing {
 
 dependencies {
     implementation(projects.runtime)
-    implementation(buildDeps.javapoet)
+
+    // JavaPoet types are part of the strategy SPI
+    api(buildDeps.javapoet)
 
     compileTestingClasspath.extendsFrom(configurations.runtimeClasspath.get())
     compileTestingClasspath(projects.runtime)
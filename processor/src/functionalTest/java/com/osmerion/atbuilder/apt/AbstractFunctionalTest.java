@@ -5,23 +5,65 @@ import com.tschuchort.compiletesting.KotlinCompilation;
 import com.tschuchort.compiletesting.SourceFile;
 
 import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class AbstractFunctionalTest {
 
     protected final JvmCompilationResult compile(SourceFile... sources) {
+        return this.compile(Map.of(), sources);
+    }
+
+    protected final JvmCompilationResult compile(Map<String, String> processorOptions, SourceFile... sources) {
+        return this.compile(17, processorOptions, sources);
+    }
+
+    protected final JvmCompilationResult compile(int release, Map<String, String> processorOptions, SourceFile... sources) {
+        return this.compile(release, processorOptions, List.of(), sources);
+    }
+
+    /**
+     * Compiles the given sources with the given additional classpath entries (e.g. the output directory of a previous
+     * compilation).
+     */
+    protected final JvmCompilationResult compile(int release, Map<String, String> processorOptions, List<File> additionalClasspath, SourceFile... sources) {
         String classpathPropertyValue = System.getProperty("COMPILE_TESTING_CLASSPATH");
-        List<File> classpath = Arrays.stream(classpathPropertyValue.split(File.pathSeparator)).map(File::new).toList();
+        List<File> classpath = new ArrayList<>(additionalClasspath);
+        Arrays.stream(classpathPropertyValue.split(File.pathSeparator)).map(File::new).forEach(classpath::add);
 
         KotlinCompilation compilation = new KotlinCompilation();
         compilation.setClasspaths(classpath);
-        compilation.setJavacArguments(List.of("--release", "17", "-Xlint:all"));
+        compilation.setJavacArguments(List.of("--release", String.valueOf(release), "-Xlint:all"));
         compilation.setAnnotationProcessors(List.of(new BuilderProcessor()));
+        compilation.setKaptArgs(new HashMap<>(processorOptions));
         compilation.setSources(Arrays.asList(sources));
         compilation.setInheritClassPath(true);
 
         return compilation.compile();
     }
 
+    /**
+     * Invokes a public static method of a class that has been compiled as part of the given compilation.
+     *
+     * <p>If the invoked method throws, the original exception is rethrown.</p>
+     */
+    protected static Object invokeStatic(JvmCompilationResult result, String className, String methodName, Object... args) throws Throwable {
+        Class<?> cls = result.getClassLoader().loadClass(className);
+        Method method = Arrays.stream(cls.getMethods())
+            .filter(it -> it.getName().equals(methodName) && it.getParameterCount() == args.length)
+            .findFirst()
+            .orElseThrow(() -> new NoSuchMethodException(className + "." + methodName));
+
+        try {
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
 }
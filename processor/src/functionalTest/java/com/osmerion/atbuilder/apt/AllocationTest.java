@@ -0,0 +1,156 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.util.AllocationMeter;
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Functional tests that guard the number of bytes that are allocated by generated builders.
+ *
+ * <p>Each test compiles a record, runs a typical {@code build} chain of the generated builder, and asserts that the
+ * average number of allocated bytes matches an exact budget. The budgets are computed for a 64-bit JVM with compressed
+ * object pointers (that is, 12 byte object headers, 4 byte references, and 8 byte alignment) and assume that present
+ * {@code Omittable} instances are 16 bytes while {@code Omittable.absent()} is a shared instance. Any hidden allocation
+ * (such as boxing, varargs arrays, or capturing lambdas) exceeds the budget, and any removed allocation falls short of
+ * it. Integral values are chosen outside of the range of the {@code Integer} cache, so that boxing is not hidden by
+ * cached instances.</p>
+ *
+ * <p>The tests are run by the {@code allocationTest} task in a separate JVM with escape analysis disabled.</p>
+ *
+ * @author  Leon Linhart
+ */
+public final class AllocationTest extends AbstractFunctionalTest {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int ITERATIONS = 100_000;
+
+    /*
+     * Object sizes for the budgets below:
+     *
+     * - A builder with up to three reference fields: 24 bytes
+     * - A present Omittable: 16 bytes
+     * - A boxed Integer: 16 bytes
+     * - A record with (String, int) or up to three references: 24 bytes
+     */
+    private static final long BUILDER_BYTES = 24;
+    private static final long OMITTABLE_BYTES = 16;
+    private static final long INTEGER_BYTES = 16;
+    private static final long RECORD_BYTES = 24;
+
+    private static final SourceFile REQUIRED_COMPONENTS = createJavaFileObject(
+        "com/example/Foo.java",
+        """
+        package com.example;
+        
+        import java.util.function.Supplier;
+        
+        @com.osmerion.atbuilder.Builder
+        @org.jspecify.annotations.NullMarked
+        public record Foo(String name, int count) {
+        
+            public static final Foo TEMPLATE = new Foo("Alice", 4200);
+        
+            public static Supplier<Foo> build() {
+                return () -> new FooBuilder()
+                    .name("Alice")
+                    .count(4200)
+                    .build();
+            }
+        
+            public static Supplier<Foo> copy() {
+                return () -> new FooBuilder(TEMPLATE)
+                    .name("Bob")
+                    .build();
+            }
+        
+        }
+        """
+    );
+
+    private static final SourceFile OPTIONAL_COMPONENTS = createJavaFileObject(
+        "com/example/Bar.java",
+        """
+        package com.example;
+        
+        import com.osmerion.omittable.Omittable;
+        import org.jspecify.annotations.Nullable;
+        
+        import java.util.function.Supplier;
+        
+        @com.osmerion.atbuilder.Builder
+        @org.jspecify.annotations.NullMarked
+        public record Bar(String name, @Nullable String nickname, Omittable<String> note) {
+        
+            public static Supplier<Bar> build() {
+                return () -> new BarBuilder()
+                    .name("Alice")
+                    .nickname(null)
+                    .build();
+            }
+        
+        }
+        """
+    );
+
+    @BeforeAll
+    public static void checkSupport() {
+        assumeTrue(AllocationMeter.isSupported(), "Thread allocation measurement is not supported");
+        assumeTrue(AllocationMeter.usesCompressedOops(), "Allocation budgets require compressed oops");
+    }
+
+    @Test
+    public void testBuildDefaultStrategy() throws Throwable {
+        JvmCompilationResult result = this.compile(REQUIRED_COMPONENTS);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        // builder + 2 Omittables + boxed count + record
+        assertAllocatedBytes(result, "com.example.Foo", "build", BUILDER_BYTES + 2 * OMITTABLE_BYTES + INTEGER_BYTES + RECORD_BYTES);
+    }
+
+    @Test
+    public void testBuildStartupStrategy() throws Throwable {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.strategy", "startup"), REQUIRED_COMPONENTS);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        // builder + 2 Omittables + boxed count + record
+        assertAllocatedBytes(result, "com.example.Foo", "build", BUILDER_BYTES + 2 * OMITTABLE_BYTES + INTEGER_BYTES + RECORD_BYTES);
+    }
+
+    @Test
+    public void testCopyConstructor() throws Throwable {
+        JvmCompilationResult result = this.compile(REQUIRED_COMPONENTS);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        // builder + 2 Omittables (copy) + boxed count (copy) + 1 Omittable (setter) + record
+        assertAllocatedBytes(result, "com.example.Foo", "copy", BUILDER_BYTES + 3 * OMITTABLE_BYTES + INTEGER_BYTES + RECORD_BYTES);
+    }
+
+    @Test
+    public void testOptionalComponents() throws Throwable {
+        JvmCompilationResult result = this.compile(OPTIONAL_COMPONENTS);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        // builder + 2 Omittables + record (the absent note is shared)
+        assertAllocatedBytes(result, "com.example.Bar", "build", BUILDER_BYTES + 2 * OMITTABLE_BYTES + RECORD_BYTES);
+    }
+
+    private static void assertAllocatedBytes(JvmCompilationResult result, String className, String factoryName, long budget) throws Throwable {
+        Supplier<?> workload = (Supplier<?>) invokeStatic(result, className, factoryName);
+        long allocatedBytes = AllocationMeter.measure(workload, WARMUP_ITERATIONS, ITERATIONS);
+
+        assertThat(allocatedBytes)
+            .as("Bytes allocated per invocation of %s.%s()", className, factoryName)
+            .isEqualTo(budget);
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#ASSEMBLER ASSEMBLER} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class AssemblerTest extends AbstractFunctionalTest {
+
+    private static final SourceFile PERSON = createJavaFileObject(
+        "com/example/Person.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+        import com.osmerion.omittable.Omittable;
+        import org.jspecify.annotations.Nullable;
+
+        import java.time.Duration;
+        import java.util.ArrayList;
+        import java.util.List;
+        import java.util.concurrent.ForkJoinPool;
+        import java.util.concurrent.SubmissionPublisher;
+        import java.util.concurrent.TimeUnit;
+
+        @Builder(features = Builder.Feature.ASSEMBLER)
+        @org.jspecify.annotations.NullMarked
+        public record Person(String name, int age, List<String> tags, @Nullable String email, Omittable<String> nickname) {
+
+            public static List<Person> assemble() throws Exception {
+                PersonAssembler<Integer> assembler = new PersonAssembler<>();
+                List<Person> persons = new ArrayList<>();
+                var done = assembler.consume(persons::add);
+
+                assembler.accept(PersonAssembler.age(2, 40));
+                assembler.accept(PersonAssembler.nickname(1, Omittable.of("Ali")));
+                assembler.accept(PersonAssembler.name(1, "Alice"));
+                assembler.accept(PersonAssembler.tags(2, List.of("b")));
+                assembler.accept(PersonAssembler.email(1, null));
+                assembler.accept(PersonAssembler.age(1, 30));
+                assembler.accept(PersonAssembler.tags(1, List.of("a")));
+                assembler.accept(PersonAssembler.name(2, "Bob"));
+
+                if (assembler.pendingCount() != 1) throw new AssertionError();
+
+                assembler.close();
+                done.get(10, TimeUnit.SECONDS);
+
+                return persons;
+            }
+
+            public static List<Person> assembleFlow() throws Exception {
+                PersonAssembler<String> assembler = new PersonAssembler<>();
+                List<Person> persons = new ArrayList<>();
+                var done = assembler.consume(persons::add);
+
+                try (SubmissionPublisher<com.osmerion.atbuilder.RecordAssembler.Part<String>> publisher = new SubmissionPublisher<>()) {
+                    publisher.subscribe(assembler);
+
+                    for (int i = 0; i < 100; i++) {
+                        publisher.submit(PersonAssembler.email("id" + i, "mail" + i));
+                        publisher.submit(PersonAssembler.tags("id" + i, List.of()));
+                        publisher.submit(PersonAssembler.age("id" + i, i));
+                        publisher.submit(PersonAssembler.name("id" + i, "name" + i));
+                    }
+                }
+
+                done.get(10, TimeUnit.SECONDS);
+                return persons;
+            }
+
+            public static long evict() {
+                PersonAssembler<Integer> assembler = new PersonAssembler<>(ForkJoinPool.commonPool(), 16, Duration.ofHours(1), 2, 16);
+
+                for (int i = 0; i < 5; i++) {
+                    assembler.accept(PersonAssembler.name(i, "name"));
+                }
+
+                return assembler.evictionCount() * 10 + assembler.pendingCount();
+            }
+
+            public static long late() {
+                PersonAssembler<Integer> assembler = new PersonAssembler<>();
+
+                assembler.accept(PersonAssembler.name(1, "Alice"));
+                assembler.accept(PersonAssembler.age(1, 30));
+                assembler.accept(PersonAssembler.tags(1, List.of()));
+                assembler.accept(PersonAssembler.email(1, null));
+
+                // The record has been published. Both the optional and the duplicate part are late.
+                assembler.accept(PersonAssembler.nickname(1, Omittable.of("Ali")));
+                assembler.accept(PersonAssembler.name(1, "Alice"));
+
+                return assembler.latePartCount() * 10 + assembler.pendingCount();
+            }
+
+            public static void nullName() {
+                new PersonAssembler<Integer>().accept(PersonAssembler.name(1, null));
+            }
+
+        }
+        """
+    );
+
+    @Test
+    public void testAssembler() throws Throwable {
+        JvmCompilationResult result = this.compile(PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .extracting(File::getName)
+            .containsExactlyInAnyOrder("PersonBuilder.java", "PersonAssembler.java");
+
+        List<?> persons = (List<?>) invokeStatic(result, "com.example.Person", "assemble");
+        assertThat(persons).hasSize(1);
+        assertThat(persons.get(0).toString()).startsWith("Person[name=Alice, age=30, tags=[a], email=null, nickname=");
+
+        assertThat((List<?>) invokeStatic(result, "com.example.Person", "assembleFlow")).hasSize(100);
+        assertThat(invokeStatic(result, "com.example.Person", "evict")).isEqualTo(32L);
+        assertThat(invokeStatic(result, "com.example.Person", "late")).isEqualTo(20L);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "nullName"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+    }
+
+    @Test
+    public void testComponentNamedKey() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Setting.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.ASSEMBLER)
+            public record Setting(String key, String value) {
+
+                public static Object part() {
+                    return SettingAssembler.key(7, "color");
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThat(invokeStatic(result, "com.example.Setting", "part")).hasToString("Part[key=7, component=0, value=color]");
+    }
+
+    @Test
+    public void testGenericRecord() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Box.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.ASSEMBLER)
+            public record Box<T>(T value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Feature ASSEMBLER is not supported for generic records.");
+    }
+
+}
@@ -0,0 +1,305 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#ASYNC ASYNC} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class AsyncTest extends AbstractFunctionalTest {
+
+    private static JvmCompilationResult result;
+
+    @BeforeAll
+    public static void compileSources() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            
+            @Builder(features = Builder.Feature.ASYNC)
+            @org.jspecify.annotations.NullMarked
+            public record Foo(String name, int count, Omittable<String> nickname) {}
+            """
+        );
+
+        SourceFile usage = createJavaFileObject(
+            "com/example/Usage.java",
+            """
+            package com.example;
+            
+            import java.util.concurrent.CompletableFuture;
+            import java.util.concurrent.CompletionStage;
+            import java.util.concurrent.Executor;
+            
+            public final class Usage {
+            
+                public static CompletableFuture<Foo> mixed(CompletionStage<String> name) {
+                    return new FooBuilder()
+                        .name(name)
+                        .count(42)
+                        .buildAsync();
+                }
+            
+                public static CompletableFuture<Foo> pending(CompletionStage<String> name, CompletionStage<Integer> count) {
+                    return new FooBuilder()
+                        .name(name)
+                        .count(count)
+                        .buildAsync();
+                }
+            
+                public static CompletableFuture<Foo> missing(CompletionStage<String> name) {
+                    return new FooBuilder()
+                        .name(name)
+                        .buildAsync();
+                }
+            
+                public static CompletableFuture<Foo> overridden(CompletionStage<String> name) {
+                    return new FooBuilder()
+                        .name(name)
+                        .name("Bob")
+                        .count(1)
+                        .buildAsync();
+                }
+            
+                public static CompletableFuture<Foo> withExecutor(CompletionStage<String> name, Executor executor) {
+                    return new FooBuilder()
+                        .name(name)
+                        .count(7)
+                        .buildAsync(executor);
+                }
+            
+            }
+            """
+        );
+
+        result = new AsyncTest().compile(cls, usage);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+    }
+
+    @Test
+    public void testGeneratedMembers() {
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private @Nullable CompletionStage<? extends String> name$stage;")
+            .contains("public FooBuilder name(CompletionStage<? extends String> name) {")
+            .contains("public FooBuilder count(CompletionStage<? extends Integer> count) {")
+            .contains("public CompletableFuture<Foo> buildAsync() {")
+            .contains("public CompletableFuture<Foo> buildAsync(Executor executor) {");
+    }
+
+    @Test
+    public void testCompletesWithLastComponent() throws Throwable {
+        CompletableFuture<String> name = new CompletableFuture<>();
+        CompletableFuture<Integer> count = new CompletableFuture<>();
+
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "pending", name, count);
+        assertThat(future).isNotDone();
+
+        count.complete(42);
+        assertThat(future).isNotDone();
+
+        name.complete("Alice");
+        assertThat(future.get(10, TimeUnit.SECONDS))
+            .extracting("name", "count")
+            .containsExactly("Alice", 42);
+    }
+
+    @Test
+    public void testMixedComponents() throws Throwable {
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "mixed", CompletableFuture.completedFuture("Alice"));
+        assertThat(future.get(10, TimeUnit.SECONDS)).extracting("count").isEqualTo(42);
+    }
+
+    @Test
+    public void testFailsFastOnMissingComponent() throws Throwable {
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "missing", new CompletableFuture<String>());
+
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::get)
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'count' must be set");
+    }
+
+    @Test
+    public void testFailsFastOnExceptionalComponent() throws Throwable {
+        CompletableFuture<String> name = new CompletableFuture<>();
+        CompletableFuture<Integer> count = new CompletableFuture<>();
+
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "pending", name, count);
+        count.completeExceptionally(new UnsupportedOperationException("lookup failed"));
+
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::get)
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("lookup failed");
+    }
+
+    @Test
+    public void testRejectsNullValue() throws Throwable {
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "mixed", CompletableFuture.completedFuture(null));
+
+        assertThatThrownBy(future::get)
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+    }
+
+    @Test
+    public void testSetterOverridesPendingStage() throws Throwable {
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "overridden", new CompletableFuture<String>());
+        assertThat(future.get(10, TimeUnit.SECONDS)).extracting("name").isEqualTo("Bob");
+    }
+
+    @Test
+    public void testExecutor() throws Throwable {
+        AtomicInteger executions = new AtomicInteger();
+        Executor executor = command -> {
+            executions.incrementAndGet();
+            command.run();
+        };
+
+        CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.Usage", "withExecutor", CompletableFuture.completedFuture("Alice"), executor);
+
+        assertThat(future.get(10, TimeUnit.SECONDS)).extracting("name").isEqualTo("Alice");
+        assertThat(executions).hasPositiveValue();
+    }
+
+    @Test
+    public void testConcurrentCompletion() throws Throwable {
+        int componentCount = 40;
+        String components = IntStream.range(0, componentCount).mapToObj(i -> "int c" + i).collect(Collectors.joining(", "));
+        String stages = IntStream.range(0, componentCount).mapToObj(i -> ".c" + i + "(stages.get(" + i + "))").collect(Collectors.joining("\n            "));
+
+        // The wide strategy is selected automatically for 40 components. All strategies share state between setters.
+        List<SourceFile> sources = List.of(
+            record("Wide", "@Builder(features = Builder.Feature.ASYNC)", components),
+            record("Sparse", "@Builder(strategy = \"sparse\", features = Builder.Feature.ASYNC)", components),
+            record("Tracked", "@Builder(strategy = \"default\", features = { Builder.Feature.ASYNC, Builder.Feature.TRACK_MODIFICATIONS })", components),
+            createJavaFileObject(
+                "com/example/ConcurrentUsage.java",
+                """
+                package com.example;
+
+                import java.util.List;
+                import java.util.concurrent.CompletableFuture;
+                import java.util.concurrent.CompletionStage;
+                import java.util.concurrent.Executor;
+
+                public final class ConcurrentUsage {
+
+                    public static CompletableFuture<Wide> wide(List<CompletionStage<Integer>> stages, Executor executor) {
+                        return new WideBuilder()
+                            %1$s
+                            .buildAsync(executor);
+                    }
+
+                    public static CompletableFuture<Sparse> sparse(List<CompletionStage<Integer>> stages, Executor executor) {
+                        return new SparseBuilder()
+                            %1$s
+                            .buildAsync(executor);
+                    }
+
+                    public static CompletableFuture<Tracked> tracked(List<CompletionStage<Integer>> stages, Executor executor) {
+                        return new TrackedBuilder()
+                            %1$s
+                            .buildAsync(executor);
+                    }
+
+                }
+                """.formatted(stages)
+            )
+        );
+
+        JvmCompilationResult result = this.compile(sources.toArray(SourceFile[]::new));
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            for (String method : new String[] { "wide", "sparse", "tracked" }) {
+                for (int iteration = 0; iteration < 50; iteration++) {
+                    List<CompletableFuture<Integer>> futures = IntStream.range(0, componentCount)
+                        .mapToObj(i -> new CompletableFuture<Integer>())
+                        .toList();
+
+                    CompletableFuture<?> future = (CompletableFuture<?>) invokeStatic(result, "com.example.ConcurrentUsage", method, futures, executor);
+
+                    // Complete all stages at once from several threads.
+                    CountDownLatch start = new CountDownLatch(1);
+                    for (int i = 0; i < componentCount; i++) {
+                        int value = i;
+                        executor.execute(() -> {
+                            try {
+                                start.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+
+                            futures.get(value).complete(value);
+                        });
+                    }
+
+                    start.countDown();
+
+                    Object record = future.get(10, TimeUnit.SECONDS);
+                    RecordComponent[] recordComponents = record.getClass().getRecordComponents();
+
+                    for (int i = 0; i < componentCount; i++) {
+                        assertThat(recordComponents[i].getAccessor().invoke(record)).as("%s.c%d", method, i).isEqualTo(i);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static SourceFile record(String name, String annotation, String components) {
+        return createJavaFileObject(
+            "com/example/" + name + ".java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            %s
+            public record %s(%s) {}
+            """.formatted(annotation, name, components)
+        );
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#BATCH BATCH} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class BatchBuilderTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testBatchBuilder() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Measurement.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            import java.util.List;
+            
+            @Builder(features = Builder.Feature.BATCH)
+            @org.jspecify.annotations.NullMarked
+            public record Measurement(String sensor, double value, Omittable<String> note) {
+            
+                public static MeasurementBatchBuilder collect() {
+                    MeasurementBatchBuilder batch = new MeasurementBatchBuilder(4);
+            
+                    for (int i = 0; i < 40; i++) {
+                        batch.sensor("sensor-" + i).value(i);
+                        if (i == 7) batch.note(Omittable.of("calibrated"));
+                        batch.addRow();
+                    }
+            
+                    return batch;
+                }
+            
+                public static List<Measurement> build() {
+                    return collect().build();
+                }
+            
+                public static double sum() {
+                    MeasurementBatchBuilder batch = collect();
+                    double[] values = batch.valueColumn();
+            
+                    double sum = 0;
+                    for (int i = 0; i < batch.size(); i++) sum += values[i];
+                    return sum;
+                }
+            
+                public static String note(int row) {
+                    return collect().get(row).note().orElse("-");
+                }
+            
+                public static void incomplete() {
+                    new MeasurementBatchBuilder().sensor("sensor").addRow();
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(2)
+            .extracting(File::getName)
+            .containsExactlyInAnyOrder("MeasurementBuilder.java", "MeasurementBatchBuilder.java");
+
+        List<?> measurements = (List<?>) invokeStatic(result, "com.example.Measurement", "build");
+        assertThat(measurements).hasSize(40);
+
+        Object measurement = measurements.get(7);
+        assertThat(measurement.getClass().getMethod("sensor").invoke(measurement)).isEqualTo("sensor-7");
+        assertThat(measurement.getClass().getMethod("value").invoke(measurement)).isEqualTo(7.0);
+
+        assertThat(invokeStatic(result, "com.example.Measurement", "note", 7)).isEqualTo("calibrated");
+        assertThat(invokeStatic(result, "com.example.Measurement", "note", 8)).isEqualTo("-");
+
+        assertThat(invokeStatic(result, "com.example.Measurement", "sum")).isEqualTo(780.0);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Measurement", "incomplete"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'value' must be set");
+    }
+
+    @Test
+    public void testGenericRecord() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Pair.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import java.util.List;
+            
+            @Builder(features = Builder.Feature.BATCH)
+            public record Pair<A, B>(A first, List<B> second, int weight) {
+            
+                public static List<Pair<String, Integer>> build() {
+                    return new PairBatchBuilder<String, Integer>()
+                        .first("a").second(List.of(1)).weight(1).addRow()
+                        .build();
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+    }
+
+    @Test
+    public void testComponentNameClash() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Slot.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            @Builder(features = Builder.Feature.BATCH)
+            public record Slot(int get, long value, long valueColumn) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages())
+            .contains("Feature BATCH does not support a component named 'get' because its setter would clash with the batch builder's get() method")
+            .contains("Feature BATCH does not support a component named 'valueColumn' because its setter would clash with the batch builder's valueColumn() method");
+    }
+
+    @Test
+    public void testPrivateMethodNames() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Cell.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import java.util.List;
+            
+            @Builder(features = Builder.Feature.BATCH)
+            public record Cell(int materialize, int grow, int missingComponent) {
+            
+                public static List<Cell> build() {
+                    CellBatchBuilder batch = new CellBatchBuilder(1);
+                    batch.materialize(1).grow(2).missingComponent(3).addRow();
+                    batch.materialize(4).grow(5).missingComponent(6).addRow();
+                    return batch.build();
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#BINARY_CODEC BINARY_CODEC} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class BinaryCodecTest extends AbstractFunctionalTest {
+
+    private static final SourceFile ADDRESS = createJavaFileObject(
+        "com/example/Address.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+
+        @Builder(features = Builder.Feature.BINARY_CODEC)
+        public record Address(String city, short zip) {}
+        """
+    );
+
+    @Test
+    public void testRoundTrip() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            import org.jspecify.annotations.Nullable;
+
+            import java.io.*;
+            import java.nio.ByteBuffer;
+
+            @Builder(features = Builder.Feature.BINARY_CODEC)
+            @org.jspecify.annotations.NullMarked
+            public record Person(
+                String name,
+                int age,
+                long id,
+                double score,
+                boolean active,
+                char initial,
+                @Nullable Integer rank,
+                Status status,
+                Address address,
+                Omittable<String> nickname,
+                Omittable<@Nullable String> email,
+                @Nullable Address secondaryAddress
+            ) {
+
+                public enum Status { ACTIVE, RETIRED }
+
+                public static Person full() {
+                    return new Person("Alice", 30, -42L, 0.5, true, 'A', 3, Status.RETIRED, new Address("Berlin", (short) 10115), Omittable.of("Ali"), Omittable.of(null), new Address("Hamburg", (short) -1));
+                }
+
+                public static Person sparse() {
+                    return new Person("Bob", -1, Long.MIN_VALUE, -0.0, false, 'Z', null, Status.ACTIVE, new Address("", (short) 0), Omittable.absent(), Omittable.absent(), null);
+                }
+
+                public static Person viaStream(Person person) throws IOException {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    PersonCodec.write(person, new DataOutputStream(bytes));
+
+                    return PersonCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+                }
+
+                public static Person viaBuffer(Person person) {
+                    ByteBuffer buffer = ByteBuffer.allocate(256);
+                    PersonCodec.write(person, buffer);
+                    buffer.flip();
+
+                    Person copy = PersonCodec.read(buffer);
+                    if (buffer.hasRemaining()) throw new IllegalStateException("Trailing bytes");
+
+                    return copy;
+                }
+
+                public static boolean isSameEncoding(Person person) throws IOException {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    PersonCodec.write(person, new DataOutputStream(bytes));
+
+                    ByteBuffer buffer = ByteBuffer.allocate(256);
+                    PersonCodec.write(person, buffer);
+
+                    return buffer.position() == bytes.size() && ByteBuffer.wrap(bytes.toByteArray()).equals(buffer.flip());
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(ADDRESS, cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .extracting(File::getName)
+            .containsExactlyInAnyOrder("AddressBuilder.java", "AddressCodec.java", "PersonBuilder.java", "PersonCodec.java");
+
+        for (String factory : new String[] { "full", "sparse" }) {
+            Object person = invokeStatic(result, "com.example.Person", factory);
+
+            assertThat(invokeStatic(result, "com.example.Person", "viaStream", person)).isEqualTo(person);
+            assertThat(invokeStatic(result, "com.example.Person", "viaBuffer", person)).isEqualTo(person);
+            assertThat(invokeStatic(result, "com.example.Person", "isSameEncoding", person)).isEqualTo(true);
+        }
+    }
+
+    @Test
+    public void testReadMalformed() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Token.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            import java.io.*;
+            import java.nio.ByteBuffer;
+
+            @Builder(features = Builder.Feature.BINARY_CODEC)
+            public record Token(Kind kind, String text) {
+
+                public enum Kind { WORD, NUMBER }
+
+                public static Token readStream(byte[] bytes) throws IOException {
+                    return TokenCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+                }
+
+                public static Token readBuffer(byte[] bytes) {
+                    return TokenCodec.read(ByteBuffer.wrap(bytes));
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        byte[] invalidOrdinal = { 2, 0 };
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Token", "readStream", (Object) invalidOrdinal))
+            .isInstanceOf(StreamCorruptedException.class)
+            .hasMessage("Invalid ordinal: 2");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Token", "readBuffer", (Object) invalidOrdinal))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid ordinal: 2");
+
+        // A string that claims to be 2 GiB long must not be allocated up front.
+        byte[] hugeString = { 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a', 'b', 'c' };
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Token", "readStream", (Object) hugeString))
+            .isInstanceOf(EOFException.class);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Token", "readBuffer", (Object) hugeString))
+            .isInstanceOf(BufferUnderflowException.class);
+    }
+
+    @Test
+    public void testUnsupportedComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            import java.util.List;
+
+            @Builder(features = Builder.Feature.BINARY_CODEC)
+            public record Person(String name, List<String> tags) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Feature BINARY_CODEC does not support component 'tags' of type java.util.List<java.lang.String>.");
+    }
+
+    @Test
+    public void testNestedRecordWithoutCodec() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.BINARY_CODEC)
+            public record Person(String name, Address address) {
+
+                @Builder
+                public record Address(String city) {}
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Feature BINARY_CODEC does not support component 'address' of type com.example.Person.Address.");
+    }
+
+}
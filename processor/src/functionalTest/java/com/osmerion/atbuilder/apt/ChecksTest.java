@@ -0,0 +1,128 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the configuration of the checks of generated builders using
+ * {@link com.osmerion.atbuilder.Builder#checks()} and the {@code atbuilder.checks} processor option.
+ *
+ * @author  Leon Linhart
+ */
+public final class ChecksTest extends AbstractFunctionalTest {
+
+    private static SourceFile person(String checks) {
+        return createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder%s
+            public record Person(String name, int age) {
+
+                public static Person withNullName() {
+                    return new PersonBuilder().name(null).age(30).build();
+                }
+
+                public static Person withoutName() {
+                    return new PersonBuilder().age(30).build();
+                }
+
+            }
+            """.formatted(checks)
+        );
+    }
+
+    private static Object invokeWithAssertions(JvmCompilationResult result, String methodName) throws Throwable {
+        ClassLoader classLoader = result.getClassLoader();
+        classLoader.setDefaultAssertionStatus(true);
+
+        try {
+            return classLoader.loadClass("com.example.Person").getMethod(methodName).invoke(null);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void testAlwaysByDefault() {
+        JvmCompilationResult result = this.compile(person(""));
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "withNullName"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "withoutName"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'name' must be set");
+    }
+
+    @Test
+    public void testAssert() {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.checks", "assert"), person(""));
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("assert name != null : \"Component 'name' may not be null\";")
+            .contains("assert this.name.isPresent() : \"Component 'name' must be set\";")
+            .doesNotContain("requireNonNull");
+
+        assertThatThrownBy(() -> invokeWithAssertions(result, "withNullName"))
+            .isInstanceOf(AssertionError.class)
+            .hasMessage("Component 'name' may not be null");
+        assertThatThrownBy(() -> invokeWithAssertions(result, "withoutName"))
+            .isInstanceOf(AssertionError.class)
+            .hasMessage("Component 'name' must be set");
+    }
+
+    @Test
+    public void testNone() throws Throwable {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.checks", "none"), person(""));
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .doesNotContain("requireNonNull")
+            .doesNotContain("assert ")
+            .doesNotContain("must be set");
+
+        Object person = invokeWithAssertions(result, "withNullName");
+        assertThat(person.getClass().getMethod("name").invoke(person)).isNull();
+    }
+
+    @Test
+    public void testAnnotationOverridesOption() {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.checks", "none"), person("(checks = Builder.Checks.ALWAYS)"));
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "withNullName"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+    }
+
+    @Test
+    public void testInvalidOption() {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.checks", "sometimes"), person(""));
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Invalid value for option 'atbuilder.checks': sometimes");
+    }
+
+}
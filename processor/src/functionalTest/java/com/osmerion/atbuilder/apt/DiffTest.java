@@ -0,0 +1,120 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#DIFF DIFF} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class DiffTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testDiff() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.RecordDiff;
+            import com.osmerion.omittable.Omittable;
+            import org.jspecify.annotations.Nullable;
+
+            import java.util.List;
+
+            @Builder(features = { Builder.Feature.DIFF, Builder.Feature.PATCH })
+            @org.jspecify.annotations.NullMarked
+            public record Person(String name, int age, double score, @Nullable String email, List<String> tags, Omittable<String> nickname) {
+
+                static final Person ALICE = new Person("Alice", 30, Double.NaN, null, List.of("a"), Omittable.absent());
+
+                public static long mask() {
+                    Person other = new Person(new String("Alice"), 31, Double.NaN, "alice@example.com", List.of("a"), Omittable.of("Ali"));
+                    return PersonBuilder.diffMask(ALICE, other);
+                }
+
+                public static long sameMask() {
+                    return PersonBuilder.diffMask(ALICE, ALICE) | PersonBuilder.diffMask(ALICE, new Person("Alice", 30, Double.NaN, null, List.of("a"), Omittable.absent()));
+                }
+
+                public static long zeroMask() {
+                    return PersonBuilder.diffMask(new Person("Alice", 30, 0.0, null, List.of(), Omittable.absent()), new Person("Alice", 30, -0.0, null, List.of(), Omittable.absent()));
+                }
+
+                public static RecordDiff<PersonBuilder> diff() {
+                    return PersonBuilder.diff(ALICE, new Person("Bob", 30, Double.NaN, null, List.of("b"), Omittable.absent()));
+                }
+
+                public static Person apply() {
+                    Person replica = new Person("Alice", 30, 1.0, null, List.of("a"), Omittable.absent());
+                    return diff().changes().applyTo(replica);
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThat(invokeStatic(result, "com.example.Person", "mask")).isEqualTo(0b101010L);
+        assertThat(invokeStatic(result, "com.example.Person", "sameMask")).isEqualTo(0L);
+        assertThat(invokeStatic(result, "com.example.Person", "zeroMask")).isEqualTo(0b100L);
+
+        Object diff = invokeStatic(result, "com.example.Person", "diff");
+        assertThat(diff.getClass().getMethod("changedComponentsMask").invoke(diff)).isEqualTo(0b10001L);
+        assertThat(diff.getClass().getMethod("changedCount").invoke(diff)).isEqualTo(2);
+        assertThat(diff.getClass().getMethod("isChanged", int.class).invoke(diff, 4)).isEqualTo(true);
+        assertThat(diff.getClass().getMethod("isChanged", int.class).invoke(diff, 1)).isEqualTo(false);
+
+        assertThat(invokeStatic(result, "com.example.Person", "apply").toString())
+            .startsWith("Person[name=Bob, age=30, score=1.0, email=null, tags=[b], nickname=");
+    }
+
+    @Test
+    public void testWideRecord() throws Throwable {
+        String components = IntStream.range(0, 70).mapToObj(i -> "int c" + i).collect(Collectors.joining(", "));
+        String values = IntStream.range(0, 70).mapToObj(i -> i == 68 ? "1" : "0").collect(Collectors.joining(", "));
+
+        SourceFile cls = createJavaFileObject(
+            "com/example/Wide.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.DIFF)
+            public record Wide(%s) {
+
+                public static java.util.BitSet diff() {
+                    Wide a = new Wide(%s);
+                    Wide b = new Wide(%s);
+
+                    return WideBuilder.diff(a, b).changedComponents();
+                }
+
+            }
+            """.formatted(components, values.replace("1", "0"), values)
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        BitSet expected = new BitSet();
+        expected.set(68);
+
+        assertThat(invokeStatic(result, "com.example.Wide", "diff")).isEqualTo(expected);
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#FLYWEIGHT FLYWEIGHT} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class FlyweightTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testFlyweight() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Point.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            @Builder(features = Builder.Feature.FLYWEIGHT)
+            public record Point(byte tag, double x, int id, boolean visible, double y) {
+            
+                public static Point write() {
+                    PointFlyweight points = PointFlyweight.allocateDirect(4);
+                    points.at(2).x(1.5).y(-2.5).id(42).visible(true).tag((byte) 7).commit();
+            
+                    return points.materialize(2);
+                }
+            
+                public static Point roundTrip(Point point) {
+                    PointFlyweight points = PointFlyweight.allocateDirect(1);
+                    points.put(0, point);
+            
+                    return points.materialize(0);
+                }
+            
+                public static double readX() {
+                    PointFlyweight points = PointFlyweight.allocateDirect(4);
+                    points.put(3, new Point((byte) 0, 3.25, 0, false, 0));
+            
+                    return points.x(3);
+                }
+            
+                public static void incomplete() {
+                    PointFlyweight.allocateDirect(1).at(0).x(1).y(2).tag((byte) 0).visible(false).commit();
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .extracting(File::getName)
+            .containsExactlyInAnyOrder("PointBuilder.java", "PointFlyweight.java");
+
+        Class<?> flyweightClass = result.getClassLoader().loadClass("com.example.PointFlyweight");
+        assertThat(flyweightClass.getField("BYTES").get(null)).isEqualTo(24);
+        assertThat(flyweightClass.getField("X_OFFSET").get(null)).isEqualTo(0);
+        assertThat(flyweightClass.getField("Y_OFFSET").get(null)).isEqualTo(8);
+        assertThat(flyweightClass.getField("ID_OFFSET").get(null)).isEqualTo(16);
+        assertThat(flyweightClass.getField("TAG_OFFSET").get(null)).isEqualTo(20);
+        assertThat(flyweightClass.getField("VISIBLE_OFFSET").get(null)).isEqualTo(21);
+
+        Object point = invokeStatic(result, "com.example.Point", "write");
+        assertThat(point.getClass().getMethod("x").invoke(point)).isEqualTo(1.5);
+        assertThat(point.getClass().getMethod("y").invoke(point)).isEqualTo(-2.5);
+        assertThat(point.getClass().getMethod("id").invoke(point)).isEqualTo(42);
+        assertThat(point.getClass().getMethod("visible").invoke(point)).isEqualTo(true);
+        assertThat(point.getClass().getMethod("tag").invoke(point)).isEqualTo((byte) 7);
+
+        assertThat(invokeStatic(result, "com.example.Point", "roundTrip", point)).isEqualTo(point);
+        assertThat(invokeStatic(result, "com.example.Point", "readX")).isEqualTo(3.25);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Point", "incomplete"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'id' must be set");
+    }
+
+    @Test
+    public void testIndexOutOfBounds() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Sample.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            import java.nio.ByteBuffer;
+            
+            @Builder(features = Builder.Feature.FLYWEIGHT)
+            public record Sample(int id, byte tag) {
+            
+                // The buffer has room for a partial second element that must not be accessible.
+                private static SampleFlyweight samples() {
+                    return new SampleFlyweight(ByteBuffer.allocate(SampleFlyweight.BYTES + 4));
+                }
+            
+                public static int capacity() {
+                    return samples().capacity();
+                }
+            
+                public static int read() {
+                    return samples().id(1);
+                }
+            
+                public static Sample materialize() {
+                    return samples().materialize(1);
+                }
+            
+                public static void put() {
+                    samples().put(1, new Sample(42, (byte) 7));
+                }
+            
+                public static void readNegative() {
+                    samples().tag(-1);
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThat(invokeStatic(result, "com.example.Sample", "capacity")).isEqualTo(1);
+
+        for (String method : new String[] { "read", "materialize", "put", "readNegative" }) {
+            assertThatThrownBy(() -> invokeStatic(result, "com.example.Sample", method))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    public void testForeignMemory() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Point.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            import java.lang.foreign.Arena;
+
+            @Builder(features = Builder.Feature.FLYWEIGHT)
+            public record Point(double x, int id) {
+
+                public static Point roundTrip(Point point) {
+                    try (Arena arena = Arena.ofConfined()) {
+                        PointFlyweight points = PointFlyweight.allocate(arena, 2);
+                        points.put(1, point);
+
+                        return PointFlyweight.wrap(points.segment()).materialize(1);
+                    }
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(22, Map.of(), cls);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Class<?> recordClass = result.getClassLoader().loadClass("com.example.Point");
+        Object point = recordClass.getConstructor(double.class, int.class).newInstance(1.5, 42);
+        assertThat(invokeStatic(result, "com.example.Point", "roundTrip", point)).isEqualTo(point);
+    }
+
+    @Test
+    public void testForeignMemoryRequiresRelease22() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Point.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.FLYWEIGHT)
+            public record Point(double x, int id) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(22, Map.of("atbuilder.release", "21"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .filteredOn(file -> file.getName().equals("PointFlyweight.java"))
+            .singleElement(InstanceOfAssertFactories.FILE)
+            .content()
+            .doesNotContain("MemorySegment")
+            .doesNotContain("Arena");
+    }
+
+    @Test
+    public void testInvalidRelease() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Point.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.FLYWEIGHT)
+            public record Point(double x, int id) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.release", "21"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Invalid value for option 'atbuilder.release': 21 (must be between 17 and 17)");
+    }
+
+    @Test
+    public void testNonPrimitiveComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(features = com.osmerion.atbuilder.Builder.Feature.FLYWEIGHT)
+            public record Foo(int id, String name) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Feature FLYWEIGHT requires all record components to be primitive, but 'name' is of type java.lang.String");
+    }
+
+    @Test
+    public void testComponentNameClash() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Slot.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(features = com.osmerion.atbuilder.Builder.Feature.FLYWEIGHT)
+            public record Slot(int at, long materialize, double allocateDirect, int reset) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages())
+            .contains("Feature FLYWEIGHT does not support a component named 'at' because its reader would clash with the flyweight's at(int) method")
+            .contains("Feature FLYWEIGHT does not support a component named 'materialize' because its reader would clash with the flyweight's materialize(int) method")
+            .contains("Feature FLYWEIGHT does not support a component named 'allocateDirect' because its reader would clash with the flyweight's allocateDirect(int) method")
+            .contains("Feature FLYWEIGHT does not support an int component named 'reset' because its writer method would clash with the writer's reset(int) method");
+    }
+
+    @Test
+    public void testNonIntComponentNamedReset() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Slot.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(features = com.osmerion.atbuilder.Builder.Feature.FLYWEIGHT)
+            public record Slot(long reset, int capacity, int buffer) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+    }
+
+}
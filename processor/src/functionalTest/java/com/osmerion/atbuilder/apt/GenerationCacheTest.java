@@ -0,0 +1,105 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the persistent generation cache of the processor.
+ *
+ * @author  Leon Linhart
+ */
+public final class GenerationCacheTest extends AbstractFunctionalTest {
+
+    private static SourceFile person(String components) {
+        return createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder
+            public record Person(%s) {}
+            """.formatted(components)
+        );
+    }
+
+    private static List<Path> entries(Path cacheDirectory) throws IOException {
+        try (Stream<Path> paths = Files.list(cacheDirectory)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".builder")).toList();
+        }
+    }
+
+    private static String generatedSource(JvmCompilationResult result) throws IOException {
+        File file = result.getSourcesGeneratedByAnnotationProcessor().get(0);
+        return Files.readString(file.toPath());
+    }
+
+    @Test
+    public void testHit(@TempDir Path cacheDirectory) throws IOException {
+        Map<String, String> options = Map.of("atbuilder.generationCacheDirectory", cacheDirectory.toString());
+
+        JvmCompilationResult first = this.compile(options, person("String name, int age"));
+        assertThat(first.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(first.getMessages()).contains("0 hits, 1 misses");
+
+        List<Path> entries = entries(cacheDirectory);
+        assertThat(entries).hasSize(1);
+
+        // Tamper with the entry to verify that the cached source is used instead of generating the builder again.
+        Path entry = entries.get(0);
+        Files.writeString(entry, Files.readString(entry).replace("A builder for", "A cached builder for"));
+
+        JvmCompilationResult second = this.compile(options, person("String name, int age"));
+        assertThat(second.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(second.getMessages()).contains("1 hits, 0 misses (100.0% hit rate)");
+        assertThat(generatedSource(second)).contains("A cached builder for").contains("public PersonBuilder age(int age)");
+    }
+
+    @Test
+    public void testMissOnChange(@TempDir Path cacheDirectory) throws IOException {
+        Map<String, String> options = Map.of("atbuilder.generationCacheDirectory", cacheDirectory.toString());
+
+        assertThat(this.compile(options, person("String name, int age")).getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        JvmCompilationResult result = this.compile(options, person("String name, long age"));
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(generatedSource(result)).contains("public PersonBuilder age(long age)");
+        assertThat(entries(cacheDirectory)).hasSize(2);
+
+        result = this.compile(Map.of("atbuilder.generationCacheDirectory", cacheDirectory.toString(), "atbuilder.checks", "none"), person("String name, int age"));
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(generatedSource(result)).doesNotContain("requireNonNull");
+        assertThat(entries(cacheDirectory)).hasSize(3);
+    }
+
+    @Test
+    public void testEviction(@TempDir Path cacheDirectory) throws IOException {
+        Map<String, String> options = Map.of(
+            "atbuilder.generationCacheDirectory", cacheDirectory.toString(),
+            "atbuilder.generationCacheMaxEntries", "1"
+        );
+
+        assertThat(this.compile(options, person("String name")).getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        JvmCompilationResult result = this.compile(options, person("String name, int age"));
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).contains("1 evicted");
+        assertThat(entries(cacheDirectory)).hasSize(1);
+    }
+
+}
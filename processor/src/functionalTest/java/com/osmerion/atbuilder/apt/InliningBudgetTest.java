@@ -0,0 +1,184 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the inlining diagnostics and reports.
+ *
+ * @author  Leon Linhart
+ */
+public final class InliningBudgetTest extends AbstractFunctionalTest {
+
+    private static final SourceFile FOO = createJavaFileObject(
+        "com/example/Foo.java",
+        """
+        package com.example;
+        
+        @com.osmerion.atbuilder.Builder
+        public record Foo(String name, int count) {}
+        """
+    );
+
+    @Test
+    public void testNoDiagnosticsByDefault() {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.maxInlineSize", "1"), FOO);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).doesNotContain("MaxInlineSize");
+    }
+
+    @Test
+    public void testDefaultSettersAreInlinable() {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.inliningDiagnostics", "true"), FOO);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).doesNotContain("MaxInlineSize").doesNotContain("FreqInlineSize");
+    }
+
+    @Test
+    public void testDiagnostics() {
+        JvmCompilationResult result = this.compile(
+            Map.of(
+                "atbuilder.inliningDiagnostics", "true",
+                "atbuilder.maxInlineSize", "5",
+                "atbuilder.freqInlineSize", "20"
+            ),
+            FOO
+        );
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages())
+            .contains("FooBuilder.name(java.lang.String) has an estimated bytecode size of")
+            .contains("exceeds MaxInlineSize (5)")
+            .contains("FooBuilder.build() has an estimated bytecode size of")
+            .contains("exceeds FreqInlineSize (20)");
+    }
+
+    @Test
+    public void testReport(@TempDir Path reportDirectory) throws IOException {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.inliningReportDirectory", reportDirectory.toString()), FOO);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Path report = reportDirectory.resolve("com.example.FooBuilder.txt");
+        assertThat(report).exists();
+        assertThat(Files.readString(report))
+            .startsWith("com.example.FooBuilder (estimated bytecode sizes; MaxInlineSize=35, FreqInlineSize=325)")
+            .contains("FooBuilder.name(java.lang.String)")
+            .contains("FooBuilder.count(int)")
+            .contains("FooBuilder.build()");
+    }
+
+    @Test
+    public void testEstimatesMatchCompiledBytecode(@TempDir Path reportDirectory) throws IOException {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.inliningReportDirectory", reportDirectory.toString()), FOO);
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Map<String, Integer> estimates = new HashMap<>();
+        Matcher matcher = Pattern.compile("^\\s*(\\d+)\\s+FooBuilder\\.(\\w+)\\(", Pattern.MULTILINE).matcher(Files.readString(reportDirectory.resolve("com.example.FooBuilder.txt")));
+        while (matcher.find()) estimates.put(matcher.group(2), Integer.parseInt(matcher.group(1)));
+
+        Map<String, Integer> codeLengths;
+        try (InputStream in = result.getClassLoader().getResourceAsStream("com/example/FooBuilder.class")) {
+            assertThat(in).isNotNull();
+            codeLengths = readCodeLengths(new DataInputStream(in));
+        }
+
+        // The estimator does not account for autoboxing (e.g. of the count component), hence the small tolerance.
+        for (String methodName : new String[] { "name", "count", "build" }) {
+            assertThat(estimates).containsKey(methodName);
+            assertThat(codeLengths).containsKey(methodName);
+            assertThat(estimates.get(methodName)).as(methodName).isBetween(codeLengths.get(methodName) - 3, codeLengths.get(methodName) + 3);
+        }
+    }
+
+    /**
+     * Returns the length of the bytecode in the {@code Code} attribute of each method of the given class file by method
+     * name.
+     */
+    private static Map<String, Integer> readCodeLengths(DataInputStream in) throws IOException {
+        in.readInt(); // magic
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    i++;
+                }
+                default -> throw new IOException("Unexpected constant pool tag: " + tag);
+            }
+        }
+
+        in.skipNBytes(6); // access_flags, this_class, super_class
+        in.skipNBytes(2L * in.readUnsignedShort()); // interfaces
+
+        int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.skipNBytes(6); // access_flags, name_index, descriptor_index
+            skipAttributes(in);
+        }
+
+        Map<String, Integer> codeLengths = new HashMap<>();
+
+        int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            in.readUnsignedShort(); // access_flags
+            String name = utf8[in.readUnsignedShort()];
+            in.readUnsignedShort(); // descriptor_index
+
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = utf8[in.readUnsignedShort()];
+                int length = in.readInt();
+
+                if (attributeName.equals("Code")) {
+                    in.skipNBytes(4); // max_stack, max_locals
+                    int codeLength = in.readInt();
+                    codeLengths.put(name, codeLength);
+                    in.skipNBytes(length - 8L);
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        }
+
+        return codeLengths;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            in.readUnsignedShort(); // attribute_name_index
+            in.skipNBytes(Integer.toUnsignedLong(in.readInt()));
+        }
+    }
+
+}
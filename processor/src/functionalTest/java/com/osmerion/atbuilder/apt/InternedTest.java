@@ -0,0 +1,149 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Interned} annotation.
+ *
+ * @author  Leon Linhart
+ */
+public final class InternedTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testInterned() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Address.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.CanonicalPool;
+            import com.osmerion.atbuilder.Interned;
+            import org.jspecify.annotations.Nullable;
+
+            @Builder
+            public record Address(
+                String street,
+                @Interned(pool = "countries") String countryCode,
+                @Interned @Nullable String state
+            ) {
+
+                public static Address create(String street, String countryCode, @Nullable String state) {
+                    return new AddressBuilder().street(street).countryCode(countryCode).state(state).build();
+                }
+
+                public static boolean sharesCountryCode() {
+                    Address a = create(new String("Main St"), new String("DE"), null);
+                    Address b = create(new String("Main St"), new String("DE"), null);
+
+                    return a.countryCode() == b.countryCode() && a.street() != b.street();
+                }
+
+                public static long countryCodeHits() {
+                    return CanonicalPool.lookup("countries").orElseThrow().stats().hits();
+                }
+
+                public static boolean hasStatePool() {
+                    return CanonicalPool.lookup("com.example.Address.state").isPresent();
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private static final CanonicalPool<String> $COUNTRY_CODE_POOL = CanonicalPool.shared(\"countries\", 1024);")
+            .contains("private static final CanonicalPool<String> $STATE_POOL = CanonicalPool.shared(\"com.example.Address.state\", 1024);")
+            .contains("$COUNTRY_CODE_POOL.canonicalize(")
+            .doesNotContain("$STREET_POOL");
+
+        assertThat(invokeStatic(result, "com.example.Address", "sharesCountryCode")).isEqualTo(true);
+        assertThat((long) invokeStatic(result, "com.example.Address", "countryCodeHits")).isPositive();
+        assertThat(invokeStatic(result, "com.example.Address", "hasStatePool")).isEqualTo(true);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Address", "create", "Main St", null, null))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'countryCode' may not be null");
+    }
+
+    @Test
+    public void testPrimitiveComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.Interned;
+
+            @Builder
+            public record Person(String name, @Interned int age) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("@Interned is not supported for component 'age' of primitive type int.");
+    }
+
+    @Test
+    public void testOmittableComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.Interned;
+            import com.osmerion.omittable.Omittable;
+
+            @Builder
+            public record Person(String name, @Interned Omittable<String> nickname) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("@Interned is not supported for Omittable component 'nickname'.");
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.Interned;
+
+            @Builder
+            public record Person(@Interned(capacity = 0) String name, @Interned(capacity = (1 << 30) + 1) String city) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages())
+            .contains("The capacity of the pool of component 'name' must be positive.")
+            .contains("The capacity of the pool of component 'city' must not be greater than 1073741824.");
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#JFR JFR} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class JfrTest extends AbstractFunctionalTest {
+
+    private static final SourceFile PERSON = createJavaFileObject(
+        "com/example/Person.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+
+        @Builder(features = Builder.Feature.JFR)
+        @org.jspecify.annotations.NullMarked
+        public record Person(String name, int age) {
+
+            public static Person build() {
+                return new PersonBuilder().name("Alice").age(30).build();
+            }
+
+            public static Person copy(Person base) {
+                return new PersonBuilder(base).age(31).build();
+            }
+
+            public static String fail() {
+                try {
+                    new PersonBuilder().name("Alice").build();
+                    return "";
+                } catch (IllegalStateException e) {
+                    return e.getMessage();
+                }
+            }
+
+        }
+        """
+    );
+
+    @Test
+    public void testGeneratedCode() {
+        JvmCompilationResult result = this.compile(PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("return $event.complete(this.$build());")
+            .contains("BuildFailureEvent.emit(Person.class, e);")
+            .contains("CopyEvent.emit(Person.class);");
+    }
+
+    @Test
+    public void testEvents(@TempDir Path directory) throws Throwable {
+        JvmCompilationResult result = this.compile(PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Path file = directory.resolve("recording.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.osmerion.atbuilder.Build");
+            recording.enable("com.osmerion.atbuilder.BuildFailure");
+            recording.enable("com.osmerion.atbuilder.Copy");
+            recording.start();
+
+            Object person = invokeStatic(result, "com.example.Person", "build");
+            invokeStatic(result, "com.example.Person", "copy", person);
+            assertThat(invokeStatic(result, "com.example.Person", "fail")).isEqualTo("Component 'age' must be set");
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        assertThat(events)
+            .filteredOn(event -> event.getEventType().getName().equals("com.osmerion.atbuilder.Build"))
+            .hasSize(2)
+            .allSatisfy(event -> assertThat(event.getClass("recordType").getName()).isEqualTo("com.example.Person"));
+
+        assertThat(events)
+            .filteredOn(event -> event.getEventType().getName().equals("com.osmerion.atbuilder.Copy"))
+            .singleElement()
+            .satisfies(event -> assertThat(event.getClass("recordType").getName()).isEqualTo("com.example.Person"));
+
+        assertThat(events)
+            .filteredOn(event -> event.getEventType().getName().equals("com.osmerion.atbuilder.BuildFailure"))
+            .singleElement()
+            .satisfies(event -> {
+                assertThat(event.getClass("recordType").getName()).isEqualTo("com.example.Person");
+                assertThat(event.getClass("failureType").getName()).isEqualTo("java.lang.IllegalStateException");
+                assertThat(event.getString("message")).isEqualTo("Component 'age' must be set");
+            });
+    }
+
+}
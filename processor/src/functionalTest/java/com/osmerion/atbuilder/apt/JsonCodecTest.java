@@ -0,0 +1,234 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#JSON JSON} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class JsonCodecTest extends AbstractFunctionalTest {
+
+    private static final SourceFile ADDRESS = createJavaFileObject(
+        "com/example/Address.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+
+        @Builder(features = Builder.Feature.JSON)
+        public record Address(String city, short zip) {}
+        """
+    );
+
+    private static final SourceFile PERSON = createJavaFileObject(
+        "com/example/Person.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+        import com.osmerion.omittable.Omittable;
+        import org.jspecify.annotations.Nullable;
+
+        @Builder(features = Builder.Feature.JSON)
+        @org.jspecify.annotations.NullMarked
+        public record Person(
+            String name,
+            int age,
+            double score,
+            boolean active,
+            @Nullable Long rank,
+            Status status,
+            Address address,
+            Omittable<String> nickname,
+            Omittable<@Nullable String> email
+        ) {
+
+            public enum Status { ACTIVE, RETIRED }
+
+            public static Person full() {
+                return new Person("Alice \\"Ali\\"", 30, 0.5, true, null, Status.RETIRED, new Address("Berlin", (short) 10115), Omittable.of("Ali"), Omittable.of(null));
+            }
+
+            public static Person sparse() {
+                return new Person("Bob", -1, -2.25, false, 7L, Status.ACTIVE, new Address("", (short) 0), Omittable.absent(), Omittable.absent());
+            }
+
+            public static String toJson(Person person) {
+                return PersonJson.toJson(person);
+            }
+
+            public static Person fromJson(String json) {
+                return PersonJson.fromJson(json);
+            }
+
+            public static boolean hasNickname(Person person) {
+                return person.nickname().isPresent();
+            }
+
+        }
+        """
+    );
+
+    @Test
+    public void testRoundTrip() throws Throwable {
+        JvmCompilationResult result = this.compile(ADDRESS, PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .extracting(File::getName)
+            .containsExactlyInAnyOrder("AddressBuilder.java", "AddressJson.java", "PersonBuilder.java", "PersonJson.java");
+
+        Object full = invokeStatic(result, "com.example.Person", "full");
+        assertThat(invokeStatic(result, "com.example.Person", "toJson", full)).isEqualTo(
+            "{\"name\":\"Alice \\\"Ali\\\"\",\"age\":30,\"score\":0.5,\"active\":true,\"rank\":null,\"status\":\"RETIRED\",\"address\":{\"city\":\"Berlin\",\"zip\":10115},\"nickname\":\"Ali\",\"email\":null}"
+        );
+
+        for (String factory : new String[] { "full", "sparse" }) {
+            Object person = invokeStatic(result, "com.example.Person", factory);
+            Object json = invokeStatic(result, "com.example.Person", "toJson", person);
+
+            assertThat(invokeStatic(result, "com.example.Person", "fromJson", json)).isEqualTo(person);
+        }
+    }
+
+    @Test
+    public void testRead() throws Throwable {
+        JvmCompilationResult result = this.compile(ADDRESS, PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Object person = invokeStatic(
+            result,
+            "com.example.Person",
+            "fromJson",
+            """
+            {
+                "unknown": [1, {"nested": true}, "x"],
+                "active": false,
+                "address": { "zip": 1, "city": "Paris" },
+                "age": 3,
+                "email": null,
+                "name": "Eve",
+                "rank": 2,
+                "score": 1e2,
+                "status": "ACTIVE"
+            }
+            """
+        );
+
+        assertThat(person.getClass().getMethod("name").invoke(person)).isEqualTo("Eve");
+        assertThat(person.getClass().getMethod("score").invoke(person)).isEqualTo(100.0);
+        assertThat(person.getClass().getMethod("rank").invoke(person)).isEqualTo(2L);
+        assertThat(invokeStatic(result, "com.example.Person", "hasNickname", person)).isEqualTo(false);
+    }
+
+    @Test
+    public void testReadInvalid() {
+        JvmCompilationResult result = this.compile(ADDRESS, PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"name\":\"Eve\"}"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'age' must be set");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"name\":null}"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"age\":\"3\"}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Expected an integer at offset 7");
+    }
+
+    @Test
+    public void testReadMalformedNumber() {
+        JvmCompilationResult result = this.compile(ADDRESS, PERSON);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        for (String number : new String[] { "01", "-01", "1-2", "1.", "1.e2", "1e", "1e+" }) {
+            assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"score\":" + number + "}"))
+                .as(number)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed number at offset 9");
+        }
+
+        for (String number : new String[] { "+1", ".5", "-", "--1" }) {
+            assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"score\":" + number + "}"))
+                .as(number)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected a number at offset 9");
+        }
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"age\":01}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Malformed number at offset 7");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "fromJson", "{\"unknown\":[1,01]}"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Malformed number at offset 14");
+    }
+
+    @Test
+    public void testReadFloat() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Sample.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            @Builder(features = Builder.Feature.JSON)
+            public record Sample(float value) {
+
+                public static Sample fromJson(String json) {
+                    return SampleJson.fromJson(json);
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        // Rounding this value to a double first yields the midpoint between two floats, which then rounds up.
+        Object sample = invokeStatic(result, "com.example.Sample", "fromJson", "{\"value\":1.00000017881393432617187499}");
+        assertThat(sample.getClass().getMethod("value").invoke(sample)).isEqualTo(Float.parseFloat("1.00000017881393432617187499"));
+    }
+
+    @Test
+    public void testUnsupportedComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+
+            import java.util.List;
+
+            @Builder(features = Builder.Feature.JSON)
+            public record Person(String name, List<String> tags) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Feature JSON does not support component 'tags' of type java.util.List<java.lang.String>.");
+    }
+
+}
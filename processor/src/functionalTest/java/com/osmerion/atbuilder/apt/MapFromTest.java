@@ -0,0 +1,141 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the code generation for {@link com.osmerion.atbuilder.MapFrom @MapFrom}.
+ *
+ * @author  Leon Linhart
+ */
+public final class MapFromTest extends AbstractFunctionalTest {
+
+    private static final SourceFile PERSON_DTO = createJavaFileObject(
+        "com/example/dto/PersonDto.java",
+        """
+        package com.example.dto;
+
+        public record PersonDto(String name, Integer age, String nickname, String internalId) {}
+        """
+    );
+
+    @Test
+    public void testMapping() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.example.dto.PersonDto;
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.MapFrom;
+            import com.osmerion.omittable.Omittable;
+
+            @Builder
+            @MapFrom(PersonDto.class)
+            @org.jspecify.annotations.NullMarked
+            public record Person(String name, int age, Omittable<String> nickname, Omittable<String> email) {
+
+                public static Person map() {
+                    return PersonBuilder.from(new PersonDto("Alice", 30, "Ali", "42")).build();
+                }
+
+                public static Person expected() {
+                    return new Person("Alice", 30, Omittable.of("Ali"), Omittable.absent());
+                }
+
+                public static String mapNull() {
+                    try {
+                        PersonBuilder.from(new PersonDto(null, 30, "Ali", "42"));
+                        return "";
+                    } catch (NullPointerException e) {
+                        return e.getMessage();
+                    }
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(PERSON_DTO, cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).doesNotContain("No accessor found");
+
+        assertThat(invokeStatic(result, "com.example.Person", "map")).isEqualTo(invokeStatic(result, "com.example.Person", "expected"));
+        assertThat(invokeStatic(result, "com.example.Person", "mapNull")).isEqualTo("Component 'name' may not be null");
+    }
+
+    @Test
+    public void testMissingAccessor() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.example.dto.PersonDto;
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.MapFrom;
+
+            @Builder
+            @MapFrom(PersonDto.class)
+            public record Person(String name, String country) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(PERSON_DTO, cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).contains("No accessor found for component 'country' in com.example.dto.PersonDto. The component must be set explicitly.");
+    }
+
+    @Test
+    public void testIncompatibleType() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.example.dto.PersonDto;
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.MapFrom;
+
+            @Builder
+            @MapFrom(PersonDto.class)
+            public record Person(String name, long internalId) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(PERSON_DTO, cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Cannot map component 'internalId' from com.example.dto.PersonDto: java.lang.String cannot be converted to long.");
+    }
+
+    @Test
+    public void testMissingBuilderAnnotation() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.example.dto.PersonDto;
+            import com.osmerion.atbuilder.MapFrom;
+
+            @MapFrom(PersonDto.class)
+            public record Person(String name) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(PERSON_DTO, cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("@MapFrom may only be applied to records that are annotated with @Builder.");
+    }
+
+}
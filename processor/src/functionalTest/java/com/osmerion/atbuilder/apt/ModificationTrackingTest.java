@@ -0,0 +1,117 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#TRACK_MODIFICATIONS TRACK_MODIFICATIONS}
+ * feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class ModificationTrackingTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testModificationMask() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            @Builder(features = Builder.Feature.TRACK_MODIFICATIONS)
+            @org.jspecify.annotations.NullMarked
+            public record Foo(String name, int count, String country) {
+            
+                public static FooBuilder fresh() {
+                    return new FooBuilder().name("Alice");
+                }
+            
+                public static FooBuilder copy(Foo other) {
+                    return new FooBuilder(other).country("Germany").country("France");
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private @Nullable Foo $source;")
+            .contains("private long $modified;")
+            .contains("this.$modified |= 1L << 2;");
+
+        Object fresh = invokeStatic(result, "com.example.Foo", "fresh");
+        assertThat(fresh.getClass().getMethod("source").invoke(fresh)).isNull();
+        assertThat(fresh.getClass().getMethod("modifiedComponentsMask").invoke(fresh)).isEqualTo(0b001L);
+
+        Object original = fresh.getClass().getMethod("count", int.class).invoke(fresh, 1);
+        original = original.getClass().getMethod("country", String.class).invoke(original, "Spain");
+        original = original.getClass().getMethod("build").invoke(original);
+
+        Object copy = invokeStatic(result, "com.example.Foo", "copy", original);
+        assertThat(copy.getClass().getMethod("source").invoke(copy)).isSameAs(original);
+        assertThat(copy.getClass().getMethod("modifiedComponentsMask").invoke(copy)).isEqualTo(0b100L);
+        assertThat(copy.getClass().getMethod("modifiedComponents").invoke(copy)).isEqualTo(BitSet.valueOf(new long[] { 0b100L }));
+    }
+
+    @Test
+    public void testWideRecord() throws Throwable {
+        String components = IntStream.range(0, 70)
+            .mapToObj(i -> "int c" + i)
+            .collect(Collectors.joining(", "));
+
+        SourceFile cls = createJavaFileObject(
+            "com/example/Wide.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            @Builder(features = Builder.Feature.TRACK_MODIFICATIONS)
+            public record Wide(%s) {
+            
+                public static WideBuilder modify() {
+                    return new WideBuilder().c1(1).c65(65);
+                }
+            
+            }
+            """.formatted(components)
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private final long[] $modified = new long[2];")
+            .doesNotContain("modifiedComponentsMask");
+
+        Object builder = invokeStatic(result, "com.example.Wide", "modify");
+
+        BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(65);
+
+        assertThat(builder.getClass().getMethod("modifiedComponents").invoke(builder)).isEqualTo(expected);
+    }
+
+}
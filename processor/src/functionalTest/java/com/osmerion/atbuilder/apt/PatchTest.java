@@ -0,0 +1,87 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#PATCH PATCH} feature.
+ *
+ * @author  Leon Linhart
+ */
+public final class PatchTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testPatchDefaultStrategy() throws Throwable {
+        this.testPatch("default");
+    }
+
+    @Test
+    public void testPatchStartupStrategy() throws Throwable {
+        this.testPatch("startup");
+    }
+
+    @Test
+    public void testPatchWideStrategy() throws Throwable {
+        this.testPatch("wide");
+    }
+
+    private void testPatch(String strategy) throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            
+            @Builder(strategy = "%s", features = Builder.Feature.PATCH)
+            @org.jspecify.annotations.NullMarked
+            public record Person(String name, int age, Omittable<String> nickname) {
+            
+                public static Person base() {
+                    return new Person("Alice", 30, Omittable.absent());
+                }
+            
+                public static Person applyEmpty(Person base) {
+                    return new PersonBuilder().applyTo(base);
+                }
+            
+                public static Person applyAge(Person base) {
+                    return new PersonBuilder().age(31).applyTo(base);
+                }
+            
+                public static Person merge() {
+                    PersonBuilder patch = new PersonBuilder().age(3).nickname(Omittable.of("Bob"));
+                    return new PersonBuilder().name("Robert").age(2).merge(patch).build();
+                }
+            
+                public static Person expectedMerge() {
+                    return new Person("Robert", 3, Omittable.of("Bob"));
+                }
+            
+            }
+            """.formatted(strategy)
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Object base = invokeStatic(result, "com.example.Person", "base");
+        assertThat(invokeStatic(result, "com.example.Person", "applyEmpty", base)).isSameAs(base);
+
+        Object older = invokeStatic(result, "com.example.Person", "applyAge", base);
+        assertThat(older.getClass().getMethod("name").invoke(older)).isEqualTo("Alice");
+        assertThat(older.getClass().getMethod("age").invoke(older)).isEqualTo(31);
+        assertThat(older.getClass().getMethod("nickname").invoke(older)).isEqualTo(base.getClass().getMethod("nickname").invoke(base));
+
+        Object merged = invokeStatic(result, "com.example.Person", "merge");
+        assertThat(merged).isEqualTo(invokeStatic(result, "com.example.Person", "expectedMerge"));
+    }
+
+}
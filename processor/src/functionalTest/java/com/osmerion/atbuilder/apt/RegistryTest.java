@@ -0,0 +1,135 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the generation of builder registries and their lookup using
+ * {@link com.osmerion.atbuilder.Builders}.
+ *
+ * @author  Leon Linhart
+ */
+public final class RegistryTest extends AbstractFunctionalTest {
+
+    private static final SourceFile PERSON = createJavaFileObject(
+        "com/example/Person.java",
+        """
+        package com.example;
+
+        import com.osmerion.atbuilder.Builder;
+        import com.osmerion.atbuilder.Builders;
+
+        @Builder
+        public record Person(String name, int age) {
+
+            public static Person lookup() {
+                PersonBuilder builder = (PersonBuilder) Builders.forType(Person.class).newBuilder();
+                return builder.name("Alice").age(30).build();
+            }
+
+            public static Person copy(Person base) {
+                PersonBuilder builder = (PersonBuilder) Builders.forType(Person.class).newBuilder(base);
+                return builder.age(31).build();
+            }
+
+            public static boolean isBoxRegistered() {
+                return Builders.findForType(com.example.box.Box.class).isPresent();
+            }
+
+            public static boolean isUnannotatedRegistered() {
+                return Builders.findForType(Unannotated.class).isPresent();
+            }
+
+            public record Unannotated(String name) {}
+
+        }
+        """
+    );
+
+    private static final SourceFile BOX = createJavaFileObject(
+        "com/example/box/Box.java",
+        """
+        package com.example.box;
+
+        import com.osmerion.atbuilder.Builder;
+
+        @Builder
+        public record Box<T>(T value) {}
+        """
+    );
+
+    @Test
+    public void testRegistry() throws Throwable {
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.registry", "true"), PERSON, BOX);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getMessages()).doesNotContain("created in the last round");
+
+        Object person = invokeStatic(result, "com.example.Person", "lookup");
+        assertThat(person.getClass().getMethod("name").invoke(person)).isEqualTo("Alice");
+
+        Object copy = invokeStatic(result, "com.example.Person", "copy", person);
+        assertThat(copy.getClass().getMethod("age").invoke(copy)).isEqualTo(31);
+
+        assertThat(invokeStatic(result, "com.example.Person", "isBoxRegistered")).isEqualTo(true);
+        assertThat(invokeStatic(result, "com.example.Person", "isUnannotatedRegistered")).isEqualTo(false);
+
+        assertThat(result.getClassLoader().getResource("META-INF/atbuilder/index")).isNotNull();
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .extracting(File::getName)
+            .anyMatch(name -> name.matches("AtBuilderRegistry_[0-9a-f]{16}\\.java"));
+    }
+
+    @Test
+    public void testSeparateCompilationsInSamePackage() throws Throwable {
+        JvmCompilationResult main = this.compile(Map.of("atbuilder.registry", "true"), PERSON, BOX);
+        assertThat(main.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        SourceFile address = createJavaFileObject(
+            "com/example/Address.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.Builders;
+
+            @Builder
+            public record Address(String city) {
+
+                public static boolean isAddressRegistered() {
+                    return Builders.findForType(Address.class).isPresent();
+                }
+
+                public static boolean isPersonRegistered() {
+                    return Builders.findForType(Person.class).isPresent();
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult test = this.compile(17, Map.of("atbuilder.registry", "true"), List.of(main.getOutputDirectory()), address);
+        assertThat(test.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThat(invokeStatic(test, "com.example.Address", "isAddressRegistered")).isEqualTo(true);
+        assertThat(invokeStatic(test, "com.example.Address", "isPersonRegistered")).isEqualTo(true);
+    }
+
+    @Test
+    public void testRegistryDisabledByDefault() {
+        JvmCompilationResult result = this.compile(PERSON, BOX);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getClassLoader().getResource("META-INF/atbuilder/index")).isNull();
+    }
+
+}
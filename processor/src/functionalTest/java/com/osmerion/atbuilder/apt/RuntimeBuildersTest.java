@@ -0,0 +1,99 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate that {@link com.osmerion.atbuilder.RuntimeBuilders runtime builders} behave like
+ * generated builders.
+ *
+ * @author  Leon Linhart
+ */
+public final class RuntimeBuildersTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testRuntimeBuilder() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.RuntimeBuilders;
+            import com.osmerion.omittable.Omittable;
+            import org.jspecify.annotations.Nullable;
+
+            @Builder
+            @org.jspecify.annotations.NullMarked
+            public record Person(String name, int age, @Nullable String note, Omittable<String> nickname) {
+
+                public static Person generated() {
+                    return new PersonBuilder().name("Alice").age(30).note(null).build();
+                }
+
+                public static Person runtime() {
+                    return RuntimeBuilders.of(Person.class).set("name", "Alice").set("age", 30).set("note", null).build();
+                }
+
+                public static Person copy(Person base) {
+                    return RuntimeBuilders.from(base).set("age", 31).build();
+                }
+
+                public static String missing() {
+                    try {
+                        RuntimeBuilders.of(Person.class).set("name", "Alice").build();
+                        return "";
+                    } catch (IllegalStateException e) {
+                        return e.getMessage();
+                    }
+                }
+
+                public static String nullValue() {
+                    try {
+                        RuntimeBuilders.of(Person.class).set("name", null);
+                        return "";
+                    } catch (NullPointerException e) {
+                        return e.getMessage();
+                    }
+                }
+
+                public static String wrongType() {
+                    try {
+                        RuntimeBuilders.of(Person.class).set("age", "thirty");
+                        return "";
+                    } catch (IllegalArgumentException e) {
+                        return e.getMessage();
+                    }
+                }
+
+                public static boolean isNicknameAbsent(Person person) {
+                    return person.nickname().isAbsent();
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        Object runtime = invokeStatic(result, "com.example.Person", "runtime");
+        assertThat(runtime).isEqualTo(invokeStatic(result, "com.example.Person", "generated"));
+        assertThat(invokeStatic(result, "com.example.Person", "isNicknameAbsent", runtime)).isEqualTo(true);
+
+        Object copy = invokeStatic(result, "com.example.Person", "copy", runtime);
+        assertThat(copy.getClass().getMethod("name").invoke(copy)).isEqualTo("Alice");
+        assertThat(copy.getClass().getMethod("age").invoke(copy)).isEqualTo(31);
+
+        assertThat(invokeStatic(result, "com.example.Person", "missing")).isEqualTo("Component 'age' must be set");
+        assertThat(invokeStatic(result, "com.example.Person", "nullValue")).isEqualTo("Component 'name' may not be null");
+        assertThat(invokeStatic(result, "com.example.Person", "wrongType")).isEqualTo("Component 'age' is of type int but got java.lang.String");
+    }
+
+}
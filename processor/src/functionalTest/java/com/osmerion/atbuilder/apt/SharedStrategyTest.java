@@ -0,0 +1,101 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@code shared} code generation strategy.
+ *
+ * @author  Leon Linhart
+ */
+public final class SharedStrategyTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testSharedStrategy() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            import org.jspecify.annotations.Nullable;
+
+            import java.util.List;
+
+            @Builder(strategy = "shared")
+            @org.jspecify.annotations.NullMarked
+            public record Person<T>(String name, int age, @Nullable String email, Omittable<String> nickname, List<T> tags) {
+
+                public static Person<String> build() {
+                    return new PersonBuilder<String>()
+                        .name("Alice")
+                        .age(29)
+                        .age(30)
+                        .email(null)
+                        .tags(List.of("a"))
+                        .build();
+                }
+
+                public static Person<String> copy(Person<String> other) {
+                    return new PersonBuilder<>(other).nickname(Omittable.of("Ali")).build();
+                }
+
+                public static String nickname(Person<String> person) {
+                    return person.nickname().orElse("-");
+                }
+
+                public static void nullName() {
+                    new PersonBuilder<String>().name(null);
+                }
+
+                public static void incomplete() {
+                    new PersonBuilder<String>().name("Alice").email("alice@example.com").build();
+                }
+
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private static final SlotLayout $LAYOUT = new SlotLayout(new String[] { \"name\", \"age\", \"email\", \"nickname\", \"tags\" }, new int[] { 0, 1, 2, 4 });")
+            .contains("private final @Nullable Object[] $slots = $LAYOUT.newSlots();")
+            .doesNotContain("private Omittable")
+            .doesNotContain("->");
+
+        Object person = invokeStatic(result, "com.example.Person", "build");
+        assertThat(person.getClass().getMethod("name").invoke(person)).isEqualTo("Alice");
+        assertThat(person.getClass().getMethod("age").invoke(person)).isEqualTo(30);
+        assertThat(person.getClass().getMethod("email").invoke(person)).isNull();
+        assertThat(person.getClass().getMethod("tags").invoke(person)).isEqualTo(List.of("a"));
+        assertThat(invokeStatic(result, "com.example.Person", "nickname", person)).isEqualTo("-");
+
+        Object copy = invokeStatic(result, "com.example.Person", "copy", person);
+        assertThat(copy.getClass().getMethod("age").invoke(copy)).isEqualTo(30);
+        assertThat(invokeStatic(result, "com.example.Person", "nickname", copy)).isEqualTo("Ali");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "nullName"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Person", "incomplete"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'age' must be set");
+    }
+
+}
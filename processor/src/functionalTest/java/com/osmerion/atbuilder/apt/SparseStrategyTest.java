@@ -0,0 +1,94 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the {@code sparse} code generation strategy.
+ *
+ * @author  Leon Linhart
+ */
+public final class SparseStrategyTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testSparseStrategy() throws Throwable {
+        String options = IntStream.range(0, 60)
+            .mapToObj(i -> "Omittable<String> option" + i)
+            .collect(Collectors.joining(", "));
+
+        SourceFile cls = createJavaFileObject(
+            "com/example/Config.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.omittable.Omittable;
+            
+            @Builder(strategy = "sparse")
+            @org.jspecify.annotations.NullMarked
+            public record Config(String name, int version, %s) {
+            
+                public static Config build() {
+                    return new ConfigBuilder()
+                        .option42(Omittable.of("foo"))
+                        .name("config")
+                        .version(1)
+                        .version(2)
+                        .option7(Omittable.of("bar"))
+                        .build();
+                }
+            
+                public static Config copy(Config other) {
+                    return new ConfigBuilder(other).option7(Omittable.of("baz")).build();
+                }
+            
+                public static String option(Config config, int index) {
+                    return (index == 7 ? config.option7() : index == 42 ? config.option42() : config.option0()).orElse("-");
+                }
+            
+                public static void incomplete() {
+                    new ConfigBuilder().name("config").option1(Omittable.of("foo")).build();
+                }
+            
+            }
+            """.formatted(options)
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private int[] $keys = $NO_KEYS;")
+            .doesNotContain("private Omittable");
+
+        Object config = invokeStatic(result, "com.example.Config", "build");
+        assertThat(config.getClass().getMethod("name").invoke(config)).isEqualTo("config");
+        assertThat(config.getClass().getMethod("version").invoke(config)).isEqualTo(2);
+        assertThat(invokeStatic(result, "com.example.Config", "option", config, 0)).isEqualTo("-");
+        assertThat(invokeStatic(result, "com.example.Config", "option", config, 7)).isEqualTo("bar");
+        assertThat(invokeStatic(result, "com.example.Config", "option", config, 42)).isEqualTo("foo");
+
+        Object copy = invokeStatic(result, "com.example.Config", "copy", config);
+        assertThat(copy.getClass().getMethod("version").invoke(copy)).isEqualTo(2);
+        assertThat(invokeStatic(result, "com.example.Config", "option", copy, 7)).isEqualTo("baz");
+        assertThat(invokeStatic(result, "com.example.Config", "option", copy, 42)).isEqualTo("foo");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Config", "incomplete"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'version' must be set");
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the lambda-free {@code startup} code generation strategy.
+ *
+ * @author  Leon Linhart
+ */
+public final class StartupStrategyTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testStartupStrategy() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder
+            @org.jspecify.annotations.NullMarked
+            public record Foo(String value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.strategy", "startup"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .isEqualTo(
+                """
+                package com.example;
+                
+                import com.osmerion.atbuilder.internal.Checks;
+                import com.osmerion.omittable.Omittable;
+                import java.util.Objects;
+                import org.jspecify.annotations.NullMarked;
+                
+                /**
+                 * A builder for {@link Foo} instances.
+                 */
+                @NullMarked
+                public final class FooBuilder {
+                    private Omittable<String> value = Omittable.absent();
+                
+                    FooBuilder() {
+                    }
+                
+                    FooBuilder(Foo other) {
+                        this.value = Omittable.of(other.value());
+                    }
+                
+                    /**
+                     * Sets the value of the {@link Foo#value() value} component.
+                     *
+                     * @param value the value for the component
+                     *
+                     * @return  this builder instance
+                     */
+                    public FooBuilder value(String value) {
+                        this.value = Omittable.of(Objects.requireNonNull(value, "Component 'value' may not be null"));
+                        return this;
+                    }
+                
+                    /**
+                     * Builds a new {@link Foo} instance with the values set in this builder.
+                     *
+                     * @return the newly created instance
+                     *
+                     * @throws IllegalStateException   if any of the required components are not set
+                     */
+                    public Foo build() {
+                        return new Foo(
+                            Checks.requireComponent(this.value, "value")
+                        );
+                    }
+                }
+                """
+            );
+    }
+
+    @Test
+    public void testMissingComponent() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder
+            @org.jspecify.annotations.NullMarked
+            public record Foo(String name, int count) {
+            
+                public static Foo buildWithoutCount() {
+                    return new FooBuilder().name("Alice").build();
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.strategy", "startup"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Foo", "buildWithoutCount"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'count' must be set");
+    }
+
+    @Test
+    public void testUnknownStrategy() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder
+            public record Foo(String value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.strategy", "unknown"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Unknown builder strategy: unknown");
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the selection of code generation strategies and the strategy SPI.
+ *
+ * @author  Leon Linhart
+ */
+public final class StrategyTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testStrategyAttribute() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(strategy = "startup")
+            public record Foo(String value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("Checks.requireComponent(this.value, \"value\")")
+            .doesNotContain("->");
+    }
+
+    @Test
+    public void testStrategyAttributeOverridesOption() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(strategy = "default")
+            public record Foo(String value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.strategy", "startup"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("this.value.orElseThrow(() -> new IllegalStateException(\"Component 'value' must be set\"))");
+    }
+
+    @Test
+    public void testUnknownStrategyAttribute() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(strategy = "unknown")
+            public record Foo(String value) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.COMPILATION_ERROR);
+        assertThat(result.getMessages()).contains("Unknown builder strategy: unknown");
+    }
+
+    @Test
+    public void testServiceLoaderStrategy() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            import com.osmerion.omittable.Omittable;
+            import org.jspecify.annotations.Nullable;
+            
+            @com.osmerion.atbuilder.Builder(strategy = "plain-fields")
+            @org.jspecify.annotations.NullMarked
+            public record Foo(String name, @Nullable String nickname, int count, Omittable<String> note) {
+            
+                public static Foo build(String name, int count) {
+                    return new FooBuilder().name(name).nickname(null).count(count).build();
+                }
+            
+                public static Foo buildWithoutNickname() {
+                    return new FooBuilder().name("Alice").count(1).build();
+                }
+            
+                public static Foo copy(Foo other) {
+                    return new FooBuilder(other).build();
+                }
+            
+                public static FooBuilder nullName() {
+                    return new FooBuilder().name(null);
+                }
+            
+            }
+            """
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private boolean name$set;")
+            .doesNotContain("->");
+
+        Object foo = invokeStatic(result, "com.example.Foo", "build", "Alice", 42);
+        assertThat(foo).extracting("name", "nickname", "count").containsExactly("Alice", null, 42);
+        assertThat(invokeStatic(result, "com.example.Foo", "copy", foo)).isEqualTo(foo);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Foo", "buildWithoutNickname"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'nickname' must be set");
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Foo", "nullName"))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessage("Component 'name' may not be null");
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Functional tests that validate the {@link com.osmerion.atbuilder.Builder.Feature#TRY_BUILD TRY_BUILD} and
+ * {@link com.osmerion.atbuilder.Builder.Feature#STACKLESS_EXCEPTIONS STACKLESS_EXCEPTIONS} features.
+ *
+ * @author  Leon Linhart
+ */
+public final class TryBuildTest extends AbstractFunctionalTest {
+
+    @Test
+    public void testTryBuildDefaultStrategy() throws Throwable {
+        this.testTryBuild("default");
+    }
+
+    @Test
+    public void testTryBuildWideStrategy() throws Throwable {
+        this.testTryBuild("wide");
+    }
+
+    @Test
+    public void testTryBuildSparseStrategy() throws Throwable {
+        this.testTryBuild("sparse");
+    }
+
+    private void testTryBuild(String strategy) throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Person.java",
+            """
+            package com.example;
+
+            import com.osmerion.atbuilder.BuildResult;
+            import com.osmerion.atbuilder.Builder;
+            import com.osmerion.atbuilder.MissingComponentsException;
+            import com.osmerion.omittable.Omittable;
+            import java.util.List;
+
+            @Builder(strategy = "%s", features = { Builder.Feature.STACKLESS_EXCEPTIONS, Builder.Feature.TRY_BUILD })
+            @org.jspecify.annotations.NullMarked
+            public record Person(String name, int age, Omittable<String> nickname, String country) {
+
+                public static List<String> missing() {
+                    BuildResult<Person> result = new PersonBuilder().age(30).tryBuild();
+                    return ((BuildResult.Failure<Person>) result).missingComponents();
+                }
+
+                public static Person success() {
+                    return new PersonBuilder().name("Alice").age(30).country("Germany").tryBuild().orElseThrow();
+                }
+
+                public static Person expected() {
+                    return new Person("Alice", 30, Omittable.absent(), "Germany");
+                }
+
+                public static String message() {
+                    try {
+                        new PersonBuilder().age(30).build();
+                        return "";
+                    } catch (MissingComponentsException e) {
+                        return e.getMessage();
+                    }
+                }
+
+                public static int stackTraceLength() {
+                    try {
+                        new PersonBuilder().build();
+                        return -1;
+                    } catch (MissingComponentsException e) {
+                        return e.getStackTrace().length;
+                    }
+                }
+
+            }
+            """.formatted(strategy)
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+
+        assertThat(invokeStatic(result, "com.example.Person", "missing")).isEqualTo(List.of("name", "country"));
+        assertThat(invokeStatic(result, "com.example.Person", "success")).isEqualTo(invokeStatic(result, "com.example.Person", "expected"));
+        assertThat(invokeStatic(result, "com.example.Person", "message")).isEqualTo("Components 'name', 'country' must be set");
+        assertThat(invokeStatic(result, "com.example.Person", "stackTraceLength")).isEqualTo(0);
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.osmerion.atbuilder.apt;
+
+import com.tschuchort.compiletesting.JvmCompilationResult;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.SourceFile;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.osmerion.atbuilder.apt.util.StringFileObjectFactory.createJavaFileObject;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Functional tests that validate the code generation for records with many components.
+ *
+ * @author  Leon Linhart
+ */
+public final class WideRecordTest extends AbstractFunctionalTest {
+
+    private static String components(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> (i % 2 == 0 ? "int c" : "String c") + i)
+            .collect(Collectors.joining(", "));
+    }
+
+    private static String setters(int count, int skip) {
+        return IntStream.range(0, count)
+            .filter(i -> i != skip)
+            .mapToObj(i -> i % 2 == 0 ? ".c" + i + "(" + i + ")" : ".c" + i + "(\"" + i + "\")")
+            .collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    public void testWideRecord() throws Throwable {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Wide.java",
+            """
+            package com.example;
+            
+            import com.osmerion.atbuilder.Builder;
+            
+            @Builder
+            @org.jspecify.annotations.NullMarked
+            public record Wide(%s) {
+            
+                public static Wide complete() {
+                    return new WideBuilder()
+                        %s
+                        .build();
+                }
+            
+                public static Wide incomplete() {
+                    return new WideBuilder()
+                        %s
+                        .build();
+                }
+            
+                public static Wide copy(Wide other) {
+                    return new WideBuilder(other).build();
+                }
+            
+            }
+            """.formatted(components(100), setters(100, -1), setters(100, 67))
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private int c0;")
+            .contains("private @Nullable String c1;")
+            .contains("private long $set1;")
+            .contains("this.copy1(other);")
+            .doesNotContain("Omittable")
+            .doesNotContain("$set2");
+
+        Object complete = invokeStatic(result, "com.example.Wide", "complete");
+        assertThat(complete.getClass().getMethod("c98").invoke(complete)).isEqualTo(98);
+        assertThat(complete.getClass().getMethod("c99").invoke(complete)).isEqualTo("99");
+
+        assertThat(invokeStatic(result, "com.example.Wide", "copy", complete)).isEqualTo(complete);
+
+        assertThatThrownBy(() -> invokeStatic(result, "com.example.Wide", "incomplete"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Component 'c67' must be set");
+    }
+
+    @Test
+    public void testWideRecordThresholdOption() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Foo.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder
+            public record Foo(String name, int count, String country) {}
+            """
+        );
+
+        JvmCompilationResult result = this.compile(Map.of("atbuilder.wideRecordThreshold", "2"), cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("private long $set0;")
+            .doesNotContain("Omittable");
+    }
+
+    @Test
+    public void testExplicitStrategyOverridesWideRecordDetection() {
+        SourceFile cls = createJavaFileObject(
+            "com/example/Wide.java",
+            """
+            package com.example;
+            
+            @com.osmerion.atbuilder.Builder(strategy = "default")
+            public record Wide(%s) {}
+            """.formatted(components(40))
+        );
+
+        JvmCompilationResult result = this.compile(cls);
+
+        assertThat(result.getExitCode()).isEqualTo(KotlinCompilation.ExitCode.OK);
+        assertThat(result.getSourcesGeneratedByAnnotationProcessor())
+            .hasSize(1)
+            .first(InstanceOfAssertFactories.FILE)
+            .content()
+            .contains("Omittable")
+            .doesNotContain("$set0");
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.osmerion.atbuilder.apt.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Measures the number of bytes that are allocated on the heap by the current thread.
+ *
+ * <p>The measurement is based on {@link ThreadMXBean#getThreadAllocatedBytes(long)} and is deterministic as long as the
+ * JIT compiler does not eliminate allocations. The allocation tests are therefore run with escape analysis
+ * disabled.</p>
+ */
+public final class AllocationMeter {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @SuppressWarnings("unused")
+    private static volatile Object sink;
+
+    /**
+     * Returns whether allocations can be measured in the current JVM.
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN.isThreadAllocatedMemorySupported() && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns whether the current JVM uses compressed object pointers. Allocation budgets are computed for this
+     * (default) configuration.
+     */
+    public static boolean usesCompressedOops() {
+        HotSpotDiagnosticMXBean diagnosticMXBean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        return diagnosticMXBean != null && Boolean.parseBoolean(diagnosticMXBean.getVMOption("UseCompressedOops").getValue());
+    }
+
+    /**
+     * Returns the average number of bytes allocated by a single invocation of the given workload.
+     *
+     * <p>The workload is invoked {@code warmupIterations} times before the measurement starts, so that the measured
+     * invocations are not affected by class loading, linkage, and profiling. The overhead of the measurement loop is
+     * subtracted.</p>
+     *
+     * @param workload          the workload to measure
+     * @param warmupIterations  the number of invocations before the measurement
+     * @param iterations        the number of measured invocations
+     *
+     * @return  the average number of bytes allocated per invocation
+     */
+    public static long measure(Supplier<?> workload, int warmupIterations, int iterations) {
+        Supplier<?> baseline = () -> null;
+
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = workload.get();
+            sink = baseline.get();
+        }
+
+        long overhead = measureOnce(baseline, iterations);
+        long total = measureOnce(workload, iterations);
+
+        return Math.max(0, total - overhead) / iterations;
+    }
+
+    private static long measureOnce(Supplier<?> workload, int iterations) {
+        long threadId = Thread.currentThread().getId();
+        long start = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < iterations; i++) {
+            sink = workload.get();
+        }
+
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private AllocationMeter() {}
+
+}
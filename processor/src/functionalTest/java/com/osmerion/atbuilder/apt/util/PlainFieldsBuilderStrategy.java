@@ -0,0 +1,66 @@
+package com.osmerion.atbuilder.apt.util;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.osmerion.omittable.Omittable;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link BuilderStrategy} that is discovered from the test classpath. It stores required components in plain fields
+ * and tracks their presence using separate {@code boolean} fields.
+ */
+public final class PlainFieldsBuilderStrategy implements BuilderStrategy {
+
+    @Override
+    public String name() {
+        return "plain-fields";
+    }
+
+    @Override
+    public List<FieldSpec> fields(BuilderModel builder) {
+        List<FieldSpec> fields = new ArrayList<>();
+
+        for (ComponentModel component : builder.components()) {
+            if (component.isOmittable()) {
+                fields.add(FieldSpec.builder(component.typeName(), component.name(), Modifier.PRIVATE).initializer("$T.absent()", Omittable.class).build());
+            } else {
+                fields.add(FieldSpec.builder(component.typeName(), component.name(), Modifier.PRIVATE).build());
+                fields.add(FieldSpec.builder(TypeName.BOOLEAN, component.name() + "$set", Modifier.PRIVATE).build());
+            }
+        }
+
+        return fields;
+    }
+
+    @Override
+    public CodeBlock isSet(BuilderModel builder, ComponentModel component) {
+        return component.isOmittable()
+            ? CodeBlock.of("this.$N.isPresent()", component.name())
+            : CodeBlock.of("this.$N", component.name() + "$set");
+    }
+
+    @Override
+    public CodeBlock get(BuilderModel builder, ComponentModel component) {
+        return CodeBlock.of("this.$N", component.name());
+    }
+
+    @Override
+    public CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("this.$N = $L", component.name(), value);
+
+        if (!component.isOmittable()) {
+            code.addStatement("this.$N = true", component.name() + "$set");
+        }
+
+        return code.build();
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.Builder;
+import com.osmerion.atbuilder.RecordAssembler;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates keyed assemblers that build records from the values of their components which arrive separately.
+ *
+ * <p>The generated assembler extends {@link RecordAssembler}, which implements the concurrent bookkeeping. The
+ * assembler only provides typed factory methods for the parts of the record, a {@code switch} that applies a part to
+ * the builder, and the bit set of the required components.</p>
+ *
+ * @see Builder.Feature#ASSEMBLER
+ */
+final class AssemblerGenerator {
+
+    private static final ClassName DURATION_CLASS_NAME = ClassName.get(Duration.class);
+    private static final ClassName EXECUTOR_CLASS_NAME = ClassName.get(Executor.class);
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+    private static final ClassName PART_CLASS_NAME = ClassName.get(RecordAssembler.Part.class);
+    private static final ClassName RECORD_ASSEMBLER_CLASS_NAME = ClassName.get(RecordAssembler.class);
+
+    private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
+    private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
+
+    private static final String REQUIRED_COMPONENTS_FIELD_NAME = "$REQUIRED_COMPONENTS";
+
+    static ClassName assemblerClassName(ClassName recordClassName) {
+        return ClassName.get(recordClassName.packageName(), recordClassName.simpleName() + "Assembler");
+    }
+
+    private final BuilderGenerator builderGenerator;
+    private final Messager messager;
+
+    AssemblerGenerator(ProcessingEnvironment processingEnv, BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Returns the assembler for the given record, or {@code null} if the record is generic. Errors are reported to the
+     * messager.
+     */
+    @Nullable JavaFile generateAssembler(Buildable buildable, TypeElement recordElement) {
+        if (!buildable.typeParameters().isEmpty()) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Feature ASSEMBLER is not supported for generic records.", recordElement);
+            return null;
+        }
+
+        BuilderContext context = this.builderGenerator.createContext(buildable);
+        ClassName assemblerClassName = assemblerClassName(buildable.className());
+        TypeVariableName k = TypeVariableName.get("K");
+
+        long[] requiredMask = new long[Math.max(1, PresenceBits.chunkCount(context.components().size()))];
+        for (BuilderContext.Component component : context.components()) {
+            if (component.isRequired()) requiredMask[component.index() >>> 6] |= 1L << component.index();
+        }
+
+        CodeBlock requiredMaskInitializer = Arrays.stream(requiredMask)
+            .mapToObj(word -> CodeBlock.of("$L", PresenceBits.hex(word)))
+            .collect(CodeBlock.joining(", ", "{ ", " }"));
+
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(assemblerClassName)
+            .addJavadoc(
+                """
+                Assembles {@link $T} instances from the values of their components which arrive separately and in any order,
+                keyed by the identifier of the instance they belong to.
+
+                <p>Parts are created using the static factory methods of this class (one per component) and passed to
+                {@link #accept(RecordAssembler.Part)} or published to this processor. An instance is published as soon as all
+                of its required components have been received.</p>
+
+                @param <K>  the type of the keys
+                """,
+                buildable.className()
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addTypeVariable(k)
+            .superclass(ParameterizedTypeName.get(RECORD_ASSEMBLER_CLASS_NAME, k, context.builderTypeName(), context.recordTypeName()))
+            .addField(FieldSpec.builder(ArrayTypeName.of(TypeName.LONG), REQUIRED_COMPONENTS_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(requiredMaskInitializer)
+                .build()
+            );
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder()
+            .addJavadoc(
+                """
+                Creates a new assembler without eviction limits that publishes instances asynchronously using the common
+                pool and remembers the {@value $T#DEFAULT_MAX_COMPLETED} most recently completed keys.
+                """,
+                RECORD_ASSEMBLER_CLASS_NAME
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("super($N)", REQUIRED_COMPONENTS_FIELD_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder()
+            .addJavadoc(
+                """
+                Creates a new assembler.
+
+                @param executor             the executor to use for asynchronous delivery of instances
+                @param maxBufferCapacity    the maximum capacity of the buffer of each subscriber
+                @param maxAge               the maximum time an incomplete entry is kept, or {@code null} to keep entries
+                                            regardless of their age
+                @param maxPending           the maximum number of incomplete entries, or {@link Integer#MAX_VALUE} for no
+                                            limit
+                @param maxCompleted         the number of recently completed keys that are remembered to drop late
+                                            parts, or {@code 0} to not remember completed keys
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(EXECUTOR_CLASS_NAME, "executor")
+            .addParameter(TypeName.INT, "maxBufferCapacity")
+            .addParameter(DURATION_CLASS_NAME.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()), "maxAge")
+            .addParameter(TypeName.INT, "maxPending")
+            .addParameter(TypeName.INT, "maxCompleted")
+            .addStatement("super($N, executor, maxBufferCapacity, maxAge, maxPending, maxCompleted)", REQUIRED_COMPONENTS_FIELD_NAME)
+            .build()
+        );
+
+        for (BuilderContext.Component component : context.components()) {
+            String keyParameterName = component.name().equals("key") ? "$key" : "key";
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder(component.name())
+                .addJavadoc(
+                    """
+                    Returns a part that sets the {@link $T#$N() $N} component of the instance with the given key.
+
+                    @param <K>  the type of the key
+                    @param $N  the key of the instance
+                    @param $N the value for the component
+
+                    @return the part
+                    """,
+                    context.recordClassName(),
+                    component.name(),
+                    component.name(),
+                    keyParameterName,
+                    component.name()
+                )
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariable(k)
+                .returns(ParameterizedTypeName.get(PART_CLASS_NAME, k))
+                .addParameter(k, keyParameterName)
+                .addParameter(component.typeName(), component.name())
+                .addStatement("return new $T<>($N, $L, $N)", PART_CLASS_NAME, keyParameterName, component.index(), component.name())
+                .build()
+            );
+        }
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("newBuilder")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(context.builderTypeName())
+            .addStatement("return new $T()", context.builderClassName())
+            .build()
+        );
+
+        MethodSpec.Builder bApply = MethodSpec.methodBuilder("apply")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .addParameter(context.builderTypeName(), "builder")
+            .addParameter(TypeName.INT, "component")
+            .addParameter(TypeName.OBJECT.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()), "value")
+            .beginControlFlow("switch (component)");
+
+        boolean isUnchecked = false;
+        for (BuilderContext.Component component : context.components()) {
+            TypeName valueTypeName = component.boxedTypeName().withoutAnnotations();
+            isUnchecked |= valueTypeName instanceof ParameterizedTypeName;
+
+            bApply.addStatement("case $L -> builder.$N(($T) value)", component.index(), component.name(), valueTypeName);
+        }
+
+        bApply.addStatement("default -> throw new $T($S + component)", IllegalArgumentException.class, "Unknown component: ")
+            .endControlFlow();
+
+        if (isUnchecked) {
+            bApply.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+
+        bTypeSpec.addMethod(bApply.build());
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("build")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(context.recordTypeName())
+            .addParameter(context.builderTypeName(), "builder")
+            .addStatement("return builder.build()")
+            .build()
+        );
+
+        switch (buildable.nullMarker()) {
+            case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
+            case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
+        }
+
+        return JavaFile.builder(assemblerClassName.packageName(), bTypeSpec.build())
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+}
@@ -0,0 +1,381 @@
+package com.osmerion.atbuilder.apt;
+
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Generates batch builders that store the values of many instances of a record in one array per component
+ * (struct-of-arrays).
+ *
+ * @see com.osmerion.atbuilder.Builder.Feature#BATCH
+ */
+final class BatchBuilderGenerator {
+
+    private static final ClassName ARRAY_LIST_CLASS_NAME = ClassName.get(ArrayList.class);
+    private static final ClassName ARRAYS_CLASS_NAME = ClassName.get(Arrays.class);
+    private static final ClassName LIST_CLASS_NAME = ClassName.get(List.class);
+    private static final ClassName OBJECTS_CLASS_NAME = ClassName.get(Objects.class);
+
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+    private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
+    private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
+
+    private static final String CAPACITY_FIELD_NAME = "$capacity";
+    private static final String GROW_METHOD_NAME = "$grow";
+    private static final String MATERIALIZE_METHOD_NAME = "$materialize";
+    private static final String SIZE_FIELD_NAME = "$size";
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /** The names of the public methods of a batch builder that do not belong to a single component. */
+    private static final Set<String> RESERVED_METHOD_NAMES = Set.of("addRow", "build", "clear", "get", "size");
+
+    private static String columnMethodName(BuilderContext.Component component) {
+        return component.name() + "Column";
+    }
+
+    /**
+     * Returns whether the values of the given component are stored in an array of the component's type. Components of
+     * parameterized types and type variables are stored in an {@code Object[]} instead, since arrays of such types
+     * cannot be created.
+     */
+    private static boolean hasTypedColumn(BuilderContext.Component component) {
+        TypeName typeName = component.typeName().withoutAnnotations();
+        return typeName.isPrimitive() || typeName instanceof ClassName;
+    }
+
+    private static TypeName columnTypeName(BuilderContext.Component component) {
+        if (component.isPrimitive()) {
+            return ArrayTypeName.of(component.typeName().withoutAnnotations());
+        }
+
+        TypeName elementTypeName = hasTypedColumn(component) ? component.typeName().withoutAnnotations() : TypeName.OBJECT;
+        return ArrayTypeName.of(elementTypeName.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()));
+    }
+
+    private static TypeName rawElementTypeName(BuilderContext.Component component) {
+        return hasTypedColumn(component) ? component.typeName().withoutAnnotations() : TypeName.OBJECT;
+    }
+
+    private final BuilderGenerator builderGenerator;
+    private final Messager messager;
+
+    BatchBuilderGenerator(ProcessingEnvironment processingEnv, BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Returns the batch builder for the given record, or {@code null} if the setter of a component would clash with
+     * another method of the batch builder. Errors are reported to the messager.
+     */
+    @Nullable JavaFile generateBatchBuilder(Buildable buildable, TypeElement recordElement) {
+        BuilderContext context = this.builderGenerator.createContext(buildable);
+
+        Set<String> reservedNames = new HashSet<>(RESERVED_METHOD_NAMES);
+        for (BuilderContext.Component component : context.components()) {
+            if (hasTypedColumn(component)) reservedNames.add(columnMethodName(component));
+        }
+
+        boolean hasClash = false;
+        for (RecordComponentElement componentElement : recordElement.getRecordComponents()) {
+            String name = componentElement.getSimpleName().toString();
+            if (!reservedNames.contains(name)) continue;
+
+            this.messager.printMessage(
+                Diagnostic.Kind.ERROR,
+                "Feature BATCH does not support a component named '" + name + "' because its setter would clash with the batch builder's " + name + "() method",
+                componentElement
+            );
+
+            hasClash = true;
+        }
+
+        if (hasClash) return null;
+
+        ClassName batchBuilderClassName = ClassName.get(buildable.className().packageName(), buildable.className().simpleName() + "BatchBuilder");
+        TypeName batchBuilderTypeName = this.builderGenerator.getParametrizedTypeName(batchBuilderClassName, buildable);
+        int chunkCount = PresenceBits.chunkCount(context.components().size());
+
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(batchBuilderClassName)
+            .addJavadoc(
+                """
+                A batch builder for {@link $T} instances.
+
+                <p>The values of all rows are stored in one array per component. Rows are appended by setting the
+                components of the current row and calling {@link #addRow()}. The collected rows can either be
+                materialized as records or processed directly using the column accessors.</p>
+                """,
+                buildable.className()
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addTypeVariables(
+                buildable.typeParameters().stream()
+                    .map(this.builderGenerator::annotatedTypeVariableName)
+                    .toList()
+            );
+
+        bTypeSpec.addField(PresenceBits.componentNamesField(context.components().stream().map(BuilderContext.Component::name).toList()));
+
+        for (BuilderContext.Component component : context.components()) {
+            bTypeSpec.addField(columnTypeName(component), component.name(), Modifier.PRIVATE);
+        }
+
+        bTypeSpec.addField(TypeName.INT, CAPACITY_FIELD_NAME, Modifier.PRIVATE)
+            .addField(TypeName.INT, SIZE_FIELD_NAME, Modifier.PRIVATE);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            bTypeSpec.addField(TypeName.LONG, PresenceBits.fieldName(chunk), Modifier.PRIVATE);
+        }
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder()
+            .addJavadoc("Creates a new batch builder with a default initial capacity.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("this($L)", DEFAULT_INITIAL_CAPACITY)
+            .build()
+        );
+
+        MethodSpec.Builder bConstructor = MethodSpec.constructorBuilder()
+            .addJavadoc(
+                """
+                Creates a new batch builder.
+
+                @param initialCapacity  the number of rows for which space is allocated initially
+
+                @throws IllegalArgumentException    if the initial capacity is not positive
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(TypeName.INT, "initialCapacity")
+            .beginControlFlow("if (initialCapacity < 1)")
+            .addStatement("throw new $T(\"Initial capacity must be positive: \" + initialCapacity)", IllegalArgumentException.class)
+            .endControlFlow()
+            .addStatement("this.$N = initialCapacity", CAPACITY_FIELD_NAME);
+
+        for (BuilderContext.Component component : context.components()) {
+            bConstructor.addStatement("this.$N = new $T[initialCapacity]", component.name(), rawElementTypeName(component));
+        }
+
+        bTypeSpec.addMethod(bConstructor.build());
+
+        for (BuilderContext.Component component : context.components()) {
+            CodeBlock value = CodeBlock.of("$N", component.name());
+            if (component.isOmittable() || !(component.isNullable() || component.isPrimitive())) {
+                value = CodeBlock.of("$T.requireNonNull($L, $S)", OBJECTS_CLASS_NAME, value, "Component '" + component.name() + "' may not be null");
+            }
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder(component.name())
+                .addJavadoc(
+                    """
+                    Sets the value of the {@link $T#$N() $N} component of the current row.
+
+                    @param $N the value for the component
+
+                    @return  this batch builder instance
+                    """,
+                    context.recordClassName(),
+                    component.name(),
+                    component.name(),
+                    component.name()
+                )
+                .addModifiers(Modifier.PUBLIC)
+                .returns(batchBuilderTypeName)
+                .addParameter(component.typeName(), component.name())
+                .addStatement("this.$N[this.$N] = $L", component.name(), SIZE_FIELD_NAME, value)
+                .addStatement("this.$N |= $L", PresenceBits.fieldName(component.index() >>> 6), PresenceBits.hex(1L << component.index()))
+                .addStatement("return this")
+                .build()
+            );
+        }
+
+        MethodSpec.Builder bAddRow = MethodSpec.methodBuilder("addRow")
+            .addJavadoc(
+                """
+                Completes the current row and starts a new one.
+
+                @return  this batch builder instance
+
+                @throws IllegalStateException   if any of the required components of the current row are not set
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(batchBuilderTypeName);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            long mask = 0L;
+            for (BuilderContext.Component component : context.components()) {
+                if (!component.isOmittable() && (component.index() >>> 6) == chunk) mask |= 1L << component.index();
+            }
+
+            if (mask == 0L) continue;
+
+            bAddRow.beginControlFlow("if ((this.$N & $L) != $L)", PresenceBits.fieldName(chunk), PresenceBits.hex(mask), PresenceBits.hex(mask))
+                .addStatement(PresenceBits.throwMissingComponent(chunk, CodeBlock.of("~this.$N & $L", PresenceBits.fieldName(chunk), PresenceBits.hex(mask))))
+                .endControlFlow();
+        }
+
+        for (BuilderContext.Component component : context.components()) {
+            if (!component.isOmittable()) continue;
+
+            bAddRow.beginControlFlow("if ((this.$N & $L) == 0L)", PresenceBits.fieldName(component.index() >>> 6), PresenceBits.hex(1L << component.index()))
+                .addStatement("this.$N[this.$N] = $T.absent()", component.name(), SIZE_FIELD_NAME, DefaultBuilderStrategy.OMITTABLE_CLASS_NAME)
+                .endControlFlow();
+        }
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            bAddRow.addStatement("this.$N = 0L", PresenceBits.fieldName(chunk));
+        }
+
+        bAddRow.beginControlFlow("if (++this.$N == this.$N)", SIZE_FIELD_NAME, CAPACITY_FIELD_NAME)
+            .addStatement("this.$N()", GROW_METHOD_NAME)
+            .endControlFlow()
+            .addStatement("return this");
+
+        bTypeSpec.addMethod(bAddRow.build());
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("size")
+            .addJavadoc("{@return the number of completed rows}\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.INT)
+            .addStatement("return this.$N", SIZE_FIELD_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("get")
+            .addJavadoc(
+                """
+                Materializes a completed row.
+
+                @param row  the index of the row
+
+                @return the record for the row
+
+                @throws IndexOutOfBoundsException   if the index is out of range
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.recordTypeName())
+            .addParameter(TypeName.INT, "row")
+            .addStatement("$T.checkIndex(row, this.$N)", OBJECTS_CLASS_NAME, SIZE_FIELD_NAME)
+            .addStatement("return this.$N(row)", MATERIALIZE_METHOD_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("build")
+            .addJavadoc(
+                """
+                Materializes all completed rows.
+
+                @return a list of records for all completed rows
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(LIST_CLASS_NAME, context.recordTypeName()))
+            .addStatement("$T<$T> rows = new $T<>(this.$N)", LIST_CLASS_NAME, context.recordTypeName(), ARRAY_LIST_CLASS_NAME, SIZE_FIELD_NAME)
+            .beginControlFlow("for (int row = 0; row < this.$N; row++)", SIZE_FIELD_NAME)
+            .addStatement("rows.add(this.$N(row))", MATERIALIZE_METHOD_NAME)
+            .endControlFlow()
+            .addStatement("return rows")
+            .build()
+        );
+
+        for (BuilderContext.Component component : context.components()) {
+            if (!hasTypedColumn(component)) continue;
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder(columnMethodName(component))
+                .addJavadoc(
+                    """
+                    Returns the array that stores the values of the {@link $T#$N() $N} component.
+
+                    <p>Only the first {@link #size()} elements of the array belong to completed rows. The array is not
+                    copied: modifications are visible to this batch builder, and the array is replaced when the batch
+                    builder grows.</p>
+
+                    @return the array that stores the values of the component
+                    """,
+                    context.recordClassName(),
+                    component.name(),
+                    component.name()
+                )
+                .addModifiers(Modifier.PUBLIC)
+                .returns(columnTypeName(component))
+                .addStatement("return this.$N", component.name())
+                .build()
+            );
+        }
+
+        MethodSpec.Builder bClear = MethodSpec.methodBuilder("clear")
+            .addJavadoc("Removes all rows, including the current one, from this batch builder.\n")
+            .addModifiers(Modifier.PUBLIC);
+
+        for (BuilderContext.Component component : context.components()) {
+            if (component.isPrimitive()) continue;
+            bClear.addStatement("$T.fill(this.$N, 0, this.$N + 1, null)", ARRAYS_CLASS_NAME, component.name(), SIZE_FIELD_NAME);
+        }
+
+        bClear.addStatement("this.$N = 0", SIZE_FIELD_NAME);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            bClear.addStatement("this.$N = 0L", PresenceBits.fieldName(chunk));
+        }
+
+        bTypeSpec.addMethod(bClear.build());
+
+        MethodSpec.Builder bMaterialize = MethodSpec.methodBuilder(MATERIALIZE_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE)
+            .returns(context.recordTypeName())
+            .addParameter(TypeName.INT, "row");
+
+        if (context.components().stream().anyMatch(component -> !hasTypedColumn(component))) {
+            bMaterialize.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+
+        List<CodeBlock> arguments = new ArrayList<>(context.components().size());
+        for (BuilderContext.Component component : context.components()) {
+            arguments.add(hasTypedColumn(component)
+                ? CodeBlock.of("this.$N[row]", component.name())
+                : CodeBlock.of("($T) this.$N[row]", component.typeName().withoutAnnotations(), component.name())
+            );
+        }
+
+        bTypeSpec.addMethod(bMaterialize.addStatement("return new $T(\n$>$L\n$<)", context.recordTypeName(), CodeBlock.join(arguments, ",\n")).build());
+
+        MethodSpec.Builder bGrow = MethodSpec.methodBuilder(GROW_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE)
+            .addStatement("this.$N = $T.multiplyExact(this.$N, 2)", CAPACITY_FIELD_NAME, Math.class, CAPACITY_FIELD_NAME);
+
+        for (BuilderContext.Component component : context.components()) {
+            bGrow.addStatement("this.$N = $T.copyOf(this.$N, this.$N)", component.name(), ARRAYS_CLASS_NAME, component.name(), CAPACITY_FIELD_NAME);
+        }
+
+        bTypeSpec.addMethod(bGrow.build());
+
+        bTypeSpec.addMethod(PresenceBits.missingComponentMethod());
+
+        switch (buildable.nullMarker()) {
+            case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
+            case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
+        }
+
+        return JavaFile.builder(batchBuilderClassName.packageName(), bTypeSpec.build())
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+}
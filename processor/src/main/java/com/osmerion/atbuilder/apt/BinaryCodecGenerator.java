@@ -0,0 +1,406 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.Builder;
+import com.osmerion.atbuilder.internal.BinaryCodecs;
+import com.osmerion.omittable.Omittable;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Generates reflection-free binary codecs for records.
+ *
+ * <p>An encoded instance starts with the presence bits of all {@code Omittable} and nullable components (one unsigned
+ * variable-length quantity per 64 bits), followed by the values of all components that are present and non-null in
+ * declaration order. Decoding goes through the generated builder, so that the same validation applies as for instances
+ * that are built by hand.</p>
+ *
+ * @see Builder.Feature#BINARY_CODEC
+ */
+final class BinaryCodecGenerator {
+
+    private static final ClassName BINARY_CODECS_CLASS_NAME = ClassName.get(BinaryCodecs.class);
+    private static final ClassName BYTE_BUFFER_CLASS_NAME = ClassName.get(ByteBuffer.class);
+    private static final ClassName DATA_INPUT_CLASS_NAME = ClassName.get(DataInput.class);
+    private static final ClassName DATA_OUTPUT_CLASS_NAME = ClassName.get(DataOutput.class);
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+    private static final ClassName OMITTABLE_CLASS_NAME = ClassName.get(Omittable.class);
+    private static final ClassName STRING_CLASS_NAME = ClassName.get(String.class);
+
+    private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
+    private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
+
+    private static String presenceVariableName(int chunk) {
+        return "$presence" + chunk;
+    }
+
+    private static @Nullable String primitiveSuffix(TypeName typeName) {
+        if (typeName.equals(TypeName.BOOLEAN)) return "Boolean";
+        if (typeName.equals(TypeName.BYTE)) return "Byte";
+        if (typeName.equals(TypeName.SHORT)) return "Short";
+        if (typeName.equals(TypeName.CHAR)) return "Char";
+        if (typeName.equals(TypeName.INT)) return "Int";
+        if (typeName.equals(TypeName.LONG)) return "Long";
+        if (typeName.equals(TypeName.FLOAT)) return "Float";
+        if (typeName.equals(TypeName.DOUBLE)) return "Double";
+        return null;
+    }
+
+    private static boolean isNullable(TypeMirror type) {
+        return type.getAnnotationMirrors().stream()
+            .anyMatch(annotationMirror -> Objects.equals(NULLABLE_CLASS_NAME, TypeName.get(annotationMirror.getAnnotationType())));
+    }
+
+    static ClassName codecClassName(ClassName recordClassName) {
+        return ClassName.get(recordClassName.packageName(), recordClassName.simpleName() + "Codec");
+    }
+
+    private final BuilderGenerator builderGenerator;
+    private final Messager messager;
+
+    BinaryCodecGenerator(ProcessingEnvironment processingEnv, BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Returns the codec for the given record, or {@code null} if the record has a component of an unsupported type.
+     * Errors are reported to the messager.
+     */
+    @Nullable JavaFile generateCodec(Buildable buildable, TypeElement recordElement) {
+        if (!buildable.typeParameters().isEmpty()) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Feature BINARY_CODEC is not supported for generic records.", recordElement);
+            return null;
+        }
+
+        BuilderContext context = this.builderGenerator.createContext(buildable);
+        ClassName codecClassName = codecClassName(buildable.className());
+
+        /*
+         * Every component may use up to two presence bits: one that indicates whether an Omittable is present and one
+         * that indicates whether a nullable value is non-null.
+         */
+        List<Slot> slots = new ArrayList<>(context.components().size());
+        Map<TypeName, String> enumValueFields = new LinkedHashMap<>();
+        int bitCount = 0;
+        boolean isValid = true;
+
+        for (BuilderContext.Component component : context.components()) {
+            TypeMirror valueType = component.type();
+            boolean isValueNullable = component.isNullable();
+            int presentBit = -1;
+            int nonNullBit = -1;
+
+            if (component.isOmittable()) {
+                List<? extends TypeMirror> typeArguments = ((DeclaredType) component.type()).getTypeArguments();
+
+                if (typeArguments.isEmpty()) {
+                    this.reportUnsupported(recordElement, component);
+                    isValid = false;
+                    continue;
+                }
+
+                valueType = typeArguments.get(0);
+                isValueNullable = isNullable(valueType);
+                presentBit = bitCount++;
+            }
+
+            if (isValueNullable) {
+                nonNullBit = bitCount++;
+            }
+
+            if (!this.isSupported(valueType, enumValueFields)) {
+                this.reportUnsupported(recordElement, component);
+                isValid = false;
+                continue;
+            }
+
+            slots.add(new Slot(component, valueType, presentBit, nonNullBit));
+        }
+
+        if (!isValid) return null;
+
+        int chunkCount = PresenceBits.chunkCount(bitCount);
+
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(codecClassName)
+            .addJavadoc(
+                """
+                A reflection-free binary codec for {@link $T} instances.
+
+                <p>The encoding is compact, but not self-describing: an instance can only be decoded by a codec for the
+                same version of the record. Integral values are encoded as variable-length quantities and strings as
+                length-prefixed UTF-8. Both {@link $T}/{@link $T} and {@link $T} produce the same encoding.</p>
+                """,
+                buildable.className(),
+                DATA_OUTPUT_CLASS_NAME,
+                DATA_INPUT_CLASS_NAME,
+                BYTE_BUFFER_CLASS_NAME
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+
+        for (Map.Entry<TypeName, String> entry : enumValueFields.entrySet()) {
+            bTypeSpec.addField(FieldSpec.builder(ArrayTypeName.of(entry.getKey()), entry.getValue(), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.values()", entry.getKey())
+                .build()
+            );
+        }
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("write")
+            .addJavadoc(
+                """
+                Writes the given instance to the given output.
+
+                @param value    the instance to write
+                @param out      the output to write to
+
+                @throws IOException if an I/O error occurs
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(context.recordTypeName(), "value")
+            .addParameter(DATA_OUTPUT_CLASS_NAME, "out")
+            .addException(IOException.class)
+            .addCode(this.generateWriteBody(slots, chunkCount, enumValueFields, CodeBlock.of("out")))
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("read")
+            .addJavadoc(
+                """
+                Reads an instance from the given input.
+
+                @param in   the input to read from
+
+                @return the instance
+
+                @throws IOException if an I/O error occurs or the input is malformed
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(context.recordTypeName())
+            .addParameter(DATA_INPUT_CLASS_NAME, "in")
+            .addException(IOException.class)
+            .addCode(this.generateReadBody(context, slots, chunkCount, enumValueFields, CodeBlock.of("in")))
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("write")
+            .addJavadoc(
+                """
+                Writes the given instance to the given buffer, starting at its current position.
+
+                @param value    the instance to write
+                @param buffer   the buffer to write to
+
+                @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(context.recordTypeName(), "value")
+            .addParameter(BYTE_BUFFER_CLASS_NAME, "buffer")
+            .addCode(this.generateWriteBody(slots, chunkCount, enumValueFields, CodeBlock.of("buffer")))
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("read")
+            .addJavadoc(
+                """
+                Reads an instance from the given buffer, starting at its current position.
+
+                @param buffer   the buffer to read from
+
+                @return the instance
+
+                @throws java.nio.BufferUnderflowException if the buffer ends before the instance
+                @throws IllegalArgumentException if the buffer contains malformed data
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(context.recordTypeName())
+            .addParameter(BYTE_BUFFER_CLASS_NAME, "buffer")
+            .addCode(this.generateReadBody(context, slots, chunkCount, enumValueFields, CodeBlock.of("buffer")))
+            .build()
+        );
+
+        switch (buildable.nullMarker()) {
+            case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
+            case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
+        }
+
+        return JavaFile.builder(codecClassName.packageName(), bTypeSpec.build())
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+    private CodeBlock generateWriteBody(List<Slot> slots, int chunkCount, Map<TypeName, String> enumValueFields, CodeBlock io) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            code.addStatement("long $N = 0L", presenceVariableName(chunk));
+        }
+
+        for (Slot slot : slots) {
+            String name = slot.component().name();
+
+            if (slot.presentBit() >= 0) {
+                code.beginControlFlow("if (value.$N().isPresent())", name)
+                    .addStatement("$N |= $L", presenceVariableName(slot.presentBit() >>> 6), PresenceBits.hex(1L << slot.presentBit()));
+
+                if (slot.nonNullBit() >= 0) {
+                    code.beginControlFlow("if (value.$N().orElseThrow() != null)", name)
+                        .addStatement("$N |= $L", presenceVariableName(slot.nonNullBit() >>> 6), PresenceBits.hex(1L << slot.nonNullBit()))
+                        .endControlFlow();
+                }
+
+                code.endControlFlow();
+            } else if (slot.nonNullBit() >= 0) {
+                code.beginControlFlow("if (value.$N() != null)", name)
+                    .addStatement("$N |= $L", presenceVariableName(slot.nonNullBit() >>> 6), PresenceBits.hex(1L << slot.nonNullBit()))
+                    .endControlFlow();
+            }
+        }
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            code.addStatement("$T.writeUnsignedLong($L, $N)", BINARY_CODECS_CLASS_NAME, io, presenceVariableName(chunk));
+        }
+
+        for (Slot slot : slots) {
+            String name = slot.component().name();
+            CodeBlock value = slot.presentBit() >= 0
+                ? CodeBlock.of("value.$N().orElseThrow()", name)
+                : CodeBlock.of("value.$N()", name);
+
+            int guardBit = slot.nonNullBit() >= 0 ? slot.nonNullBit() : slot.presentBit();
+            CodeBlock write = this.write(slot.valueType(), enumValueFields, io, value);
+
+            if (guardBit >= 0) {
+                code.beginControlFlow("if (($N & $L) != 0L)", presenceVariableName(guardBit >>> 6), PresenceBits.hex(1L << guardBit))
+                    .addStatement(write)
+                    .endControlFlow();
+            } else {
+                code.addStatement(write);
+            }
+        }
+
+        return code.build();
+    }
+
+    private CodeBlock generateReadBody(BuilderContext context, List<Slot> slots, int chunkCount, Map<TypeName, String> enumValueFields, CodeBlock io) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            code.addStatement("long $N = $T.readUnsignedLong($L)", presenceVariableName(chunk), BINARY_CODECS_CLASS_NAME, io);
+        }
+
+        code.addStatement("$T builder = new $T()", context.builderTypeName(), context.builderClassName());
+
+        for (Slot slot : slots) {
+            CodeBlock value = this.read(slot.valueType(), enumValueFields, io);
+
+            if (slot.nonNullBit() >= 0) {
+                value = CodeBlock.of("($N & $L) != 0L ? $L : null", presenceVariableName(slot.nonNullBit() >>> 6), PresenceBits.hex(1L << slot.nonNullBit()), value);
+            }
+
+            if (slot.presentBit() >= 0) {
+                code.beginControlFlow("if (($N & $L) != 0L)", presenceVariableName(slot.presentBit() >>> 6), PresenceBits.hex(1L << slot.presentBit()))
+                    .addStatement("builder.$N($T.of($L))", slot.component().name(), OMITTABLE_CLASS_NAME, value)
+                    .endControlFlow();
+            } else {
+                code.addStatement("builder.$N($L)", slot.component().name(), value);
+            }
+        }
+
+        return code.addStatement("return builder.build()").build();
+    }
+
+    private boolean isSupported(TypeMirror type, Map<TypeName, String> enumValueFields) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        if (primitiveSuffix(typeName) != null || (typeName.isBoxedPrimitive() && primitiveSuffix(typeName.unbox()) != null)) return true;
+        if (typeName.equals(STRING_CLASS_NAME)) return true;
+        if (type.getKind() != TypeKind.DECLARED) return false;
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+
+        if (typeElement.getKind() == ElementKind.ENUM) {
+            enumValueFields.computeIfAbsent(typeName, key -> "$VALUES" + enumValueFields.size());
+            return true;
+        }
+
+        if (typeElement.getKind() == ElementKind.RECORD && typeElement.getTypeParameters().isEmpty()) {
+            Builder builderAnnotation = typeElement.getAnnotation(Builder.class);
+            return builderAnnotation != null && Arrays.asList(builderAnnotation.features()).contains(Builder.Feature.BINARY_CODEC);
+        }
+
+        return false;
+    }
+
+    private CodeBlock write(TypeMirror type, Map<TypeName, String> enumValueFields, CodeBlock io, CodeBlock value) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        String suffix = primitiveSuffix(typeName.isBoxedPrimitive() ? typeName.unbox() : typeName);
+
+        if (suffix != null) return CodeBlock.of("$T.write$L($L, $L)", BINARY_CODECS_CLASS_NAME, suffix, io, value);
+        if (typeName.equals(STRING_CLASS_NAME)) return CodeBlock.of("$T.writeString($L, $L)", BINARY_CODECS_CLASS_NAME, io, value);
+        if (enumValueFields.containsKey(typeName)) return CodeBlock.of("$T.writeUnsignedInt($L, $L.ordinal())", BINARY_CODECS_CLASS_NAME, io, value);
+
+        return CodeBlock.of("$T.write($L, $L)", codecClassName((ClassName) typeName), value, io);
+    }
+
+    private CodeBlock read(TypeMirror type, Map<TypeName, String> enumValueFields, CodeBlock io) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        String suffix = primitiveSuffix(typeName.isBoxedPrimitive() ? typeName.unbox() : typeName);
+
+        if (suffix != null) return CodeBlock.of("$T.read$L($L)", BINARY_CODECS_CLASS_NAME, suffix, io);
+        if (typeName.equals(STRING_CLASS_NAME)) return CodeBlock.of("$T.readString($L)", BINARY_CODECS_CLASS_NAME, io);
+
+        String enumValueField = enumValueFields.get(typeName);
+        if (enumValueField != null) return CodeBlock.of("$N[$T.readOrdinal($L, $N.length)]", enumValueField, BINARY_CODECS_CLASS_NAME, io, enumValueField);
+
+        return CodeBlock.of("$T.read($L)", codecClassName((ClassName) typeName), io);
+    }
+
+    private void reportUnsupported(TypeElement recordElement, BuilderContext.Component component) {
+        this.messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            "Feature BINARY_CODEC does not support component '" + component.name() + "' of type " + component.type() + ". Supported are primitives, their wrappers, strings, enums, and records with the BINARY_CODEC feature (optionally wrapped in Omittable).",
+            recordElement.getRecordComponents().get(component.index())
+        );
+    }
+
+    /**
+     * @param component     the component
+     * @param valueType     the type of the encoded value (i.e. the type argument of an {@code Omittable})
+     * @param presentBit    the index of the bit that indicates whether an {@code Omittable} is present, or {@code -1}
+     * @param nonNullBit    the index of the bit that indicates whether a nullable value is non-null, or {@code -1}
+     */
+    private record Slot(
+        BuilderContext.Component component,
+        TypeMirror valueType,
+        int presentBit,
+        int nonNullBit
+    ) {}
+
+}
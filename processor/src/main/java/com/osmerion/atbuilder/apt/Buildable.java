@@ -1,23 +1,64 @@
 package com.osmerion.atbuilder.apt;
 
+import com.osmerion.atbuilder.Builder;
 import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.TypeName;
+import org.jspecify.annotations.Nullable;
 
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.TypeMirror;
 import java.util.List;
+import java.util.Set;
 
 record Buildable(
     ClassName className,
     List<? extends TypeParameterElement> typeParameters,
     List<Component> components,
-    NullMarker nullMarker
+    NullMarker nullMarker,
+    Builder.Checks checks,
+    Set<Builder.Feature> features,
+    List<Mapping> mappings
 ) {
 
     record Component(
         String name,
         List<? extends AnnotationMirror> annotationMirrors,
-        TypeMirror type
+        TypeMirror type,
+        @Nullable Interning interning
     ) {}
 
+    /**
+     * The configuration of an {@link com.osmerion.atbuilder.Interned interned} component.
+     *
+     * @param poolName  the name of the shared pool
+     * @param capacity  the capacity of the pool
+     */
+    record Interning(
+        String poolName,
+        int capacity
+    ) {}
+
+    /**
+     * A mapping from a source type to the builder.
+     *
+     * @param sourceTypeName    the type to map from
+     * @param properties        the components that are initialized from accessors of the source
+     */
+    record Mapping(
+        TypeName sourceTypeName,
+        List<Property> properties
+    ) {
+
+        /**
+         * @param componentName the name of the component and of the accessor
+         * @param isWrapped     whether the value of the accessor must be wrapped in an {@code Omittable}
+         */
+        record Property(
+            String componentName,
+            boolean isWrapped
+        ) {}
+
+    }
+
 }
@@ -0,0 +1,54 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.TypeName;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * The {@link BuilderModel} of a builder that is generated for a {@link Buildable}.
+ */
+record BuilderContext(
+    ProcessingEnvironment processingEnvironment,
+    Buildable buildable,
+    ClassName builderClassName,
+    TypeName recordTypeName,
+    TypeName builderTypeName,
+    List<Component> components,
+    int release
+) implements BuilderModel {
+
+    @Override
+    public ClassName recordClassName() {
+        return this.buildable.className();
+    }
+
+    /**
+     * The {@link ComponentModel} of a {@link Buildable.Component}.
+     */
+    record Component(
+        Buildable.Component source,
+        int index,
+        TypeName typeName,
+        TypeName boxedTypeName,
+        boolean isOmittable,
+        boolean isNullable
+    ) implements ComponentModel {
+
+        @Override
+        public String name() {
+            return this.source.name();
+        }
+
+        @Override
+        public TypeMirror type() {
+            return this.source.type();
+        }
+
+    }
+
+}
@@ -1,43 +1,86 @@
 package com.osmerion.atbuilder.apt;
 
+import com.osmerion.atbuilder.BuildResult;
+import com.osmerion.atbuilder.Builder;
+import com.osmerion.atbuilder.CanonicalPool;
+import com.osmerion.atbuilder.MissingComponentsException;
+import com.osmerion.atbuilder.RecordDiff;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.internal.AsyncAssembler;
+import com.osmerion.atbuilder.internal.BuildEvent;
+import com.osmerion.atbuilder.internal.BuildFailureEvent;
+import com.osmerion.atbuilder.internal.CopyEvent;
 import com.osmerion.omittable.Omittable;
 import com.palantir.javapoet.*;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.NullUnmarked;
 import org.jspecify.annotations.Nullable;
 
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.util.Types;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
-import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 final class BuilderGenerator {
 
     private static final ClassName OBJECTS_CLASS_NAME = ClassName.get(Objects.class);
 
+    private static final String MODIFIED_FIELD_NAME = "$modified";
+    private static final String SOURCE_FIELD_NAME = "$source";
+
+    private static final String FINISH_ASYNC_METHOD_NAME = "$finishAsync";
+    private static final String MISSING_COMPONENTS_METHOD_NAME = "$missingComponents";
+
+    private static final ClassName ARRAY_LIST_CLASS_NAME = ClassName.get(ArrayList.class);
+    private static final ClassName BITSET_CLASS_NAME = ClassName.get(BitSet.class);
+    private static final ClassName BUILD_RESULT_CLASS_NAME = ClassName.get(BuildResult.class);
+    private static final ClassName LIST_CLASS_NAME = ClassName.get(List.class);
+    private static final ClassName MISSING_COMPONENTS_EXCEPTION_CLASS_NAME = ClassName.get(MissingComponentsException.class);
+    private static final ClassName RECORD_DIFF_CLASS_NAME = ClassName.get(RecordDiff.class);
+
+    private static final ClassName ASYNC_ASSEMBLER_CLASS_NAME = ClassName.get(AsyncAssembler.class);
+    private static final ClassName COMPLETABLE_FUTURE_CLASS_NAME = ClassName.get(CompletableFuture.class);
+    private static final ClassName COMPLETION_STAGE_CLASS_NAME = ClassName.get(CompletionStage.class);
+    private static final ClassName EXECUTOR_CLASS_NAME = ClassName.get(Executor.class);
+
+    private static final ClassName BUILD_EVENT_CLASS_NAME = ClassName.get(BuildEvent.class);
+    private static final ClassName BUILD_FAILURE_EVENT_CLASS_NAME = ClassName.get(BuildFailureEvent.class);
+    private static final ClassName COPY_EVENT_CLASS_NAME = ClassName.get(CopyEvent.class);
+
     private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
     private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
     private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
 
     private static final ClassName OMITTABLE_CLASS_NAME = ClassName.get(Omittable.class);
 
+    private static final ClassName CANONICAL_POOL_CLASS_NAME = ClassName.get(CanonicalPool.class);
+
+    private final ProcessingEnvironment processingEnv;
     private final Types types;
+    private final int release;
 
-    BuilderGenerator(Types types) {
-        this.types = types;
+    BuilderGenerator(ProcessingEnvironment processingEnv, int release) {
+        this.processingEnv = processingEnv;
+        this.types = processingEnv.getTypeUtils();
+        this.release = release;
     }
 
-    public JavaFile generateBuilder(Buildable buildable) {
-        String packageName = buildable.className().packageName();
-        ClassName builderClassName = ClassName.get(packageName, buildable.className().simpleName() + "Builder");
+    public JavaFile generateBuilder(Buildable buildable, BuilderStrategy strategy) {
+        BuilderContext context = this.createContext(buildable);
 
-        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(builderClassName)
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(context.builderClassName())
             .addJavadoc(
                 """
                 A builder for {@link $T} instances.
@@ -50,24 +93,110 @@ final class BuilderGenerator {
                     .map(this::annotatedTypeVariableName)
                     .toList()
             )
-            .addFields(buildable.components().stream().map(this::generateField).toList())
-            .addMethod(MethodSpec.constructorBuilder().build())
-            .addMethod(this.generateCopyConstructor(buildable))
-            .addMethods(buildable.components().stream().map(component -> this.generateMethod(buildable, component, builderClassName)).toList())
-            .addMethod(this.generateBuildMethod(buildable));
+            .addFields(strategy.fields(context));
+
+        bTypeSpec.addFields(context.components().stream().filter(component -> component.source().interning() != null).map(this::generatePoolField).toList());
+
+        if (buildable.features().contains(Builder.Feature.ASYNC)) {
+            bTypeSpec.addFields(context.components().stream().filter(this::hasAsyncSetter).map(this::generateStageField).toList());
+        }
+
+        if (buildable.features().contains(Builder.Feature.TRACK_MODIFICATIONS)) {
+            bTypeSpec.addFields(this.generateModificationFields(context));
+        }
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder().build())
+            .addMethod(this.generateCopyConstructor(context, strategy));
+
+        for (Buildable.Mapping mapping : buildable.mappings()) {
+            bTypeSpec.addMethod(this.generateMappingMethod(context, mapping));
+        }
+
+        for (BuilderContext.Component component : context.components()) {
+            bTypeSpec.addMethod(this.generateMethod(context, component, strategy));
+
+            if (buildable.features().contains(Builder.Feature.ASYNC) && this.hasAsyncSetter(component)) {
+                bTypeSpec.addMethod(this.generateAsyncMethod(context, component));
+            }
+        }
+
+        bTypeSpec.addMethod(this.generateBuildMethod(context, strategy));
+
+        if (buildable.features().contains(Builder.Feature.JFR)) {
+            bTypeSpec.addMethod(this.generateUninstrumentedBuildMethod(context, strategy));
+        }
+
+        if (buildable.features().contains(Builder.Feature.TRY_BUILD)) {
+            bTypeSpec.addMethod(this.generateTryBuildMethod(context, strategy));
+        }
+
+        if (buildable.features().contains(Builder.Feature.ASYNC)) {
+            bTypeSpec.addMethods(this.generateAsyncBuildMethods(context, strategy));
+        }
+
+        if (buildable.features().contains(Builder.Feature.TRACK_MODIFICATIONS)) {
+            bTypeSpec.addMethods(this.generateModificationMethods(context));
+        }
+
+        if (buildable.features().contains(Builder.Feature.PATCH)) {
+            bTypeSpec.addMethods(this.generatePatchMethods(context, strategy));
+        }
+
+        if (buildable.features().contains(Builder.Feature.DIFF)) {
+            bTypeSpec.addMethods(this.generateDiffMethods(context));
+        }
+
+        if ((buildable.features().contains(Builder.Feature.STACKLESS_EXCEPTIONS) || buildable.features().contains(Builder.Feature.TRY_BUILD))
+            && context.components().stream().anyMatch(BuilderContext.Component::isRequired)) {
+            bTypeSpec.addMethod(this.generateMissingComponentsMethod(context, strategy));
+        }
+
+        bTypeSpec.addMethods(strategy.methods(context));
 
         switch (buildable.nullMarker()) {
             case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
             case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
         }
 
-        return JavaFile.builder(packageName, bTypeSpec.build())
+        return JavaFile.builder(context.builderClassName().packageName(), bTypeSpec.build())
             .indent("    ")
             .skipJavaLangImports(true)
             .build();
     }
 
-    private TypeVariableName annotatedTypeVariableName(TypeParameterElement element) {
+    BuilderContext createContext(Buildable buildable) {
+        String packageName = buildable.className().packageName();
+        ClassName builderClassName = ClassName.get(packageName, buildable.className().simpleName() + "Builder");
+
+        List<BuilderContext.Component> components = new ArrayList<>(buildable.components().size());
+        for (Buildable.Component component : buildable.components()) {
+            List<AnnotationSpec> typeAnnotationSpecs = component.annotationMirrors().stream()
+                .filter(annotationMirror -> this.isAnnotationApplicableToAny(annotationMirror.getAnnotationType(), Set.of(ElementType.TYPE_USE)))
+                .map(AnnotationSpec::get)
+                .toList();
+
+            components.add(new BuilderContext.Component(
+                component,
+                components.size(),
+                TypeName.get(component.type()).annotated(typeAnnotationSpecs),
+                TypeName.get(component.type()).box().annotated(typeAnnotationSpecs),
+                this.isOmittable(component),
+                this.isNullable(component)
+            ));
+        }
+
+        return new BuilderContext(
+            this.processingEnv,
+            buildable,
+            builderClassName,
+            this.getParametrizedTypeName(buildable.className(), buildable),
+            this.getParametrizedTypeName(builderClassName, buildable),
+            List.copyOf(components),
+            this.release
+        );
+    }
+
+    TypeVariableName annotatedTypeVariableName(TypeParameterElement element) {
         String name = element.getSimpleName().toString();
         List<TypeName> bounds = element.getBounds().stream()
             .map(AnnotatedTypeNameConverter::get)
@@ -77,71 +206,208 @@ final class BuilderGenerator {
             .annotated(element.getAnnotationMirrors().stream().map(AnnotationSpec::get).toList());
     }
 
-    private MethodSpec generateBuildMethod(Buildable buildable) {
-        TypeName parametrizedBuildable = this.getParametrizedTypeName(buildable.className(), buildable);
+    private MethodSpec generateBuildMethod(BuilderContext context, BuilderStrategy strategy) {
+        return MethodSpec.methodBuilder("build")
+            .addJavadoc(
+                context.buildable().checks() == Builder.Checks.ALWAYS
+                    ? """
+                    Builds a new {@link $T} instance with the values set in this builder.
+
+                    @return the newly created instance
+
+                    @throws IllegalStateException   if any of the required components are not set
+                    """
+                    : """
+                    Builds a new {@link $T} instance with the values set in this builder.
+
+                    <p>All required components must be set before this method is called.</p>
+
+                    @return the newly created instance
+                    """,
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.recordTypeName())
+            .addCode(context.buildable().features().contains(Builder.Feature.JFR)
+                ? CodeBlock.builder()
+                    .addStatement("$T $$event = new $T()", BUILD_EVENT_CLASS_NAME, BUILD_EVENT_CLASS_NAME)
+                    .addStatement("$$event.begin()")
+                    .beginControlFlow("try")
+                    .addStatement("return $$event.complete(this.$$build())")
+                    .nextControlFlow("catch ($T e)", RuntimeException.class)
+                    .addStatement("$T.emit($T.class, e)", BUILD_FAILURE_EVENT_CLASS_NAME, context.recordClassName())
+                    .addStatement("throw e")
+                    .endControlFlow()
+                    .build()
+                : this.generateBuildBody(context, strategy)
+            )
+            .build();
+    }
 
-        MethodSpec.Builder bMethodSpec = MethodSpec.methodBuilder("build")
+    private MethodSpec generateUninstrumentedBuildMethod(BuilderContext context, BuilderStrategy strategy) {
+        return MethodSpec.methodBuilder("$build")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(context.recordTypeName())
+            .addCode(this.generateBuildBody(context, strategy))
+            .build();
+    }
+
+    private CodeBlock generateBuildBody(BuilderContext context, BuilderStrategy strategy) {
+        switch (context.buildable().checks()) {
+            case ASSERT -> {
+                CodeBlock.Builder code = CodeBlock.builder();
+
+                for (BuilderContext.Component component : context.components()) {
+                    if (!component.isRequired()) continue;
+                    code.addStatement("assert $L : $S", strategy.isSet(context, component), "Component '" + component.name() + "' must be set");
+                }
+
+                return code.addStatement("return $L", this.generateConstructorInvocation(context, strategy))
+                    .build();
+            }
+            case NONE -> {
+                return CodeBlock.builder()
+                    .addStatement("return $L", this.generateConstructorInvocation(context, strategy))
+                    .build();
+            }
+        }
+
+        if (!context.buildable().features().contains(Builder.Feature.STACKLESS_EXCEPTIONS)) {
+            return strategy.build(context);
+        }
+
+        CodeBlock.Builder code = CodeBlock.builder();
+        CodeBlock isComplete = this.generateIsComplete(context, strategy);
+
+        if (isComplete != null) {
+            code.beginControlFlow("if (!($>$>\n$L$<$<))", isComplete)
+                .addStatement("throw new $T(this.$N(), false)", MISSING_COMPONENTS_EXCEPTION_CLASS_NAME, MISSING_COMPONENTS_METHOD_NAME)
+                .endControlFlow();
+        }
+
+        return code.addStatement("return $L", this.generateConstructorInvocation(context, strategy))
+            .build();
+    }
+
+    private MethodSpec generateTryBuildMethod(BuilderContext context, BuilderStrategy strategy) {
+        MethodSpec.Builder bMethodSpec = MethodSpec.methodBuilder("tryBuild")
             .addJavadoc(
                 """
-                Builds a new {@link $T} instance with the values set in this builder.
-                
-                @return the newly created instance
-                
-                @throws IllegalStateException   if any of the required components are not set
+                Attempts to build a new {@link $T} instance with the values set in this builder.
+
+                <p>In contrast to {@link #build()}, this method does not throw an exception if required components are
+                not set. Instead, the returned result lists all required components that are not set.</p>
+
+                @return the result of the attempt
                 """,
-                buildable.className()
+                context.recordClassName()
             )
             .addModifiers(Modifier.PUBLIC)
-            .returns(parametrizedBuildable);
+            .returns(ParameterizedTypeName.get(BUILD_RESULT_CLASS_NAME, context.recordTypeName()));
 
-        StringJoiner joiner = new StringJoiner(",\n");
-        for (Buildable.Component component : buildable.components()) {
-            if (this.isOmittable(component)) {
-                joiner.add("this." + component.name());
-            } else {
-                joiner.add("this." + component.name() + ".orElseThrow(() -> new IllegalStateException(\"Component '" + component.name() + "' must be set\"))");
-            }
+        CodeBlock isComplete = this.generateIsComplete(context, strategy);
+
+        if (isComplete != null) {
+            bMethodSpec.beginControlFlow("if (!($>$>\n$L$<$<))", isComplete)
+                .addStatement("return $T.failure(this.$N())", BUILD_RESULT_CLASS_NAME, MISSING_COMPONENTS_METHOD_NAME)
+                .endControlFlow();
         }
 
-        bMethodSpec.addCode("return new $T(\n" + joiner.toString().indent(4) + ");", parametrizedBuildable);
-        return bMethodSpec.build();
+        return bMethodSpec.addStatement("return $T.success($L)", BUILD_RESULT_CLASS_NAME, this.generateConstructorInvocation(context, strategy))
+            .build();
+    }
+
+    private MethodSpec generateMissingComponentsMethod(BuilderContext context, BuilderStrategy strategy) {
+        MethodSpec.Builder bMethodSpec = MethodSpec.methodBuilder(MISSING_COMPONENTS_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE)
+            .returns(ParameterizedTypeName.get(LIST_CLASS_NAME, ClassName.get(String.class)))
+            .addStatement("$T<$T> missing = new $T<>()", LIST_CLASS_NAME, String.class, ARRAY_LIST_CLASS_NAME);
+
+        for (BuilderContext.Component component : context.components()) {
+            if (!component.isRequired()) continue;
+
+            bMethodSpec.beginControlFlow("if (!($L))", strategy.isSet(context, component))
+                .addStatement("missing.add($S)", component.name())
+                .endControlFlow();
+        }
+
+        return bMethodSpec.addStatement("return missing")
+            .build();
+    }
+
+    /**
+     * Returns a condition that is {@code true} if all required components are set, or {@code null} if the record has
+     * no required components.
+     */
+    private @Nullable CodeBlock generateIsComplete(BuilderContext context, BuilderStrategy strategy) {
+        List<CodeBlock> isSet = context.components().stream()
+            .filter(BuilderContext.Component::isRequired)
+            .map(component -> strategy.isSet(context, component))
+            .toList();
+
+        return isSet.isEmpty() ? null : CodeBlock.join(isSet, "\n&& ");
     }
 
-    private MethodSpec generateCopyConstructor(Buildable buildable) {
+    private CodeBlock generateConstructorInvocation(BuilderContext context, BuilderStrategy strategy) {
+        List<CodeBlock> arguments = context.components().stream()
+            .map(component -> strategy.get(context, component))
+            .toList();
+
+        return CodeBlock.of("new $T(\n$>$L\n$<)", context.recordTypeName(), CodeBlock.join(arguments, ",\n"));
+    }
+
+    private MethodSpec generateCopyConstructor(BuilderContext context, BuilderStrategy strategy) {
         MethodSpec.Builder bMethodSpec = MethodSpec.constructorBuilder()
-            .addParameter(this.getParametrizedTypeName(buildable.className(), buildable), "other");
+            .addParameter(context.recordTypeName(), "other");
 
-        for (Buildable.Component component : buildable.components()) {
-            if (this.isOmittable(component)) {
-                bMethodSpec.addStatement("this.$N = other.$N()", component.name(), component.name());
-            } else {
-                bMethodSpec.addStatement("this.$N = $T.of(other.$N())", component.name(), OMITTABLE_CLASS_NAME, component.name());
-            }
+        if (context.buildable().features().contains(Builder.Feature.TRACK_MODIFICATIONS)) {
+            bMethodSpec.addStatement("this.$N = other", SOURCE_FIELD_NAME);
+        }
+
+        bMethodSpec.addCode(strategy.copyFrom(context, CodeBlock.of("other")));
+
+        if (context.buildable().features().contains(Builder.Feature.JFR)) {
+            bMethodSpec.addStatement("$T.emit($T.class)", COPY_EVENT_CLASS_NAME, context.recordClassName());
         }
 
         return bMethodSpec.build();
     }
 
-    private FieldSpec generateField(Buildable.Component component) {
-        List<AnnotationSpec> typeAnnotationSpecs = component.annotationMirrors().stream()
-            .filter(annotationMirror -> this.isAnnotationApplicableToAny(annotationMirror.getAnnotationType(), Set.of(ElementType.TYPE_USE)))
-            .map(AnnotationSpec::get)
-            .toList();
+    private MethodSpec generateMappingMethod(BuilderContext context, Buildable.Mapping mapping) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .add("return new $T()", context.builderTypeName())
+            .indent();
 
-        TypeName fieldTypeName;
-        if (this.isOmittable(component)) {
-            fieldTypeName = TypeName.get(component.type()).annotated(typeAnnotationSpecs);
-        } else {
-            fieldTypeName = ParameterizedTypeName.get(ClassName.get(Omittable.class), TypeName.get(component.type()).box().annotated(typeAnnotationSpecs));
+        for (Buildable.Mapping.Property property : mapping.properties()) {
+            if (property.isWrapped()) {
+                code.add("\n.$N($T.of(source.$N()))", property.componentName(), OMITTABLE_CLASS_NAME, property.componentName());
+            } else {
+                code.add("\n.$N(source.$N())", property.componentName(), property.componentName());
+            }
         }
 
-        return FieldSpec.builder(fieldTypeName, component.name(), Modifier.PRIVATE)
-            .initializer("$T.absent()", OMITTABLE_CLASS_NAME)
+        return MethodSpec.methodBuilder("from")
+            .addJavadoc(
+                """
+                Creates a new builder that is initialized with the values returned by the accessors of the given
+                {@link $T} that have the same names as the components of {@link $T}.
+
+                @param source   the object to map from
+
+                @return a new builder instance
+                """,
+                mapping.sourceTypeName(),
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(context.builderTypeName())
+            .addParameter(mapping.sourceTypeName(), "source")
+            .addCode(code.add(";\n").unindent().build())
             .build();
     }
 
-    private MethodSpec generateMethod(Buildable buildable, Buildable.Component component, ClassName builderClassName) {
-        List<AnnotationSpec> paramAnnotationSpecs = component.annotationMirrors().stream()
+    private MethodSpec generateMethod(BuilderContext context, BuilderContext.Component component, BuilderStrategy strategy) {
+        List<AnnotationSpec> paramAnnotationSpecs = component.source().annotationMirrors().stream()
             .filter(annotationMirror -> this.isAnnotationApplicableToAny(annotationMirror.getAnnotationType(), Set.of(ElementType.PARAMETER)))
             .map(AnnotationSpec::get)
             .toList();
@@ -155,28 +421,51 @@ final class BuilderGenerator {
             .addJavadoc(
                 """
                 Sets the value of the {@link $T#$N() $N} component.
-                
+
                 @param $N the value for the component
-                
+
                 @return  this builder instance
                 """,
-                buildable.className(),
+                context.recordClassName(),
                 component.name(),
                 component.name(),
                 component.name()
             )
             .addModifiers(Modifier.PUBLIC)
-            .returns(this.getParametrizedTypeName(builderClassName, buildable))
+            .returns(context.builderTypeName())
             .addParameter(
                 ParameterSpec.builder(TypeName.get(component.type()).annotated(typeAnnotationSpecs), component.name())
                     .addAnnotations(paramAnnotationSpecs)
                     .build()
             );
 
-        if (this.isNullable(component) || component.type().getKind().isPrimitive()) {
-            bMethodSpec.addStatement("this.$N = $T.of($N)", component.name(), OMITTABLE_CLASS_NAME, component.name());
-        } else {
-            bMethodSpec.addStatement("this.$N = $T.of($T.requireNonNull($N, \"Component '$N' may not be null\"))", component.name(), OMITTABLE_CLASS_NAME, OBJECTS_CLASS_NAME, component.name(), component.name());
+        CodeBlock value = CodeBlock.of("$N", component.name());
+
+        // Omittable components are stored as-is. The Omittable itself may never be null.
+        if (component.isOmittable() || !(component.isNullable() || component.isPrimitive())) {
+            switch (context.buildable().checks()) {
+                case ASSERT -> bMethodSpec.addStatement("assert $N != null : $S", component.name(), "Component '" + component.name() + "' may not be null");
+                case NONE -> {}
+                default -> value = strategy.checkNotNull(context, component, value);
+            }
+        }
+
+        if (component.source().interning() != null) {
+            value = CodeBlock.of("$N.canonicalize($L)", poolFieldName(component), value);
+        }
+
+        bMethodSpec.addCode(strategy.set(context, component, value));
+
+        if (context.buildable().features().contains(Builder.Feature.ASYNC) && this.hasAsyncSetter(component)) {
+            bMethodSpec.addStatement("this.$N = null", stageFieldName(component));
+        }
+
+        if (context.buildable().features().contains(Builder.Feature.TRACK_MODIFICATIONS)) {
+            if (usesModificationMask(context)) {
+                bMethodSpec.addStatement("this.$N |= 1L << $L", MODIFIED_FIELD_NAME, component.index());
+            } else {
+                bMethodSpec.addStatement("this.$N[$L] |= 1L << $L", MODIFIED_FIELD_NAME, component.index() >>> 6, component.index() & 63);
+            }
         }
 
         bMethodSpec.addStatement("return this");
@@ -184,7 +473,427 @@ final class BuilderGenerator {
         return bMethodSpec.build();
     }
 
-    private TypeName getParametrizedTypeName(ClassName baseName, Buildable buildable) {
+    private FieldSpec generatePoolField(BuilderContext.Component component) {
+        Buildable.Interning interning = component.source().interning();
+        assert interning != null;
+
+        return FieldSpec.builder(ParameterizedTypeName.get(CANONICAL_POOL_CLASS_NAME, component.boxedTypeName().withoutAnnotations()), poolFieldName(component), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.shared($S, $L)", CANONICAL_POOL_CLASS_NAME, interning.poolName(), interning.capacity())
+            .build();
+    }
+
+    private FieldSpec generateStageField(BuilderContext.Component component) {
+        TypeName stageTypeName = ParameterizedTypeName.get(COMPLETION_STAGE_CLASS_NAME, WildcardTypeName.subtypeOf(component.boxedTypeName()))
+            .annotated(List.of(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()));
+
+        return FieldSpec.builder(stageTypeName, stageFieldName(component), Modifier.PRIVATE)
+            .build();
+    }
+
+    private MethodSpec generateAsyncMethod(BuilderContext context, BuilderContext.Component component) {
+        TypeName stageTypeName = ParameterizedTypeName.get(COMPLETION_STAGE_CLASS_NAME, WildcardTypeName.subtypeOf(component.boxedTypeName()));
+
+        return MethodSpec.methodBuilder(component.name())
+            .addJavadoc(
+                """
+                Sets the value of the {@link $T#$N() $N} component to the result of the given stage.
+
+                <p>The value is resolved when an instance is built using {@link #buildAsync()} or
+                {@link #buildAsync(Executor)}.</p>
+
+                @param $N the stage that provides the value for the component
+
+                @return  this builder instance
+                """,
+                context.recordClassName(),
+                component.name(),
+                component.name(),
+                component.name()
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.builderTypeName())
+            .addParameter(stageTypeName, component.name())
+            .addStatement("this.$N = $T.requireNonNull($N, \"Stage for component '$N' may not be null\")", stageFieldName(component), OBJECTS_CLASS_NAME, component.name(), component.name())
+            .addStatement("return this")
+            .build();
+    }
+
+    private List<MethodSpec> generateAsyncBuildMethods(BuilderContext context, BuilderStrategy strategy) {
+        TypeName futureTypeName = ParameterizedTypeName.get(COMPLETABLE_FUTURE_CLASS_NAME, context.recordTypeName());
+        TypeName assemblerTypeName = ParameterizedTypeName.get(ASYNC_ASSEMBLER_CLASS_NAME, context.recordTypeName());
+
+        // The completion actions of the stages may run concurrently. Thus, they only store the values in the slots of
+        // the assembler, and the setters are invoked by a single thread once all values are available.
+        List<BuilderContext.Component> asyncComponents = context.components().stream()
+            .filter(this::hasAsyncSetter)
+            .toList();
+
+        int asyncSlotCount = asyncComponents.size();
+
+        MethodSpec buildAsync = MethodSpec.methodBuilder("buildAsync")
+            .addJavadoc(
+                """
+                Asynchronously builds a new {@link $T} instance once the values of all components are available.
+
+                <p>The returned future completes exceptionally if any of the pending stages completes exceptionally,
+                or if any of the required components is neither set nor pending. The builder must not be modified
+                until the returned future is complete.</p>
+
+                @return a future that completes with the newly created instance
+                """,
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(futureTypeName)
+            .addStatement("return this.assemble(new $T<>(null, $L, this::$N))", ASYNC_ASSEMBLER_CLASS_NAME, asyncSlotCount, FINISH_ASYNC_METHOD_NAME)
+            .build();
+
+        MethodSpec buildAsyncWithExecutor = MethodSpec.methodBuilder("buildAsync")
+            .addJavadoc(
+                """
+                Asynchronously builds a new {@link $T} instance once the values of all components are available.
+
+                <p>The returned future completes exceptionally if any of the pending stages completes exceptionally,
+                or if any of the required components is neither set nor pending. The builder must not be modified
+                until the returned future is complete.</p>
+
+                @param executor the executor that is used to store the resolved values and to create the instance
+
+                @return a future that completes with the newly created instance
+                """,
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(futureTypeName)
+            .addParameter(EXECUTOR_CLASS_NAME, "executor")
+            .addStatement("return this.assemble(new $T<>($T.requireNonNull(executor, \"Executor may not be null\"), $L, this::$N))", ASYNC_ASSEMBLER_CLASS_NAME, OBJECTS_CLASS_NAME, asyncSlotCount, FINISH_ASYNC_METHOD_NAME)
+            .build();
+
+        MethodSpec.Builder bAssemble = MethodSpec.methodBuilder("assemble")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(futureTypeName)
+            .addParameter(assemblerTypeName, "assembler");
+
+        for (BuilderContext.Component component : context.components()) {
+            if (!component.isRequired()) continue;
+
+            if (this.hasAsyncSetter(component)) {
+                bAssemble.beginControlFlow("if (this.$N == null && !$L)", stageFieldName(component), strategy.isSet(context, component));
+            } else {
+                bAssemble.beginControlFlow("if (!$L)", strategy.isSet(context, component));
+            }
+
+            bAssemble.addStatement("return $T.failedFuture(new IllegalStateException(\"Component '$N' must be set\"))", COMPLETABLE_FUTURE_CLASS_NAME, component.name())
+                .endControlFlow();
+        }
+
+        for (int slot = 0; slot < asyncSlotCount; slot++) {
+            BuilderContext.Component component = asyncComponents.get(slot);
+
+            bAssemble.beginControlFlow("if (this.$N != null)", stageFieldName(component))
+                .addStatement("assembler.await($L, this.$N)", slot, stageFieldName(component))
+                .endControlFlow();
+        }
+
+        bAssemble.addStatement("return assembler.complete()");
+
+        MethodSpec.Builder bFinishAsync = MethodSpec.methodBuilder(FINISH_ASYNC_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE)
+            .returns(context.recordTypeName())
+            .addParameter(assemblerTypeName, "assembler");
+
+        boolean isUnchecked = false;
+        for (int slot = 0; slot < asyncSlotCount; slot++) {
+            BuilderContext.Component component = asyncComponents.get(slot);
+            TypeName valueTypeName = component.boxedTypeName().withoutAnnotations();
+            isUnchecked |= valueTypeName instanceof ParameterizedTypeName || valueTypeName instanceof TypeVariableName;
+
+            bFinishAsync.beginControlFlow("if (this.$N != null)", stageFieldName(component))
+                .addStatement("this.$N(($T) assembler.value($L))", component.name(), valueTypeName, slot)
+                .endControlFlow();
+        }
+
+        if (isUnchecked) {
+            bFinishAsync.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+
+        bFinishAsync.addStatement("return this.build()");
+
+        return List.of(buildAsync, buildAsyncWithExecutor, bAssemble.build(), bFinishAsync.build());
+    }
+
+    private List<FieldSpec> generateModificationFields(BuilderContext context) {
+        FieldSpec source = FieldSpec.builder(context.recordTypeName().annotated(List.of(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build())), SOURCE_FIELD_NAME, Modifier.PRIVATE)
+            .build();
+
+        FieldSpec modified = usesModificationMask(context)
+            ? FieldSpec.builder(TypeName.LONG, MODIFIED_FIELD_NAME, Modifier.PRIVATE).build()
+            : FieldSpec.builder(ArrayTypeName.of(TypeName.LONG), MODIFIED_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new long[$L]", PresenceBits.chunkCount(context.components().size()))
+                .build();
+
+        return List.of(source, modified);
+    }
+
+    private List<MethodSpec> generateModificationMethods(BuilderContext context) {
+        List<MethodSpec> methods = new ArrayList<>(3);
+
+        methods.add(MethodSpec.methodBuilder("source")
+            .addJavadoc(
+                """
+                Returns the instance that this builder was created from.
+
+                @return the instance that this builder was created from, or {@code null} if this builder was not created
+                        from an existing instance
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.recordTypeName().annotated(List.of(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build())))
+            .addStatement("return this.$N", SOURCE_FIELD_NAME)
+            .build()
+        );
+
+        methods.add(MethodSpec.methodBuilder("modifiedComponents")
+            .addJavadoc(
+                """
+                Returns the components of {@link $T} that have been modified since this builder was created.
+
+                <p>A component is considered modified once its setter has been invoked. The bit at the position of a
+                component in the record header is set if and only if the component has been modified.</p>
+
+                @return a new {@link $T} describing the modified components
+                """,
+                context.recordClassName(),
+                BITSET_CLASS_NAME
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(BITSET_CLASS_NAME)
+            .addStatement(
+                usesModificationMask(context) ? "return $T.valueOf(new long[] { this.$N })" : "return $T.valueOf(this.$N)",
+                BITSET_CLASS_NAME,
+                MODIFIED_FIELD_NAME
+            )
+            .build()
+        );
+
+        if (usesModificationMask(context)) {
+            methods.add(MethodSpec.methodBuilder("modifiedComponentsMask")
+                .addJavadoc(
+                    """
+                    Returns the components of {@link $T} that have been modified since this builder was created.
+
+                    <p>A component is considered modified once its setter has been invoked. The bit at the position of a
+                    component in the record header (that is, {@code 1L << position}) is set if and only if the component
+                    has been modified.</p>
+
+                    @return a bitmask describing the modified components
+                    """,
+                    context.recordClassName()
+                )
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.LONG)
+                .addStatement("return this.$N", MODIFIED_FIELD_NAME)
+                .build()
+            );
+        }
+
+        return methods;
+    }
+
+    private List<MethodSpec> generatePatchMethods(BuilderContext context, BuilderStrategy strategy) {
+        List<MethodSpec> methods = new ArrayList<>(3);
+
+        methods.add(MethodSpec.methodBuilder("merge")
+            .addJavadoc(
+                """
+                Copies the values of all components that are set in the given builder to this builder.
+
+                <p>The values are copied as if the respective setters of this builder were invoked. Components that are
+                not set in the given builder are left unchanged.</p>
+
+                @param other    the builder to copy the set values from
+
+                @return  this builder instance
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.builderTypeName())
+            .addParameter(context.builderTypeName(), "other")
+            .addStatement("other.mergeInto(this)")
+            .addStatement("return this")
+            .build()
+        );
+
+        MethodSpec.Builder bApplyTo = MethodSpec.methodBuilder("applyTo")
+            .addJavadoc(
+                """
+                Returns a copy of the given instance in which the values of all components that are set in this builder
+                are replaced.
+
+                @param base the instance to apply the set values to
+
+                @return a new instance with the set values applied, or {@code base} itself if no component is set
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.recordTypeName())
+            .addParameter(context.recordTypeName(), "base")
+            .addStatement("$T.requireNonNull(base, $S)", OBJECTS_CLASS_NAME, "base");
+
+        if (!context.components().isEmpty()) {
+            List<CodeBlock> isSet = new ArrayList<>(context.components().size());
+            List<CodeBlock> arguments = new ArrayList<>(context.components().size());
+
+            for (BuilderContext.Component component : context.components()) {
+                isSet.add(strategy.isSet(context, component));
+                arguments.add(CodeBlock.of("$L ? $L : base.$N()", strategy.isSet(context, component), strategy.get(context, component), component.name()));
+            }
+
+            bApplyTo.beginControlFlow("if (!($>$>\n$L$<$<))", CodeBlock.join(isSet, "\n|| "))
+                .addStatement("return base")
+                .endControlFlow()
+                .addStatement("return new $T(\n$>$L\n$<)", context.recordTypeName(), CodeBlock.join(arguments, ",\n"));
+        } else {
+            bApplyTo.addStatement("return base");
+        }
+
+        methods.add(bApplyTo.build());
+
+        MethodSpec.Builder bMergeInto = MethodSpec.methodBuilder("mergeInto")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(context.builderTypeName(), "target");
+
+        for (BuilderContext.Component component : context.components()) {
+            bMergeInto.beginControlFlow("if ($L)", strategy.isSet(context, component))
+                .addStatement("target.$N($L)", component.name(), strategy.get(context, component))
+                .endControlFlow();
+        }
+
+        methods.add(bMergeInto.build());
+
+        return methods;
+    }
+
+    private List<MethodSpec> generateDiffMethods(BuilderContext context) {
+        List<MethodSpec> methods = new ArrayList<>(2);
+        List<TypeVariableName> typeVariables = context.buildable().typeParameters().stream()
+            .map(this::annotatedTypeVariableName)
+            .toList();
+
+        boolean isMask = usesModificationMask(context);
+        TypeName diffTypeName = ParameterizedTypeName.get(RECORD_DIFF_CLASS_NAME, context.builderTypeName());
+
+        MethodSpec.Builder bDiff = MethodSpec.methodBuilder("diff")
+            .addJavadoc(
+                """
+                Compares the given instances of {@link $T} component by component.
+
+                <p>Primitive components are compared by value and all other components using {@code equals}. The
+                returned builder holds the values of {@code b} for all components that differ. All other components are
+                not set.</p>
+
+                @param a    the old instance
+                @param b    the new instance
+
+                @return the difference between the given instances
+                """,
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addTypeVariables(typeVariables)
+            .returns(diffTypeName)
+            .addParameter(context.recordTypeName(), "a")
+            .addParameter(context.recordTypeName(), "b")
+            .addStatement("$T.requireNonNull(a, $S)", OBJECTS_CLASS_NAME, "a")
+            .addStatement("$T.requireNonNull(b, $S)", OBJECTS_CLASS_NAME, "b")
+            .addStatement("$T changes = new $T()", context.builderTypeName(), context.builderTypeName());
+
+        if (isMask) {
+            bDiff.addStatement("long mask = 0L");
+        } else {
+            bDiff.addStatement("long[] mask = new long[$L]", PresenceBits.chunkCount(context.components().size()));
+        }
+
+        if (!context.components().isEmpty()) {
+            bDiff.beginControlFlow("if (a != b)");
+
+            for (BuilderContext.Component component : context.components()) {
+                bDiff.beginControlFlow("if ($L)", this.isChanged(component));
+
+                if (isMask) {
+                    bDiff.addStatement("mask |= 1L << $L", component.index());
+                } else {
+                    bDiff.addStatement("mask[$L] |= 1L << $L", component.index() >>> 6, component.index() & 63);
+                }
+
+                bDiff.addStatement("changes.$N(b.$N())", component.name(), component.name())
+                    .endControlFlow();
+            }
+
+            bDiff.endControlFlow();
+        }
+
+        methods.add(bDiff.addStatement("return $T.of(mask, changes)", RECORD_DIFF_CLASS_NAME).build());
+
+        if (isMask) {
+            MethodSpec.Builder bDiffMask = MethodSpec.methodBuilder("diffMask")
+                .addJavadoc(
+                    """
+                    Compares the given instances of {@link $T} component by component without allocating.
+
+                    <p>Primitive components are compared by value and all other components using {@code equals}. The bit
+                    at the position of a component in the record header (that is, {@code 1L << position}) is set if and
+                    only if the values of the component differ.</p>
+
+                    @param a    the old instance
+                    @param b    the new instance
+
+                    @return a bitmask describing the components that differ
+                    """,
+                    context.recordClassName()
+                )
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariables(typeVariables)
+                .returns(TypeName.LONG)
+                .addParameter(context.recordTypeName(), "a")
+                .addParameter(context.recordTypeName(), "b")
+                .addStatement("$T.requireNonNull(a, $S)", OBJECTS_CLASS_NAME, "a")
+                .addStatement("$T.requireNonNull(b, $S)", OBJECTS_CLASS_NAME, "b")
+                .addStatement("if (a == b) return 0L")
+                .addStatement("long mask = 0L");
+
+            for (BuilderContext.Component component : context.components()) {
+                bDiffMask.addStatement("if ($L) mask |= 1L << $L", this.isChanged(component), component.index());
+            }
+
+            methods.add(bDiffMask.addStatement("return mask").build());
+        }
+
+        return methods;
+    }
+
+    private CodeBlock isChanged(BuilderContext.Component component) {
+        return switch (component.type().getKind()) {
+            case FLOAT -> CodeBlock.of("$T.compare(a.$N(), b.$N()) != 0", Float.class, component.name(), component.name());
+            case DOUBLE -> CodeBlock.of("$T.compare(a.$N(), b.$N()) != 0", Double.class, component.name(), component.name());
+            case BOOLEAN, BYTE, SHORT, CHAR, INT, LONG -> CodeBlock.of("a.$N() != b.$N()", component.name(), component.name());
+            default -> CodeBlock.of("!$T.equals(a.$N(), b.$N())", OBJECTS_CLASS_NAME, component.name(), component.name());
+        };
+    }
+
+    private static boolean usesModificationMask(BuilderContext context) {
+        return context.components().size() <= Long.SIZE;
+    }
+
+    private static String poolFieldName(BuilderContext.Component component) {
+        return "$" + component.name().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + "_POOL";
+    }
+
+    private static String stageFieldName(BuilderContext.Component component) {
+        return component.name() + "$stage";
+    }
+
+    TypeName getParametrizedTypeName(ClassName baseName, Buildable buildable) {
         if (buildable.typeParameters().isEmpty()) {
             return baseName;
         }
@@ -215,6 +924,12 @@ final class BuilderGenerator {
         return Set.of(targetAnnotation.value()).stream().anyMatch(targets::contains);
     }
 
+    private boolean hasAsyncSetter(BuilderContext.Component component) {
+        // An overload accepting a stage would clash with the regular setter for components that are stages themselves.
+        TypeName erasure = TypeName.get(this.types.erasure(component.type()));
+        return !Objects.equals(COMPLETION_STAGE_CLASS_NAME, erasure) && !Objects.equals(COMPLETABLE_FUTURE_CLASS_NAME, erasure);
+    }
+
     private boolean isOmittable(Buildable.Component component) {
         return Objects.equals(OMITTABLE_CLASS_NAME, TypeName.get(this.types.erasure(component.type())));
     }
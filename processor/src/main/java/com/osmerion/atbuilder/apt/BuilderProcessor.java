@@ -1,6 +1,12 @@
 package com.osmerion.atbuilder.apt;
 
 import com.osmerion.atbuilder.Builder;
+import com.osmerion.atbuilder.CanonicalPool;
+import com.osmerion.atbuilder.Interned;
+import com.osmerion.atbuilder.MapFrom;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.internal.BuilderRegistry;
+import com.osmerion.omittable.Omittable;
 import com.palantir.javapoet.ClassName;
 import com.palantir.javapoet.JavaFile;
 import org.jspecify.annotations.NullMarked;
@@ -10,16 +16,105 @@ import org.jspecify.annotations.Nullable;
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
 public final class BuilderProcessor extends AbstractProcessor {
 
+    /**
+     * The name of the processor option that selects the default code generation strategy. In addition to the built-in
+     * {@code default}, {@code startup}, {@code wide}, {@code sparse}, and {@code shared} strategies, the names of all
+     * strategies that are discovered from the processor path are supported.
+     */
+    static final String OPTION_STRATEGY = "atbuilder.strategy";
+
+    /**
+     * The name of the processor option that configures the number of components above which the {@code wide} strategy
+     * is selected for records that do not select a strategy explicitly. Defaults to {@value #DEFAULT_WIDE_RECORD_THRESHOLD}.
+     */
+    static final String OPTION_WIDE_RECORD_THRESHOLD = "atbuilder.wideRecordThreshold";
+
+    static final int DEFAULT_WIDE_RECORD_THRESHOLD = 32;
+
+    /**
+     * The name of the processor option that enables diagnostics for generated setters, copy constructors, and
+     * {@code build} methods whose estimated bytecode size exceeds the inlining thresholds of HotSpot.
+     */
+    static final String OPTION_INLINING_DIAGNOSTICS = "atbuilder.inliningDiagnostics";
+
+    /**
+     * The name of the processor option that configures the directory to which a report with the estimated bytecode
+     * size of every generated method is written (one file per builder).
+     */
+    static final String OPTION_INLINING_REPORT_DIRECTORY = "atbuilder.inliningReportDirectory";
+
+    /**
+     * The name of the processor option that configures the value of HotSpot's {@code MaxInlineSize} that is used for
+     * inlining diagnostics. Defaults to {@value InliningBudget#DEFAULT_MAX_INLINE_SIZE}.
+     */
+    static final String OPTION_MAX_INLINE_SIZE = "atbuilder.maxInlineSize";
+
+    /**
+     * The name of the processor option that configures the value of HotSpot's {@code FreqInlineSize} that is used for
+     * inlining diagnostics. Defaults to {@value InliningBudget#DEFAULT_FREQ_INLINE_SIZE}.
+     */
+    static final String OPTION_FREQ_INLINE_SIZE = "atbuilder.freqInlineSize";
+
+    /**
+     * The name of the processor option that enables the generation of a builder registry per package and of an index
+     * that is used by {@code Builders.forType} to look up builders at runtime.
+     */
+    static final String OPTION_REGISTRY = "atbuilder.registry";
+
+    /**
+     * The name of the processor option that configures how the checks of generated builders are emitted for records
+     * that do not configure a mode explicitly. Supported values are {@code always} (the default), {@code assert}, and
+     * {@code none}.
+     */
+    static final String OPTION_CHECKS = "atbuilder.checks";
+
+    /**
+     * The name of the processor option that configures the directory of a persistent cache for the sources of
+     * generated builders. If this option is set, builders whose inputs have not changed since they were cached are not
+     * generated again. The cache is not used while inlining diagnostics are enabled.
+     */
+    static final String OPTION_GENERATION_CACHE_DIRECTORY = "atbuilder.generationCacheDirectory";
+
+    /**
+     * The name of the processor option that configures the maximum number of entries of the generation cache.
+     * Defaults to {@value GenerationCache#DEFAULT_MAX_ENTRIES}.
+     */
+    static final String OPTION_GENERATION_CACHE_MAX_ENTRIES = "atbuilder.generationCacheMaxEntries";
+
+    /**
+     * The name of the processor option that configures the Java release that generated code targets. Language features
+     * and APIs of newer releases are only used in generated code if they are available in this release. Defaults to the
+     * source version of the compilation (that is, the value of {@code --release}) and must not be higher.
+     */
+    static final String OPTION_RELEASE = "atbuilder.release";
+
+    static final int MIN_RELEASE = 17;
+
     private static boolean isPrimaryCtor(Element element, List<? extends RecordComponentElement> componentElements) {
         if (element.getKind() != ElementKind.CONSTRUCTOR) return false;
 
@@ -38,10 +133,31 @@ public final class BuilderProcessor extends AbstractProcessor {
         return true;
     }
 
+    private @Nullable AssemblerGenerator assemblerGenerator;
+    private @Nullable BatchBuilderGenerator batchBuilderGenerator;
+    private @Nullable BinaryCodecGenerator binaryCodecGenerator;
     private @Nullable Elements elements;
     private @Nullable Filer filer;
+    private @Nullable FlyweightGenerator flyweightGenerator;
     private @Nullable BuilderGenerator generator;
+    private @Nullable GenerationCache generationCache;
+    private @Nullable InliningBudget inliningBudget;
+    private @Nullable JsonCodecGenerator jsonCodecGenerator;
+    private @Nullable MappingResolver mappingResolver;
+    private @Nullable RegistryGenerator registryGenerator;
     private @Nullable Messager messager;
+    private @Nullable BuilderStrategies strategies;
+    private @Nullable String defaultStrategyName;
+    private Builder.Checks defaultChecks = Builder.Checks.ALWAYS;
+    private int wideRecordThreshold = DEFAULT_WIDE_RECORD_THRESHOLD;
+
+    private boolean isRegistryEnabled;
+
+    /*
+     * Maps the binary names of records to the binary names of the registries that provide their builders. Builders
+     * that are generated in a later round are added to a new registry since a registry cannot be regenerated.
+     */
+    private final Map<String, String> registryIndex = new LinkedHashMap<>();
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -49,13 +165,105 @@ public final class BuilderProcessor extends AbstractProcessor {
 
         this.elements = processingEnv.getElementUtils();
         this.filer = processingEnv.getFiler();
-        this.generator = new BuilderGenerator(processingEnv.getTypeUtils());
         this.messager = processingEnv.getMessager();
+
+        // The ordinal of SourceVersion.RELEASE_<n> is n.
+        int sourceRelease = processingEnv.getSourceVersion().ordinal();
+        int release = this.getIntOption(OPTION_RELEASE, sourceRelease);
+        if (release < MIN_RELEASE || release > sourceRelease) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Invalid value for option '" + OPTION_RELEASE + "': " + release + " (must be between " + MIN_RELEASE + " and " + sourceRelease + ")");
+            release = sourceRelease;
+        }
+
+        this.generator = new BuilderGenerator(processingEnv, release);
+        this.assemblerGenerator = new AssemblerGenerator(processingEnv, this.generator);
+        this.batchBuilderGenerator = new BatchBuilderGenerator(processingEnv, this.generator);
+        this.binaryCodecGenerator = new BinaryCodecGenerator(processingEnv, this.generator);
+        this.flyweightGenerator = new FlyweightGenerator(processingEnv, this.generator);
+        this.jsonCodecGenerator = new JsonCodecGenerator(processingEnv, this.generator);
+        this.mappingResolver = new MappingResolver(processingEnv);
+        this.registryGenerator = new RegistryGenerator(this.generator);
+        this.isRegistryEnabled = Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_REGISTRY));
+        this.strategies = BuilderStrategies.load(BuilderProcessor.class.getClassLoader(), this.messager);
+
+        String strategyName = processingEnv.getOptions().get(OPTION_STRATEGY);
+        if (strategyName != null) {
+            if (this.strategies.get(strategyName) != null) {
+                this.defaultStrategyName = strategyName;
+            } else {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Unknown builder strategy: " + strategyName);
+            }
+        }
+
+        String checks = processingEnv.getOptions().get(OPTION_CHECKS);
+        if (checks != null) {
+            switch (checks) {
+                case "always" -> this.defaultChecks = Builder.Checks.ALWAYS;
+                case "assert" -> this.defaultChecks = Builder.Checks.ASSERT;
+                case "none" -> this.defaultChecks = Builder.Checks.NONE;
+                default -> this.messager.printMessage(Diagnostic.Kind.ERROR, "Invalid value for option '" + OPTION_CHECKS + "': " + checks);
+            }
+        }
+
+        this.wideRecordThreshold = this.getIntOption(OPTION_WIDE_RECORD_THRESHOLD, DEFAULT_WIDE_RECORD_THRESHOLD);
+
+        String inliningReportDirectory = processingEnv.getOptions().get(OPTION_INLINING_REPORT_DIRECTORY);
+        this.inliningBudget = new InliningBudget(
+            this.messager,
+            this.getIntOption(OPTION_MAX_INLINE_SIZE, InliningBudget.DEFAULT_MAX_INLINE_SIZE),
+            this.getIntOption(OPTION_FREQ_INLINE_SIZE, InliningBudget.DEFAULT_FREQ_INLINE_SIZE),
+            Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_INLINING_DIAGNOSTICS)),
+            inliningReportDirectory != null ? Path.of(inliningReportDirectory) : null
+        );
+
+        String generationCacheDirectory = processingEnv.getOptions().get(OPTION_GENERATION_CACHE_DIRECTORY);
+        if (generationCacheDirectory != null) {
+            int maxEntries = this.getIntOption(OPTION_GENERATION_CACHE_MAX_ENTRIES, GenerationCache.DEFAULT_MAX_ENTRIES);
+
+            // All options except those of the cache itself may affect the generated sources.
+            Set<String> supportedOptions = this.getSupportedOptions();
+            Map<String, String> options = new HashMap<>();
+            processingEnv.getOptions().forEach((key, value) -> {
+                if (supportedOptions.contains(key) && !key.equals(OPTION_GENERATION_CACHE_DIRECTORY) && !key.equals(OPTION_GENERATION_CACHE_MAX_ENTRIES)) {
+                    options.put(key, value);
+                }
+            });
+
+            this.generationCache = new GenerationCache(this.filer, this.messager, Path.of(generationCacheDirectory), maxEntries, processingEnv.getSourceVersion(), options);
+        }
+    }
+
+    private int getIntOption(String name, int defaultValue) {
+        assert this.messager != null;
+
+        String value = this.processingEnv.getOptions().get(name);
+        if (value == null) return defaultValue;
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Invalid value for option '" + name + "': " + value);
+            return defaultValue;
+        }
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        assert this.elements != null && this.filer != null && this.generator != null && this.messager != null;
+        assert this.assemblerGenerator != null && this.batchBuilderGenerator != null && this.binaryCodecGenerator != null && this.elements != null && this.filer != null && this.flyweightGenerator != null && this.generator != null && this.inliningBudget != null && this.jsonCodecGenerator != null && this.mappingResolver != null && this.messager != null && this.strategies != null;
+        Map<String, List<Buildable>> registeredBuildables = new LinkedHashMap<>();
+        Map<String, Element> registeredElements = new HashMap<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(MapFrom.class)) {
+            if (element.getAnnotation(Builder.class) == null) {
+                AnnotationMirror annotationMirror = element.getAnnotationMirrors().stream()
+                    .filter(am -> am.getAnnotationType().toString().equals(MapFrom.class.getCanonicalName()))
+                    .findFirst()
+                    .orElseThrow();
+
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "@MapFrom may only be applied to records that are annotated with @Builder.", element, annotationMirror);
+            }
+        }
+
         for (Element element : roundEnv.getElementsAnnotatedWith(Builder.class)) {
             if (element.getKind() != ElementKind.RECORD) {
                 AnnotationMirror annotationMirror = element.getAnnotationMirrors().stream()
@@ -97,6 +305,40 @@ public final class BuilderProcessor extends AbstractProcessor {
 
             ExecutableElement primaryCtor = (ExecutableElement) optPrimaryCtor.get();
 
+            Builder builderAnnotation = typeElement.getAnnotation(Builder.class);
+
+            String strategyName;
+            if (!builderAnnotation.strategy().isEmpty()) {
+                strategyName = builderAnnotation.strategy();
+            } else if (this.defaultStrategyName != null) {
+                strategyName = this.defaultStrategyName;
+            } else if (typeElement.getRecordComponents().size() > this.wideRecordThreshold) {
+                strategyName = WideBuilderStrategy.NAME;
+            } else {
+                strategyName = DefaultBuilderStrategy.NAME;
+            }
+
+            BuilderStrategy strategy = this.strategies.get(strategyName);
+
+            if (strategy == null) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Unknown builder strategy: " + strategyName, element);
+                continue;
+            }
+
+            Set<Builder.Feature> features = builderAnnotation.features().length > 0
+                ? EnumSet.copyOf(Arrays.asList(builderAnnotation.features()))
+                : EnumSet.noneOf(Builder.Feature.class);
+
+            Builder.Checks checks = builderAnnotation.checks() != Builder.Checks.DEFAULT
+                ? builderAnnotation.checks()
+                : this.defaultChecks;
+
+            List<Buildable.Mapping> mappings = this.mappingResolver.resolve(typeElement);
+            if (mappings == null) continue;
+
+            Map<String, Buildable.Interning> internings = this.resolveInternings(typeElement);
+            if (internings == null) continue;
+
             Buildable buildable = new Buildable(
                 ClassName.get(typeElement),
                 typeElement.getTypeParameters(),
@@ -110,28 +352,197 @@ public final class BuilderProcessor extends AbstractProcessor {
                         return new Buildable.Component(
                             component.getSimpleName().toString(),
                             annotationMirrors,
-                            component.asType()
+                            component.asType(),
+                            internings.get(component.getSimpleName().toString())
                         );
                     })
                     .toList(),
-                nullMarker
+                nullMarker,
+                checks,
+                features,
+                mappings
             );
 
-            JavaFile builderFile = this.generator.generateBuilder(buildable);
+            if (this.generationCache != null && !this.inliningBudget.isEnabled()) {
+                BuilderGenerator generator = this.generator;
+                this.generationCache.writeBuilder(buildable, strategy, () -> generator.generateBuilder(buildable, strategy), element);
+            } else {
+                JavaFile builderFile = this.generator.generateBuilder(buildable, strategy);
+
+                if (this.inliningBudget.isEnabled()) {
+                    this.inliningBudget.check(buildable, builderFile, element);
+                }
+
+                this.writeFile(builderFile, element);
+            }
+
+            if (this.isRegistryEnabled) {
+                String packageName = buildable.className().packageName();
+                registeredBuildables.computeIfAbsent(packageName, key -> new ArrayList<>()).add(buildable);
+                registeredElements.putIfAbsent(packageName, element);
+            }
+
+            if (features.contains(Builder.Feature.ASSEMBLER)) {
+                JavaFile assemblerFile = this.assemblerGenerator.generateAssembler(buildable, typeElement);
+                if (assemblerFile != null) this.writeFile(assemblerFile, element);
+            }
 
-            try {
-                builderFile.writeTo(this.filer);
-            } catch (IOException e) {
-                this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write builder file: " + e.getMessage(), element);
+            if (features.contains(Builder.Feature.BATCH)) {
+                JavaFile batchBuilderFile = this.batchBuilderGenerator.generateBatchBuilder(buildable, typeElement);
+                if (batchBuilderFile != null) this.writeFile(batchBuilderFile, element);
             }
+
+            if (features.contains(Builder.Feature.BINARY_CODEC)) {
+                JavaFile codecFile = this.binaryCodecGenerator.generateCodec(buildable, typeElement);
+                if (codecFile != null) this.writeFile(codecFile, element);
+            }
+
+            if (features.contains(Builder.Feature.FLYWEIGHT)) {
+                Optional<? extends RecordComponentElement> nonPrimitiveComponent = typeElement.getRecordComponents().stream()
+                    .filter(component -> !component.asType().getKind().isPrimitive())
+                    .findFirst();
+
+                if (nonPrimitiveComponent.isPresent()) {
+                    this.messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Feature FLYWEIGHT requires all record components to be primitive, but '" + nonPrimitiveComponent.get().getSimpleName() + "' is of type " + nonPrimitiveComponent.get().asType(),
+                        nonPrimitiveComponent.get()
+                    );
+                } else {
+                    JavaFile flyweightFile = this.flyweightGenerator.generateFlyweight(buildable, typeElement);
+                    if (flyweightFile != null) this.writeFile(flyweightFile, element);
+                }
+            }
+
+            if (features.contains(Builder.Feature.JSON)) {
+                JavaFile jsonFile = this.jsonCodecGenerator.generateCodec(buildable, typeElement);
+                if (jsonFile != null) this.writeFile(jsonFile, element);
+            }
+        }
+
+        for (Map.Entry<String, List<Buildable>> entry : registeredBuildables.entrySet()) {
+            this.writeRegistry(entry.getKey(), entry.getValue(), registeredElements.get(entry.getKey()));
+        }
+
+        if (roundEnv.processingOver() && !this.registryIndex.isEmpty()) {
+            this.writeRegistryIndex();
+        }
+
+        if (roundEnv.processingOver() && this.generationCache != null) {
+            this.generationCache.finish();
         }
 
         return false;
     }
 
+    /**
+     * Returns the configurations of the {@link Interned interned} components of the given record by name, or
+     * {@code null} if an annotation is invalid. Errors are reported to the messager.
+     */
+    private @Nullable Map<String, Buildable.Interning> resolveInternings(TypeElement recordElement) {
+        assert this.elements != null && this.messager != null;
+
+        Types types = this.processingEnv.getTypeUtils();
+        TypeMirror omittableType = types.erasure(this.elements.getTypeElement(Omittable.class.getCanonicalName()).asType());
+        Map<String, Buildable.Interning> internings = new HashMap<>();
+        boolean isValid = true;
+
+        for (RecordComponentElement component : recordElement.getRecordComponents()) {
+            Interned interned = component.getAnnotation(Interned.class);
+            if (interned == null) continue;
+
+            TypeMirror componentType = component.asType();
+
+            if (!recordElement.getTypeParameters().isEmpty()) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "@Interned is not supported for generic records.", component);
+                isValid = false;
+            } else if (componentType.getKind().isPrimitive()) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "@Interned is not supported for component '" + component.getSimpleName() + "' of primitive type " + componentType + ".", component);
+                isValid = false;
+            } else if (types.isSameType(types.erasure(componentType), omittableType)) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "@Interned is not supported for Omittable component '" + component.getSimpleName() + "'.", component);
+                isValid = false;
+            } else if (interned.capacity() <= 0) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "The capacity of the pool of component '" + component.getSimpleName() + "' must be positive.", component);
+                isValid = false;
+            } else if (interned.capacity() > CanonicalPool.MAX_CAPACITY) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "The capacity of the pool of component '" + component.getSimpleName() + "' must not be greater than " + CanonicalPool.MAX_CAPACITY + ".", component);
+                isValid = false;
+            } else {
+                String poolName = !interned.pool().isEmpty()
+                    ? interned.pool()
+                    : this.elements.getBinaryName(recordElement) + "." + component.getSimpleName();
+
+                internings.put(component.getSimpleName().toString(), new Buildable.Interning(poolName, interned.capacity()));
+            }
+        }
+
+        return isValid ? internings : null;
+    }
+
+    private void writeRegistry(String packageName, List<Buildable> buildables, Element element) {
+        assert this.registryGenerator != null;
+
+        ClassName registryClassName = RegistryGenerator.registryClassName(packageName, buildables);
+
+        for (Buildable buildable : buildables) {
+            this.registryIndex.put(buildable.className().reflectionName(), registryClassName.reflectionName());
+        }
+
+        this.writeFile(this.registryGenerator.generateRegistry(registryClassName, buildables), element);
+    }
+
+    private void writeRegistryIndex() {
+        assert this.filer != null && this.messager != null;
+
+        try {
+            FileObject fileObject = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", BuilderRegistry.INDEX_RESOURCE);
+
+            try (Writer writer = new OutputStreamWriter(fileObject.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : this.registryIndex.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write builder index: " + e.getMessage());
+        }
+    }
+
+    private void writeFile(JavaFile file, Element element) {
+        assert this.filer != null && this.messager != null;
+
+        try {
+            file.writeTo(this.filer);
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write file for " + file.typeSpec().name() + ": " + e.getMessage(), element);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>();
+        options.add(OPTION_STRATEGY);
+        options.add(OPTION_CHECKS);
+        options.add(OPTION_WIDE_RECORD_THRESHOLD);
+        options.add(OPTION_INLINING_DIAGNOSTICS);
+        options.add(OPTION_INLINING_REPORT_DIRECTORY);
+        options.add(OPTION_MAX_INLINE_SIZE);
+        options.add(OPTION_FREQ_INLINE_SIZE);
+        options.add(OPTION_REGISTRY);
+        options.add(OPTION_GENERATION_CACHE_DIRECTORY);
+        options.add(OPTION_GENERATION_CACHE_MAX_ENTRIES);
+        options.add(OPTION_RELEASE);
+
+        if (this.strategies != null) {
+            options.addAll(this.strategies.supportedOptions());
+        }
+
+        return options;
+    }
+
     @Override
     public Set<String> getSupportedAnnotationTypes() {
-        return Set.of(Builder.class.getCanonicalName());
+        return Set.of(Builder.class.getCanonicalName(), MapFrom.class.getCanonicalName());
     }
 
     @Override
@@ -0,0 +1,61 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import java.util.*;
+
+/**
+ * The registry of the {@link BuilderStrategy strategies} that are available to the processor.
+ *
+ * <p>The registry contains the built-in strategies as well as all strategies that are discovered using the
+ * {@link ServiceLoader} mechanism.</p>
+ */
+final class BuilderStrategies {
+
+    static BuilderStrategies load(ClassLoader classLoader, Messager messager) {
+        Map<String, BuilderStrategy> strategies = new LinkedHashMap<>();
+        strategies.put(DefaultBuilderStrategy.NAME, new DefaultBuilderStrategy());
+        strategies.put(StartupBuilderStrategy.NAME, new StartupBuilderStrategy());
+        strategies.put(WideBuilderStrategy.NAME, new WideBuilderStrategy());
+        strategies.put(SparseBuilderStrategy.NAME, new SparseBuilderStrategy());
+        strategies.put(SharedBuilderStrategy.NAME, new SharedBuilderStrategy());
+
+        try {
+            for (BuilderStrategy strategy : ServiceLoader.load(BuilderStrategy.class, classLoader)) {
+                BuilderStrategy previous = strategies.putIfAbsent(strategy.name(), strategy);
+
+                if (previous != null) {
+                    messager.printMessage(
+                        Diagnostic.Kind.ERROR,
+                        "Duplicate builder strategy '" + strategy.name() + "': " + strategy.getClass().getName() + " conflicts with " + previous.getClass().getName()
+                    );
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to load builder strategies: " + e.getMessage());
+        }
+
+        return new BuilderStrategies(strategies);
+    }
+
+    private final Map<String, BuilderStrategy> strategies;
+
+    private BuilderStrategies(Map<String, BuilderStrategy> strategies) {
+        this.strategies = Collections.unmodifiableMap(strategies);
+    }
+
+    @Nullable BuilderStrategy get(String name) {
+        return this.strategies.get(name);
+    }
+
+    Set<String> supportedOptions() {
+        Set<String> options = new HashSet<>();
+        this.strategies.values().forEach(strategy -> options.addAll(strategy.supportedOptions()));
+
+        return options;
+    }
+
+}
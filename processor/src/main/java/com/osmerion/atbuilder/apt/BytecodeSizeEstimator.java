@@ -0,0 +1,374 @@
+package com.osmerion.atbuilder.apt;
+
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterSpec;
+import com.palantir.javapoet.TypeName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Estimates the size of the bytecode that {@code javac} emits for the body of a generated method.
+ *
+ * <p>The generated sources are only compiled after the processor has finished, so the actual size is not known at the
+ * time the builder is generated. Instead, the body of a method is tokenized and every construct is charged with the
+ * size of the instructions {@code javac} typically emits for it (e.g. three bytes for a field access or a method
+ * invocation, one byte for loading a local variable). Lambda bodies are not charged since they are compiled into a
+ * separate synthetic method. Calls to the generic methods that the generated code relies on (e.g.
+ * {@code Objects.requireNonNull} or {@code Omittable.orElseThrow}) are additionally charged with the {@code checkcast}
+ * that {@code javac} emits after a call that returns an erased type variable. The estimate is intentionally simple and tends to be accurate within a few bytes for the
+ * straight-line code produced by the processor.</p>
+ */
+final class BytecodeSizeEstimator {
+
+    /**
+     * The names of the methods returning a type variable that are invoked by generated code. The result of such a call
+     * is erased to its bound and has to be cast back to the expected type.
+     */
+    private static final Set<String> GENERIC_METHODS = Set.of("canonicalize", "complete", "orElseThrow", "requireComponent", "requireNonNull");
+
+    private static final Set<String> PRIMITIVE_TYPES = Set.of("boolean", "byte", "char", "short", "int", "long", "float", "double", "void", "var");
+
+    static int estimate(MethodSpec methodSpec) {
+        return estimate(
+            methodSpec.code().toString(),
+            methodSpec.parameters().stream().map(ParameterSpec::name).toList(),
+            methodSpec.isConstructor() || TypeName.VOID.equals(methodSpec.returnType()),
+            methodSpec.isConstructor()
+        );
+    }
+
+    static int estimate(String code, Collection<String> parameterNames, boolean isVoid, boolean isConstructor) {
+        List<String> tokens = tokenize(code);
+        int size = new BytecodeSizeEstimator(tokens, new HashSet<>(parameterNames)).estimate(0, tokens.size());
+
+        // Account for the implicit return at the end of void methods and constructors.
+        if (isVoid && !tokens.contains("return")) {
+            size += 1;
+        }
+
+        // Account for the implicit super constructor call.
+        if (isConstructor) {
+            size += 4;
+        }
+
+        return size;
+    }
+
+    private static List<String> tokenize(String code) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+
+        while (i < code.length()) {
+            char c = code.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"' || c == '\'') {
+                int start = i++;
+                while (i < code.length() && code.charAt(i) != c) {
+                    if (code.charAt(i) == '\\') i++;
+                    i++;
+                }
+
+                tokens.add(code.substring(start, Math.min(++i, code.length())));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < code.length() && Character.isJavaIdentifierPart(code.charAt(i))) i++;
+
+                tokens.add(code.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < code.length() && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '.' || code.charAt(i) == '_')) i++;
+
+                tokens.add(code.substring(start, i));
+            } else {
+                String operator = matchOperator(code, i);
+                tokens.add(operator);
+                i += operator.length();
+            }
+        }
+
+        return tokens;
+    }
+
+    private static String matchOperator(String code, int index) {
+        for (String operator : new String[] { "::", ">>>=", ">>>", "<<=", ">>=", "->", "==", "!=", "<=", ">=", "&&", "||", "++", "--", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<", ">>" }) {
+            if (code.startsWith(operator, index)) return operator;
+        }
+
+        return String.valueOf(code.charAt(index));
+    }
+
+    private static boolean isIdentifier(String token) {
+        return Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    private static boolean isTypeName(String token) {
+        return Character.isUpperCase(token.charAt(0)) && !token.equals(token.toUpperCase());
+    }
+
+    private static int constantSize(String literal) {
+        String value = literal.replace("_", "");
+        boolean isLong = value.endsWith("L") || value.endsWith("l");
+        if (isLong) value = value.substring(0, value.length() - 1);
+
+        long parsed;
+        try {
+            if (value.startsWith("0x") || value.startsWith("0X")) {
+                parsed = Long.parseUnsignedLong(value.substring(2), 16);
+            } else if (value.contains(".")) {
+                return 2;
+            } else {
+                parsed = Long.parseLong(value);
+            }
+        } catch (NumberFormatException e) {
+            return 2;
+        }
+
+        if (isLong) return (parsed == 0L || parsed == 1L) ? 1 : 3;
+        if (-1 <= parsed && parsed <= 5) return 1;
+        if (Byte.MIN_VALUE <= parsed && parsed <= Byte.MAX_VALUE) return 2;
+        return 3;
+    }
+
+    private final List<String> tokens;
+    private final Set<String> locals;
+
+    private BytecodeSizeEstimator(List<String> tokens, Set<String> locals) {
+        this.tokens = tokens;
+        this.locals = locals;
+    }
+
+    private String token(int index) {
+        return index < this.tokens.size() ? this.tokens.get(index) : "";
+    }
+
+    private int estimate(int from, int to) {
+        int size = 0;
+        int i = from;
+
+        while (i < to) {
+            String token = this.tokens.get(i);
+
+            switch (token) {
+                case "this", "super" -> {
+                    // aload_0 (+ invokespecial for explicit constructor calls)
+                    size += this.token(i + 1).equals("(") ? 4 : 1;
+                    i++;
+                }
+                case "new" -> {
+                    // new + dup + invokespecial, or the allocation of an array
+                    i = this.skipType(i + 1);
+                    size += this.token(i).equals("[") ? 3 : 7;
+                }
+                case "return", "throw" -> {
+                    size += 1;
+                    i++;
+                }
+                case "if", "while", "for", "switch", "try", "catch", "finally" -> i++;
+                case "else" -> {
+                    size += 3;
+                    i++;
+                }
+                case "true", "false", "null" -> {
+                    size += 1;
+                    i++;
+                }
+                case "instanceof" -> {
+                    size += 3;
+                    i = this.skipType(i + 1);
+                }
+                case "@" -> i = this.skipType(i + 1);
+                case "." -> {
+                    // getfield/putfield/getstatic/invoke* (+ checkcast for calls returning an erased type variable)
+                    boolean isMember = !this.token(i + 1).isEmpty() && isIdentifier(this.token(i + 1));
+                    boolean isGenericCall = isMember && GENERIC_METHODS.contains(this.token(i + 1)) && this.token(i + 2).equals("(");
+                    size += isMember ? (isGenericCall ? 6 : 3) : 0;
+                    i += isMember ? 2 : 1;
+                }
+                case "::" -> {
+                    size += 5;
+                    i += 2;
+                }
+                case "->" -> {
+                    // The lambda body is compiled into a synthetic method. Only the invokedynamic call site is charged.
+                    size += 5;
+                    i = this.skipLambdaBody(i + 1, to);
+                }
+                case "==", "!=", "<=", ">=", "&&", "||", "!", "?", ":", "<", ">" -> {
+                    size += 3;
+                    i++;
+                }
+                case "+" -> {
+                    // String concatenation is compiled to an invokedynamic call site.
+                    size += (this.token(i - 1).startsWith("\"") || this.token(i + 1).startsWith("\"")) ? 5 : 1;
+                    i++;
+                }
+                case "-", "*", "/", "%", "&", "|", "^", "<<", ">>", ">>>", "++", "--", "[" -> {
+                    size += 1;
+                    i++;
+                }
+                case "~" -> {
+                    size += 2;
+                    i++;
+                }
+                case "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<=", ">>=", ">>>=" -> {
+                    // dup + the arithmetic instruction + the store (the load of the target is charged separately)
+                    size += 5;
+                    i++;
+                }
+                default -> {
+                    if (token.startsWith("\"")) {
+                        size += 2;
+                        i++;
+                    } else if (token.startsWith("'") || Character.isDigit(token.charAt(0))) {
+                        size += token.startsWith("'") ? 2 : constantSize(token);
+                        i++;
+                    } else if (isIdentifier(token)) {
+                        i = this.estimateName(i);
+                        size += this.lastNameSize;
+                    } else if (token.equals("(") && this.isCast(i)) {
+                        size += 3;
+                        i = this.skipType(i + 1) + 1;
+                    } else {
+                        i++;
+                    }
+                }
+            }
+        }
+
+        return size;
+    }
+
+    private int lastNameSize;
+
+    /**
+     * Estimates the size of the instructions for the name starting at the given index and returns the index of the
+     * first token after the name. The size is stored in {@link #lastNameSize}. Subsequent member accesses are charged
+     * separately.
+     */
+    private int estimateName(int index) {
+        String name = this.tokens.get(index);
+
+        if (this.token(index + 1).equals("->")) {
+            // The parameter of a lambda expression
+            this.lastNameSize = 0;
+            return index + 1;
+        } else if (this.token(index + 1).equals("(")) {
+            // An unqualified method invocation
+            this.lastNameSize = 3;
+            return index + 1;
+        } else if (this.locals.contains(name)) {
+            this.lastNameSize = 1;
+            return index + 1;
+        } else if (PRIMITIVE_TYPES.contains(name) || isTypeName(name) || this.token(index + 1).equals(".")) {
+            // A (qualified) type name that is either followed by a static member access or starts a local variable
+            // declaration
+            int next = this.skipType(index);
+            String after = this.token(next);
+
+            if (isIdentifier(after)) {
+                this.locals.add(after);
+
+                boolean hasInitializer = this.token(next + 1).equals("=");
+                this.lastNameSize = hasInitializer ? 1 : 0;
+                return hasInitializer ? next + 2 : next + 1;
+            }
+
+            this.lastNameSize = 0;
+            return next;
+        }
+
+        // An unqualified field access
+        this.lastNameSize = 4;
+        return index + 1;
+    }
+
+    /**
+     * Skips a (qualified, possibly parameterized) type name starting at the given index and returns the index of the
+     * first token after the type. If the type is followed by a static member access, the returned index points to the
+     * {@code .} that precedes the member.
+     */
+    private int skipType(int index) {
+        int i = index;
+
+        while (i < this.tokens.size()) {
+            if (this.token(i).equals("@")) {
+                i += 2;
+                continue;
+            }
+
+            String segment = this.token(i);
+            if (segment.isEmpty() || !isIdentifier(segment)) break;
+            i++;
+
+            if (this.token(i).equals("<")) {
+                int depth = 0;
+                do {
+                    switch (this.token(i)) {
+                        case "<" -> depth++;
+                        case ">" -> depth--;
+                        case ">>" -> depth -= 2;
+                        case ">>>" -> depth -= 3;
+                    }
+
+                    i++;
+                } while (depth > 0 && i < this.tokens.size());
+            }
+
+            while (this.token(i).equals("[") && this.token(i + 1).equals("]")) i += 2;
+
+            if (this.token(i).equals(".") && !this.token(i + 1).isEmpty() && isIdentifier(this.token(i + 1))) {
+                boolean isPackage = Character.isLowerCase(segment.charAt(0)) && !PRIMITIVE_TYPES.contains(segment);
+                boolean isNestedType = isTypeName(this.token(i + 1));
+
+                if (isPackage || isNestedType) {
+                    i++;
+                    continue;
+                }
+            }
+
+            break;
+        }
+
+        return i;
+    }
+
+    private boolean isCast(int index) {
+        String type = this.token(index + 1);
+        if (!(PRIMITIVE_TYPES.contains(type) || isTypeName(type))) return false;
+
+        int end = this.skipType(index + 1);
+        if (!this.token(end).equals(")")) return false;
+
+        String next = this.token(end + 1);
+        return !next.isEmpty() && (isIdentifier(next) || next.equals("(") || next.startsWith("\""));
+    }
+
+    private int skipLambdaBody(int index, int to) {
+        int depth = 0;
+        int i = index;
+
+        while (i < to) {
+            String token = this.tokens.get(i);
+
+            if (token.equals("(") || token.equals("{") || token.equals("[")) {
+                depth++;
+            } else if (token.equals(")") || token.equals("}") || token.equals("]")) {
+                if (depth == 0) return i;
+                depth--;
+            } else if ((token.equals(",") || token.equals(";")) && depth == 0) {
+                return i;
+            }
+
+            i++;
+        }
+
+        return i;
+    }
+
+}
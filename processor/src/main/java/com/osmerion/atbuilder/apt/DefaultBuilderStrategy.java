@@ -0,0 +1,86 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.osmerion.omittable.Omittable;
+import com.palantir.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The default strategy that stores every component in an {@link Omittable} field.
+ *
+ * <p>Required components are stored as {@code Omittable<T>} where {@code T} is the (boxed) type of the component, and
+ * {@code Omittable} components are stored as-is. The {@code build} method uses a lambda-based {@code orElseThrow} call
+ * per required component.</p>
+ */
+class DefaultBuilderStrategy implements BuilderStrategy {
+
+    static final String NAME = "default";
+
+    static final ClassName OMITTABLE_CLASS_NAME = ClassName.get(Omittable.class);
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<FieldSpec> fields(BuilderModel builder) {
+        return builder.components().stream()
+            .map(component -> {
+                TypeName fieldTypeName = component.isOmittable()
+                    ? component.typeName()
+                    : ParameterizedTypeName.get(OMITTABLE_CLASS_NAME, component.boxedTypeName());
+
+                return FieldSpec.builder(fieldTypeName, component.name(), Modifier.PRIVATE)
+                    .initializer("$T.absent()", OMITTABLE_CLASS_NAME)
+                    .build();
+            })
+            .toList();
+    }
+
+    @Override
+    public CodeBlock isSet(BuilderModel builder, ComponentModel component) {
+        return CodeBlock.of("this.$N.isPresent()", component.name());
+    }
+
+    @Override
+    public CodeBlock get(BuilderModel builder, ComponentModel component) {
+        return component.isOmittable()
+            ? CodeBlock.of("this.$N", component.name())
+            : CodeBlock.of("this.$N.orElseThrow()", component.name());
+    }
+
+    @Override
+    public CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        return component.isOmittable()
+            ? CodeBlock.builder().addStatement("this.$N = $L", component.name(), value).build()
+            : CodeBlock.builder().addStatement("this.$N = $T.of($L)", component.name(), OMITTABLE_CLASS_NAME, value).build();
+    }
+
+    @Override
+    public CodeBlock build(BuilderModel builder) {
+        List<CodeBlock> arguments = new ArrayList<>(builder.components().size());
+        for (ComponentModel component : builder.components()) {
+            arguments.add(component.isOmittable()
+                ? CodeBlock.of("this.$N", component.name())
+                : this.require(component)
+            );
+        }
+
+        return CodeBlock.of("return new $T(\n$>$L\n$<);", builder.recordTypeName(), CodeBlock.join(arguments, ",\n"));
+    }
+
+    /**
+     * Returns an expression that evaluates to the value of the given required component, or throws an
+     * {@link IllegalStateException} if the component has not been set.
+     */
+    CodeBlock require(ComponentModel component) {
+        return CodeBlock.of("this.$N.orElseThrow(() -> new IllegalStateException($S))", component.name(), "Component '" + component.name() + "' must be set");
+    }
+
+}
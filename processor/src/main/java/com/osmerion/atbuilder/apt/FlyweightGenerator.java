@@ -0,0 +1,518 @@
+package com.osmerion.atbuilder.apt;
+
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Generates fixed-layout flyweights that store instances of records with only primitive components in a
+ * {@link ByteBuffer}.
+ *
+ * <p>The components are laid out by descending size, so that every component is naturally aligned if the buffer is,
+ * and the size of an element is rounded up to the alignment of its largest component.</p>
+ *
+ * @see com.osmerion.atbuilder.Builder.Feature#FLYWEIGHT
+ */
+final class FlyweightGenerator {
+
+    private static final ClassName BYTE_BUFFER_CLASS_NAME = ClassName.get(ByteBuffer.class);
+    private static final ClassName BYTE_ORDER_CLASS_NAME = ClassName.get(ByteOrder.class);
+
+    // The foreign function & memory API is final as of Java 22 and cannot be referenced by the processor itself.
+    private static final ClassName ARENA_CLASS_NAME = ClassName.get("java.lang.foreign", "Arena");
+    private static final ClassName MEMORY_SEGMENT_CLASS_NAME = ClassName.get("java.lang.foreign", "MemorySegment");
+
+    private static final int FOREIGN_MEMORY_RELEASE = 22;
+
+    private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
+    private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
+
+    private static final String BYTES_FIELD_NAME = "BYTES";
+    private static final String BUFFER_FIELD_NAME = "buffer";
+    private static final String WRITER_FIELD_NAME = "writer";
+
+    /** The names of the methods of a flyweight that take a single {@code int} parameter just like the readers. */
+    private static final Set<String> RESERVED_METHOD_NAMES = Set.of("allocateDirect", "at", "materialize");
+
+    /** The name of the writer's private method that would clash with the writer method of an {@code int} component. */
+    private static final String RESET_METHOD_NAME = "reset";
+
+    private static String offsetFieldName(BuilderContext.Component component) {
+        return component.name().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + "_OFFSET";
+    }
+
+    private static int sizeOf(TypeName typeName) {
+        if (typeName.equals(TypeName.BOOLEAN) || typeName.equals(TypeName.BYTE)) return 1;
+        if (typeName.equals(TypeName.SHORT) || typeName.equals(TypeName.CHAR)) return 2;
+        if (typeName.equals(TypeName.INT) || typeName.equals(TypeName.FLOAT)) return 4;
+        return 8;
+    }
+
+    private static CodeBlock read(BuilderContext.Component component, CodeBlock offset) {
+        TypeName typeName = component.typeName().withoutAnnotations();
+
+        if (typeName.equals(TypeName.BOOLEAN)) return CodeBlock.of("this.$N.get($L) != 0", BUFFER_FIELD_NAME, offset);
+        if (typeName.equals(TypeName.BYTE)) return CodeBlock.of("this.$N.get($L)", BUFFER_FIELD_NAME, offset);
+        return CodeBlock.of("this.$N.get$L($L)", BUFFER_FIELD_NAME, accessorSuffix(typeName), offset);
+    }
+
+    private static CodeBlock write(BuilderContext.Component component, CodeBlock buffer, CodeBlock offset, CodeBlock value) {
+        TypeName typeName = component.typeName().withoutAnnotations();
+
+        if (typeName.equals(TypeName.BOOLEAN)) return CodeBlock.of("$L.put($L, (byte) ($L ? 1 : 0))", buffer, offset, value);
+        if (typeName.equals(TypeName.BYTE)) return CodeBlock.of("$L.put($L, $L)", buffer, offset, value);
+        return CodeBlock.of("$L.put$L($L, $L)", buffer, accessorSuffix(typeName), offset, value);
+    }
+
+    private static String accessorSuffix(TypeName typeName) {
+        if (typeName.equals(TypeName.SHORT)) return "Short";
+        if (typeName.equals(TypeName.CHAR)) return "Char";
+        if (typeName.equals(TypeName.INT)) return "Int";
+        if (typeName.equals(TypeName.FLOAT)) return "Float";
+        if (typeName.equals(TypeName.LONG)) return "Long";
+        return "Double";
+    }
+
+    private final BuilderGenerator builderGenerator;
+    private final Messager messager;
+
+    FlyweightGenerator(ProcessingEnvironment processingEnv, BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Returns the flyweight for the given record, or {@code null} if a method generated for a component would clash
+     * with another method of the flyweight. Errors are reported to the messager.
+     */
+    @Nullable JavaFile generateFlyweight(Buildable buildable, TypeElement recordElement) {
+        BuilderContext context = this.builderGenerator.createContext(buildable);
+
+        boolean hasClash = false;
+        for (RecordComponentElement componentElement : recordElement.getRecordComponents()) {
+            String name = componentElement.getSimpleName().toString();
+
+            if (RESERVED_METHOD_NAMES.contains(name)) {
+                this.messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Feature FLYWEIGHT does not support a component named '" + name + "' because its reader would clash with the flyweight's " + name + "(int) method",
+                    componentElement
+                );
+
+                hasClash = true;
+            } else if (name.equals(RESET_METHOD_NAME) && componentElement.asType().getKind() == TypeKind.INT) {
+                this.messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Feature FLYWEIGHT does not support an int component named '" + name + "' because its writer method would clash with the writer's " + name + "(int) method",
+                    componentElement
+                );
+
+                hasClash = true;
+            }
+        }
+
+        if (hasClash) return null;
+
+        ClassName flyweightClassName = ClassName.get(buildable.className().packageName(), buildable.className().simpleName() + "Flyweight");
+        TypeName flyweightTypeName = this.builderGenerator.getParametrizedTypeName(flyweightClassName, buildable);
+        ClassName writerClassName = flyweightClassName.nestedClass("Writer");
+        TypeName writerTypeName = flyweightTypeName instanceof ParameterizedTypeName parameterizedTypeName
+            ? parameterizedTypeName.nestedClass("Writer")
+            : writerClassName;
+
+        List<BuilderContext.Component> layout = new ArrayList<>(context.components());
+        layout.sort(Comparator.comparingInt((BuilderContext.Component component) -> sizeOf(component.typeName().withoutAnnotations())).reversed());
+
+        int offset = 0;
+        int alignment = 1;
+        int[] offsets = new int[context.components().size()];
+
+        for (BuilderContext.Component component : layout) {
+            int size = sizeOf(component.typeName().withoutAnnotations());
+            offsets[component.index()] = offset;
+            offset += size;
+            alignment = Math.max(alignment, size);
+        }
+
+        int bytes = Math.max(1, (offset + alignment - 1) / alignment * alignment);
+        int chunkCount = PresenceBits.chunkCount(context.components().size());
+
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(flyweightClassName)
+            .addJavadoc(
+                """
+                A flyweight that stores {@link $T} instances in a {@link $T} using a fixed layout of {@value #$N} bytes
+                per element.
+
+                <p>Element {@code i} starts at byte offset {@code i * $N} of the buffer. All accesses are absolute, use
+                the byte order of the buffer, and do not modify its position or limit.</p>
+                """,
+                buildable.className(),
+                BYTE_BUFFER_CLASS_NAME,
+                BYTES_FIELD_NAME,
+                BYTES_FIELD_NAME
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addTypeVariables(
+                buildable.typeParameters().stream()
+                    .map(this.builderGenerator::annotatedTypeVariableName)
+                    .toList()
+            );
+
+        bTypeSpec.addField(PresenceBits.componentNamesField(context.components().stream().map(BuilderContext.Component::name).toList()));
+
+        bTypeSpec.addField(FieldSpec.builder(TypeName.INT, BYTES_FIELD_NAME, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("The number of bytes per element.\n")
+            .initializer("$L", bytes)
+            .build()
+        );
+
+        for (BuilderContext.Component component : context.components()) {
+            bTypeSpec.addField(FieldSpec.builder(TypeName.INT, offsetFieldName(component), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("The byte offset of the {@link $T#$N() $N} component within an element.\n", context.recordClassName(), component.name(), component.name())
+                .initializer("$L", offsets[component.index()])
+                .build()
+            );
+        }
+
+        bTypeSpec.addField(BYTE_BUFFER_CLASS_NAME, BUFFER_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+            .addField(writerTypeName, WRITER_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL);
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder()
+            .addJavadoc(
+                """
+                Creates a new flyweight over the given buffer.
+
+                @param buffer   the buffer that stores the elements
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(BYTE_BUFFER_CLASS_NAME, "buffer")
+            .addStatement("this.$N = buffer", BUFFER_FIELD_NAME)
+            .addStatement("this.$N = new Writer()", WRITER_FIELD_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("allocateDirect")
+            .addJavadoc(
+                """
+                Creates a new flyweight over a newly allocated direct buffer in the native byte order.
+
+                @param capacity the number of elements for which space is allocated
+
+                @return the new flyweight
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addTypeVariables(
+                buildable.typeParameters().stream()
+                    .map(this.builderGenerator::annotatedTypeVariableName)
+                    .toList()
+            )
+            .returns(flyweightTypeName)
+            .addParameter(TypeName.INT, "capacity")
+            .addStatement(
+                buildable.typeParameters().isEmpty()
+                    ? "return new $T($T.allocateDirect($T.multiplyExact(capacity, $N)).order($T.nativeOrder()))"
+                    : "return new $T<>($T.allocateDirect($T.multiplyExact(capacity, $N)).order($T.nativeOrder()))",
+                flyweightClassName,
+                BYTE_BUFFER_CLASS_NAME,
+                Math.class,
+                BYTES_FIELD_NAME,
+                BYTE_ORDER_CLASS_NAME
+            )
+            .build()
+        );
+
+        if (context.release() >= FOREIGN_MEMORY_RELEASE) {
+            String newFlyweight = buildable.typeParameters().isEmpty() ? "return new $T($L)" : "return new $T<>($L)";
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder("allocate")
+                .addJavadoc(
+                    """
+                    Creates a new flyweight over a segment that is allocated by the given arena and viewed in the native
+                    byte order.
+
+                    <p>Unlike {@link #allocateDirect(int)}, the memory is freed deterministically when the arena is
+                    closed.</p>
+
+                    @param arena    the arena to allocate the segment with
+                    @param capacity the number of elements for which space is allocated
+
+                    @return the new flyweight
+                    """
+                )
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariables(
+                    buildable.typeParameters().stream()
+                        .map(this.builderGenerator::annotatedTypeVariableName)
+                        .toList()
+                )
+                .returns(flyweightTypeName)
+                .addParameter(ARENA_CLASS_NAME, "arena")
+                .addParameter(TypeName.INT, "capacity")
+                .addStatement(
+                    newFlyweight,
+                    flyweightClassName,
+                    CodeBlock.of("arena.allocate($T.multiplyExact(capacity, $N), $L).asByteBuffer().order($T.nativeOrder())", Math.class, BYTES_FIELD_NAME, alignment, BYTE_ORDER_CLASS_NAME)
+                )
+                .build()
+            );
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder("wrap")
+                .addJavadoc(
+                    """
+                    Creates a new flyweight over the given segment viewed in the native byte order.
+
+                    @param segment  the segment that stores the elements
+
+                    @return the new flyweight
+                    """
+                )
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addTypeVariables(
+                    buildable.typeParameters().stream()
+                        .map(this.builderGenerator::annotatedTypeVariableName)
+                        .toList()
+                )
+                .returns(flyweightTypeName)
+                .addParameter(MEMORY_SEGMENT_CLASS_NAME, "segment")
+                .addStatement(newFlyweight, flyweightClassName, CodeBlock.of("segment.asByteBuffer().order($T.nativeOrder())", BYTE_ORDER_CLASS_NAME))
+                .build()
+            );
+
+            bTypeSpec.addMethod(MethodSpec.methodBuilder("segment")
+                .addJavadoc("{@return a segment that views the memory of the buffer that stores the elements}\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(MEMORY_SEGMENT_CLASS_NAME)
+                .addStatement("return $T.ofBuffer(this.$N)", MEMORY_SEGMENT_CLASS_NAME, BUFFER_FIELD_NAME)
+                .build()
+            );
+        }
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("buffer")
+            .addJavadoc("{@return the buffer that stores the elements}\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(BYTE_BUFFER_CLASS_NAME)
+            .addStatement("return this.$N", BUFFER_FIELD_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("capacity")
+            .addJavadoc("{@return the number of elements that fit into the buffer}\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.INT)
+            .addStatement("return this.$N.capacity() / $N", BUFFER_FIELD_NAME, BYTES_FIELD_NAME)
+            .build()
+        );
+
+        for (BuilderContext.Component component : context.components()) {
+            bTypeSpec.addMethod(MethodSpec.methodBuilder(component.name())
+                .addJavadoc(
+                    """
+                    Reads the value of the {@link $T#$N() $N} component of an element.
+
+                    @param index    the index of the element
+
+                    @return the value of the component
+
+                    @throws IndexOutOfBoundsException   if the index is out of range
+                    """,
+                    context.recordClassName(),
+                    component.name(),
+                    component.name()
+                )
+                .addModifiers(Modifier.PUBLIC)
+                .returns(component.typeName().withoutAnnotations())
+                .addParameter(TypeName.INT, "index")
+                .addStatement("$T.checkIndex(index, this.capacity())", Objects.class)
+                .addStatement("return $L", read(component, CodeBlock.of("index * $N + $N", BYTES_FIELD_NAME, offsetFieldName(component))))
+                .build()
+            );
+        }
+
+        List<CodeBlock> arguments = new ArrayList<>(context.components().size());
+        for (BuilderContext.Component component : context.components()) {
+            arguments.add(read(component, CodeBlock.of("offset + $N", offsetFieldName(component))));
+        }
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("materialize")
+            .addJavadoc(
+                """
+                Reads an element into a new {@link $T} instance.
+
+                @param index    the index of the element
+
+                @return the new instance
+
+                @throws IndexOutOfBoundsException   if the index is out of range
+                """,
+                context.recordClassName()
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(context.recordTypeName())
+            .addParameter(TypeName.INT, "index")
+            .addStatement("$T.checkIndex(index, this.capacity())", Objects.class)
+            .addStatement("int offset = index * $N", BYTES_FIELD_NAME)
+            .addStatement("return new $T(\n$>$L\n$<)", context.recordTypeName(), CodeBlock.join(arguments, ",\n"))
+            .build()
+        );
+
+        MethodSpec.Builder bPut = MethodSpec.methodBuilder("put")
+            .addJavadoc(
+                """
+                Writes the given instance to an element.
+
+                @param index    the index of the element
+                @param value    the instance to write
+
+                @throws IndexOutOfBoundsException   if the index is out of range
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(TypeName.INT, "index")
+            .addParameter(context.recordTypeName(), "value")
+            .addStatement("$T.checkIndex(index, this.capacity())", Objects.class)
+            .addStatement("int offset = index * $N", BYTES_FIELD_NAME);
+
+        for (BuilderContext.Component component : context.components()) {
+            bPut.addStatement(write(component, CodeBlock.of("this.$N", BUFFER_FIELD_NAME), CodeBlock.of("offset + $N", offsetFieldName(component)), CodeBlock.of("value.$N()", component.name())));
+        }
+
+        bTypeSpec.addMethod(bPut.build());
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("at")
+            .addJavadoc(
+                """
+                Returns a writer that writes the components of an element directly into the buffer.
+
+                <p>The same writer instance is returned by every invocation of this method. Using the writer for an
+                element discards any progress for a previous element.</p>
+
+                @param index    the index of the element
+
+                @return the writer
+
+                @throws IndexOutOfBoundsException   if the index is out of range
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(writerTypeName)
+            .addParameter(TypeName.INT, "index")
+            .addStatement("$T.checkIndex(index, this.capacity())", Objects.class)
+            .addStatement("return this.$N.$N(index)", WRITER_FIELD_NAME, RESET_METHOD_NAME)
+            .build()
+        );
+
+        TypeSpec.Builder bWriter = TypeSpec.classBuilder(writerClassName)
+            .addJavadoc(
+                """
+                A builder that writes the components of a single element directly into the buffer.
+
+                <p>All required components must be set before the element is {@link #commit() committed}.</p>
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addField(TypeName.INT, "index", Modifier.PRIVATE)
+            .addField(TypeName.INT, "offset", Modifier.PRIVATE);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            bWriter.addField(TypeName.LONG, PresenceBits.fieldName(chunk), Modifier.PRIVATE);
+        }
+
+        bWriter.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        MethodSpec.Builder bReset = MethodSpec.methodBuilder(RESET_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE)
+            .returns(writerTypeName)
+            .addParameter(TypeName.INT, "index")
+            .addStatement("this.index = index")
+            .addStatement("this.offset = index * $N", BYTES_FIELD_NAME);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            bReset.addStatement("this.$N = 0L", PresenceBits.fieldName(chunk));
+        }
+
+        bWriter.addMethod(bReset.addStatement("return this").build());
+
+        for (BuilderContext.Component component : context.components()) {
+            bWriter.addMethod(MethodSpec.methodBuilder(component.name())
+                .addJavadoc(
+                    """
+                    Writes the value of the {@link $T#$N() $N} component.
+
+                    @param $N the value for the component
+
+                    @return  this writer
+                    """,
+                    context.recordClassName(),
+                    component.name(),
+                    component.name(),
+                    component.name()
+                )
+                .addModifiers(Modifier.PUBLIC)
+                .returns(writerTypeName)
+                .addParameter(component.typeName().withoutAnnotations(), component.name())
+                .addStatement(write(component, CodeBlock.of("$T.this.$N", flyweightClassName, BUFFER_FIELD_NAME), CodeBlock.of("this.offset + $N", offsetFieldName(component)), CodeBlock.of("$N", component.name())))
+                .addStatement("this.$N |= $L", PresenceBits.fieldName(component.index() >>> 6), PresenceBits.hex(1L << component.index()))
+                .addStatement("return this")
+                .build()
+            );
+        }
+
+        MethodSpec.Builder bCommit = MethodSpec.methodBuilder("commit")
+            .addJavadoc(
+                """
+                Verifies that all components of the element have been written.
+
+                @return the index of the element
+
+                @throws IllegalStateException   if any of the components has not been written
+                """
+            )
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.INT);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int remaining = context.components().size() - (chunk << 6);
+            long mask = remaining >= 64 ? -1L : (1L << remaining) - 1L;
+
+            bCommit.beginControlFlow("if (this.$N != $L)", PresenceBits.fieldName(chunk), PresenceBits.hex(mask))
+                .addStatement(PresenceBits.throwMissingComponent(chunk, CodeBlock.of("~this.$N & $L", PresenceBits.fieldName(chunk), PresenceBits.hex(mask))))
+                .endControlFlow();
+        }
+
+        bWriter.addMethod(bCommit.addStatement("return this.index").build());
+
+        bTypeSpec.addMethod(PresenceBits.missingComponentMethod());
+
+        bTypeSpec.addType(bWriter.build());
+
+        switch (buildable.nullMarker()) {
+            case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
+            case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
+        }
+
+        return JavaFile.builder(flyweightClassName.packageName(), bTypeSpec.build())
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+}
@@ -0,0 +1,282 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.palantir.javapoet.JavaFile;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeParameterElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache for the sources of generated builders that is shared across builds.
+ *
+ * <p>Each entry is keyed by a SHA-256 hash of everything the source of a builder is derived from: the version of the
+ * processor, the strategy and the version of its implementation, the relevant processor options, and the
+ * {@link Buildable} itself (including the types and annotations of its components). If an entry exists for a buildable,
+ * its source is written as-is and the builder is not generated. Otherwise, the builder is generated and the rendered
+ * source is stored together with the time it took to generate it, so that the time saved by later hits can be
+ * reported.</p>
+ *
+ * <p>The number of entries is bounded. When the bound is exceeded at the end of processing, the entries that have not
+ * been used for the longest time are evicted.</p>
+ */
+final class GenerationCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final String ENTRY_SUFFIX = ".builder";
+
+    private final Filer filer;
+    private final Messager messager;
+    private final Path directory;
+    private final int maxEntries;
+    private final String fingerprint;
+    private final Map<Class<?>, String> strategyVersions = new HashMap<>();
+
+    private int hits, misses;
+    private long hitNanos, savedNanos;
+
+    GenerationCache(Filer filer, Messager messager, Path directory, int maxEntries, SourceVersion sourceVersion, Map<String, String> options) {
+        this.filer = filer;
+        this.messager = messager;
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+
+        StringBuilder fingerprint = new StringBuilder()
+            .append("processor=").append(implementationVersion(GenerationCache.class)).append('\n')
+            .append("source=").append(sourceVersion).append('\n');
+
+        options.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> fingerprint.append("option ").append(entry.getKey()).append('=').append(entry.getValue()).append('\n'));
+
+        this.fingerprint = fingerprint.toString();
+    }
+
+    /**
+     * Writes the source of the builder for the given buildable, either from the cache or by invoking the given
+     * generator.
+     */
+    void writeBuilder(Buildable buildable, BuilderStrategy strategy, Supplier<JavaFile> generator, Element element) {
+        long start = System.nanoTime();
+        String key = this.key(buildable, strategy);
+        Path entryPath = this.directory.resolve(key + ENTRY_SUFFIX);
+
+        Entry entry = this.read(entryPath);
+
+        if (entry != null) {
+            this.write(entry.qualifiedName(), entry.source(), element);
+
+            try {
+                Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+                // The entry is merely more likely to be evicted.
+            }
+
+            long nanos = System.nanoTime() - start;
+
+            this.hits++;
+            this.hitNanos += nanos;
+            this.savedNanos += Math.max(0, entry.generationNanos() - nanos);
+            return;
+        }
+
+        JavaFile file = generator.get();
+        String qualifiedName = file.packageName().isEmpty() ? file.typeSpec().name() : file.packageName() + "." + file.typeSpec().name();
+        String source = file.toString();
+        long generationNanos = System.nanoTime() - start;
+
+        this.write(qualifiedName, source, element);
+        this.misses++;
+
+        try {
+            Files.createDirectories(this.directory);
+
+            Path tmpPath = Files.createTempFile(this.directory, key, ".tmp");
+            Files.writeString(tmpPath, qualifiedName + "\n" + generationNanos + "\n" + source, StandardCharsets.UTF_8);
+            Files.move(tmpPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.WARNING, "Failed to store " + qualifiedName + " in the generation cache: " + e.getMessage(), element);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries if the cache exceeds its bound, and reports the statistics of this run.
+     */
+    void finish() {
+        int evictions = 0;
+
+        if (Files.isDirectory(this.directory)) {
+            try (Stream<Path> paths = Files.list(this.directory)) {
+                List<Path> entries = paths.filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .sorted(Comparator.comparing(GenerationCache::lastModifiedTime))
+                    .toList();
+
+                for (int i = 0; i < entries.size() - this.maxEntries; i++) {
+                    if (Files.deleteIfExists(entries.get(i))) evictions++;
+                }
+            } catch (IOException | UncheckedIOException e) {
+                this.messager.printMessage(Diagnostic.Kind.WARNING, "Failed to evict entries from the generation cache: " + e.getMessage());
+            }
+        }
+
+        int lookups = this.hits + this.misses;
+        if (lookups == 0) return;
+
+        this.messager.printMessage(
+            Diagnostic.Kind.NOTE,
+            String.format(
+                "AtBuilder generation cache: %d hits, %d misses (%.1f%% hit rate), %d evicted, saved %d ms (%d ms spent on hits)",
+                this.hits,
+                this.misses,
+                100.0 * this.hits / lookups,
+                evictions,
+                this.savedNanos / 1_000_000,
+                this.hitNanos / 1_000_000
+            )
+        );
+    }
+
+    private @Nullable Entry read(Path entryPath) {
+        String content;
+
+        try {
+            content = Files.readString(entryPath, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.WARNING, "Failed to read " + entryPath + " from the generation cache: " + e.getMessage());
+            return null;
+        }
+
+        int nameEnd = content.indexOf('\n');
+        int nanosEnd = nameEnd >= 0 ? content.indexOf('\n', nameEnd + 1) : -1;
+        if (nanosEnd < 0) return null;
+
+        try {
+            return new Entry(content.substring(0, nameEnd), Long.parseLong(content, nameEnd + 1, nanosEnd, 10), content.substring(nanosEnd + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void write(String qualifiedName, String source, Element element) {
+        try {
+            JavaFileObject fileObject = this.filer.createSourceFile(qualifiedName, element);
+
+            try (Writer writer = fileObject.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write file for " + qualifiedName + ": " + e.getMessage(), element);
+        }
+    }
+
+    private String key(Buildable buildable, BuilderStrategy strategy) {
+        StringBuilder key = new StringBuilder(this.fingerprint)
+            .append("strategy=").append(strategy.name()).append(' ').append(strategy.getClass().getName()).append(' ').append(this.strategyVersion(strategy)).append('\n')
+            .append("class=").append(buildable.className().reflectionName()).append('\n')
+            .append("nullMarker=").append(buildable.nullMarker()).append('\n')
+            .append("checks=").append(buildable.checks()).append('\n')
+            .append("features=").append(buildable.features()).append('\n');
+
+        for (TypeParameterElement typeParameter : buildable.typeParameters()) {
+            key.append("typeParameter ").append(typeParameter.getSimpleName()).append(' ').append(typeParameter.getBounds());
+            appendAnnotations(key, typeParameter.getAnnotationMirrors());
+            key.append('\n');
+        }
+
+        for (Buildable.Component component : buildable.components()) {
+            key.append("component ").append(component.name()).append(' ').append(component.type());
+            appendAnnotations(key, component.annotationMirrors());
+            key.append(' ').append(component.interning()).append('\n');
+        }
+
+        for (Buildable.Mapping mapping : buildable.mappings()) {
+            key.append("mapping ").append(mapping.sourceTypeName()).append(' ').append(mapping.properties()).append('\n');
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendAnnotations(StringBuilder key, List<? extends AnnotationMirror> annotationMirrors) {
+        for (AnnotationMirror annotationMirror : annotationMirrors) {
+            key.append(' ').append(annotationMirror);
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Strategies may be provided by other artifacts than the processor, so that their version has to be part of the
+     * key, too. The version is resolved once per strategy class since walking the code source may be expensive.
+     */
+    private String strategyVersion(BuilderStrategy strategy) {
+        return this.strategyVersions.computeIfAbsent(strategy.getClass(), GenerationCache::implementationVersion);
+    }
+
+    /**
+     * Returns the implementation version of the artifact that contains the given class, or the time the artifact has
+     * last been modified if it does not declare a version, so that changes to development builds invalidate the cache.
+     */
+    private static String implementationVersion(Class<?> type) {
+        String version = type.getPackage().getImplementationVersion();
+        if (version != null) return version;
+
+        try {
+            CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+
+            if (codeSource != null) {
+                Path location = Path.of(codeSource.getLocation().toURI());
+
+                try (Stream<Path> paths = Files.walk(location)) {
+                    return "dev-" + paths.mapToLong(path -> path.toFile().lastModified()).max().orElse(0);
+                }
+            }
+        } catch (IOException | URISyntaxException | RuntimeException ignored) {
+            // Fall through
+        }
+
+        return "dev-" + System.nanoTime();
+    }
+
+    private record Entry(String qualifiedName, long generationNanos, String source) {}
+
+}
@@ -0,0 +1,130 @@
+package com.osmerion.atbuilder.apt;
+
+import com.palantir.javapoet.JavaFile;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterSpec;
+import com.palantir.javapoet.TypeSpec;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the {@link BytecodeSizeEstimator estimated bytecode size} of generated methods against the inlining
+ * thresholds of HotSpot.
+ *
+ * <p>Methods that are not larger than {@code MaxInlineSize} are inlined regardless of how often they are invoked,
+ * methods that are not larger than {@code FreqInlineSize} are only inlined at hot call sites, and methods that are
+ * larger than {@code HugeMethodLimit} are not compiled at all. Since builders are typically used in call chains, the
+ * setters should stay below {@code MaxInlineSize}.</p>
+ */
+final class InliningBudget {
+
+    static final int DEFAULT_MAX_INLINE_SIZE = 35;
+    static final int DEFAULT_FREQ_INLINE_SIZE = 325;
+
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    private final Messager messager;
+    private final int maxInlineSize;
+    private final int freqInlineSize;
+    private final boolean isDiagnosticsEnabled;
+    private final @Nullable Path reportDirectory;
+
+    InliningBudget(Messager messager, int maxInlineSize, int freqInlineSize, boolean isDiagnosticsEnabled, @Nullable Path reportDirectory) {
+        this.messager = messager;
+        this.maxInlineSize = maxInlineSize;
+        this.freqInlineSize = freqInlineSize;
+        this.isDiagnosticsEnabled = isDiagnosticsEnabled;
+        this.reportDirectory = reportDirectory;
+    }
+
+    boolean isEnabled() {
+        return this.isDiagnosticsEnabled || this.reportDirectory != null;
+    }
+
+    void check(Buildable buildable, JavaFile builderFile, Element element) {
+        TypeSpec typeSpec = builderFile.typeSpec();
+        Set<String> componentNames = buildable.components().stream().map(Buildable.Component::name).collect(Collectors.toSet());
+
+        StringBuilder report = new StringBuilder()
+            .append(builderFile.packageName().isEmpty() ? "" : builderFile.packageName() + ".").append(typeSpec.name())
+            .append(" (estimated bytecode sizes; MaxInlineSize=").append(this.maxInlineSize)
+            .append(", FreqInlineSize=").append(this.freqInlineSize).append(")\n\n");
+
+        for (MethodSpec methodSpec : typeSpec.methodSpecs()) {
+            int size = BytecodeSizeEstimator.estimate(methodSpec);
+            String signature = signature(typeSpec, methodSpec);
+
+            String verdict;
+            if (size <= this.maxInlineSize) {
+                verdict = "inlinable";
+            } else if (size <= this.freqInlineSize) {
+                verdict = "inlinable when hot";
+            } else if (size <= HUGE_METHOD_LIMIT) {
+                verdict = "not inlinable";
+            } else {
+                verdict = "not compiled";
+            }
+
+            report.append(String.format("%6d  %-48s %s%n", size, signature, verdict));
+
+            if (!this.isDiagnosticsEnabled) continue;
+
+            boolean isSetter = !methodSpec.isConstructor()
+                && !methodSpec.modifiers().contains(Modifier.STATIC)
+                && methodSpec.parameters().size() == 1
+                && componentNames.contains(methodSpec.name());
+
+            boolean isBudgeted = isSetter
+                || methodSpec.isConstructor() && !methodSpec.parameters().isEmpty()
+                || methodSpec.name().equals("build") && methodSpec.parameters().isEmpty();
+
+            if (!isBudgeted) continue;
+
+            if (size > HUGE_METHOD_LIMIT) {
+                this.messager.printMessage(
+                    Diagnostic.Kind.WARNING,
+                    signature + " has an estimated bytecode size of " + size + " bytes and exceeds HugeMethodLimit (" + HUGE_METHOD_LIMIT + "). It will not be compiled by the JIT.",
+                    element
+                );
+            } else if (size > this.freqInlineSize) {
+                this.messager.printMessage(
+                    Diagnostic.Kind.WARNING,
+                    signature + " has an estimated bytecode size of " + size + " bytes and exceeds FreqInlineSize (" + this.freqInlineSize + "). It will not be inlined.",
+                    element
+                );
+            } else if (isSetter && size > this.maxInlineSize) {
+                this.messager.printMessage(
+                    Diagnostic.Kind.NOTE,
+                    signature + " has an estimated bytecode size of " + size + " bytes and exceeds MaxInlineSize (" + this.maxInlineSize + "). It will only be inlined at hot call sites.",
+                    element
+                );
+            }
+        }
+
+        if (this.reportDirectory != null) {
+            String fileName = (builderFile.packageName().isEmpty() ? "" : builderFile.packageName() + ".") + typeSpec.name() + ".txt";
+
+            try {
+                Files.createDirectories(this.reportDirectory);
+                Files.writeString(this.reportDirectory.resolve(fileName), report);
+            } catch (IOException e) {
+                this.messager.printMessage(Diagnostic.Kind.WARNING, "Failed to write inlining report: " + e.getMessage(), element);
+            }
+        }
+    }
+
+    private static String signature(TypeSpec typeSpec, MethodSpec methodSpec) {
+        return (methodSpec.isConstructor() ? typeSpec.name() : typeSpec.name() + "." + methodSpec.name())
+            + methodSpec.parameters().stream().map(ParameterSpec::type).map(Object::toString).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+}
@@ -0,0 +1,383 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.Builder;
+import com.osmerion.atbuilder.internal.JsonReader;
+import com.osmerion.atbuilder.internal.JsonWriter;
+import com.osmerion.omittable.Omittable;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Generates dependency-free streaming JSON codecs for records.
+ *
+ * <p>Every component is mapped to a member with the same name. Absent {@code Omittable} components are omitted, while
+ * {@code null} values are written as JSON {@code null}. The reader switches over the member names and passes every
+ * value to the respective setter of the generated builder, so that missing required members are reported by
+ * {@code build()}. Unknown members are skipped.</p>
+ *
+ * @see Builder.Feature#JSON
+ */
+final class JsonCodecGenerator {
+
+    private static final ClassName JSON_READER_CLASS_NAME = ClassName.get(JsonReader.class);
+    private static final ClassName JSON_WRITER_CLASS_NAME = ClassName.get(JsonWriter.class);
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+    private static final ClassName OMITTABLE_CLASS_NAME = ClassName.get(Omittable.class);
+    private static final ClassName STRING_CLASS_NAME = ClassName.get(String.class);
+
+    private static final ClassName NULLMARKED_CLASS_NAME = ClassName.get(NullMarked.class);
+    private static final ClassName NULLUNMARKED_CLASS_NAME = ClassName.get(NullUnmarked.class);
+
+    private static @Nullable String primitiveSuffix(TypeName typeName) {
+        if (typeName.equals(TypeName.BOOLEAN)) return "Boolean";
+        if (typeName.equals(TypeName.BYTE)) return "Byte";
+        if (typeName.equals(TypeName.SHORT)) return "Short";
+        if (typeName.equals(TypeName.CHAR)) return "Char";
+        if (typeName.equals(TypeName.INT)) return "Int";
+        if (typeName.equals(TypeName.LONG)) return "Long";
+        if (typeName.equals(TypeName.FLOAT)) return "Float";
+        if (typeName.equals(TypeName.DOUBLE)) return "Double";
+        return null;
+    }
+
+    private static boolean isNullable(TypeMirror type) {
+        return type.getAnnotationMirrors().stream()
+            .anyMatch(annotationMirror -> Objects.equals(NULLABLE_CLASS_NAME, TypeName.get(annotationMirror.getAnnotationType())));
+    }
+
+    static ClassName jsonClassName(ClassName recordClassName) {
+        return ClassName.get(recordClassName.packageName(), recordClassName.simpleName() + "Json");
+    }
+
+    private final BuilderGenerator builderGenerator;
+    private final Messager messager;
+
+    JsonCodecGenerator(ProcessingEnvironment processingEnv, BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+        this.messager = processingEnv.getMessager();
+    }
+
+    /**
+     * Returns the JSON codec for the given record, or {@code null} if the record has a component of an unsupported
+     * type. Errors are reported to the messager.
+     */
+    @Nullable JavaFile generateCodec(Buildable buildable, TypeElement recordElement) {
+        if (!buildable.typeParameters().isEmpty()) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Feature JSON is not supported for generic records.", recordElement);
+            return null;
+        }
+
+        BuilderContext context = this.builderGenerator.createContext(buildable);
+        ClassName jsonClassName = jsonClassName(buildable.className());
+
+        List<Member> members = new ArrayList<>(context.components().size());
+        boolean isValid = true;
+
+        for (BuilderContext.Component component : context.components()) {
+            TypeMirror valueType = component.type();
+            boolean isValueNullable = component.isNullable();
+
+            if (component.isOmittable()) {
+                List<? extends TypeMirror> typeArguments = ((DeclaredType) component.type()).getTypeArguments();
+
+                if (typeArguments.isEmpty()) {
+                    this.reportUnsupported(recordElement, component);
+                    isValid = false;
+                    continue;
+                }
+
+                valueType = typeArguments.get(0);
+                isValueNullable = isNullable(valueType);
+            }
+
+            if (!this.isSupported(valueType)) {
+                this.reportUnsupported(recordElement, component);
+                isValid = false;
+                continue;
+            }
+
+            members.add(new Member(component, valueType, isValueNullable));
+        }
+
+        if (!isValid) return null;
+
+        TypeSpec.Builder bTypeSpec = TypeSpec.classBuilder(jsonClassName)
+            .addJavadoc(
+                """
+                A streaming JSON codec for {@link $T} instances.
+
+                <p>Every component is mapped to a member with the same name. Absent {@code Omittable} components are
+                omitted and {@code null} values are written as {@code null}. When reading, unknown members are skipped
+                and missing required members are reported by the builder.</p>
+                """,
+                buildable.className()
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+
+        bTypeSpec.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("toJson")
+            .addJavadoc(
+                """
+                Returns the JSON representation of the given instance.
+
+                @param value    the instance to write
+
+                @return the JSON representation of the instance
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(STRING_CLASS_NAME)
+            .addParameter(context.recordTypeName(), "value")
+            .addStatement("$T sb = new $T()", StringBuilder.class, StringBuilder.class)
+            .beginControlFlow("try")
+            .addStatement("write(value, new $T(sb))", JSON_WRITER_CLASS_NAME)
+            .nextControlFlow("catch ($T e)", IOException.class)
+            .addComment("A StringBuilder never throws an IOException.")
+            .addStatement("throw new $T(e)", UncheckedIOException.class)
+            .endControlFlow()
+            .addStatement("return sb.toString()")
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("write")
+            .addJavadoc(
+                """
+                Writes the JSON representation of the given instance to the given output.
+
+                @param value    the instance to write
+                @param out      the output to write to
+
+                @throws IOException if an I/O error occurs
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(context.recordTypeName(), "value")
+            .addParameter(Appendable.class, "out")
+            .addException(IOException.class)
+            .addStatement("write(value, new $T(out))", JSON_WRITER_CLASS_NAME)
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("write")
+            .addJavadoc(
+                """
+                Writes the JSON representation of the given instance using the given writer.
+
+                @param value    the instance to write
+                @param writer   the writer to use
+
+                @throws IOException if an I/O error occurs
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(context.recordTypeName(), "value")
+            .addParameter(JSON_WRITER_CLASS_NAME, "writer")
+            .addException(IOException.class)
+            .addCode(this.generateWriteBody(members))
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("fromJson")
+            .addJavadoc(
+                """
+                Parses an instance from the given JSON document.
+
+                @param json the JSON document to parse
+
+                @return the parsed instance
+
+                @throws IllegalArgumentException    if the document is malformed
+                @throws IllegalStateException       if a required member is missing
+                @throws NullPointerException        if a member that may not be {@code null} is {@code null}
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(context.recordTypeName())
+            .addParameter(CharSequence.class, "json")
+            .addStatement("$T reader = new $T(json)", JSON_READER_CLASS_NAME, JSON_READER_CLASS_NAME)
+            .addStatement("$T value = read(reader)", context.recordTypeName())
+            .addStatement("reader.endDocument()")
+            .addStatement("return value")
+            .build()
+        );
+
+        bTypeSpec.addMethod(MethodSpec.methodBuilder("read")
+            .addJavadoc(
+                """
+                Reads an instance from the next value of the given reader.
+
+                @param reader   the reader to read from
+
+                @return the instance
+
+                @throws IllegalArgumentException    if the value is malformed
+                @throws IllegalStateException       if a required member is missing
+                @throws NullPointerException        if a member that may not be {@code null} is {@code null}
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(context.recordTypeName())
+            .addParameter(JSON_READER_CLASS_NAME, "reader")
+            .addCode(this.generateReadBody(context, members))
+            .build()
+        );
+
+        switch (buildable.nullMarker()) {
+            case MARKED -> bTypeSpec.addAnnotation(NULLMARKED_CLASS_NAME);
+            case UNMARKED -> bTypeSpec.addAnnotation(NULLUNMARKED_CLASS_NAME);
+        }
+
+        return JavaFile.builder(jsonClassName.packageName(), bTypeSpec.build())
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+    private CodeBlock generateWriteBody(List<Member> members) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("writer.beginObject()");
+
+        for (Member member : members) {
+            String name = member.component().name();
+
+            if (member.component().isOmittable()) {
+                code.beginControlFlow("if (value.$N().isPresent())", name)
+                    .addStatement("writer.name($S)", name);
+
+                this.addWriteValue(code, member, CodeBlock.of("value.$N().orElseThrow()", name));
+                code.endControlFlow();
+            } else {
+                code.addStatement("writer.name($S)", name);
+                this.addWriteValue(code, member, CodeBlock.of("value.$N()", name));
+            }
+        }
+
+        return code.addStatement("writer.endObject()").build();
+    }
+
+    private void addWriteValue(CodeBlock.Builder code, Member member, CodeBlock value) {
+        if (member.isNullable()) {
+            code.beginControlFlow("if ($L != null)", value)
+                .addStatement(this.write(member.valueType(), value))
+                .nextControlFlow("else")
+                .addStatement("writer.nullValue()")
+                .endControlFlow();
+        } else {
+            code.addStatement(this.write(member.valueType(), value));
+        }
+    }
+
+    private CodeBlock generateReadBody(BuilderContext context, List<Member> members) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("$T builder = new $T()", context.builderTypeName(), context.builderClassName())
+            .addStatement("reader.beginObject()")
+            .beginControlFlow("while (reader.hasNext())")
+            .beginControlFlow("switch (reader.nextName())");
+
+        for (Member member : members) {
+            CodeBlock value = this.read(member.valueType());
+
+            /*
+             * null is passed on for non-nullable references as well, so that the setter reports it the same way as for
+             * any other caller.
+             */
+            if (member.isNullable() || (!member.component().isOmittable() && !member.valueType().getKind().isPrimitive())) {
+                value = CodeBlock.of("reader.nextNull() ? null : $L", value);
+            }
+
+            if (member.component().isOmittable()) {
+                value = CodeBlock.of("$T.of($L)", OMITTABLE_CLASS_NAME, value);
+            }
+
+            code.addStatement("case $S -> builder.$N($L)", member.component().name(), member.component().name(), value);
+        }
+
+        return code.addStatement("default -> reader.skipValue()")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("reader.endObject()")
+            .addStatement("return builder.build()")
+            .build();
+    }
+
+    private boolean isSupported(TypeMirror type) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        if (primitiveSuffix(typeName) != null || (typeName.isBoxedPrimitive() && primitiveSuffix(typeName.unbox()) != null)) return true;
+        if (typeName.equals(STRING_CLASS_NAME)) return true;
+        if (type.getKind() != TypeKind.DECLARED) return false;
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+        if (typeElement.getKind() == ElementKind.ENUM) return true;
+
+        if (typeElement.getKind() == ElementKind.RECORD && typeElement.getTypeParameters().isEmpty()) {
+            Builder builderAnnotation = typeElement.getAnnotation(Builder.class);
+            return builderAnnotation != null && Arrays.asList(builderAnnotation.features()).contains(Builder.Feature.JSON);
+        }
+
+        return false;
+    }
+
+    private CodeBlock write(TypeMirror type, CodeBlock value) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        if (primitiveSuffix(typeName.isBoxedPrimitive() ? typeName.unbox() : typeName) != null || typeName.equals(STRING_CLASS_NAME)) {
+            return CodeBlock.of("writer.value($L)", value);
+        }
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+        if (typeElement.getKind() == ElementKind.ENUM) return CodeBlock.of("writer.value($L.name())", value);
+
+        return CodeBlock.of("$T.write($L, writer)", jsonClassName((ClassName) typeName), value);
+    }
+
+    private CodeBlock read(TypeMirror type) {
+        TypeName typeName = TypeName.get(type).withoutAnnotations();
+        String suffix = primitiveSuffix(typeName.isBoxedPrimitive() ? typeName.unbox() : typeName);
+
+        if (suffix != null) return CodeBlock.of("reader.next$L()", suffix);
+        if (typeName.equals(STRING_CLASS_NAME)) return CodeBlock.of("reader.nextString()");
+
+        TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+        if (typeElement.getKind() == ElementKind.ENUM) return CodeBlock.of("$T.valueOf(reader.nextString())", typeName);
+
+        return CodeBlock.of("$T.read(reader)", jsonClassName((ClassName) typeName));
+    }
+
+    private void reportUnsupported(TypeElement recordElement, BuilderContext.Component component) {
+        this.messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            "Feature JSON does not support component '" + component.name() + "' of type " + component.type() + ". Supported are primitives, their wrappers, strings, enums, and records with the JSON feature (optionally wrapped in Omittable).",
+            recordElement.getRecordComponents().get(component.index())
+        );
+    }
+
+    /**
+     * @param component     the component
+     * @param valueType     the type of the value (i.e. the type argument of an {@code Omittable})
+     * @param isNullable    whether the value may be {@code null}
+     */
+    private record Member(
+        BuilderContext.Component component,
+        TypeMirror valueType,
+        boolean isNullable
+    ) {}
+
+}
@@ -0,0 +1,179 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.MapFrom;
+import com.osmerion.omittable.Omittable;
+import com.palantir.javapoet.TypeName;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves the {@link MapFrom mappings} that are declared for a record.
+ *
+ * <p>For every component of the record, the source type is searched for an accessible accessor with the same name.
+ * Incompatible accessors are reported as errors, so that mismatches between the source and the record are detected at
+ * compile time.</p>
+ */
+final class MappingResolver {
+
+    private final Elements elements;
+    private final Messager messager;
+    private final Types types;
+
+    MappingResolver(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+        this.messager = processingEnv.getMessager();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    /**
+     * Returns the mappings that are declared for the given record, or {@code null} if a mapping is invalid. Errors
+     * are reported to the messager.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable List<Buildable.Mapping> resolve(TypeElement recordElement) {
+        Optional<? extends AnnotationMirror> optAnnotationMirror = recordElement.getAnnotationMirrors().stream()
+            .filter(am -> am.getAnnotationType().toString().equals(MapFrom.class.getCanonicalName()))
+            .findFirst();
+
+        if (optAnnotationMirror.isEmpty()) return List.of();
+
+        AnnotationMirror annotationMirror = optAnnotationMirror.get();
+
+        if (!recordElement.getTypeParameters().isEmpty()) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "@MapFrom is not supported for generic records.", recordElement, annotationMirror);
+            return null;
+        }
+
+        List<? extends AnnotationValue> sourceValues = annotationMirror.getElementValues().entrySet().stream()
+            .filter(entry -> entry.getKey().getSimpleName().contentEquals("value"))
+            .map(entry -> (List<? extends AnnotationValue>) entry.getValue().getValue())
+            .findFirst()
+            .orElse(List.of());
+
+        List<Buildable.Mapping> mappings = new ArrayList<>(sourceValues.size());
+        boolean isValid = true;
+
+        for (AnnotationValue sourceValue : sourceValues) {
+            TypeMirror sourceType = (TypeMirror) sourceValue.getValue();
+
+            if (sourceType.getKind() != TypeKind.DECLARED) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Cannot map from " + sourceType + ": only classes, interfaces and records are supported.", recordElement, annotationMirror, sourceValue);
+                isValid = false;
+                continue;
+            }
+
+            Buildable.Mapping mapping = this.resolve(recordElement, annotationMirror, sourceValue, (DeclaredType) sourceType);
+
+            if (mapping != null) {
+                mappings.add(mapping);
+            } else {
+                isValid = false;
+            }
+        }
+
+        return isValid ? List.copyOf(mappings) : null;
+    }
+
+    private Buildable.@Nullable Mapping resolve(TypeElement recordElement, AnnotationMirror annotationMirror, AnnotationValue sourceValue, DeclaredType sourceType) {
+        TypeElement sourceElement = (TypeElement) sourceType.asElement();
+        PackageElement recordPackage = this.elements.getPackageOf(recordElement);
+
+        if (!this.isAccessible(sourceElement, recordPackage)) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Cannot map from " + sourceElement.getQualifiedName() + ": the type is not accessible from package " + recordPackage.getQualifiedName() + ".", recordElement, annotationMirror, sourceValue);
+            return null;
+        }
+
+        List<ExecutableElement> methods = this.elements.getAllMembers(sourceElement).stream()
+            .filter(member -> member.getKind() == ElementKind.METHOD)
+            .map(ExecutableElement.class::cast)
+            .filter(method -> method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.STATIC))
+            .filter(method -> this.isAccessible(method, recordPackage))
+            .toList();
+
+        TypeMirror omittableType = this.types.erasure(this.elements.getTypeElement(Omittable.class.getCanonicalName()).asType());
+
+        List<Buildable.Mapping.Property> properties = new ArrayList<>(recordElement.getRecordComponents().size());
+        boolean isValid = true;
+
+        for (RecordComponentElement component : recordElement.getRecordComponents()) {
+            String name = component.getSimpleName().toString();
+            TypeMirror componentType = component.asType();
+            boolean isOmittable = this.types.isSameType(this.types.erasure(componentType), omittableType);
+
+            Optional<ExecutableElement> accessor = methods.stream()
+                .filter(method -> method.getSimpleName().contentEquals(name))
+                .findFirst();
+
+            if (accessor.isEmpty()) {
+                if (!isOmittable) {
+                    this.messager.printMessage(
+                        Diagnostic.Kind.WARNING,
+                        "No accessor found for component '" + name + "' in " + sourceElement.getQualifiedName() + ". The component must be set explicitly.",
+                        recordElement,
+                        annotationMirror,
+                        sourceValue
+                    );
+                }
+
+                continue;
+            }
+
+            TypeMirror accessorType = ((ExecutableType) this.types.asMemberOf(sourceType, accessor.get())).getReturnType();
+
+            if (this.types.isAssignable(accessorType, componentType)) {
+                properties.add(new Buildable.Mapping.Property(name, false));
+            } else if (isOmittable
+                && !((DeclaredType) componentType).getTypeArguments().isEmpty()
+                && this.types.isAssignable(accessorType, ((DeclaredType) componentType).getTypeArguments().get(0))) {
+                properties.add(new Buildable.Mapping.Property(name, true));
+            } else {
+                this.messager.printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Cannot map component '" + name + "' from " + sourceElement.getQualifiedName() + ": " + accessorType + " cannot be converted to " + componentType + ".",
+                    recordElement,
+                    annotationMirror,
+                    sourceValue
+                );
+
+                isValid = false;
+            }
+        }
+
+        return isValid ? new Buildable.Mapping(TypeName.get(this.types.erasure(sourceType)), List.copyOf(properties)) : null;
+    }
+
+    private boolean isAccessible(Element element, PackageElement fromPackage) {
+        Element current = element;
+
+        while (current.getKind() != ElementKind.PACKAGE) {
+            Set<Modifier> modifiers = current.getModifiers();
+
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+
+            if (!modifiers.contains(Modifier.PUBLIC) && !this.elements.getPackageOf(current).equals(fromPackage)) {
+                // Interface members are implicitly public.
+                boolean isInterfaceMember = current.getEnclosingElement().getKind().isInterface() && current.getKind() == ElementKind.METHOD;
+                if (!isInterfaceMember) return false;
+            }
+
+            current = current.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.osmerion.atbuilder.apt;
+
+import com.palantir.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+
+/**
+ * Shared code generation for classes that track the presence of components in one {@code long} bitmask per 64
+ * components.
+ *
+ * <p>Classes that use the generated {@link #missingComponentMethod() missing component method} must also declare the
+ * {@link #componentNamesField(List) component names field}.</p>
+ */
+final class PresenceBits {
+
+    static final String COMPONENT_NAMES_FIELD_NAME = "$COMPONENT_NAMES";
+    static final String MISSING_COMPONENT_METHOD_NAME = "$missingComponent";
+
+    static int chunkCount(int componentCount) {
+        return (componentCount + 63) >>> 6;
+    }
+
+    static String fieldName(int chunk) {
+        return "$set" + chunk;
+    }
+
+    static String hex(long value) {
+        return String.format("0x%XL", value);
+    }
+
+    static FieldSpec componentNamesField(List<String> componentNames) {
+        return FieldSpec.builder(ArrayTypeName.of(String.class), COMPONENT_NAMES_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("{\n$>$L\n$<}", componentNames.stream().map(componentName -> CodeBlock.of("$S", componentName)).collect(CodeBlock.joining(",\n")))
+            .build();
+    }
+
+    static MethodSpec missingComponentMethod() {
+        return MethodSpec.methodBuilder(MISSING_COMPONENT_METHOD_NAME)
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .returns(IllegalStateException.class)
+            .addParameter(TypeName.INT, "chunk")
+            .addParameter(TypeName.LONG, "missing")
+            .addStatement("return new $T(\"Component '\" + $N[(chunk << 6) + $T.numberOfTrailingZeros(missing)] + \"' must be set\")", IllegalStateException.class, COMPONENT_NAMES_FIELD_NAME, Long.class)
+            .build();
+    }
+
+    static CodeBlock throwMissingComponent(int chunk, CodeBlock missing) {
+        return CodeBlock.of("throw $N($L, $L)", MISSING_COMPONENT_METHOD_NAME, chunk, missing);
+    }
+
+    private PresenceBits() {}
+
+}
@@ -0,0 +1,100 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.BuilderFactory;
+import com.osmerion.atbuilder.internal.BuilderRegistry;
+import com.palantir.javapoet.*;
+
+import javax.lang.model.element.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Generates the {@link BuilderRegistry} for the builders of the records in a package.
+ *
+ * <p>Since the constructors of generated builders are package-private, one registry is generated per package. The
+ * registry creates one {@link BuilderFactory} per builder that invokes the constructors of the builder directly.</p>
+ *
+ * <p>The name of a registry is derived from the names of the records it registers. Separate compilations that generate
+ * registries for the same package (e.g. main and test sources) thus do not clash, since a record can only be declared
+ * by one of them.</p>
+ */
+final class RegistryGenerator {
+
+    static final String REGISTRY_SIMPLE_NAME = "AtBuilderRegistry";
+
+    private static final ClassName BUILDER_FACTORY_CLASS_NAME = ClassName.get(BuilderFactory.class);
+    private static final ClassName BUILDER_REGISTRY_CLASS_NAME = ClassName.get(BuilderRegistry.class);
+
+    static ClassName registryClassName(String packageName, List<Buildable> buildables) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            buildables.stream()
+                .map(buildable -> buildable.className().reflectionName())
+                .sorted()
+                .forEach(name -> digest.update((name + "\n").getBytes(StandardCharsets.UTF_8)));
+
+            return ClassName.get(packageName, REGISTRY_SIMPLE_NAME + "_" + HexFormat.of().formatHex(digest.digest(), 0, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final BuilderGenerator builderGenerator;
+
+    RegistryGenerator(BuilderGenerator builderGenerator) {
+        this.builderGenerator = builderGenerator;
+    }
+
+    JavaFile generateRegistry(ClassName registryClassName, List<Buildable> buildables) {
+        List<CodeBlock> factories = new ArrayList<>(buildables.size());
+        boolean isUnchecked = false;
+
+        for (Buildable buildable : buildables) {
+            BuilderContext context = this.builderGenerator.createContext(buildable);
+            isUnchecked |= !buildable.typeParameters().isEmpty();
+
+            factories.add(CodeBlock.of(
+                "$T.of($T.class, $T::new, $T::new)",
+                BUILDER_FACTORY_CLASS_NAME,
+                buildable.className(),
+                context.builderClassName(),
+                context.builderClassName()
+            ));
+        }
+
+        MethodSpec.Builder bFactories = MethodSpec.methodBuilder("factories")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(
+                ClassName.get(List.class),
+                ParameterizedTypeName.get(BUILDER_FACTORY_CLASS_NAME, WildcardTypeName.subtypeOf(Object.class), WildcardTypeName.subtypeOf(Object.class))
+            ))
+            .addStatement("return $T.of(\n$>$L\n$<)", List.class, CodeBlock.join(factories, ",\n"));
+
+        if (isUnchecked) {
+            bFactories.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        }
+
+        TypeSpec typeSpec = TypeSpec.classBuilder(registryClassName)
+            .addJavadoc(
+                """
+                The registry of the builders that have been generated for the records in this package.
+                """
+            )
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(BUILDER_REGISTRY_CLASS_NAME)
+            .addMethod(bFactories.build())
+            .build();
+
+        return JavaFile.builder(registryClassName.packageName(), typeSpec)
+            .indent("    ")
+            .skipJavaLangImports(true)
+            .build();
+    }
+
+}
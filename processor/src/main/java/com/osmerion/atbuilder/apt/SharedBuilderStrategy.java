@@ -0,0 +1,100 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.osmerion.atbuilder.internal.SlotLayout;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strategy that generates builders as thin facades over a shared implementation in the runtime library.
+ *
+ * <p>The values of all components are stored in a single array of slots, and all operations on the slots are delegated
+ * to a static {@link SlotLayout} that holds the metadata of the record. The generated builders contain no lambdas, no
+ * helper methods, and no per-component fields, which is intended to reduce the metaspace footprint and the class
+ * loading costs of applications with many builders. In exchange, primitive values are boxed and the values are cast
+ * when an instance is built.</p>
+ */
+final class SharedBuilderStrategy implements BuilderStrategy {
+
+    static final String NAME = "shared";
+
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+    private static final ClassName SLOT_LAYOUT_CLASS_NAME = ClassName.get(SlotLayout.class);
+
+    private static final String LAYOUT_FIELD_NAME = "$LAYOUT";
+    private static final String SLOTS_FIELD_NAME = "$slots";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<FieldSpec> fields(BuilderModel builder) {
+        CodeBlock componentNames = builder.components().stream()
+            .map(component -> CodeBlock.of("$S", component.name()))
+            .collect(CodeBlock.joining(", "));
+
+        CodeBlock requiredIndices = builder.components().stream()
+            .filter(ComponentModel::isRequired)
+            .map(component -> CodeBlock.of("$L", component.index()))
+            .collect(CodeBlock.joining(", "));
+
+        return List.of(
+            FieldSpec.builder(SLOT_LAYOUT_CLASS_NAME, LAYOUT_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T(new String[] { $L }, new int[] { $L })", SLOT_LAYOUT_CLASS_NAME, componentNames, requiredIndices)
+                .build(),
+            FieldSpec.builder(ArrayTypeName.of(TypeName.OBJECT.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build())), SLOTS_FIELD_NAME, Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("$N.newSlots()", LAYOUT_FIELD_NAME)
+                .build()
+        );
+    }
+
+    @Override
+    public CodeBlock isSet(BuilderModel builder, ComponentModel component) {
+        return CodeBlock.of("$N.isSet(this.$N, $L)", LAYOUT_FIELD_NAME, SLOTS_FIELD_NAME, component.index());
+    }
+
+    @Override
+    public CodeBlock get(BuilderModel builder, ComponentModel component) {
+        return component.isOmittable()
+            ? CodeBlock.of("$N.<$T>getOmittable(this.$N, $L)", LAYOUT_FIELD_NAME, component.typeName().withoutAnnotations(), SLOTS_FIELD_NAME, component.index())
+            : CodeBlock.of("$N.<$T>get(this.$N, $L)", LAYOUT_FIELD_NAME, component.boxedTypeName().withoutAnnotations(), SLOTS_FIELD_NAME, component.index());
+    }
+
+    @Override
+    public CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        return CodeBlock.builder()
+            .addStatement("$N.set(this.$N, $L, $L)", LAYOUT_FIELD_NAME, SLOTS_FIELD_NAME, component.index(), value)
+            .build();
+    }
+
+    @Override
+    public CodeBlock checkNotNull(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        return CodeBlock.of("$N.requireNonNull($L, $L)", LAYOUT_FIELD_NAME, value, component.index());
+    }
+
+    @Override
+    public CodeBlock build(BuilderModel builder) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        if (builder.components().stream().anyMatch(ComponentModel::isRequired)) {
+            code.addStatement("$N.checkRequired(this.$N)", LAYOUT_FIELD_NAME, SLOTS_FIELD_NAME);
+        }
+
+        List<CodeBlock> arguments = new ArrayList<>(builder.components().size());
+        for (ComponentModel component : builder.components()) {
+            arguments.add(this.get(builder, component));
+        }
+
+        return code.add("return new $T(\n$>$L\n$<);", builder.recordTypeName(), CodeBlock.join(arguments, ",\n"))
+            .build();
+    }
+
+}
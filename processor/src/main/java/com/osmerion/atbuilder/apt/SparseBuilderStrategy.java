@@ -0,0 +1,175 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A strategy for records with many components of which only a few are usually set.
+ *
+ * <p>Instead of one field per component, the values of the components that have been set are stored in an array
+ * together with the indices of the respective components. The arrays are allocated lazily and grown on demand, so that
+ * the memory footprint and the cost of copying a builder scale with the number of set components rather than with the
+ * number of components of the record. Looking up a component is a linear scan over the set components.</p>
+ */
+final class SparseBuilderStrategy implements BuilderStrategy {
+
+    static final String NAME = "sparse";
+
+    private static final ClassName ARRAYS_CLASS_NAME = ClassName.get(Arrays.class);
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+
+    private static final String COUNT_FIELD_NAME = "$count";
+    private static final String KEYS_FIELD_NAME = "$keys";
+    private static final String VALUES_FIELD_NAME = "$values";
+
+    private static final String NO_KEYS_FIELD_NAME = "$NO_KEYS";
+    private static final String NO_VALUES_FIELD_NAME = "$NO_VALUES";
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<FieldSpec> fields(BuilderModel builder) {
+        TypeName valuesTypeName = ArrayTypeName.of(TypeName.OBJECT.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()));
+
+        return List.of(
+            FieldSpec.builder(ArrayTypeName.of(TypeName.INT), NO_KEYS_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("{}")
+                .build(),
+            FieldSpec.builder(valuesTypeName, NO_VALUES_FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("{}")
+                .build(),
+            FieldSpec.builder(ArrayTypeName.of(TypeName.INT), KEYS_FIELD_NAME, Modifier.PRIVATE)
+                .initializer("$N", NO_KEYS_FIELD_NAME)
+                .build(),
+            FieldSpec.builder(valuesTypeName, VALUES_FIELD_NAME, Modifier.PRIVATE)
+                .initializer("$N", NO_VALUES_FIELD_NAME)
+                .build(),
+            FieldSpec.builder(TypeName.INT, COUNT_FIELD_NAME, Modifier.PRIVATE)
+                .build()
+        );
+    }
+
+    @Override
+    public CodeBlock isSet(BuilderModel builder, ComponentModel component) {
+        return CodeBlock.of("this.$$indexOf($L) >= 0", component.index());
+    }
+
+    @Override
+    public CodeBlock get(BuilderModel builder, ComponentModel component) {
+        return component.isOmittable()
+            ? CodeBlock.of("this.<$T>$$omittable($L)", component.typeName().withoutAnnotations(), component.index())
+            : CodeBlock.of("this.<$T>$$value($L)", component.boxedTypeName().withoutAnnotations(), component.index());
+    }
+
+    @Override
+    public CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        return CodeBlock.builder()
+            .addStatement("this.$$put($L, $L)", component.index(), value)
+            .build();
+    }
+
+    @Override
+    public CodeBlock copyFrom(BuilderModel builder, CodeBlock source) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        long required = builder.components().stream().filter(ComponentModel::isRequired).count();
+        if (required > 0) {
+            code.addStatement("this.$N = new int[$L]", KEYS_FIELD_NAME, required)
+                .addStatement("this.$N = new Object[$L]", VALUES_FIELD_NAME, required);
+        }
+
+        // Absent optional components are not stored at all.
+        for (ComponentModel component : builder.components()) {
+            if (component.isOmittable()) {
+                code.beginControlFlow("if ($L.$N().isPresent())", source, component.name())
+                    .addStatement("this.$$put($L, $L.$N())", component.index(), source, component.name())
+                    .endControlFlow();
+            } else {
+                code.addStatement("this.$$put($L, $L.$N())", component.index(), source, component.name());
+            }
+        }
+
+        return code.build();
+    }
+
+    @Override
+    public List<MethodSpec> methods(BuilderModel builder) {
+        List<MethodSpec> methods = new ArrayList<>(4);
+
+        methods.add(MethodSpec.methodBuilder("$indexOf")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(TypeName.INT)
+            .addParameter(TypeName.INT, "component")
+            .beginControlFlow("for (int i = 0; i < this.$N; i++)", COUNT_FIELD_NAME)
+            .beginControlFlow("if (this.$N[i] == component)", KEYS_FIELD_NAME)
+            .addStatement("return i")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return -1")
+            .build()
+        );
+
+        methods.add(MethodSpec.methodBuilder("$put")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(TypeName.INT, "component")
+            .addParameter(TypeName.OBJECT.annotated(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()), "value")
+            .addStatement("int index = this.$$indexOf(component)")
+            .beginControlFlow("if (index >= 0)")
+            .addStatement("this.$N[index] = value", VALUES_FIELD_NAME)
+            .addStatement("return")
+            .endControlFlow()
+            .beginControlFlow("if (this.$N == this.$N.length)", COUNT_FIELD_NAME, KEYS_FIELD_NAME)
+            .addStatement("int capacity = $T.max($L, this.$N << 1)", Math.class, INITIAL_CAPACITY, COUNT_FIELD_NAME)
+            .addStatement("this.$N = $T.copyOf(this.$N, capacity)", KEYS_FIELD_NAME, ARRAYS_CLASS_NAME, KEYS_FIELD_NAME)
+            .addStatement("this.$N = $T.copyOf(this.$N, capacity)", VALUES_FIELD_NAME, ARRAYS_CLASS_NAME, VALUES_FIELD_NAME)
+            .endControlFlow()
+            .addStatement("this.$N[this.$N] = component", KEYS_FIELD_NAME, COUNT_FIELD_NAME)
+            .addStatement("this.$N[this.$N++] = value", VALUES_FIELD_NAME, COUNT_FIELD_NAME)
+            .build()
+        );
+
+        TypeVariableName t = TypeVariableName.get("T");
+        AnnotationSpec suppressUnchecked = AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build();
+
+        if (builder.components().stream().anyMatch(ComponentModel::isRequired)) {
+            methods.add(MethodSpec.methodBuilder("$value")
+                .addAnnotation(suppressUnchecked)
+                .addModifiers(Modifier.PRIVATE)
+                .addTypeVariable(t)
+                .returns(t)
+                .addParameter(TypeName.INT, "component")
+                .addStatement("return ($T) this.$N[this.$$indexOf(component)]", t, VALUES_FIELD_NAME)
+                .build()
+            );
+        }
+
+        if (builder.components().stream().anyMatch(ComponentModel::isOmittable)) {
+            methods.add(MethodSpec.methodBuilder("$omittable")
+                .addAnnotation(suppressUnchecked)
+                .addModifiers(Modifier.PRIVATE)
+                .addTypeVariable(t)
+                .returns(t)
+                .addParameter(TypeName.INT, "component")
+                .addStatement("int index = this.$$indexOf(component)")
+                .addStatement("return ($T) (index >= 0 ? this.$N[index] : $T.absent())", t, VALUES_FIELD_NAME, DefaultBuilderStrategy.OMITTABLE_CLASS_NAME)
+                .build()
+            );
+        }
+
+        return methods;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.osmerion.atbuilder.internal.Checks;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+
+/**
+ * A strategy that uses the same storage as the {@link DefaultBuilderStrategy default strategy} but generates no
+ * lambdas.
+ *
+ * <p>Instead of one synthetic method and one {@code invokedynamic} bootstrap per required component, the generated
+ * {@code build} method calls into shared helpers of the runtime library. This reduces class loading and linkage
+ * costs. Members that are generated for features (such as the {@code buildAsync} methods of
+ * {@link com.osmerion.atbuilder.Builder.Feature#ASYNC ASYNC}) are not affected by this strategy and may still use
+ * method references.</p>
+ */
+final class StartupBuilderStrategy extends DefaultBuilderStrategy {
+
+    static final String NAME = "startup";
+
+    private static final ClassName CHECKS_CLASS_NAME = ClassName.get(Checks.class);
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    CodeBlock require(ComponentModel component) {
+        return CodeBlock.of("$T.requireComponent(this.$N, $S)", CHECKS_CLASS_NAME, component.name(), component.name());
+    }
+
+}
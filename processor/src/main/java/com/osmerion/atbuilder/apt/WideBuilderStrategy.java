@@ -0,0 +1,168 @@
+package com.osmerion.atbuilder.apt;
+
+import com.osmerion.atbuilder.apt.spi.BuilderModel;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
+import com.osmerion.atbuilder.apt.spi.ComponentModel;
+import com.palantir.javapoet.*;
+import org.jspecify.annotations.Nullable;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strategy for records with many components that keeps the size of the generated methods bounded.
+ *
+ * <p>Required components are stored in plain fields of their declared type and their presence is tracked in one
+ * {@code long} bitmask per 64 components. The {@code build} method validates the presence of all required components
+ * with a single comparison per bitmask and delegates the construction of the exception for a missing component to a
+ * separate (cold) method. The copy constructor is split into one method per 64 components. Compared to the
+ * {@link DefaultBuilderStrategy default strategy}, this avoids an {@code Omittable} allocation per component and keeps
+ * the generated methods well below the compilation and inlining limits of HotSpot.</p>
+ *
+ * <p>This strategy is selected automatically for records with more components than configured by the
+ * {@value BuilderProcessor#OPTION_WIDE_RECORD_THRESHOLD} processor option, unless another strategy is selected
+ * explicitly.</p>
+ */
+final class WideBuilderStrategy implements BuilderStrategy {
+
+    static final String NAME = "wide";
+
+    private static final ClassName NULLABLE_CLASS_NAME = ClassName.get(Nullable.class);
+
+    private static int chunkCount(BuilderModel builder) {
+        return PresenceBits.chunkCount(builder.components().size());
+    }
+
+    private static long requiredMask(BuilderModel builder, int chunk) {
+        long mask = 0L;
+
+        for (ComponentModel component : builder.components()) {
+            if (component.isRequired() && (component.index() >>> 6) == chunk) {
+                mask |= 1L << component.index();
+            }
+        }
+
+        return mask;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<FieldSpec> fields(BuilderModel builder) {
+        List<FieldSpec> fields = new ArrayList<>();
+
+        fields.add(PresenceBits.componentNamesField(builder.components().stream().map(ComponentModel::name).toList()));
+
+        for (ComponentModel component : builder.components()) {
+            if (component.isOmittable()) {
+                fields.add(FieldSpec.builder(component.typeName(), component.name(), Modifier.PRIVATE)
+                    .initializer("$T.absent()", DefaultBuilderStrategy.OMITTABLE_CLASS_NAME)
+                    .build()
+                );
+            } else {
+                TypeName fieldTypeName = (component.isPrimitive() || component.isNullable())
+                    ? component.typeName()
+                    : component.typeName().annotated(List.of(AnnotationSpec.builder(NULLABLE_CLASS_NAME).build()));
+
+                fields.add(FieldSpec.builder(fieldTypeName, component.name(), Modifier.PRIVATE).build());
+            }
+        }
+
+        for (int chunk = 0; chunk < chunkCount(builder); chunk++) {
+            fields.add(FieldSpec.builder(TypeName.LONG, PresenceBits.fieldName(chunk), Modifier.PRIVATE).build());
+        }
+
+        return fields;
+    }
+
+    @Override
+    public CodeBlock isSet(BuilderModel builder, ComponentModel component) {
+        if (component.isOmittable()) {
+            return CodeBlock.of("this.$N.isPresent()", component.name());
+        }
+
+        return CodeBlock.of("(this.$N & $L) != 0L", PresenceBits.fieldName(component.index() >>> 6), PresenceBits.hex(1L << component.index()));
+    }
+
+    @Override
+    public CodeBlock get(BuilderModel builder, ComponentModel component) {
+        return CodeBlock.of("this.$N", component.name());
+    }
+
+    @Override
+    public CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        CodeBlock.Builder code = CodeBlock.builder()
+            .addStatement("this.$N = $L", component.name(), value);
+
+        if (component.isRequired()) {
+            code.addStatement("this.$N |= $L", PresenceBits.fieldName(component.index() >>> 6), PresenceBits.hex(1L << component.index()));
+        }
+
+        return code.build();
+    }
+
+    @Override
+    public CodeBlock copyFrom(BuilderModel builder, CodeBlock source) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (int chunk = 0; chunk < chunkCount(builder); chunk++) {
+            code.addStatement("this.copy$L($L)", chunk, source);
+        }
+
+        return code.build();
+    }
+
+    @Override
+    public CodeBlock build(BuilderModel builder) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (int chunk = 0; chunk < chunkCount(builder); chunk++) {
+            long mask = requiredMask(builder, chunk);
+            if (mask == 0L) continue;
+
+            code.beginControlFlow("if ((this.$N & $L) != $L)", PresenceBits.fieldName(chunk), PresenceBits.hex(mask), PresenceBits.hex(mask))
+                .addStatement(PresenceBits.throwMissingComponent(chunk, CodeBlock.of("~this.$N & $L", PresenceBits.fieldName(chunk), PresenceBits.hex(mask))))
+                .endControlFlow();
+        }
+
+        List<CodeBlock> arguments = new ArrayList<>(builder.components().size());
+        for (ComponentModel component : builder.components()) {
+            arguments.add(this.get(builder, component));
+        }
+
+        return code.add("return new $T(\n$>$L\n$<);", builder.recordTypeName(), CodeBlock.join(arguments, ",\n"))
+            .build();
+    }
+
+    @Override
+    public List<MethodSpec> methods(BuilderModel builder) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        for (int chunk = 0; chunk < chunkCount(builder); chunk++) {
+            MethodSpec.Builder bCopy = MethodSpec.methodBuilder("copy" + chunk)
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(builder.recordTypeName(), "other");
+
+            for (ComponentModel component : builder.components()) {
+                if ((component.index() >>> 6) != chunk) continue;
+                bCopy.addStatement("this.$N = other.$N()", component.name(), component.name());
+            }
+
+            long mask = requiredMask(builder, chunk);
+            if (mask != 0L) {
+                bCopy.addStatement("this.$N = $L", PresenceBits.fieldName(chunk), PresenceBits.hex(mask));
+            }
+
+            methods.add(bCopy.build());
+        }
+
+        methods.add(PresenceBits.missingComponentMethod());
+
+        return methods;
+    }
+
+}
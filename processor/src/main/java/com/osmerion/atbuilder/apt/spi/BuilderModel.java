@@ -0,0 +1,72 @@
+package com.osmerion.atbuilder.apt.spi;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.TypeName;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.util.List;
+
+/**
+ * A view of a builder that is being generated.
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public interface BuilderModel {
+
+    /**
+     * {@return the processing environment of the current compilation}
+     *
+     * <p>This may be used to access the processor options as well as the utilities of the compilation.</p>
+     *
+     * @since   0.3.0
+     */
+    ProcessingEnvironment processingEnvironment();
+
+    /**
+     * {@return the name of the record class}
+     *
+     * @since   0.3.0
+     */
+    ClassName recordClassName();
+
+    /**
+     * {@return the type of the record, parameterized with the type variables of the builder if applicable}
+     *
+     * @since   0.3.0
+     */
+    TypeName recordTypeName();
+
+    /**
+     * {@return the name of the builder class}
+     *
+     * @since   0.3.0
+     */
+    ClassName builderClassName();
+
+    /**
+     * {@return the type of the builder, parameterized with its type variables if applicable}
+     *
+     * @since   0.3.0
+     */
+    TypeName builderTypeName();
+
+    /**
+     * {@return the components of the record in declaration order}
+     *
+     * @since   0.3.0
+     */
+    List<? extends ComponentModel> components();
+
+    /**
+     * {@return the Java release that the generated code targets}
+     *
+     * <p>Strategies may use language features and APIs that are available in this release. The release is at least
+     * {@code 17} and never higher than the source version of the current compilation.</p>
+     *
+     * @since   0.3.0
+     */
+    int release();
+
+}
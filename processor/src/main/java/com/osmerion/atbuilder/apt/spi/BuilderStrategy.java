@@ -0,0 +1,206 @@
+package com.osmerion.atbuilder.apt.spi;
+
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.MethodSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A strategy that controls the code that is generated for a builder.
+ *
+ * <p>A strategy decides how component values are stored, how the presence of a value is tracked, and which checks are
+ * emitted. The public shape of the generated builder (its constructors, setters, and {@code build} method) is
+ * independent of the strategy and is generated by the processor from the primitives provided by the strategy.</p>
+ *
+ * <p>Strategies are discovered using the {@link java.util.ServiceLoader} mechanism. A strategy may be selected for a
+ * single record using {@link com.osmerion.atbuilder.Builder#strategy()}, or for all records using the
+ * {@code atbuilder.strategy} processor option. Implementations must provide a public no-argument constructor and must
+ * be stateless, since a single instance is shared across all generated builders.</p>
+ *
+ * <pre>{@code
+ * // META-INF/services/com.osmerion.atbuilder.apt.spi.BuilderStrategy
+ * com.example.MyBuilderStrategy
+ * }</pre>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public interface BuilderStrategy {
+
+    /**
+     * {@return the name that is used to select this strategy}
+     *
+     * @since   0.3.0
+     */
+    String name();
+
+    /**
+     * {@return the names of the processor options that are recognized by this strategy}
+     *
+     * @since   0.3.0
+     */
+    default Set<String> supportedOptions() {
+        return Set.of();
+    }
+
+    /**
+     * Returns the fields that store the state of the builder.
+     *
+     * <p>A freshly created builder must report all components as not set.</p>
+     *
+     * @param builder   the builder that is being generated
+     *
+     * @return  the fields that store the state of the builder
+     *
+     * @since   0.3.0
+     */
+    List<FieldSpec> fields(BuilderModel builder);
+
+    /**
+     * Returns an expression of type {@code boolean} that evaluates to {@code true} if and only if a value has been set
+     * for the given component.
+     *
+     * @param builder   the builder that is being generated
+     * @param component the component
+     *
+     * @return  the expression
+     *
+     * @since   0.3.0
+     */
+    CodeBlock isSet(BuilderModel builder, ComponentModel component);
+
+    /**
+     * Returns an expression that evaluates to the value of the given component.
+     *
+     * <p>The type of the expression must be assignable to the type of the component. For
+     * {@link ComponentModel#isOmittable() omittable} components, the expression must evaluate to
+     * {@code Omittable.absent()} if no value has been set. For other components, the expression is only evaluated if a
+     * value has been set.</p>
+     *
+     * @param builder   the builder that is being generated
+     * @param component the component
+     *
+     * @return  the expression
+     *
+     * @since   0.3.0
+     */
+    CodeBlock get(BuilderModel builder, ComponentModel component);
+
+    /**
+     * Returns the statements that store the given value for a component.
+     *
+     * <p>The value expression has the type of the component and has already been checked. It is evaluated exactly
+     * once.</p>
+     *
+     * @param builder   the builder that is being generated
+     * @param component the component
+     * @param value     the expression that evaluates to the value
+     *
+     * @return  the statements
+     *
+     * @since   0.3.0
+     */
+    CodeBlock set(BuilderModel builder, ComponentModel component, CodeBlock value);
+
+    /**
+     * Returns the statements that initialize the builder from an existing instance of the record.
+     *
+     * <p>This is used to generate the body of the copy constructor of the builder. After the statements have been
+     * executed, all components must be reported as set.</p>
+     *
+     * @implSpec    The default implementation emits the statements returned by
+     *              {@link #set(BuilderModel, ComponentModel, CodeBlock)} for every component, passing an invocation of
+     *              the respective accessor of the source instance as value.
+     *
+     * @param builder   the builder that is being generated
+     * @param source    the expression that evaluates to the source instance
+     *
+     * @return  the statements
+     *
+     * @since   0.3.0
+     */
+    default CodeBlock copyFrom(BuilderModel builder, CodeBlock source) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (ComponentModel component : builder.components()) {
+            code.add(this.set(builder, component, CodeBlock.of("$L.$N()", source, component.name())));
+        }
+
+        return code.build();
+    }
+
+    /**
+     * Returns an expression that checks that the given value of a non-nullable component is not {@code null} and
+     * evaluates to the value.
+     *
+     * @implSpec    The default implementation uses {@link Objects#requireNonNull(Object, String)}.
+     *
+     * @param builder   the builder that is being generated
+     * @param component the component
+     * @param value     the expression that evaluates to the value
+     *
+     * @return  the expression
+     *
+     * @since   0.3.0
+     */
+    default CodeBlock checkNotNull(BuilderModel builder, ComponentModel component, CodeBlock value) {
+        return CodeBlock.of("$T.requireNonNull($L, $S)", Objects.class, value, "Component '" + component.name() + "' may not be null");
+    }
+
+    /**
+     * Returns the body of the {@code build} method.
+     *
+     * <p>The body must throw an {@link IllegalStateException} if any required component has not been set, and must
+     * otherwise return a new instance of the record.</p>
+     *
+     * @implSpec    The default implementation emits one branch per required component followed by an invocation of
+     *              the canonical constructor of the record using the values returned by
+     *              {@link #get(BuilderModel, ComponentModel)}.
+     *
+     * @param builder   the builder that is being generated
+     *
+     * @return  the body of the {@code build} method
+     *
+     * @since   0.3.0
+     */
+    default CodeBlock build(BuilderModel builder) {
+        CodeBlock.Builder code = CodeBlock.builder();
+
+        for (ComponentModel component : builder.components()) {
+            if (!component.isRequired()) continue;
+
+            code.beginControlFlow("if (!($L))", this.isSet(builder, component))
+                .addStatement("throw new $T($S)", IllegalStateException.class, "Component '" + component.name() + "' must be set")
+                .endControlFlow();
+        }
+
+        List<CodeBlock> arguments = new ArrayList<>(builder.components().size());
+        for (ComponentModel component : builder.components()) {
+            arguments.add(this.get(builder, component));
+        }
+
+        return code.add("return new $T(\n$>$L\n$<);", builder.recordTypeName(), CodeBlock.join(arguments, ",\n"))
+            .build();
+    }
+
+    /**
+     * Returns additional methods that are required by the code generated by this strategy.
+     *
+     * @implSpec    The default implementation returns an empty list.
+     *
+     * @param builder   the builder that is being generated
+     *
+     * @return  additional methods for the builder
+     *
+     * @since   0.3.0
+     */
+    default List<MethodSpec> methods(BuilderModel builder) {
+        return List.of();
+    }
+
+}
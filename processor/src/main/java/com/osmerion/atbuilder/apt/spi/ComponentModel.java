@@ -0,0 +1,86 @@
+package com.osmerion.atbuilder.apt.spi;
+
+import com.palantir.javapoet.TypeName;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A view of a record component for which a builder is generated.
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public interface ComponentModel {
+
+    /**
+     * {@return the name of the component}
+     *
+     * @since   0.3.0
+     */
+    String name();
+
+    /**
+     * {@return the position of the component in the record header}
+     *
+     * @since   0.3.0
+     */
+    int index();
+
+    /**
+     * {@return the type of the component}
+     *
+     * @since   0.3.0
+     */
+    TypeMirror type();
+
+    /**
+     * {@return the name of the type of the component including applicable type annotations}
+     *
+     * @since   0.3.0
+     */
+    TypeName typeName();
+
+    /**
+     * {@return the name of the type of the component including applicable type annotations, boxed if the component
+     * has a primitive type}
+     *
+     * @since   0.3.0
+     */
+    TypeName boxedTypeName();
+
+    /**
+     * {@return whether the component is an {@code Omittable}}
+     *
+     * <p>Omittable components are not required to be set and default to {@code Omittable.absent()}.</p>
+     *
+     * @since   0.3.0
+     */
+    boolean isOmittable();
+
+    /**
+     * {@return whether the component is annotated as nullable}
+     *
+     * @since   0.3.0
+     */
+    boolean isNullable();
+
+    /**
+     * {@return whether the component has a primitive type}
+     *
+     * @since   0.3.0
+     */
+    default boolean isPrimitive() {
+        return this.type().getKind().isPrimitive();
+    }
+
+    /**
+     * {@return whether a value for the component must be set before an instance can be built}
+     *
+     * @since   0.3.0
+     */
+    default boolean isRequired() {
+        return !this.isOmittable();
+    }
+
+}
@@ -0,0 +1,13 @@
+/**
+ * The service provider interface for custom builder code generation strategies.
+ *
+ * <p>A {@link com.osmerion.atbuilder.apt.spi.BuilderStrategy BuilderStrategy} controls how a generated builder stores
+ * component values, how it tracks whether a component has been set, and which checks are emitted. Strategies are
+ * discovered using the {@link java.util.ServiceLoader} mechanism from the annotation processor path.</p>
+ *
+ * @since   0.3.0
+ */
+@NullMarked
+package com.osmerion.atbuilder.apt.spi;
+
+import org.jspecify.annotations.NullMarked;
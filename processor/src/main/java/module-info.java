@@ -1,4 +1,5 @@
 import com.osmerion.atbuilder.apt.BuilderProcessor;
+import com.osmerion.atbuilder.apt.spi.BuilderStrategy;
 import org.jspecify.annotations.NullMarked;
 
 import javax.annotation.processing.Processor;
@@ -11,12 +12,16 @@ import javax.annotation.processing.Processor;
 @NullMarked
 module com.osmerion.atbuilder.apt {
 
-    requires java.compiler;
+    requires transitive java.compiler;
 
     requires com.osmerion.atbuilder;
-    requires com.palantir.javapoet;
+    requires transitive com.palantir.javapoet;
     requires org.jspecify;
 
+    exports com.osmerion.atbuilder.apt.spi;
+
+    uses BuilderStrategy;
+
     provides Processor with BuilderProcessor;
 
 }
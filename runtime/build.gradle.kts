@@ -24,6 +24,36 @@ java {
     withSourcesJar()
 }
 
+/*
+ * The runtime is a multi-release JAR. Classes in the java21 source set replace their counterparts from the main source
+ * set on Java 21 and later.
+ */
+val java21 by sourceSets.registering {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+tasks {
+    named<JavaCompile>(java21.get().compileJavaTaskName) {
+        options.release = 21
+    }
+
+    jar {
+        into("META-INF/versions/21") {
+            from(java21.get().output)
+        }
+
+        manifest {
+            attributes("Multi-Release" to "true")
+        }
+    }
+
+    named<Jar>("sourcesJar") {
+        into("META-INF/versions/21") {
+            from(java21.get().allSource)
+        }
+    }
+}
+
 publishing {
     publications {
         register<MavenPublication>("mavenJava") {
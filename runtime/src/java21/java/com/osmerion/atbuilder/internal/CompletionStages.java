@@ -0,0 +1,38 @@
+package com.osmerion.atbuilder.internal;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * Non-blocking queries of the state of {@link CompletionStage}s.
+ *
+ * <p>This is the variant for Java 21 and later. Stages that are also {@link Future}s (such as all
+ * {@link java.util.concurrent.CompletableFuture CompletableFuture}s) are queried using {@link Future#state()}.</p>
+ *
+ * @author  Leon Linhart
+ */
+final class CompletionStages {
+
+    /**
+     * {@return whether the given stage is known to have completed normally}
+     *
+     * @param stage the stage to query
+     */
+    static boolean isCompletedNormally(CompletionStage<?> stage) {
+        return stage instanceof Future<?> future && future.state() == Future.State.SUCCESS;
+    }
+
+    /**
+     * {@return the value of the given stage which must have completed normally}
+     *
+     * @param <T>   the type of the value
+     * @param stage the stage to query
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T resultNow(CompletionStage<? extends T> stage) {
+        return ((Future<? extends T>) stage).resultNow();
+    }
+
+    private CompletionStages() {}
+
+}
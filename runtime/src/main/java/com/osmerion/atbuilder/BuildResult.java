@@ -0,0 +1,137 @@
+package com.osmerion.atbuilder;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The result of an attempt to build an instance without throwing an exception.
+ *
+ * <p>A result is either a {@link Success} that holds the built instance, or a {@link Failure} that lists
+ * <em>all</em> required components that have not been set.</p>
+ *
+ * <pre>{@code
+ * BuildResult<Person> result = builder.tryBuild();
+ *
+ * if (result instanceof BuildResult.Failure<Person> failure) {
+ *     log.warn("Missing components: {}", failure.missingComponents());
+ * }
+ * }</pre>
+ *
+ * @param <R>   the type of the instance
+ *
+ * @see Builder.Feature#TRY_BUILD
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public sealed interface BuildResult<R> {
+
+    /**
+     * {@return a successful result that holds the given instance}
+     *
+     * @param <R>       the type of the instance
+     * @param instance  the instance
+     *
+     * @since   0.3.0
+     */
+    static <R> BuildResult<R> success(R instance) {
+        return new Success<>(instance);
+    }
+
+    /**
+     * {@return a failed result for the given missing components}
+     *
+     * @param <R>               the type of the instance
+     * @param missingComponents the names of the missing components
+     *
+     * @since   0.3.0
+     */
+    static <R> BuildResult<R> failure(List<String> missingComponents) {
+        return new Failure<>(missingComponents);
+    }
+
+    /**
+     * {@return whether an instance has been built}
+     *
+     * @since   0.3.0
+     */
+    boolean isSuccess();
+
+    /**
+     * {@return the built instance}
+     *
+     * @throws MissingComponentsException   if the instance could not be built
+     *
+     * @since   0.3.0
+     */
+    R orElseThrow();
+
+    /**
+     * A successful result.
+     *
+     * @param <R>       the type of the instance
+     * @param instance  the built instance
+     *
+     * @since   0.3.0
+     */
+    record Success<R>(R instance) implements BuildResult<R> {
+
+        /**
+         * Creates a new successful result.
+         *
+         * @param instance  the built instance
+         *
+         * @since   0.3.0
+         */
+        public Success {
+            Objects.requireNonNull(instance, "instance");
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public R orElseThrow() {
+            return this.instance;
+        }
+
+    }
+
+    /**
+     * A failed result.
+     *
+     * @param <R>               the type of the instance that could not be built
+     * @param missingComponents the names of the missing components in the order in which they are declared in the
+     *                          record header
+     *
+     * @since   0.3.0
+     */
+    record Failure<R>(List<String> missingComponents) implements BuildResult<R> {
+
+        /**
+         * Creates a new failed result.
+         *
+         * @param missingComponents the names of the missing components
+         *
+         * @since   0.3.0
+         */
+        public Failure {
+            missingComponents = List.copyOf(missingComponents);
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        @Override
+        public R orElseThrow() {
+            throw new MissingComponentsException(this.missingComponents, true);
+        }
+
+    }
+
+}
@@ -74,4 +74,436 @@ import java.lang.annotation.Target;
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
-public @interface Builder {}
+public @interface Builder {
+
+    /**
+     * {@return how the checks of the builder are emitted}
+     *
+     * <p>By default, the mode that is configured using the {@code atbuilder.checks} processor option is used. If the
+     * option is not specified, {@link Checks#ALWAYS} is used.</p>
+     *
+     * @since   0.3.0
+     */
+    Checks checks() default Checks.DEFAULT;
+
+    /**
+     * {@return the optional features that should be generated for the builder}
+     *
+     * <p>By default, no optional features are generated.</p>
+     *
+     * @since   0.3.0
+     */
+    Feature[] features() default {};
+
+    /**
+     * {@return the name of the code generation strategy that should be used for the builder}
+     *
+     * <p>The strategy controls how the generated builder stores component values, how it tracks whether a component
+     * has been set, and which checks are emitted. It does not affect the public API of the builder. The annotation
+     * processor provides the following strategies:</p>
+     *
+     * <ul>
+     * <li>{@code default} - Stores every component in an {@link Omittable} field.</li>
+     * <li>{@code startup} - Uses the same storage as {@code default} but generates no lambdas to reduce class loading
+     * and linkage costs.</li>
+     * <li>{@code wide} - Stores every component in a plain field and tracks the presence of values in bitmasks. This
+     * keeps the size of the generated methods bounded for records with many components.</li>
+     * <li>{@code sparse} - Stores only the values of the components that have been set in arrays that are grown on
+     * demand. This reduces the memory footprint and copy costs for records with many, usually absent, optional
+     * components.</li>
+     * <li>{@code shared} - Stores all values in a single array of slots and delegates all operations to a shared
+     * implementation in the runtime library. The generated builders contain no lambdas and no helper methods, which is
+     * intended to reduce the metaspace footprint and class loading costs for applications with many builders at the
+     * cost of boxing primitive values.</li>
+     * </ul>
+     *
+     * <p>The guarantees of a strategy (e.g. that {@code startup} and {@code shared} builders contain no lambdas) only
+     * cover the members that are generated for the strategy itself. Members that are generated for
+     * {@link #features() features} are the same for all strategies. In particular, the {@code buildAsync} methods that
+     * are generated for {@link Feature#ASYNC} pass a method reference, and thus use an {@code invokedynamic} call site,
+     * regardless of the strategy.</p>
+     *
+     * <p>Additional strategies may be provided on the annotation processor path. By default, the strategy that is
+     * configured using the {@code atbuilder.strategy} processor option is used. If the option is not specified,
+     * {@code wide} is used for records with more components than configured by the
+     * {@code atbuilder.wideRecordThreshold} processor option (default: 32), and {@code default} otherwise.</p>
+     *
+     * @since   0.3.0
+     */
+    String strategy() default "";
+
+    /**
+     * Modes that control how a generated builder checks that non-nullable components are not set to {@code null} and
+     * that all required components are set before an instance is built.
+     *
+     * <p>Relaxing the checks is intended for code whose nullness is already verified by a static checker. If a
+     * relaxed check is violated, the behavior of the builder is unspecified: the canonical constructor may receive
+     * {@code null} or default values, or an unrelated exception may be thrown.</p>
+     *
+     * @since   0.3.0
+     */
+    enum Checks {
+        /**
+         * Uses the mode that is configured using the {@code atbuilder.checks} processor option.
+         *
+         * @since   0.3.0
+         */
+        DEFAULT,
+
+        /**
+         * Always performs the checks and reports violations using {@link NullPointerException}s and
+         * {@link IllegalStateException}s.
+         *
+         * @since   0.3.0
+         */
+        ALWAYS,
+
+        /**
+         * Performs the checks using {@code assert} statements. The checks are only performed when assertions are
+         * enabled (e.g. during tests) and are otherwise removed by the JIT compiler, so that setters are reduced to a
+         * plain store.
+         *
+         * @since   0.3.0
+         */
+        ASSERT,
+
+        /**
+         * Does not perform any checks.
+         *
+         * @since   0.3.0
+         */
+        NONE
+    }
+
+    /**
+     * Optional features that may be enabled for a generated builder.
+     *
+     * @since   0.3.0
+     */
+    enum Feature {
+        /**
+         * Generates an additional assembler ({@code <Record>Assembler}) that builds instances from the values of their
+         * components which arrive separately and in any order, keyed by the identifier of the instance they belong to.
+         *
+         * <p>The assembler is a {@link java.util.concurrent.Flow.Processor Flow.Processor} that keeps one builder per
+         * key, applies every incoming part to the builder of its key, and publishes the instance as soon as all required
+         * components have been received. Incomplete entries may be evicted after a maximum age or when their number
+         * exceeds a maximum. See {@link RecordAssembler} for details.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.ASSEMBLER)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * PersonAssembler<UUID> assembler = new PersonAssembler<>();
+         * assembler.subscribe(subscriber);
+         *
+         * assembler.accept(PersonAssembler.country(id, "DE"));
+         * assembler.accept(PersonAssembler.name(id, "Alice")); // Publishes the instance
+         * }</pre>
+         *
+         * <p>This feature is not supported for generic records.</p>
+         *
+         * @since   0.3.0
+         */
+        ASSEMBLER,
+
+        /**
+         * Generates an additional setter accepting a {@link java.util.concurrent.CompletionStage CompletionStage} for
+         * every component and {@code buildAsync} methods that create an instance once all pending stages are complete.
+         *
+         * <p>The returned future completes exceptionally as soon as any of the pending stages completes exceptionally,
+         * and immediately if a required component has neither been set nor been assigned a pending stage. The builder
+         * must not be modified while an asynchronous build is in progress. Resolved values are collected independently
+         * of the builder, and the setters are only invoked (in declaration order and by a single thread) once all
+         * pending stages are complete, so that stages may complete concurrently regardless of the strategy.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.ASYNC)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * CompletableFuture<Person> person = new PersonBuilder()
+         *     .name(lookupName())         // CompletionStage<String>
+         *     .country(lookupCountry())   // CompletionStage<String>
+         *     .buildAsync(executor);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        ASYNC,
+
+        /**
+         * Generates an additional batch builder ({@code <Record>BatchBuilder}) that collects the values of many
+         * instances in one array per component (struct-of-arrays).
+         *
+         * <p>The components of the current row are set using the setters of the batch builder and the row is completed
+         * by calling {@code addRow()}. All completed rows can be materialized using {@code build()} or {@code get(int)},
+         * or processed directly using the column accessors (e.g. {@code countColumn()}) that return the backing arrays.
+         * Components of parameterized types and type variables are stored in {@code Object[]} arrays and no column
+         * accessors are generated for them. Components may not be named like the other methods of the batch builder
+         * ({@code addRow}, {@code build}, {@code clear}, {@code get}, {@code size}, or the column accessor of another
+         * component).</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.BATCH)
+         * public record Measurement(String sensor, double value) {}
+         *
+         *
+         * MeasurementBatchBuilder batch = new MeasurementBatchBuilder(1024);
+         * for (...) {
+         *     batch.sensor(sensor).value(value).addRow();
+         * }
+         *
+         * double[] values = batch.valueColumn(); // The first batch.size() elements are valid.
+         * List<Measurement> measurements = batch.build();
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        BATCH,
+
+        /**
+         * Generates an additional reflection-free binary codec ({@code <Record>Codec}) that writes instances to and
+         * reads instances from a {@link java.io.DataOutput DataOutput}/{@link java.io.DataInput DataInput} or a
+         * {@link java.nio.ByteBuffer ByteBuffer}.
+         *
+         * <p>Integral values are encoded as variable-length quantities and strings as length-prefixed UTF-8. Whether
+         * an {@code Omittable} component is present and whether a nullable component is non-null is encoded in a
+         * leading bit set, so that absent and {@code null} values take no further space. Decoded instances are created
+         * using the generated builder.</p>
+         *
+         * <p>Supported component types are primitives, their wrappers, {@code String}, enums (encoded by ordinal), and
+         * records that use this feature themselves, optionally wrapped in {@code Omittable}. The encoding is not
+         * self-describing and is only suitable for exchanging data between codecs that are generated for the same
+         * version of a record.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.BINARY_CODEC)
+         * public record Person(String name, int age, Omittable<String> nickname) {}
+         *
+         *
+         * ByteBuffer buffer = ByteBuffer.allocate(256);
+         * PersonCodec.write(person, buffer);
+         *
+         * buffer.flip();
+         * Person copy = PersonCodec.read(buffer);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        BINARY_CODEC,
+
+        /**
+         * Generates static {@code diff} methods that compare two instances component by component.
+         *
+         * <p>Primitive components are compared by value (with the semantics of {@link Float#compare} and
+         * {@link Double#compare} for floating-point components) and all other components using {@code equals}. Thus,
+         * no component has changed if and only if the instances are equal according to the generated {@code equals}
+         * of the record. The {@link RecordDiff} that is returned by {@code diff} holds the changed components, and a
+         * builder in which only the changed components are set to the values of the second instance. For records with
+         * at most 64 components, {@code diffMask} additionally returns the changed components as a bitmask without
+         * allocating.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = { Builder.Feature.DIFF, Builder.Feature.PATCH })
+         * public record Person(String name, String country) {}
+         *
+         *
+         * RecordDiff<PersonBuilder> diff = PersonBuilder.diff(oldPerson, newPerson);
+         *
+         * if (diff.isChanged(1)) { ... }
+         * Person replica = diff.changes().applyTo(oldReplica);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        DIFF,
+
+        /**
+         * Generates an additional flyweight ({@code <Record>Flyweight}) that stores instances in a
+         * {@link java.nio.ByteBuffer ByteBuffer} using a fixed layout. This feature may only be used for records whose
+         * components are all primitive.
+         *
+         * <p>The byte offset of every component is computed at compile time and exposed as a constant. Elements can be
+         * read component-wise, {@code materialize}d into a new record instance, or written either from an existing
+         * instance ({@code put}) or component-wise using the writer returned by {@code at}. This makes it possible to
+         * keep large datasets in direct or memory-mapped buffers without GC pressure while the record remains the
+         * on-heap representation. If the generated code targets Java 22 or later, flyweights can additionally be
+         * allocated in an {@code Arena} and wrap a {@code MemorySegment}.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.FLYWEIGHT)
+         * public record Point(double x, double y, int id) {}
+         *
+         *
+         * PointFlyweight points = PointFlyweight.allocateDirect(1_000_000);
+         * points.at(0).x(1.0).y(2.0).id(42).commit();
+         *
+         * double x = points.x(0);
+         * Point point = points.materialize(0);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        FLYWEIGHT,
+
+        /**
+         * Emits JDK Flight Recorder events for the activity of the builder.
+         *
+         * <ul>
+         * <li>{@code com.osmerion.atbuilder.Build} is emitted when {@code build()} created an instance. The duration
+         * of the event covers the validation and the invocation of the canonical constructor.</li>
+         * <li>{@code com.osmerion.atbuilder.BuildFailure} is emitted when {@code build()} failed (e.g. because a
+         * required component was not set).</li>
+         * <li>{@code com.osmerion.atbuilder.Copy} is emitted when a builder is initialized from an existing
+         * instance.</li>
+         * </ul>
+         *
+         * <p>All events are recorded with a stack trace to identify the call site. When no recording is active, the
+         * instrumentation is reduced to a check of {@code isEnabled()} that the JIT can typically eliminate
+         * entirely.</p>
+         *
+         * <p>Applications that are run on the module path must resolve the {@code jdk.jfr} module (e.g. using
+         * {@code --add-modules jdk.jfr}).</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.JFR)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * // java -XX:StartFlightRecording:settings=profile ...
+         * // jfr print --events com.osmerion.atbuilder.Build recording.jfr
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        JFR,
+
+        /**
+         * Generates an additional streaming JSON codec ({@code <Record>Json}) that writes instances as JSON objects
+         * and parses them without reflection or third-party dependencies.
+         *
+         * <p>Every component is mapped to a member with the same name. Absent {@code Omittable} components are
+         * omitted and {@code null} values are written as {@code null}. When parsing, the members are passed directly
+         * to the setters of the generated builder, so that missing required members and illegal {@code null} values
+         * are reported by the builder. Unknown members are skipped.</p>
+         *
+         * <p>Supported component types are primitives, their wrappers, {@code String}, enums (by name), and records
+         * that use this feature themselves, optionally wrapped in {@code Omittable}.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.JSON)
+         * public record Person(String name, int age, Omittable<String> nickname) {}
+         *
+         *
+         * String json = PersonJson.toJson(person); // {"name":"Alice","age":30}
+         * Person copy = PersonJson.fromJson(json);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        JSON,
+
+        /**
+         * Generates methods that treat a builder as a patch in which only the components that have been set are
+         * relevant.
+         *
+         * <ul>
+         * <li>{@code merge(other)} copies the values of all components that are set in another builder, as if the
+         * respective setters were invoked.</li>
+         * <li>{@code applyTo(base)} returns a copy of an existing instance in which the values of all components that
+         * are set in the builder are replaced, or the instance itself if no component is set. Required components need
+         * not be set.</li>
+         * </ul>
+         *
+         * <p>A component of type {@link Omittable} is considered set if it holds a present value.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.PATCH)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * PersonBuilder patch = new PersonBuilder().country("Germany");
+         * Person updated = patch.applyTo(person);
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        PATCH,
+
+        /**
+         * Throws a {@link MissingComponentsException} without a stack trace if {@code build()} is invoked while
+         * required components are not set.
+         *
+         * <p>Capturing the stack trace is typically the most expensive part of throwing an exception. The exception
+         * lists all missing components and its message is only computed when it is requested. This is useful when
+         * invalid input is common and failures are handled close to the call site.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.STACKLESS_EXCEPTIONS)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * try {
+         *     new PersonBuilder().build();
+         * } catch (MissingComponentsException e) {
+         *     e.components(); // [name, country]
+         * }
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        STACKLESS_EXCEPTIONS,
+
+        /**
+         * Tracks which components have been modified since the builder was created.
+         *
+         * <p>A component is considered modified once its setter has been invoked, regardless of whether the new value
+         * differs from the previous one. Values that are copied from an existing instance by the copy constructor are
+         * not considered modifications. The generated builder provides the following methods:</p>
+         *
+         * <ul>
+         * <li>{@code source()} returns the instance that the builder was created from, or {@code null} if the builder
+         * was not created from an existing instance.</li>
+         * <li>{@code modifiedComponents()} returns a {@link java.util.BitSet BitSet} in which the bit at the position of
+         * each modified component (in the record header) is set.</li>
+         * <li>{@code modifiedComponentsMask()} returns the same information as a {@code long} bitmask. This method is
+         * only generated for records with at most 64 components.</li>
+         * </ul>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.TRACK_MODIFICATIONS)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * PersonBuilder builder = new PersonBuilder(person).country("Germany");
+         * builder.modifiedComponentsMask(); // 0b10
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        TRACK_MODIFICATIONS,
+
+        /**
+         * Generates a {@code tryBuild()} method that returns a {@link BuildResult} instead of throwing an exception if
+         * required components are not set.
+         *
+         * <p>In contrast to {@code build()}, a failed result lists all required components that are not set instead of
+         * only the first one.</p>
+         *
+         * <pre>{@code
+         * @Builder(features = Builder.Feature.TRY_BUILD)
+         * public record Person(String name, String country) {}
+         *
+         *
+         * BuildResult<Person> result = new PersonBuilder().name("Alice").tryBuild();
+         * result.isSuccess(); // false
+         * }</pre>
+         *
+         * @since   0.3.0
+         */
+        TRY_BUILD
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.osmerion.atbuilder;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A factory for the generated builders of a record.
+ *
+ * <p>Factories are obtained using {@link Builders#forType(Class)} and invoke the constructors of the builder directly.
+ * </p>
+ *
+ * @param <R>   the type of the record
+ * @param <B>   the type of the builder
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public interface BuilderFactory<R extends Record, B> {
+
+    /**
+     * {@return a new factory that delegates to the given functions}
+     *
+     * @param <R>           the type of the record
+     * @param <B>           the type of the builder
+     * @param type          the record class
+     * @param newBuilder    the function that creates a new, empty builder
+     * @param copyBuilder   the function that creates a new builder that is initialized with the values of an instance
+     *
+     * @since   0.3.0
+     */
+    static <R extends Record, B> BuilderFactory<R, B> of(Class<R> type, Supplier<? extends B> newBuilder, Function<? super R, ? extends B> copyBuilder) {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(newBuilder, "newBuilder");
+        Objects.requireNonNull(copyBuilder, "copyBuilder");
+
+        return new BuilderFactory<>() {
+
+            @Override
+            public Class<R> type() {
+                return type;
+            }
+
+            @Override
+            public B newBuilder() {
+                return newBuilder.get();
+            }
+
+            @Override
+            public B newBuilder(R instance) {
+                return copyBuilder.apply(Objects.requireNonNull(instance, "instance"));
+            }
+
+            @Override
+            public String toString() {
+                return "BuilderFactory[" + type.getName() + "]";
+            }
+
+        };
+    }
+
+    /**
+     * {@return the record class}
+     *
+     * @since   0.3.0
+     */
+    Class<R> type();
+
+    /**
+     * {@return a new, empty builder}
+     *
+     * @since   0.3.0
+     */
+    B newBuilder();
+
+    /**
+     * {@return a new builder that is initialized with the component values of the given instance}
+     *
+     * @param instance  the instance to copy the component values from
+     *
+     * @since   0.3.0
+     */
+    B newBuilder(R instance);
+
+}
@@ -0,0 +1,161 @@
+package com.osmerion.atbuilder;
+
+import com.osmerion.atbuilder.internal.BuilderRegistry;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * Provides access to the generated builders of records at runtime without reflection on the builders.
+ *
+ * <p>The lookup relies on an index that is generated by the annotation processor when the {@code atbuilder.registry}
+ * processor option is enabled. The index of a class loader is read once, and the factory of each record is cached in a
+ * {@link ClassValue}, so that subsequent lookups do not need to consult the index again. The returned factories invoke
+ * the constructors of the builders directly.</p>
+ *
+ * <pre>{@code
+ * BuilderFactory<Person, ?> factory = Builders.forType(Person.class);
+ * PersonBuilder builder = (PersonBuilder) factory.newBuilder();
+ * }</pre>
+ *
+ * <p>When the records are located in a named module, the packages of the records must be exported to this module.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class Builders {
+
+    private static final ClassValue<Optional<BuilderFactory<?, ?>>> FACTORIES = new ClassValue<>() {
+
+        @Override
+        protected Optional<BuilderFactory<?, ?>> computeValue(Class<?> type) {
+            ClassLoader classLoader = type.getClassLoader();
+            if (classLoader == null) return Optional.empty();
+
+            String registryName = index(classLoader).get(type.getName());
+            if (registryName == null) return Optional.empty();
+
+            Class<?> registryClass;
+
+            try {
+                registryClass = Class.forName(registryName, true, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Builder registry " + registryName + " for " + type.getName() + " could not be found", e);
+            }
+
+            return Optional.ofNullable(REGISTRIES.get(registryClass).get(type));
+        }
+
+    };
+
+    /*
+     * The factories of each registry. Values are attached to the registry class, so that they do not prevent class
+     * loaders from being unloaded.
+     */
+    private static final ClassValue<Map<Class<?>, BuilderFactory<?, ?>>> REGISTRIES = new ClassValue<>() {
+
+        @Override
+        protected Map<Class<?>, BuilderFactory<?, ?>> computeValue(Class<?> registryClass) {
+            BuilderRegistry registry;
+
+            try {
+                registry = (BuilderRegistry) registryClass.getConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalStateException("Failed to instantiate builder registry " + registryClass.getName(), e);
+            }
+
+            Map<Class<?>, BuilderFactory<?, ?>> factories = new HashMap<>();
+            for (BuilderFactory<?, ?> factory : registry.factories()) {
+                factories.put(factory.type(), factory);
+            }
+
+            return Map.copyOf(factories);
+        }
+
+    };
+
+    /*
+     * The index of each class loader. Only names are stored, so that the values do not prevent the class loaders from
+     * being unloaded.
+     */
+    private static final Map<ClassLoader, Map<String, String>> INDICES = new WeakHashMap<>();
+
+    /**
+     * {@return the factory for the builder of the given record class}
+     *
+     * @param <R>   the type of the record
+     * @param type  the record class
+     *
+     * @throws IllegalArgumentException if no builder has been registered for the given record class
+     *
+     * @since   0.3.0
+     */
+    public static <R extends Record> BuilderFactory<R, ?> forType(Class<R> type) {
+        return findForType(type).orElseThrow(() -> new IllegalArgumentException("No builder has been registered for " + type.getName()));
+    }
+
+    /**
+     * {@return the factory for the builder of the given record class, if one has been registered}
+     *
+     * @param <R>   the type of the record
+     * @param type  the record class
+     *
+     * @since   0.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> Optional<BuilderFactory<R, ?>> findForType(Class<R> type) {
+        return FACTORIES.get(type).map(factory -> (BuilderFactory<R, ?>) factory);
+    }
+
+    private static Map<String, String> index(ClassLoader classLoader) {
+        synchronized (INDICES) {
+            Map<String, String> index = INDICES.get(classLoader);
+
+            if (index == null) {
+                index = readIndex(classLoader);
+                INDICES.put(classLoader, index);
+            }
+
+            return index;
+        }
+    }
+
+    private static Map<String, String> readIndex(ClassLoader classLoader) {
+        Map<String, String> index = new HashMap<>();
+
+        try {
+            Enumeration<URL> resources = classLoader.getResources(BuilderRegistry.INDEX_RESOURCE);
+
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    @Nullable String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        int separator = line.indexOf('=');
+                        if (line.isBlank() || line.startsWith("#") || separator < 0) continue;
+
+                        index.putIfAbsent(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read builder index", e);
+        }
+
+        return Map.copyOf(index);
+    }
+
+    private Builders() {}
+
+}
@@ -0,0 +1,228 @@
+package com.osmerion.atbuilder;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, concurrent pool that maps values to canonical instances that are equal to them.
+ *
+ * <p>The pool is organized as a set-associative cache. Each value is assigned to a small set of slots by its hash code,
+ * and when all slots of a set are occupied, one of them is evicted using the CLOCK algorithm: a slot that has been hit
+ * since the hand of the set last passed over it is given a second chance, otherwise it is replaced. Lookups and
+ * insertions do not acquire locks. Canonicalization is best-effort: concurrent insertions of equal values or an
+ * eviction may cause two equal values to be returned as distinct instances, but the returned value is always
+ * {@link Object#equals(Object) equal} to the given one.</p>
+ *
+ * <p>Pools are typically used through the {@link Interned} annotation, in which case the generated builders obtain
+ * {@link #shared(String, int) shared} pools by name. The counters of a pool can be inspected using {@link #stats()}.</p>
+ *
+ * @param <T>   the type of the values
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class CanonicalPool<T> {
+
+    /**
+     * The default capacity of a pool.
+     *
+     * @since   0.3.0
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The maximum capacity of a pool.
+     *
+     * @since   0.3.0
+     */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int WAYS = 4;
+
+    private static final Map<String, CanonicalPool<?>> SHARED_POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared pool with the given name, creating it with the given capacity if it does not exist yet.
+     *
+     * @param <T>       the type of the values
+     * @param name      the name of the pool
+     * @param capacity  the capacity to use if the pool is created
+     *
+     * @return  the shared pool with the given name
+     *
+     * @throws IllegalArgumentException if the pool is created and the capacity is not positive or greater than
+     *                                  {@link #MAX_CAPACITY}
+     *
+     * @since   0.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CanonicalPool<T> shared(String name, int capacity) {
+        CanonicalPool<?> pool = SHARED_POOLS.get(name);
+        if (pool == null) pool = SHARED_POOLS.computeIfAbsent(name, key -> new CanonicalPool<>(capacity));
+
+        return (CanonicalPool<T>) pool;
+    }
+
+    /**
+     * {@return the shared pool with the given name, if it exists}
+     *
+     * @param name  the name of the pool
+     *
+     * @since   0.3.0
+     */
+    public static Optional<CanonicalPool<?>> lookup(String name) {
+        return Optional.ofNullable(SHARED_POOLS.get(name));
+    }
+
+    private final AtomicReferenceArray<@Nullable T> values;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final int setMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new pool that retains at most (approximately) the given number of values.
+     *
+     * <p>The capacity is rounded up to the next power of two that is not less than four.</p>
+     *
+     * @param capacity  the capacity of the pool
+     *
+     * @throws IllegalArgumentException if the capacity is not positive or greater than {@link #MAX_CAPACITY}
+     *
+     * @since   0.3.0
+     */
+    public CanonicalPool(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        if (capacity > MAX_CAPACITY) throw new IllegalArgumentException("Capacity is too large: " + capacity);
+
+        int slots = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        int sets = slots / WAYS;
+
+        this.values = new AtomicReferenceArray<>(slots);
+        this.referenced = new byte[slots];
+        this.hands = new byte[sets];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Returns the canonical instance for the given value.
+     *
+     * <p>If the pool contains a value that is equal to the given value, that value is returned. Otherwise, the given
+     * value is added to the pool, possibly evicting another value, and returned.</p>
+     *
+     * @param value the value to canonicalize
+     *
+     * @return  a value that is equal to the given value, or {@code null} if the value is {@code null}
+     *
+     * @since   0.3.0
+     */
+    public <V extends @Nullable T> V canonicalize(V value) {
+        if (value == null) return value;
+
+        int hash = value.hashCode();
+        hash ^= (hash >>> 16);
+
+        int set = hash & this.setMask;
+        int base = set * WAYS;
+
+        for (int i = 0; i < WAYS; i++) {
+            T candidate = this.values.get(base + i);
+
+            if (candidate != null && (candidate == value || candidate.equals(value))) {
+                if (this.referenced[base + i] == 0) this.referenced[base + i] = 1;
+                this.hits.increment();
+
+                @SuppressWarnings("unchecked")
+                V canonical = (V) candidate;
+                return canonical;
+            }
+        }
+
+        this.misses.increment();
+
+        /*
+         * Advance the hand of the set until it points to an empty slot or to one that has not been referenced since
+         * the hand last passed over it. This terminates after at most two rounds. Races between threads are benign:
+         * they may only lead to a suboptimal choice of victim.
+         */
+        int hand = this.hands[set] & (WAYS - 1);
+        int slot;
+
+        while (true) {
+            slot = base + hand;
+            hand = (hand + 1) & (WAYS - 1);
+
+            if (this.referenced[slot] == 0 || this.values.get(slot) == null) break;
+            this.referenced[slot] = 0;
+        }
+
+        this.hands[set] = (byte) hand;
+
+        if (this.values.getAndSet(slot, value) != null) this.evictions.increment();
+        this.referenced[slot] = 0;
+
+        return value;
+    }
+
+    /**
+     * {@return the number of slots of this pool}
+     *
+     * @since   0.3.0
+     */
+    public int capacity() {
+        return this.values.length();
+    }
+
+    /**
+     * Removes all values from this pool. The counters are not reset.
+     *
+     * @since   0.3.0
+     */
+    public void clear() {
+        for (int i = 0; i < this.values.length(); i++) {
+            this.values.set(i, null);
+        }
+    }
+
+    /**
+     * {@return a snapshot of the counters of this pool}
+     *
+     * @since   0.3.0
+     */
+    public Stats stats() {
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum());
+    }
+
+    /**
+     * A snapshot of the counters of a {@link CanonicalPool}.
+     *
+     * @param hits      the number of values for which an equal instance was found in the pool
+     * @param misses    the number of values that were added to the pool
+     * @param evictions the number of values that were evicted from the pool
+     *
+     * @since   0.3.0
+     */
+    public record Stats(long hits, long misses, long evictions) {
+
+        /**
+         * {@return the ratio of hits to all lookups, or {@code 0} if there were no lookups}
+         *
+         * @since   0.3.0
+         */
+        public double hitRate() {
+            long lookups = this.hits + this.misses;
+            return lookups == 0 ? 0 : (double) this.hits / lookups;
+        }
+
+    }
+
+}
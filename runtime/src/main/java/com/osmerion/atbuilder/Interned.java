@@ -0,0 +1,57 @@
+package com.osmerion.atbuilder;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation may be applied to a component of a record that is annotated with {@link Builder} to canonicalize the
+ * values of the component.
+ *
+ * <p>The setter that is generated for an interned component passes its argument to a {@link CanonicalPool} and stores
+ * the instance that is returned by the pool instead. Builders that are given equal values thus produce records that
+ * share a single instance of the value. This is useful for components with few distinct but frequently repeated
+ * values such as country codes or status strings. Unlike {@link String#intern()}, the pools are bounded and do not
+ * contend on a global table.</p>
+ *
+ * <pre>{@code
+ * @Builder
+ * public record Address(String street, @Interned(pool = "countries") String country) {}
+ * }</pre>
+ *
+ * <p>Interning is not supported for components of primitive or {@code Omittable} types or for components of generic
+ * records.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+@Target(ElementType.RECORD_COMPONENT)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Interned {
+
+    /**
+     * {@return the name of the shared pool to use}
+     *
+     * <p>Components that specify the same name share a pool. By default, each component uses its own pool that is
+     * named after the binary name of the record and the name of the component (e.g. {@code com.example.Address.country}).
+     * </p>
+     *
+     * @see CanonicalPool#shared(String, int)
+     *
+     * @since   0.3.0
+     */
+    String pool() default "";
+
+    /**
+     * {@return the maximum number of values that are retained by the pool}
+     *
+     * <p>The capacity must be positive and must not be greater than {@link CanonicalPool#MAX_CAPACITY}. If multiple
+     * components share a pool, the capacity of the component that first accesses the pool is used.</p>
+     *
+     * @since   0.3.0
+     */
+    int capacity() default CanonicalPool.DEFAULT_CAPACITY;
+
+}
@@ -0,0 +1,56 @@
+package com.osmerion.atbuilder;
+
+import com.osmerion.omittable.Omittable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation may be applied to a record that is annotated with {@link Builder} to generate mappings from other
+ * types to the builder.
+ *
+ * <p>For each source type, a static {@code from} method is generated in the builder that creates a new builder and
+ * initializes it with the values returned by the accessors of the source that have the same names as the components
+ * of the record. The values are passed to the setters of the builder, so that the usual checks (e.g. for nullness) are
+ * applied. The mapping is resolved at compile time and does not use reflection.</p>
+ *
+ * <ul>
+ * <li>An accessor is a non-static method without parameters that is accessible from the package of the record.</li>
+ * <li>The type returned by an accessor must be assignable to the type of the component. If the component is of type
+ * {@link Omittable Omittable&lt;T&gt;}, the type returned by an accessor may also be assignable to {@code T}, in which
+ * case the value is wrapped using {@link Omittable#of(Object)}. Otherwise, compilation fails.</li>
+ * <li>Components without a matching accessor are not initialized. A warning is reported for such components unless
+ * they are of type {@link Omittable}.</li>
+ * </ul>
+ *
+ * <pre>{@code
+ * public record PersonDto(String name, int age) {}
+ *
+ * @Builder
+ * @MapFrom(PersonDto.class)
+ * public record Person(String name, int age, Omittable<String> nickname) {}
+ *
+ *
+ * Person person = PersonBuilder.from(dto).build();
+ * }</pre>
+ *
+ * <p>Mappings are not supported for generic records.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MapFrom {
+
+    /**
+     * {@return the types to generate mappings from}
+     *
+     * @since   0.3.0
+     */
+    Class<?>[] value();
+
+}
@@ -0,0 +1,68 @@
+package com.osmerion.atbuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown to indicate that an instance could not be built because one or more required components have not been set.
+ *
+ * <p>The message of the exception is only computed when it is requested. Builders that are generated with the
+ * {@link Builder.Feature#STACKLESS_EXCEPTIONS STACKLESS_EXCEPTIONS} feature throw instances of this exception without
+ * a stack trace.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class MissingComponentsException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> components;
+    private final boolean writableStackTrace;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param components            the names of the missing components
+     * @param writableStackTrace    whether the stack trace should be captured
+     *
+     * @since   0.3.0
+     */
+    public MissingComponentsException(List<String> components, boolean writableStackTrace) {
+        this.components = List.copyOf(components);
+        this.writableStackTrace = writableStackTrace;
+
+        if (writableStackTrace) {
+            super.fillInStackTrace();
+        }
+    }
+
+    /**
+     * {@return the names of the missing components in the order in which they are declared in the record header}
+     *
+     * @since   0.3.0
+     */
+    public List<String> components() {
+        return this.components;
+    }
+
+    @Override
+    public String getMessage() {
+        if (this.components.size() == 1) {
+            return "Component '" + this.components.get(0) + "' must be set";
+        }
+
+        return this.components.stream()
+            .map(component -> "'" + component + "'")
+            .collect(Collectors.joining(", ", "Components ", " must be set"));
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // This is invoked by the super constructor before the field is initialized. Thus, the stack trace is captured
+        // explicitly by the constructor instead.
+        return this.writableStackTrace ? super.fillInStackTrace() : this;
+    }
+
+}
@@ -0,0 +1,383 @@
+package com.osmerion.atbuilder;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Flow.Processor} that assembles records from the values of their components which arrive separately, in any
+ * order, and keyed by the identifier of the record they belong to.
+ *
+ * <p>Subclasses are generated for records that enable {@link Builder.Feature#ASSEMBLER}. For each key, a builder is
+ * created when the first {@link Part part} arrives, and every part is applied to the builder of its key. As soon as all
+ * required components of a key have been received, the record is built, the builder is discarded, and the record is
+ * published to the subscribers of this processor. Parts for the same key are applied under the lock of the bin of a
+ * {@link ConcurrentHashMap}, so that parts for different keys are assembled concurrently without contention.</p>
+ *
+ * <p>Incomplete entries can be evicted when they exceed a maximum age or when the number of incomplete entries exceeds
+ * a maximum. Evictions are performed when parts arrive and when {@link #evictExpired()} is called (e.g. periodically by
+ * a scheduler). Evicted entries are discarded. Entries that are still incomplete when the upstream publisher completes
+ * are discarded as well.</p>
+ *
+ * <p>Parts that arrive for a key after its record has been published (e.g. values of optional components, or duplicate
+ * parts) are late. To prevent late parts from creating entries that never complete, the most recently completed keys
+ * are remembered, and late parts for these keys are dropped and {@link #latePartCount() counted}. Late parts for keys
+ * that are no longer remembered cannot be told apart from the first part of a new record with the same key. They
+ * create a new entry which is only discarded by eviction. Consequently, a key must not be reused for another record
+ * while it is remembered.</p>
+ *
+ * <p>If applying a part fails (for example, because a {@code null} value was given for a non-null component), the
+ * exception is thrown by {@link #accept(Part)}. When this processor is subscribed to a publisher, the subscription is
+ * cancelled instead and this processor is closed exceptionally.</p>
+ *
+ * @param <K>   the type of the keys
+ * @param <B>   the type of the builder
+ * @param <R>   the type of the record
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public abstract class RecordAssembler<K, B, R> extends SubmissionPublisher<R> implements Flow.Processor<RecordAssembler.Part<K>, R> {
+
+    /**
+     * The number of recently completed keys that are remembered by default.
+     *
+     * @since   0.3.0
+     */
+    public static final int DEFAULT_MAX_COMPLETED = 1024;
+
+    private final ConcurrentHashMap<K, Entry<K, B>> entries = new ConcurrentHashMap<>();
+    private final long[] requiredMask;
+    private final long maxAgeNanos;
+    private final long maxPending;
+
+    /*
+     * The incomplete entries in the order in which they were created. Completed entries are removed lazily, either
+     * when they reach the head of the queue or when the queue is compacted.
+     */
+    private final @Nullable ConcurrentLinkedQueue<Entry<K, B>> order;
+    private final AtomicInteger completedSinceCompaction = new AtomicInteger();
+
+    /*
+     * The most recently completed keys. Keys are added under the lock of their bin in the map of entries (so that a
+     * late part for a key cannot race with its completion) and removed in completion order once the bound is exceeded.
+     */
+    private final int maxCompleted;
+    private final @Nullable Set<K> completedKeys;
+    private final @Nullable ConcurrentLinkedQueue<K> completedOrder;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder lateParts = new LongAdder();
+
+    private volatile Flow.@Nullable Subscription subscription;
+
+    /**
+     * Creates a new assembler without eviction limits that publishes records asynchronously using the
+     * {@link java.util.concurrent.ForkJoinPool#commonPool() common pool} and remembers the
+     * {@value #DEFAULT_MAX_COMPLETED} most recently completed keys.
+     *
+     * @param requiredMask  the bit set of the indices of the required components
+     *
+     * @since   0.3.0
+     */
+    protected RecordAssembler(long[] requiredMask) {
+        this.requiredMask = requiredMask.clone();
+        this.maxAgeNanos = 0;
+        this.maxPending = Long.MAX_VALUE;
+        this.order = null;
+        this.maxCompleted = DEFAULT_MAX_COMPLETED;
+        this.completedKeys = ConcurrentHashMap.newKeySet();
+        this.completedOrder = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Creates a new assembler.
+     *
+     * @param requiredMask      the bit set of the indices of the required components
+     * @param executor          the executor to use for asynchronous delivery of records
+     * @param maxBufferCapacity the maximum capacity of the buffer of each subscriber
+     * @param maxAge            the maximum time an incomplete entry is kept, or {@code null} to keep entries
+     *                          regardless of their age
+     * @param maxPending        the maximum number of incomplete entries, or {@link Integer#MAX_VALUE} for no limit
+     * @param maxCompleted      the number of recently completed keys that are remembered to drop late parts, or
+     *                          {@code 0} to not remember completed keys
+     *
+     * @throws IllegalArgumentException if the maximum age is not positive, if the maximum number of incomplete entries
+     *                                  or the buffer capacity is not positive, or if the number of remembered keys is
+     *                                  negative
+     *
+     * @since   0.3.0
+     */
+    protected RecordAssembler(long[] requiredMask, Executor executor, int maxBufferCapacity, @Nullable Duration maxAge, int maxPending, int maxCompleted) {
+        super(executor, maxBufferCapacity);
+
+        if (maxAge != null && (maxAge.isNegative() || maxAge.isZero())) throw new IllegalArgumentException("Maximum age must be positive: " + maxAge);
+        if (maxPending <= 0) throw new IllegalArgumentException("Maximum number of pending entries must be positive: " + maxPending);
+        if (maxCompleted < 0) throw new IllegalArgumentException("Number of remembered completed keys must not be negative: " + maxCompleted);
+
+        this.requiredMask = requiredMask.clone();
+        this.maxAgeNanos = maxAge != null ? maxAge.toNanos() : 0;
+        this.maxPending = maxPending != Integer.MAX_VALUE ? maxPending : Long.MAX_VALUE;
+        this.order = (maxAge != null || maxPending != Integer.MAX_VALUE) ? new ConcurrentLinkedQueue<>() : null;
+        this.maxCompleted = maxCompleted;
+        this.completedKeys = (maxCompleted > 0) ? ConcurrentHashMap.newKeySet() : null;
+        this.completedOrder = (maxCompleted > 0) ? new ConcurrentLinkedQueue<>() : null;
+    }
+
+    /**
+     * {@return a new builder}
+     *
+     * @since   0.3.0
+     */
+    protected abstract B newBuilder();
+
+    /**
+     * Sets the value of a component.
+     *
+     * @param builder   the builder
+     * @param component the index of the component
+     * @param value     the value of the component
+     *
+     * @since   0.3.0
+     */
+    protected abstract void apply(B builder, int component, @Nullable Object value);
+
+    /**
+     * {@return a new record that is built from the given builder}
+     *
+     * @param builder   the builder
+     *
+     * @since   0.3.0
+     */
+    protected abstract R build(B builder);
+
+    /**
+     * Applies the given part to the builder of its key, and publishes the record if it is complete. Late parts for
+     * recently completed keys are dropped.
+     *
+     * <p>If there are subscribers whose buffers are full, this method blocks until the record can be published.</p>
+     *
+     * @param part  the part to apply
+     *
+     * @since   0.3.0
+     */
+    public final void accept(Part<K> part) {
+        Objects.requireNonNull(part, "part");
+
+        int component = part.component();
+        @SuppressWarnings("unchecked")
+        Entry<K, B>[] created = (Entry<K, B>[]) new Entry<?, ?>[1];
+        @SuppressWarnings("unchecked")
+        R[] completed = (R[]) new Object[1];
+        boolean[] isLate = new boolean[1];
+
+        this.entries.compute(part.key(), (key, entry) -> {
+            if (entry == null) {
+                if (this.completedKeys != null && this.completedKeys.contains(key)) {
+                    isLate[0] = true;
+                    return null;
+                }
+
+                entry = new Entry<>(key, this.newBuilder(), new long[this.requiredMask.length], System.nanoTime());
+                created[0] = entry;
+            }
+
+            this.apply(entry.builder, component, part.value());
+
+            if (component < (this.requiredMask.length << 6)) {
+                entry.set[component >>> 6] |= 1L << component;
+            }
+
+            if (this.isComplete(entry.set)) {
+                completed[0] = this.build(entry.builder);
+                entry.isDone = true;
+
+                if (this.completedKeys != null) {
+                    assert this.completedOrder != null;
+                    if (this.completedKeys.add(key)) this.completedOrder.add(key);
+                }
+
+                return null;
+            }
+
+            return entry;
+        });
+
+        if (isLate[0]) {
+            this.lateParts.increment();
+            return;
+        }
+
+        if (completed[0] != null && this.completedKeys != null) {
+            assert this.completedOrder != null;
+
+            while (this.completedKeys.size() > this.maxCompleted) {
+                K oldest = this.completedOrder.poll();
+                if (oldest == null) break;
+
+                this.completedKeys.remove(oldest);
+            }
+        }
+
+        if (this.order != null) {
+            if (completed[0] != null) {
+                // Avoid that the queue grows unboundedly when entries complete out of creation order.
+                if (created[0] == null && this.completedSinceCompaction.incrementAndGet() > Math.max(1024, this.entries.mappingCount())) {
+                    this.completedSinceCompaction.set(0);
+                    this.order.removeIf(entry -> entry.isDone);
+                }
+            } else if (created[0] != null) {
+                this.order.add(created[0]);
+            }
+
+            this.evict(System.nanoTime());
+        }
+
+        if (completed[0] != null) {
+            this.submit(completed[0]);
+        }
+    }
+
+    /**
+     * Evicts all incomplete entries that exceed the maximum age.
+     *
+     * @since   0.3.0
+     */
+    public final void evictExpired() {
+        if (this.order != null) this.evict(System.nanoTime());
+    }
+
+    /**
+     * {@return the number of incomplete entries}
+     *
+     * @since   0.3.0
+     */
+    public final long pendingCount() {
+        return this.entries.mappingCount();
+    }
+
+    /**
+     * {@return the number of incomplete entries that have been evicted}
+     *
+     * @since   0.3.0
+     */
+    public final long evictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * {@return the number of late parts that have been dropped because their key had been completed recently}
+     *
+     * @since   0.3.0
+     */
+    public final long latePartCount() {
+        return this.lateParts.sum();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Part<K> item) {
+        Flow.Subscription subscription = this.subscription;
+
+        try {
+            this.accept(item);
+        } catch (RuntimeException e) {
+            if (subscription != null) subscription.cancel();
+            this.closeExceptionally(e);
+            return;
+        }
+
+        if (subscription != null) subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        this.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        this.close();
+    }
+
+    private boolean isComplete(long[] set) {
+        for (int i = 0; i < set.length; i++) {
+            if ((set[i] & this.requiredMask[i]) != this.requiredMask[i]) return false;
+        }
+
+        return true;
+    }
+
+    private void evict(long now) {
+        assert this.order != null;
+
+        Entry<K, B> head;
+        while ((head = this.order.peek()) != null) {
+            if (!head.isDone) {
+                boolean isExpired = this.maxAgeNanos > 0 && now - head.createdNanos > this.maxAgeNanos;
+                boolean isOverflowing = this.entries.mappingCount() > this.maxPending;
+                if (!isExpired && !isOverflowing) return;
+            }
+
+            if (!this.order.remove(head)) continue;
+
+            if (!head.isDone && this.entries.remove(head.key, head)) {
+                head.isDone = true;
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * A value of a single component of the record with the given key.
+     *
+     * <p>Parts are created using the static factory methods of the generated assemblers.</p>
+     *
+     * @param <K>       the type of the key
+     * @param key       the key of the record
+     * @param component the index of the component
+     * @param value     the value of the component
+     *
+     * @since   0.3.0
+     */
+    public record Part<K>(K key, int component, @Nullable Object value) {}
+
+    private static final class Entry<K, B> {
+
+        final K key;
+        final B builder;
+        final long[] set;
+        final long createdNanos;
+
+        volatile boolean isDone;
+
+        Entry(K key, B builder, long[] set, long createdNanos) {
+            this.key = key;
+            this.builder = builder;
+            this.set = set;
+            this.createdNanos = createdNanos;
+        }
+
+    }
+
+}
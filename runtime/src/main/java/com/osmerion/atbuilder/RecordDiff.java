@@ -0,0 +1,153 @@
+package com.osmerion.atbuilder;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.BitSet;
+
+/**
+ * The component-wise difference between two instances of a record.
+ *
+ * <p>A difference consists of the set of components whose values differ, and a builder in which exactly these
+ * components are set to their new values. All other components are not set in the builder (that is, they are absent).
+ * If the record enables {@link Builder.Feature#PATCH}, the difference can thus be applied to another instance using
+ * {@code changes().applyTo(instance)}. Note that a change of an {@code Omittable} component to
+ * {@code Omittable.absent()} is reported as a change but is not represented in the builder.</p>
+ *
+ * <p>Differences are computed using the {@code diff} methods that are generated for records that enable
+ * {@link Builder.Feature#DIFF}. The components are identified by their position in the record header.</p>
+ *
+ * @param <B>   the type of the builder
+ *
+ * @see Builder.Feature#DIFF
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class RecordDiff<B> {
+
+    /**
+     * {@return the difference for a record with at most 64 components}
+     *
+     * @param <B>       the type of the builder
+     * @param mask      the bitmask of the changed components
+     * @param changes   the builder in which the changed components are set
+     *
+     * @since   0.3.0
+     */
+    public static <B> RecordDiff<B> of(long mask, B changes) {
+        return new RecordDiff<>(mask, null, changes);
+    }
+
+    /**
+     * {@return the difference for a record with any number of components}
+     *
+     * @param <B>       the type of the builder
+     * @param mask      the bit set of the changed components, in the format of {@link BitSet#toLongArray()}
+     * @param changes   the builder in which the changed components are set
+     *
+     * @since   0.3.0
+     */
+    public static <B> RecordDiff<B> of(long[] mask, B changes) {
+        return new RecordDiff<>(0L, mask.clone(), changes);
+    }
+
+    private final long mask;
+    private final long @Nullable [] words;
+    private final B changes;
+
+    private RecordDiff(long mask, long @Nullable [] words, B changes) {
+        this.mask = mask;
+        this.words = words;
+        this.changes = changes;
+    }
+
+    /**
+     * {@return whether no component has changed}
+     *
+     * @since   0.3.0
+     */
+    public boolean isEmpty() {
+        if (this.words == null) return this.mask == 0L;
+
+        for (long word : this.words) {
+            if (word != 0L) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@return whether the component at the given position has changed}
+     *
+     * @param index the position of the component in the record header
+     *
+     * @since   0.3.0
+     */
+    public boolean isChanged(int index) {
+        if (index < 0) throw new IndexOutOfBoundsException(index);
+        if (this.words == null) return index < Long.SIZE && (this.mask & (1L << index)) != 0L;
+
+        return (index >>> 6) < this.words.length && (this.words[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    /**
+     * {@return the number of changed components}
+     *
+     * @since   0.3.0
+     */
+    public int changedCount() {
+        if (this.words == null) return Long.bitCount(this.mask);
+
+        int count = 0;
+        for (long word : this.words) count += Long.bitCount(word);
+
+        return count;
+    }
+
+    /**
+     * Returns the changed components.
+     *
+     * <p>The bit at the position of a component in the record header is set if and only if the component has
+     * changed.</p>
+     *
+     * @return  a new {@link BitSet} describing the changed components
+     *
+     * @since   0.3.0
+     */
+    public BitSet changedComponents() {
+        return BitSet.valueOf(this.words != null ? this.words : new long[] { this.mask });
+    }
+
+    /**
+     * Returns the changed components as a bitmask.
+     *
+     * <p>The bit at the position of a component in the record header (that is, {@code 1L << position}) is set if and
+     * only if the component has changed.</p>
+     *
+     * @return  a bitmask describing the changed components
+     *
+     * @throws UnsupportedOperationException    if the record has more than 64 components
+     *
+     * @since   0.3.0
+     */
+    public long changedComponentsMask() {
+        if (this.words != null) throw new UnsupportedOperationException("Record has more than 64 components");
+        return this.mask;
+    }
+
+    /**
+     * {@return the builder in which exactly the changed components are set to their new values}
+     *
+     * @since   0.3.0
+     */
+    public B changes() {
+        return this.changes;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordDiff[changedComponents=" + this.changedComponents() + "]";
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.osmerion.atbuilder;
+
+import com.osmerion.omittable.Omittable;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The metadata of a record class that is required by {@link RuntimeBuilder}.
+ *
+ * <p>Instances are created once per record class and cached by {@link RuntimeBuilders}. The canonical constructor and
+ * the accessors are bound to method handles that have been adapted to erased signatures, so that they can be invoked
+ * with {@code invokeExact} without any further adaptation at the call site.</p>
+ */
+final class RecordModel {
+
+    /** The marker for required components that have not been set. */
+    static final Object UNSET = new Object();
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    static RecordModel of(Class<?> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record class");
+        }
+
+        RecordComponent[] recordComponents = type.getRecordComponents();
+        int count = recordComponents.length;
+
+        String[] names = new String[count];
+        Class<?>[] types = new Class<?>[count];
+        Class<?>[] boxedTypes = new Class<?>[count];
+        boolean[] isNullable = new boolean[count];
+        MethodHandle[] accessors = new MethodHandle[count];
+        Object[] template = new Object[count];
+        Map<String, Integer> indices = new HashMap<>(count * 2);
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                RecordComponent component = recordComponents[i];
+
+                names[i] = component.getName();
+                types[i] = component.getType();
+                boxedTypes[i] = box(component.getType());
+                isNullable[i] = !component.getType().isPrimitive()
+                    && component.getType() != Omittable.class
+                    && component.getAnnotatedType().isAnnotationPresent(Nullable.class);
+                accessors[i] = lookup.unreflect(component.getAccessor()).asType(ACCESSOR_TYPE);
+                template[i] = (component.getType() == Omittable.class) ? Omittable.absent() : UNSET;
+                indices.put(component.getName(), i);
+            }
+
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, types))
+                .asSpreader(Object[].class, count)
+                .asType(CONSTRUCTOR_TYPE);
+
+            return new RecordModel(type, names, types, boxedTypes, isNullable, accessors, template, Map.copyOf(indices), constructor);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalArgumentException("The canonical constructor and accessors of " + type.getName() + " must be public and exported", e);
+        }
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    final Class<?> type;
+    final String[] names;
+    final Class<?>[] types;
+    final Class<?>[] boxedTypes;
+    final boolean[] isNullable;
+    final MethodHandle[] accessors;
+    final Object[] template;
+    final Map<String, Integer> indices;
+    final MethodHandle constructor;
+
+    private RecordModel(
+        Class<?> type,
+        String[] names,
+        Class<?>[] types,
+        Class<?>[] boxedTypes,
+        boolean[] isNullable,
+        MethodHandle[] accessors,
+        Object[] template,
+        Map<String, Integer> indices,
+        MethodHandle constructor
+    ) {
+        this.type = type;
+        this.names = names;
+        this.types = types;
+        this.boxedTypes = boxedTypes;
+        this.isNullable = isNullable;
+        this.accessors = accessors;
+        this.template = template;
+        this.indices = indices;
+        this.constructor = constructor;
+    }
+
+    int indexOf(String name) {
+        Integer index = this.indices.get(name);
+
+        if (index == null) {
+            throw new IllegalArgumentException("Record " + this.type.getName() + " has no component '" + name + "'. Known components: " + Arrays.toString(this.names));
+        }
+
+        return index;
+    }
+
+}
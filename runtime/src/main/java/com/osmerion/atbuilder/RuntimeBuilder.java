@@ -0,0 +1,132 @@
+package com.osmerion.atbuilder;
+
+import com.osmerion.omittable.Omittable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A builder for a record class that is created at runtime.
+ *
+ * <p>Runtime builders provide the same guarantees as generated builders: a component that is not annotated with
+ * {@link Nullable @Nullable} may not be set to {@code null}, required components must be set before an instance can be
+ * built, and components of type {@link Omittable} default to {@link Omittable#absent()}. Since the components are
+ * addressed by name, the type of each value is checked when it is set.</p>
+ *
+ * <pre>{@code
+ * Person person = RuntimeBuilders.of(Person.class)
+ *     .set("name", "Alice")
+ *     .set("age", 30)
+ *     .build();
+ * }</pre>
+ *
+ * <p>Runtime builders are not thread-safe.</p>
+ *
+ * @param <R>   the type of the record
+ *
+ * @see RuntimeBuilders
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class RuntimeBuilder<R extends Record> {
+
+    private final RecordModel model;
+    private final @Nullable Object[] values;
+
+    RuntimeBuilder(RecordModel model, @Nullable Object[] values) {
+        this.model = model;
+        this.values = values;
+    }
+
+    /**
+     * Sets the value of the component with the given name.
+     *
+     * @param name  the name of the component
+     * @param value the value of the component
+     *
+     * @return  this builder instance
+     *
+     * @throws IllegalArgumentException if the record has no component with the given name, or if the value is not an
+     *                                  instance of the type of the component
+     * @throws NullPointerException     if the value is {@code null} but the component is not nullable
+     *
+     * @since   0.3.0
+     */
+    public RuntimeBuilder<R> set(String name, @Nullable Object value) {
+        return this.set(this.model.indexOf(name), value);
+    }
+
+    /**
+     * Sets the value of the component with the given index.
+     *
+     * <p>The index of a component is its position in the record header. Looking up components by index avoids the
+     * name lookup of {@link #set(String, Object)}.</p>
+     *
+     * @param index the index of the component
+     * @param value the value of the component
+     *
+     * @return  this builder instance
+     *
+     * @throws IndexOutOfBoundsException    if the index is out of bounds
+     * @throws IllegalArgumentException     if the value is not an instance of the type of the component
+     * @throws NullPointerException         if the value is {@code null} but the component is not nullable
+     *
+     * @since   0.3.0
+     */
+    public RuntimeBuilder<R> set(int index, @Nullable Object value) {
+        RecordModel model = this.model;
+
+        if (value == null) {
+            if (!model.isNullable[index]) {
+                throw new NullPointerException("Component '" + model.names[index] + "' may not be null");
+            }
+        } else if (!model.boxedTypes[index].isInstance(value)) {
+            throw new IllegalArgumentException("Component '" + model.names[index] + "' is of type " + model.types[index].getName() + " but got " + value.getClass().getName());
+        }
+
+        this.values[index] = value;
+        return this;
+    }
+
+    /**
+     * {@return whether a value has been set for the component with the given name}
+     *
+     * <p>Components of type {@link Omittable} are always considered to be set.</p>
+     *
+     * @param name  the name of the component
+     *
+     * @throws IllegalArgumentException if the record has no component with the given name
+     *
+     * @since   0.3.0
+     */
+    public boolean isSet(String name) {
+        return this.values[this.model.indexOf(name)] != RecordModel.UNSET;
+    }
+
+    /**
+     * {@return a new instance of the record with the values of this builder}
+     *
+     * @throws IllegalStateException    if a required component has not been set
+     *
+     * @since   0.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public R build() {
+        @Nullable Object[] values = this.values;
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == RecordModel.UNSET) {
+                throw new IllegalStateException("Component '" + this.model.names[i] + "' must be set");
+            }
+        }
+
+        try {
+            return (R) (Object) this.model.constructor.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to create instance of " + this.model.type.getName(), t);
+        }
+    }
+
+}
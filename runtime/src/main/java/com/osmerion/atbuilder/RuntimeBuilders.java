@@ -0,0 +1,80 @@
+package com.osmerion.atbuilder;
+
+/**
+ * Provides builders for record classes that have not been processed by the annotation processor.
+ *
+ * <p>This is primarily useful for records that are defined in third-party libraries. The metadata of a record class is
+ * computed once and cached in a {@link ClassValue}, so that creating a builder only requires copying an array of
+ * default values. Building an instance invokes the canonical constructor through a {@link java.lang.invoke.MethodHandle
+ * method handle}. Since the handle is read from the cached metadata, it is not a constant to the JIT compiler, and
+ * runtime builders should not be expected to perform like generated builders. Prefer generated builders wherever the
+ * annotation processor can be applied.</p>
+ *
+ * <p>The record class, its canonical constructor, and its accessors must be public, and the package of the record must
+ * be exported unconditionally (or the record must be in an unnamed module). A qualified export to the runtime module is
+ * not sufficient, since the metadata is resolved using the {@link java.lang.invoke.MethodHandles#publicLookup() public
+ * lookup}.</p>
+ *
+ * @see RuntimeBuilder
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class RuntimeBuilders {
+
+    private static final ClassValue<RecordModel> MODELS = new ClassValue<>() {
+
+        @Override
+        protected RecordModel computeValue(Class<?> type) {
+            return RecordModel.of(type);
+        }
+
+    };
+
+    /**
+     * {@return a new builder for the given record class}
+     *
+     * @param <R>   the type of the record
+     * @param type  the record class
+     *
+     * @throws IllegalArgumentException if the given class is not a record class or if its canonical constructor or
+     *                                  accessors are not accessible
+     *
+     * @since   0.3.0
+     */
+    public static <R extends Record> RuntimeBuilder<R> of(Class<R> type) {
+        RecordModel model = MODELS.get(type);
+        return new RuntimeBuilder<>(model, model.template.clone());
+    }
+
+    /**
+     * {@return a new builder that is initialized with the component values of the given instance}
+     *
+     * @param <R>       the type of the record
+     * @param instance  the instance to copy the component values from
+     *
+     * @throws IllegalArgumentException if the canonical constructor or accessors of the record are not accessible
+     *
+     * @since   0.3.0
+     */
+    public static <R extends Record> RuntimeBuilder<R> from(R instance) {
+        RecordModel model = MODELS.get(instance.getClass());
+        Object[] values = new Object[model.accessors.length];
+
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (Object) model.accessors[i].invokeExact((Object) instance);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to read components of " + model.type.getName(), t);
+        }
+
+        return new RuntimeBuilder<>(model, values);
+    }
+
+    private RuntimeBuilders() {}
+
+}
@@ -0,0 +1,152 @@
+package com.osmerion.atbuilder.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Waits for a set of pending component values and creates an instance once all of them are available.
+ *
+ * <p>Each pending stage is registered with the index of a slot that receives its resolved value. The completion actions
+ * of the stages may run concurrently, so that they only write their own slot and never touch the builder. Once the
+ * last stage completed, the finisher is invoked exactly once and applies the values of all slots to the builder in a
+ * single thread. The result completes exceptionally as soon as any stage completes exceptionally, or if the finisher
+ * throws (e.g. because a setter rejects a value).</p>
+ *
+ * @param <R>   the type of the assembled instance
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class AsyncAssembler<R> {
+
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+
+    /*
+     * The number of outstanding arrivals. This starts at one to account for the registration phase which is finished
+     * by calling complete().
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private final AtomicReferenceArray<@Nullable Object> values;
+
+    private final @Nullable Executor executor;
+    private final Function<? super AsyncAssembler<R>, ? extends R> finisher;
+
+    /**
+     * Creates a new assembler.
+     *
+     * @param executor  the executor to run the completion actions on, or {@code null} to run them in the thread that
+     *                  completes the respective stage
+     * @param slots     the number of slots for pending values
+     * @param finisher  the function that applies the {@link #value(int) values} of the slots and creates the instance
+     *                  once all pending values are available
+     *
+     * @since   0.3.0
+     */
+    public AsyncAssembler(@Nullable Executor executor, int slots, Function<? super AsyncAssembler<R>, ? extends R> finisher) {
+        this.values = new AtomicReferenceArray<>(slots);
+        this.executor = executor;
+        this.finisher = finisher;
+    }
+
+    /**
+     * Registers a pending value.
+     *
+     * @param slot  the index of the slot that receives the value
+     * @param stage the stage that provides the value
+     *
+     * @since   0.3.0
+     */
+    public void await(int slot, CompletionStage<?> stage) {
+        if (this.executor == null && CompletionStages.isCompletedNormally(stage)) {
+            // The value is already available. Store it right away instead of registering a completion action.
+            this.values.set(slot, CompletionStages.resultNow(stage));
+            return;
+        }
+
+        this.pending.incrementAndGet();
+
+        BiConsumer<@Nullable Object, @Nullable Throwable> action = (value, throwable) -> {
+            if (throwable != null) {
+                this.result.completeExceptionally(unwrap(throwable));
+                return;
+            }
+
+            this.values.set(slot, value);
+            this.arrive();
+        };
+
+        if (this.executor != null) {
+            stage.whenCompleteAsync(action, this.executor);
+        } else {
+            stage.whenComplete(action);
+        }
+    }
+
+    /**
+     * {@return the resolved value of the given slot}
+     *
+     * <p>This method may only be called by the finisher.</p>
+     *
+     * @param slot  the index of the slot
+     *
+     * @since   0.3.0
+     */
+    public @Nullable Object value(int slot) {
+        return this.values.get(slot);
+    }
+
+    /**
+     * Finishes the registration of pending values.
+     *
+     * @return  a future that completes with the assembled instance
+     *
+     * @since   0.3.0
+     */
+    public CompletableFuture<R> complete() {
+        if (this.pending.decrementAndGet() == 0) {
+            // All pending values (if any) are already available. Make sure the finisher still honors the executor.
+            if (this.executor != null) {
+                try {
+                    this.executor.execute(this::finish);
+                } catch (Throwable t) {
+                    this.result.completeExceptionally(t);
+                }
+            } else {
+                this.finish();
+            }
+        }
+
+        return this.result;
+    }
+
+    private void arrive() {
+        if (this.pending.decrementAndGet() == 0) {
+            this.finish();
+        }
+    }
+
+    private void finish() {
+        if (this.result.isDone()) return;
+
+        try {
+            this.result.complete(this.finisher.apply(this));
+        } catch (Throwable t) {
+            this.result.completeExceptionally(t);
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return (throwable instanceof CompletionException && throwable.getCause() != null) ? throwable.getCause() : throwable;
+    }
+
+}
@@ -0,0 +1,743 @@
+package com.osmerion.atbuilder.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Shared encoding primitives that are used by generated binary codecs.
+ *
+ * <p>Integral values are encoded as variable-length quantities (seven bits per byte, least significant group first).
+ * Signed values are {@code ZigZag}-encoded first, so that small negative values are encoded compactly as well.
+ * Floating-point values are encoded using their fixed-size IEEE 754 representation in big-endian byte order, and
+ * strings are encoded as UTF-8 bytes prefixed by their length.</p>
+ *
+ * <p>Every operation is provided for {@link DataOutput}/{@link DataInput} and for {@link ByteBuffer}. Both produce the
+ * same encoding.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class BinaryCodecs {
+
+    /*
+     * The length of a string is read before its bytes, so the buffer for the bytes grows as the bytes arrive instead of
+     * trusting the length of (possibly malicious) input.
+     */
+    private static final int STRING_CHUNK_SIZE = 8192;
+
+    /*
+     * DataOutput / DataInput
+     */
+
+    /**
+     * Writes a {@code boolean} value as a single byte.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeBoolean(DataOutput out, boolean value) throws IOException {
+        out.writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a {@code byte} value.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeByte(DataOutput out, byte value) throws IOException {
+        out.writeByte(value);
+    }
+
+    /**
+     * Writes a {@code short} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeShort(DataOutput out, short value) throws IOException {
+        writeInt(out, value);
+    }
+
+    /**
+     * Writes a {@code char} value as a variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeChar(DataOutput out, char value) throws IOException {
+        writeUnsignedInt(out, value);
+    }
+
+    /**
+     * Writes an {@code int} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeInt(DataOutput out, int value) throws IOException {
+        writeUnsignedInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a {@code long} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeLong(DataOutput out, long value) throws IOException {
+        writeUnsignedLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a {@code float} value using its fixed-size representation.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeFloat(DataOutput out, float value) throws IOException {
+        out.writeFloat(value);
+    }
+
+    /**
+     * Writes a {@code double} value using its fixed-size representation.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeDouble(DataOutput out, double value) throws IOException {
+        out.writeDouble(value);
+    }
+
+    /**
+     * Writes an {@code int} value as an unsigned variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeUnsignedInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte(value);
+    }
+
+    /**
+     * Writes a {@code long} value as an unsigned variable-length quantity.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeUnsignedLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Writes a string as UTF-8 bytes prefixed by their length.
+     *
+     * @param out   the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * {@return a {@code boolean} value that was written by {@link #writeBoolean(DataOutput, boolean)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static boolean readBoolean(DataInput in) throws IOException {
+        return in.readByte() != 0;
+    }
+
+    /**
+     * {@return a {@code byte} value that was written by {@link #writeByte(DataOutput, byte)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static byte readByte(DataInput in) throws IOException {
+        return in.readByte();
+    }
+
+    /**
+     * {@return a {@code short} value that was written by {@link #writeShort(DataOutput, short)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static short readShort(DataInput in) throws IOException {
+        return (short) readInt(in);
+    }
+
+    /**
+     * {@return a {@code char} value that was written by {@link #writeChar(DataOutput, char)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static char readChar(DataInput in) throws IOException {
+        return (char) readUnsignedInt(in);
+    }
+
+    /**
+     * {@return an {@code int} value that was written by {@link #writeInt(DataOutput, int)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static int readInt(DataInput in) throws IOException {
+        int value = readUnsignedInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * {@return a {@code long} value that was written by {@link #writeLong(DataOutput, long)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static long readLong(DataInput in) throws IOException {
+        long value = readUnsignedLong(in);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * {@return a {@code float} value that was written by {@link #writeFloat(DataOutput, float)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static float readFloat(DataInput in) throws IOException {
+        return in.readFloat();
+    }
+
+    /**
+     * {@return a {@code double} value that was written by {@link #writeDouble(DataOutput, double)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static double readDouble(DataInput in) throws IOException {
+        return in.readDouble();
+    }
+
+    /**
+     * {@return an {@code int} value that was written by {@link #writeUnsignedInt(DataOutput, int)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static int readUnsignedInt(DataInput in) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new StreamCorruptedException("Malformed variable-length quantity");
+    }
+
+    /**
+     * {@return a {@code long} value that was written by {@link #writeUnsignedLong(DataOutput, long)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static long readUnsignedLong(DataInput in) throws IOException {
+        long value = 0L;
+
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new StreamCorruptedException("Malformed variable-length quantity");
+    }
+
+    /**
+     * {@return an ordinal that was written by {@link #writeUnsignedInt(DataOutput, int)}}
+     *
+     * @param in    the input to read from
+     * @param count the number of constants of the enum
+     *
+     * @throws IOException  if an I/O error occurs
+     * @throws StreamCorruptedException if the ordinal is out of range
+     *
+     * @since   0.3.0
+     */
+    public static int readOrdinal(DataInput in, int count) throws IOException {
+        int ordinal = readUnsignedInt(in);
+        if (Integer.compareUnsigned(ordinal, count) >= 0) throw new StreamCorruptedException("Invalid ordinal: " + Integer.toUnsignedString(ordinal));
+
+        return ordinal;
+    }
+
+    /**
+     * {@return a string that was written by {@link #writeString(DataOutput, String)}}
+     *
+     * @param in    the input to read from
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public static String readString(DataInput in) throws IOException {
+        int length = readUnsignedInt(in);
+        if (length < 0) throw new StreamCorruptedException("Invalid string length: " + Integer.toUnsignedString(length));
+
+        byte[] bytes = new byte[Math.min(length, STRING_CHUNK_SIZE)];
+        in.readFully(bytes);
+
+        while (bytes.length < length) {
+            int offset = bytes.length;
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * offset));
+            in.readFully(bytes, offset, bytes.length - offset);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * ByteBuffer
+     */
+
+    /**
+     * Writes a {@code boolean} value as a single byte.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Writes a {@code byte} value.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeByte(ByteBuffer buffer, byte value) {
+        buffer.put(value);
+    }
+
+    /**
+     * Writes a {@code short} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeShort(ByteBuffer buffer, short value) {
+        writeInt(buffer, value);
+    }
+
+    /**
+     * Writes a {@code char} value as a variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeChar(ByteBuffer buffer, char value) {
+        writeUnsignedInt(buffer, value);
+    }
+
+    /**
+     * Writes an {@code int} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeInt(ByteBuffer buffer, int value) {
+        writeUnsignedInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a {@code long} value as a ZigZag-encoded variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeLong(ByteBuffer buffer, long value) {
+        writeUnsignedLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a {@code float} value using its fixed-size big-endian representation.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeFloat(ByteBuffer buffer, float value) {
+        writeFixedInt(buffer, Float.floatToIntBits(value));
+    }
+
+    /**
+     * Writes a {@code double} value using its fixed-size big-endian representation.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeDouble(ByteBuffer buffer, double value) {
+        long bits = Double.doubleToLongBits(value);
+        writeFixedInt(buffer, (int) (bits >>> 32));
+        writeFixedInt(buffer, (int) bits);
+    }
+
+    /**
+     * Writes an {@code int} value as an unsigned variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeUnsignedInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a {@code long} value as an unsigned variable-length quantity.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeUnsignedLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a string as UTF-8 bytes prefixed by their length.
+     *
+     * @param buffer    the buffer to write to
+     * @param value     the value to write
+     *
+     * @since   0.3.0
+     */
+    public static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedInt(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * {@return a {@code boolean} value that was written by {@link #writeBoolean(ByteBuffer, boolean)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static boolean readBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    /**
+     * {@return a {@code byte} value that was written by {@link #writeByte(ByteBuffer, byte)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static byte readByte(ByteBuffer buffer) {
+        return buffer.get();
+    }
+
+    /**
+     * {@return a {@code short} value that was written by {@link #writeShort(ByteBuffer, short)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static short readShort(ByteBuffer buffer) {
+        return (short) readInt(buffer);
+    }
+
+    /**
+     * {@return a {@code char} value that was written by {@link #writeChar(ByteBuffer, char)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static char readChar(ByteBuffer buffer) {
+        return (char) readUnsignedInt(buffer);
+    }
+
+    /**
+     * {@return an {@code int} value that was written by {@link #writeInt(ByteBuffer, int)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static int readInt(ByteBuffer buffer) {
+        int value = readUnsignedInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * {@return a {@code long} value that was written by {@link #writeLong(ByteBuffer, long)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static long readLong(ByteBuffer buffer) {
+        long value = readUnsignedLong(buffer);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * {@return a {@code float} value that was written by {@link #writeFloat(ByteBuffer, float)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static float readFloat(ByteBuffer buffer) {
+        return Float.intBitsToFloat(readFixedInt(buffer));
+    }
+
+    /**
+     * {@return a {@code double} value that was written by {@link #writeDouble(ByteBuffer, double)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @since   0.3.0
+     */
+    public static double readDouble(ByteBuffer buffer) {
+        long high = readFixedInt(buffer) & 0xFFFFFFFFL;
+        long low = readFixedInt(buffer) & 0xFFFFFFFFL;
+
+        return Double.longBitsToDouble((high << 32) | low);
+    }
+
+    /**
+     * {@return an {@code int} value that was written by {@link #writeUnsignedInt(ByteBuffer, int)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @throws IllegalArgumentException if the encoded value is malformed
+     *
+     * @since   0.3.0
+     */
+    public static int readUnsignedInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new IllegalArgumentException("Malformed variable-length quantity");
+    }
+
+    /**
+     * {@return a {@code long} value that was written by {@link #writeUnsignedLong(ByteBuffer, long)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @throws IllegalArgumentException if the encoded value is malformed
+     *
+     * @since   0.3.0
+     */
+    public static long readUnsignedLong(ByteBuffer buffer) {
+        long value = 0L;
+
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) return value;
+        }
+
+        throw new IllegalArgumentException("Malformed variable-length quantity");
+    }
+
+    /**
+     * {@return an ordinal that was written by {@link #writeUnsignedInt(ByteBuffer, int)}}
+     *
+     * @param buffer    the buffer to read from
+     * @param count     the number of constants of the enum
+     *
+     * @throws IllegalArgumentException if the encoded value is malformed or the ordinal is out of range
+     *
+     * @since   0.3.0
+     */
+    public static int readOrdinal(ByteBuffer buffer, int count) {
+        int ordinal = readUnsignedInt(buffer);
+        if (Integer.compareUnsigned(ordinal, count) >= 0) throw new IllegalArgumentException("Invalid ordinal: " + Integer.toUnsignedString(ordinal));
+
+        return ordinal;
+    }
+
+    /**
+     * {@return a string that was written by {@link #writeString(ByteBuffer, String)}}
+     *
+     * @param buffer    the buffer to read from
+     *
+     * @throws IllegalArgumentException if the encoded length is malformed
+     *
+     * @since   0.3.0
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = readUnsignedInt(buffer);
+        if (length < 0) throw new IllegalArgumentException("Invalid string length: " + Integer.toUnsignedString(length));
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * The fixed-size values are always encoded in big-endian byte order to match DataOutput, regardless of the byte
+     * order of the buffer.
+     */
+
+    private static void writeFixedInt(ByteBuffer buffer, int value) {
+        buffer.put((byte) (value >>> 24))
+            .put((byte) (value >>> 16))
+            .put((byte) (value >>> 8))
+            .put((byte) value);
+    }
+
+    private static int readFixedInt(ByteBuffer buffer) {
+        return ((buffer.get() & 0xFF) << 24)
+            | ((buffer.get() & 0xFF) << 16)
+            | ((buffer.get() & 0xFF) << 8)
+            | (buffer.get() & 0xFF);
+    }
+
+    private BinaryCodecs() {}
+
+}
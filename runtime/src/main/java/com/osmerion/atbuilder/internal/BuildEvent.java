@@ -0,0 +1,52 @@
+package com.osmerion.atbuilder.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A JFR event that is emitted when a generated builder successfully created an instance.
+ *
+ * <p>The duration of the event covers the validation of the builder's state and the invocation of the canonical
+ * constructor.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+@Name("com.osmerion.atbuilder.Build")
+@Label("Build")
+@Category("AtBuilder")
+@Description("An instance was created by a builder")
+public final class BuildEvent extends Event {
+
+    @Label("Record Type")
+    private @Nullable Class<?> recordType;
+
+    /**
+     * Ends the timing of this event and commits it, if it is enabled.
+     *
+     * @param <T>       the type of the instance
+     * @param instance  the instance that was created
+     *
+     * @return  the given instance
+     *
+     * @since   0.3.0
+     */
+    public <T> T complete(T instance) {
+        if (this.isEnabled()) {
+            this.end();
+
+            if (this.shouldCommit()) {
+                this.recordType = instance.getClass();
+                this.commit();
+            }
+        }
+
+        return instance;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.osmerion.atbuilder.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A JFR event that is emitted when a generated builder failed to create an instance.
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+@Name("com.osmerion.atbuilder.BuildFailure")
+@Label("Build Failure")
+@Category("AtBuilder")
+@Description("A builder failed to create an instance")
+public final class BuildFailureEvent extends Event {
+
+    /**
+     * Commits a new event for the given failure, if the event is enabled.
+     *
+     * @param recordType    the type of the record that should have been created
+     * @param failure       the exception that was thrown
+     *
+     * @since   0.3.0
+     */
+    public static void emit(Class<?> recordType, Throwable failure) {
+        BuildFailureEvent event = new BuildFailureEvent();
+
+        if (event.isEnabled()) {
+            event.recordType = recordType;
+            event.failureType = failure.getClass();
+            event.message = failure.getMessage();
+            event.commit();
+        }
+    }
+
+    @Label("Record Type")
+    private @Nullable Class<?> recordType;
+
+    @Label("Failure Type")
+    private @Nullable Class<?> failureType;
+
+    @Label("Message")
+    private @Nullable String message;
+
+}
@@ -0,0 +1,34 @@
+package com.osmerion.atbuilder.internal;
+
+import com.osmerion.atbuilder.BuilderFactory;
+
+import java.util.List;
+
+/**
+ * A registry of the builders that have been generated for the records in a package.
+ *
+ * <p>Implementations are generated by the annotation processor when the {@code atbuilder.registry} option is enabled
+ * and are listed in the {@value #INDEX_RESOURCE} resource together with the records they provide builders for. Each
+ * line of the resource has the form {@code <record binary name>=<registry binary name>}.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public interface BuilderRegistry {
+
+    /**
+     * The name of the resource that maps records to the registries that provide their builders.
+     *
+     * @since   0.3.0
+     */
+    String INDEX_RESOURCE = "META-INF/atbuilder/index";
+
+    /**
+     * {@return the factories of the builders in this registry}
+     *
+     * @since   0.3.0
+     */
+    List<BuilderFactory<?, ?>> factories();
+
+}
@@ -0,0 +1,40 @@
+package com.osmerion.atbuilder.internal;
+
+import com.osmerion.omittable.Omittable;
+
+/**
+ * Shared checks that are used by generated builders.
+ *
+ * <p>Builders that are generated with the {@code startup} strategy call into these helpers instead of emitting a lambda
+ * per component. This avoids one synthetic method and one {@code invokedynamic} bootstrap per component.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class Checks {
+
+    /**
+     * Returns the value of a required component.
+     *
+     * @param <T>   the type of the component
+     * @param value the value of the component
+     * @param name  the name of the component
+     *
+     * @return  the value of the component
+     *
+     * @throws IllegalStateException    if the value is absent
+     *
+     * @since   0.3.0
+     */
+    public static <T> T requireComponent(Omittable<T> value, String name) {
+        if (!value.isPresent()) {
+            throw new IllegalStateException("Component '" + name + "' must be set");
+        }
+
+        return value.orElseThrow();
+    }
+
+    private Checks() {}
+
+}
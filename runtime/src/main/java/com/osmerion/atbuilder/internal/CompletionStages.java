@@ -0,0 +1,37 @@
+package com.osmerion.atbuilder.internal;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking queries of the state of {@link CompletionStage}s.
+ *
+ * <p>The runtime is a multi-release JAR. On Java 17, the state of an arbitrary stage cannot be queried without
+ * registering a completion action, and this class never reports a stage as completed. The variant for Java 21 and later
+ * uses {@link java.util.concurrent.Future#state()} instead.</p>
+ *
+ * @author  Leon Linhart
+ */
+final class CompletionStages {
+
+    /**
+     * {@return whether the given stage is known to have completed normally}
+     *
+     * @param stage the stage to query
+     */
+    static boolean isCompletedNormally(CompletionStage<?> stage) {
+        return false;
+    }
+
+    /**
+     * {@return the value of the given stage which must have completed normally}
+     *
+     * @param <T>   the type of the value
+     * @param stage the stage to query
+     */
+    static <T> T resultNow(CompletionStage<? extends T> stage) {
+        throw new IllegalStateException("Stage has not completed normally");
+    }
+
+    private CompletionStages() {}
+
+}
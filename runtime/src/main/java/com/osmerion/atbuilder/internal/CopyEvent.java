@@ -0,0 +1,42 @@
+package com.osmerion.atbuilder.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A JFR event that is emitted when a generated builder is initialized from an existing instance.
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+@Name("com.osmerion.atbuilder.Copy")
+@Label("Copy")
+@Category("AtBuilder")
+@Description("A builder was initialized from an existing instance")
+public final class CopyEvent extends Event {
+
+    /**
+     * Commits a new event for the given record type, if the event is enabled.
+     *
+     * @param recordType    the type of the record that was copied
+     *
+     * @since   0.3.0
+     */
+    public static void emit(Class<?> recordType) {
+        CopyEvent event = new CopyEvent();
+
+        if (event.isEnabled()) {
+            event.recordType = recordType;
+            event.commit();
+        }
+    }
+
+    @Label("Record Type")
+    private @Nullable Class<?> recordType;
+
+}
@@ -0,0 +1,515 @@
+package com.osmerion.atbuilder.internal;
+
+/**
+ * A minimal pull parser for JSON documents that is used by generated JSON codecs.
+ *
+ * <p>The parser operates on an in-memory {@link CharSequence} and does not allocate intermediate token objects. Values
+ * are consumed in document order using the {@code next*} methods, and unknown values can be skipped using
+ * {@link #skipValue()}. Malformed input is reported as an {@link IllegalArgumentException} that contains the offset at
+ * which parsing failed.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class JsonReader {
+
+    private final CharSequence input;
+    private int position;
+    private boolean needsSeparator;
+
+    /**
+     * Creates a new reader for the given input.
+     *
+     * @param input the input to read
+     *
+     * @since   0.3.0
+     */
+    public JsonReader(CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * Consumes the beginning of an object.
+     *
+     * @throws IllegalArgumentException if the next value is not an object
+     *
+     * @since   0.3.0
+     */
+    public void beginObject() {
+        this.expect('{', "an object");
+        this.needsSeparator = false;
+    }
+
+    /**
+     * Consumes the end of the current object.
+     *
+     * @throws IllegalArgumentException if the current object has more members
+     *
+     * @since   0.3.0
+     */
+    public void endObject() {
+        this.expect('}', "the end of the object");
+        this.needsSeparator = true;
+    }
+
+    /**
+     * {@return whether the current object has more members}
+     *
+     * @throws IllegalArgumentException if the input is malformed
+     *
+     * @since   0.3.0
+     */
+    public boolean hasNext() {
+        this.skipWhitespace();
+        if (this.peek() == '}') return false;
+
+        if (this.needsSeparator) {
+            this.expect(',', "',' or '}'");
+            this.needsSeparator = false;
+        }
+
+        return true;
+    }
+
+    /**
+     * {@return the name of the next member of the current object}
+     *
+     * @throws IllegalArgumentException if the input is malformed
+     *
+     * @since   0.3.0
+     */
+    public String nextName() {
+        this.skipWhitespace();
+        String name = this.readString("a member name");
+        this.expect(':', "':'");
+
+        return name;
+    }
+
+    /**
+     * Consumes the next value if it is {@code null}.
+     *
+     * @return  whether the next value was {@code null}
+     *
+     * @since   0.3.0
+     */
+    public boolean nextNull() {
+        this.skipWhitespace();
+        if (!this.consumeLiteral("null")) return false;
+
+        this.needsSeparator = true;
+        return true;
+    }
+
+    /**
+     * {@return the next value as {@code boolean}}
+     *
+     * @throws IllegalArgumentException if the next value is not a boolean
+     *
+     * @since   0.3.0
+     */
+    public boolean nextBoolean() {
+        this.skipWhitespace();
+
+        boolean value;
+        if (this.consumeLiteral("true")) {
+            value = true;
+        } else if (this.consumeLiteral("false")) {
+            value = false;
+        } else {
+            throw this.error("Expected a boolean");
+        }
+
+        this.needsSeparator = true;
+        return value;
+    }
+
+    /**
+     * {@return the next value as {@code byte}}
+     *
+     * @throws IllegalArgumentException if the next value is not an integer in the range of {@code byte}
+     *
+     * @since   0.3.0
+     */
+    public byte nextByte() {
+        int start = this.position;
+        int value = this.nextInt();
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) throw this.error("Value out of range for byte", start);
+
+        return (byte) value;
+    }
+
+    /**
+     * {@return the next value as {@code short}}
+     *
+     * @throws IllegalArgumentException if the next value is not an integer in the range of {@code short}
+     *
+     * @since   0.3.0
+     */
+    public short nextShort() {
+        int start = this.position;
+        int value = this.nextInt();
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) throw this.error("Value out of range for short", start);
+
+        return (short) value;
+    }
+
+    /**
+     * {@return the next value as {@code char}}
+     *
+     * @throws IllegalArgumentException if the next value is not a string of length one
+     *
+     * @since   0.3.0
+     */
+    public char nextChar() {
+        int start = this.position;
+        String value = this.nextString();
+        if (value.length() != 1) throw this.error("Expected a string of length 1", start);
+
+        return value.charAt(0);
+    }
+
+    /**
+     * {@return the next value as {@code int}}
+     *
+     * @throws IllegalArgumentException if the next value is not an integer in the range of {@code int}
+     *
+     * @since   0.3.0
+     */
+    public int nextInt() {
+        this.skipWhitespace();
+        int start = this.position;
+        int end = this.scanNumber(true);
+
+        try {
+            int value = Integer.parseInt(this.input, start, end, 10);
+            this.position = end;
+            this.needsSeparator = true;
+
+            return value;
+        } catch (NumberFormatException e) {
+            throw this.error("Expected an integer in the range of int", start);
+        }
+    }
+
+    /**
+     * {@return the next value as {@code long}}
+     *
+     * @throws IllegalArgumentException if the next value is not an integer in the range of {@code long}
+     *
+     * @since   0.3.0
+     */
+    public long nextLong() {
+        this.skipWhitespace();
+        int start = this.position;
+        int end = this.scanNumber(true);
+
+        try {
+            long value = Long.parseLong(this.input, start, end, 10);
+            this.position = end;
+            this.needsSeparator = true;
+
+            return value;
+        } catch (NumberFormatException e) {
+            throw this.error("Expected an integer in the range of long", start);
+        }
+    }
+
+    /**
+     * {@return the next value as {@code float}}
+     *
+     * @throws IllegalArgumentException if the next value is not a number
+     *
+     * @since   0.3.0
+     */
+    public float nextFloat() {
+        this.skipWhitespace();
+        int start = this.position;
+        int end = this.scanNumber(false);
+
+        // The value is parsed directly since rounding it to a double first may round the float incorrectly.
+        try {
+            float value = Float.parseFloat(this.input.subSequence(start, end).toString());
+            this.position = end;
+            this.needsSeparator = true;
+
+            return value;
+        } catch (NumberFormatException e) {
+            throw this.error("Expected a number", start);
+        }
+    }
+
+    /**
+     * {@return the next value as {@code double}}
+     *
+     * @throws IllegalArgumentException if the next value is not a number
+     *
+     * @since   0.3.0
+     */
+    public double nextDouble() {
+        this.skipWhitespace();
+        int start = this.position;
+        int end = this.scanNumber(false);
+
+        try {
+            double value = Double.parseDouble(this.input.subSequence(start, end).toString());
+            this.position = end;
+            this.needsSeparator = true;
+
+            return value;
+        } catch (NumberFormatException e) {
+            throw this.error("Expected a number", start);
+        }
+    }
+
+    /**
+     * {@return the next value as {@code String}}
+     *
+     * @throws IllegalArgumentException if the next value is not a string
+     *
+     * @since   0.3.0
+     */
+    public String nextString() {
+        this.skipWhitespace();
+        String value = this.readString("a string");
+        this.needsSeparator = true;
+
+        return value;
+    }
+
+    /**
+     * Skips the next value including all nested values.
+     *
+     * @throws IllegalArgumentException if the input is malformed
+     *
+     * @since   0.3.0
+     */
+    public void skipValue() {
+        this.skipWhitespace();
+        int depth = 0;
+
+        do {
+            this.skipWhitespace();
+
+            switch (this.peek()) {
+                case '{', '[' -> {
+                    this.position++;
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (depth == 0) throw this.error("Expected a value");
+
+                    this.position++;
+                    depth--;
+                }
+                case ',', ':' -> {
+                    if (depth == 0) throw this.error("Expected a value");
+                    this.position++;
+                }
+                case '"' -> this.readString("a string");
+                case 't' -> {
+                    if (!this.consumeLiteral("true")) throw this.error("Expected a value");
+                }
+                case 'f' -> {
+                    if (!this.consumeLiteral("false")) throw this.error("Expected a value");
+                }
+                case 'n' -> {
+                    if (!this.consumeLiteral("null")) throw this.error("Expected a value");
+                }
+                default -> {
+                    int start = this.position;
+                    this.position = this.scanNumber(false);
+                    if (this.position == start) throw this.error("Expected a value");
+                }
+            }
+        } while (depth > 0);
+
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Verifies that the remaining input consists of whitespace only.
+     *
+     * @throws IllegalArgumentException if there is any non-whitespace input remaining
+     *
+     * @since   0.3.0
+     */
+    public void endDocument() {
+        this.skipWhitespace();
+        if (this.position != this.input.length()) throw this.error("Expected the end of the document");
+    }
+
+    private void skipWhitespace() {
+        CharSequence input = this.input;
+        int position = this.position;
+
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') break;
+
+            position++;
+        }
+
+        this.position = position;
+    }
+
+    private int peek() {
+        return this.position < this.input.length() ? this.input.charAt(this.position) : -1;
+    }
+
+    private void expect(char expected, String description) {
+        this.skipWhitespace();
+        if (this.peek() != expected) throw this.error("Expected " + description);
+
+        this.position++;
+    }
+
+    private boolean consumeLiteral(String literal) {
+        int end = this.position + literal.length();
+        if (end > this.input.length()) return false;
+
+        for (int i = 0; i < literal.length(); i++) {
+            if (this.input.charAt(this.position + i) != literal.charAt(i)) return false;
+        }
+
+        if (end < this.input.length() && Character.isLetterOrDigit(this.input.charAt(end))) return false;
+
+        this.position = end;
+        return true;
+    }
+
+    /*
+     * Returns the end of the number that starts at the current position. The number must match the JSON number grammar
+     * -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)? and only integers are accepted if isIntegral is set.
+     */
+    private int scanNumber(boolean isIntegral) {
+        CharSequence input = this.input;
+        int end = this.position;
+
+        if (end < input.length() && input.charAt(end) == '-') end++;
+
+        if (end < input.length() && input.charAt(end) == '0') {
+            end++;
+        } else {
+            int digitsEnd = this.skipDigits(end);
+            if (digitsEnd == end) throw this.error(isIntegral ? "Expected an integer" : "Expected a number");
+
+            end = digitsEnd;
+        }
+
+        if (end < input.length() && input.charAt(end) == '.') {
+            if (isIntegral) throw this.error("Expected an integer");
+
+            int digitsEnd = this.skipDigits(++end);
+            if (digitsEnd == end) throw this.error("Malformed number");
+
+            end = digitsEnd;
+        }
+
+        if (end < input.length() && (input.charAt(end) == 'e' || input.charAt(end) == 'E')) {
+            if (isIntegral) throw this.error("Expected an integer");
+
+            end++;
+            if (end < input.length() && (input.charAt(end) == '+' || input.charAt(end) == '-')) end++;
+
+            int digitsEnd = this.skipDigits(end);
+            if (digitsEnd == end) throw this.error("Malformed number");
+
+            end = digitsEnd;
+        }
+
+        // Reject numbers that continue after a valid prefix, such as "01" or "1-2".
+        if (end < input.length()) {
+            char c = input.charAt(end);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') throw this.error("Malformed number");
+        }
+
+        return end;
+    }
+
+    private int skipDigits(int position) {
+        CharSequence input = this.input;
+        int end = position;
+
+        while (end < input.length() && input.charAt(end) >= '0' && input.charAt(end) <= '9') end++;
+        return end;
+    }
+
+    private String readString(String description) {
+        if (this.peek() != '"') throw this.error("Expected " + description);
+
+        CharSequence input = this.input;
+        int start = ++this.position;
+        int position = start;
+
+        // Fast path: strings without escape sequences are copied in one go.
+        while (position < input.length()) {
+            char c = input.charAt(position);
+
+            if (c == '"') {
+                this.position = position + 1;
+                return input.subSequence(start, position).toString();
+            } else if (c == '\\') {
+                break;
+            } else if (c < 0x20) {
+                throw this.error("Unescaped control character in string", position);
+            }
+
+            position++;
+        }
+
+        StringBuilder sb = new StringBuilder(position - start + 16).append(input, start, position);
+
+        while (position < input.length()) {
+            char c = input.charAt(position++);
+
+            if (c == '"') {
+                this.position = position;
+                return sb.toString();
+            } else if (c < 0x20) {
+                throw this.error("Unescaped control character in string", position - 1);
+            } else if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if (position >= input.length()) break;
+
+            char escaped = input.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (position + 4 > input.length()) throw this.error("Incomplete unicode escape sequence", position - 2);
+
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(input.charAt(position++), 16);
+                        if (digit < 0) throw this.error("Invalid unicode escape sequence", position - 1);
+
+                        value = (value << 4) | digit;
+                    }
+
+                    sb.append((char) value);
+                }
+                default -> throw this.error("Invalid escape sequence", position - 2);
+            }
+        }
+
+        throw this.error("Unterminated string", start - 1);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return this.error(message, this.position);
+    }
+
+    private IllegalArgumentException error(String message, int position) {
+        return new IllegalArgumentException(message + " at offset " + position);
+    }
+
+}
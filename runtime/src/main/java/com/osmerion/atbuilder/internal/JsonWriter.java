@@ -0,0 +1,209 @@
+package com.osmerion.atbuilder.internal;
+
+import java.io.IOException;
+
+/**
+ * A minimal streaming JSON writer that is used by generated JSON codecs.
+ *
+ * <p>The writer does not validate the structure of the written document. Generated codecs only write objects, so that
+ * the writer merely needs to track whether a separator is required before the next member.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class JsonWriter {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    private boolean needsSeparator;
+
+    /**
+     * Creates a new writer that appends to the given output.
+     *
+     * @param out   the output to append to
+     *
+     * @since   0.3.0
+     */
+    public JsonWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Begins a new object.
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void beginObject() throws IOException {
+        this.out.append('{');
+        this.needsSeparator = false;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void endObject() throws IOException {
+        this.out.append('}');
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name  the name of the member
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void name(String name) throws IOException {
+        if (this.needsSeparator) this.out.append(',');
+
+        this.writeString(name);
+        this.out.append(':');
+        this.needsSeparator = false;
+    }
+
+    /**
+     * Writes a {@code null} value.
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void nullValue() throws IOException {
+        this.out.append("null");
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes a {@code boolean} value.
+     *
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(boolean value) throws IOException {
+        this.out.append(value ? "true" : "false");
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes a {@code char} value as a string of length one.
+     *
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(char value) throws IOException {
+        this.writeString(String.valueOf(value));
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes an integral value.
+     *
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(long value) throws IOException {
+        if (this.out instanceof StringBuilder sb) {
+            sb.append(value);
+        } else {
+            this.out.append(Long.toString(value));
+        }
+
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes a {@code float} value.
+     *
+     * @param value the value to write
+     *
+     * @throws IllegalArgumentException if the value is not finite
+     * @throws IOException              if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(float value) throws IOException {
+        if (!Float.isFinite(value)) throw new IllegalArgumentException("JSON does not support non-finite numbers: " + value);
+
+        this.out.append(Float.toString(value));
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes a {@code double} value.
+     *
+     * @param value the value to write
+     *
+     * @throws IllegalArgumentException if the value is not finite
+     * @throws IOException              if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(double value) throws IOException {
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("JSON does not support non-finite numbers: " + value);
+
+        this.out.append(Double.toString(value));
+        this.needsSeparator = true;
+    }
+
+    /**
+     * Writes a string value.
+     *
+     * @param value the value to write
+     *
+     * @throws IOException  if an I/O error occurs
+     *
+     * @since   0.3.0
+     */
+    public void value(String value) throws IOException {
+        this.writeString(value);
+        this.needsSeparator = true;
+    }
+
+    private void writeString(String value) throws IOException {
+        Appendable out = this.out;
+        out.append('"');
+
+        int start = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+
+            out.append(value, start, i);
+            start = i + 1;
+
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> out.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            }
+        }
+
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.osmerion.atbuilder.internal;
+
+import com.osmerion.omittable.Omittable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The static metadata of a builder that is generated with the {@code shared} strategy.
+ *
+ * <p>Builders that are generated with the {@code shared} strategy are thin facades: they store the values of all
+ * components in a single array of slots and delegate all operations on the slots to one instance of this class per
+ * record. The logic is thus loaded only once instead of being duplicated in every builder class, and the generated
+ * builders contain neither lambdas nor per-component helper methods.</p>
+ *
+ * <p>A slot is {@code null} if no value has been set for the respective component. Values that are {@code null} are
+ * stored as a sentinel.</p>
+ *
+ * @since   0.3.0
+ *
+ * @author  Leon Linhart
+ */
+public final class SlotLayout {
+
+    private static final Object NULL = new Object();
+
+    private final String[] nullMessages;
+    private final String[] missingMessages;
+    private final int[] requiredIndices;
+
+    /**
+     * Creates a new layout.
+     *
+     * @param componentNames    the names of the components in declaration order
+     * @param requiredIndices   the indices of the components that must be set before an instance can be built
+     *
+     * @since   0.3.0
+     */
+    public SlotLayout(String[] componentNames, int[] requiredIndices) {
+        this.nullMessages = new String[componentNames.length];
+        this.missingMessages = new String[componentNames.length];
+        this.requiredIndices = requiredIndices.clone();
+
+        for (int i = 0; i < componentNames.length; i++) {
+            this.nullMessages[i] = "Component '" + componentNames[i] + "' may not be null";
+            this.missingMessages[i] = "Component '" + componentNames[i] + "' must be set";
+        }
+    }
+
+    /**
+     * {@return a new array of slots in which no component is set}
+     *
+     * @since   0.3.0
+     */
+    public @Nullable Object[] newSlots() {
+        return new Object[this.nullMessages.length];
+    }
+
+    /**
+     * {@return whether a value has been set for the component with the given index}
+     *
+     * @param slots the slots of the builder
+     * @param index the index of the component
+     *
+     * @since   0.3.0
+     */
+    public boolean isSet(@Nullable Object[] slots, int index) {
+        return slots[index] != null;
+    }
+
+    /**
+     * Returns the value of the component with the given index.
+     *
+     * @param <T>   the type of the component
+     * @param slots the slots of the builder
+     * @param index the index of the component
+     *
+     * @return  the value of the component, or {@code null} if the value is {@code null} or has not been set
+     *
+     * @since   0.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends @Nullable Object> T get(@Nullable Object[] slots, int index) {
+        Object value = slots[index];
+        return (T) (value == NULL ? null : value);
+    }
+
+    /**
+     * Returns the value of the {@link Omittable} component with the given index.
+     *
+     * @param <T>   the type of the component
+     * @param slots the slots of the builder
+     * @param index the index of the component
+     *
+     * @return  the value of the component, or {@link Omittable#absent()} if the value has not been set
+     *
+     * @since   0.3.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Omittable<?>> T getOmittable(@Nullable Object[] slots, int index) {
+        Object value = slots[index];
+        return (T) (value != null ? value : Omittable.absent());
+    }
+
+    /**
+     * Sets the value of the component with the given index.
+     *
+     * @param slots the slots of the builder
+     * @param index the index of the component
+     * @param value the value of the component
+     *
+     * @since   0.3.0
+     */
+    public void set(@Nullable Object[] slots, int index, @Nullable Object value) {
+        slots[index] = value != null ? value : NULL;
+    }
+
+    /**
+     * Checks that the given value of the component with the given index is not {@code null}.
+     *
+     * @param <T>   the type of the component
+     * @param value the value to check
+     * @param index the index of the component
+     *
+     * @return  the value
+     *
+     * @throws NullPointerException if the value is {@code null}
+     *
+     * @since   0.3.0
+     */
+    public <T> T requireNonNull(@Nullable T value, int index) {
+        if (value == null) throw new NullPointerException(this.nullMessages[index]);
+        return value;
+    }
+
+    /**
+     * Checks that all required components have been set.
+     *
+     * @param slots the slots of the builder
+     *
+     * @throws IllegalStateException    if a required component has not been set
+     *
+     * @since   0.3.0
+     */
+    public void checkRequired(@Nullable Object[] slots) {
+        for (int index : this.requiredIndices) {
+            if (slots[index] == null) throw new IllegalStateException(this.missingMessages[index]);
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Support classes that are used by generated builders.
+ *
+ * <p>The types in this package are not part of the public API. They exist solely to be referenced by code generated by
+ * the AtBuilder annotation processor and may change incompatibly between releases.</p>
+ *
+ * @since   0.3.0
+ */
+package com.osmerion.atbuilder.internal;
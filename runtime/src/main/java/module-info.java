@@ -11,6 +11,9 @@ module com.osmerion.atbuilder {
     requires transitive com.osmerion.omittable;
     requires transitive org.jspecify;
 
+    requires static jdk.jfr;
+
     exports com.osmerion.atbuilder;
+    exports com.osmerion.atbuilder.internal;
 
 }
@@ -44,5 +44,6 @@ dependencyResolutionManagement {
 enableFeaturePreview("STABLE_CONFIGURATION_CACHE")
 enableFeaturePreview("TYPESAFE_PROJECT_ACCESSORS")
 
+include(":benchmarks")
 include(":processor")
 include(":runtime")